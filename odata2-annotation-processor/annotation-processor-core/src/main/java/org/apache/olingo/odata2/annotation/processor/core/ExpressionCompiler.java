@@ -0,0 +1,770 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.annotation.processor.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.olingo.odata2.annotation.processor.core.datasource.ValueAccess;
+import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
+import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.BinaryOperator;
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
+import org.apache.olingo.odata2.api.uri.expression.MemberExpression;
+import org.apache.olingo.odata2.api.uri.expression.MethodExpression;
+import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
+import org.apache.olingo.odata2.api.uri.expression.OrderExpression;
+import org.apache.olingo.odata2.api.uri.expression.PropertyExpression;
+import org.apache.olingo.odata2.api.uri.expression.SortOrder;
+import org.apache.olingo.odata2.api.uri.expression.UnaryExpression;
+
+/**
+ * Compiles <code>$filter</code> and <code>$orderby</code> expressions into trees of typed evaluation nodes
+ * which are then applied to all data objects of a request.
+ * <p>Values are held in their natural Java representation during evaluation:
+ * integral numbers as {@link Long}, decimals as {@link BigDecimal}, floating-point numbers as {@link Double},
+ * date-time values as {@link Calendar}, times as milliseconds since midnight, and all other values in their
+ * string representation.</p>
+ */
+final class ExpressionCompiler {
+
+  private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+  private final ValueAccess valueAccess;
+
+  ExpressionCompiler(final ValueAccess valueAccess) {
+    this.valueAccess = valueAccess;
+  }
+
+  /**
+   * Compiled <code>$filter</code> expression.
+   */
+  interface CompiledFilter {
+    /**
+     * Checks whether the filter applies for the given data object.
+     * @param data the data object
+     * @return <code>true</code> if the filter expression evaluates to <code>true</code>
+     * @throws ODataException if a value could not be retrieved
+     */
+    boolean appliesTo(Object data) throws ODataException;
+  }
+
+  /**
+   * Compiled <code>$orderby</code> expression.
+   */
+  interface CompiledOrderBy {
+    /**
+     * Sorts the data objects. The sort keys of every data object are evaluated only once.
+     * @param data the data objects
+     * @throws ODataException if a value could not be retrieved
+     */
+    <T> void sort(List<T> data) throws ODataException;
+  }
+
+  /**
+   * Compiles a <code>$filter</code> expression.
+   * @param filter the filter expression
+   * @return the compiled filter
+   * @throws ODataException if the expression contains unsupported parts
+   */
+  CompiledFilter compileFilter(final FilterExpression filter) throws ODataException {
+    final Node node = compile(filter.getExpression());
+    return new CompiledFilter() {
+      @Override
+      public boolean appliesTo(final Object data) throws ODataException {
+        try {
+          return data != null && Boolean.TRUE.equals(node.evaluate(data));
+        } catch (final RuntimeException e) {
+          return false;
+        }
+      }
+    };
+  }
+
+  /**
+   * Compiles an <code>$orderby</code> expression.
+   * Null values are sorted after all other values in ascending order.
+   * @param orderBy the order-by expression
+   * @return the compiled order-by expression
+   * @throws ODataException if the expression contains unsupported parts
+   */
+  CompiledOrderBy compileOrderBy(final OrderByExpression orderBy) throws ODataException {
+    final List<OrderExpression> orders = orderBy.getOrders();
+    final Node[] nodes = new Node[orders.size()];
+    final boolean[] descending = new boolean[orders.size()];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = compile(orders.get(i).getExpression());
+      descending[i] = orders.get(i).getSortOrder() == SortOrder.desc;
+    }
+
+    final Comparator<SortEntry> comparator = new Comparator<SortEntry>() {
+      @Override
+      public int compare(final SortEntry entry1, final SortEntry entry2) {
+        for (int i = 0; i < nodes.length; i++) {
+          final Object first = entry1.keys[i];
+          final Object second = entry2.keys[i];
+          int result;
+          if (first == null) {
+            result = second == null ? 0 : 1;
+          } else {
+            result = second == null ? -1 : compareValues(first, second);
+          }
+          if (result != 0) {
+            return descending[i] ? -result : result;
+          }
+        }
+        return 0;
+      }
+    };
+
+    return new CompiledOrderBy() {
+      @Override
+      public <T> void sort(final List<T> data) throws ODataException {
+        List<SortEntry> entries = new ArrayList<SortEntry>(data.size());
+        for (final T element : data) {
+          Object[] keys = new Object[nodes.length];
+          for (int i = 0; i < nodes.length; i++) {
+            keys[i] = evaluateSortKey(nodes[i], element);
+          }
+          entries.add(new SortEntry(element, keys));
+        }
+        Collections.sort(entries, comparator);
+        ListIterator<T> iterator = data.listIterator();
+        for (final SortEntry entry : entries) {
+          iterator.next();
+          @SuppressWarnings("unchecked")
+          final T element = (T) entry.data;
+          iterator.set(element);
+        }
+      }
+    };
+  }
+
+  private static Object evaluateSortKey(final Node node, final Object data) throws ODataException {
+    try {
+      return node.evaluate(data);
+    } catch (final RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static final class SortEntry {
+    private final Object data;
+    private final Object[] keys;
+
+    private SortEntry(final Object data, final Object[] keys) {
+      this.data = data;
+      this.keys = keys;
+    }
+  }
+
+  /** Node of a compiled expression tree. */
+  private abstract static class Node {
+    /**
+     * Evaluates the node for a data object.
+     * @return the value in its normalized representation or <code>null</code>
+     */
+    abstract Object evaluate(Object data) throws ODataException;
+  }
+
+  private static final class ConstantNode extends Node {
+    private final Object value;
+
+    private ConstantNode(final Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(final Object data) {
+      return value;
+    }
+  }
+
+  private Node compile(final CommonExpression expression) throws ODataException {
+    switch (expression.getKind()) {
+    case UNARY:
+      return compileUnary((UnaryExpression) expression);
+    case BINARY:
+      return compileBinary((BinaryExpression) expression);
+    case PROPERTY:
+      return compileProperty(Collections.singletonList(
+          (EdmProperty) ((PropertyExpression) expression).getEdmProperty()), (EdmSimpleType) expression.getEdmType());
+    case MEMBER:
+      return compileMember((MemberExpression) expression);
+    case LITERAL:
+      final LiteralExpression literal = (LiteralExpression) expression;
+      final EdmSimpleType literalType = (EdmSimpleType) literal.getEdmType();
+      return new ConstantNode(normalize(literalType, getKind(literalType), literalType.valueOfString(
+          literal.getUriLiteral(), EdmLiteralKind.URI, null, literalType.getDefaultType()), null));
+    case METHOD:
+      return compileMethod((MethodExpression) expression);
+    default:
+      throw new ODataNotImplementedException();
+    }
+  }
+
+  private Node compileUnary(final UnaryExpression expression) throws ODataException {
+    final Node operand = compile(expression.getOperand());
+    switch (expression.getOperator()) {
+    case NOT:
+      return new Node() {
+        @Override
+        Object evaluate(final Object data) throws ODataException {
+          final Object value = operand.evaluate(data);
+          return value == null ? null : !((Boolean) value);
+        }
+      };
+    case MINUS:
+      return new Node() {
+        @Override
+        Object evaluate(final Object data) throws ODataException {
+          final Object value = operand.evaluate(data);
+          if (value instanceof Long) {
+            return -((Long) value);
+          } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).negate();
+          } else if (value instanceof Double) {
+            return -((Double) value);
+          }
+          return value;
+        }
+      };
+    default:
+      throw new ODataNotImplementedException();
+    }
+  }
+
+  private Node compileBinary(final BinaryExpression expression) throws ODataException {
+    final BinaryOperator operator = expression.getOperator();
+    if (operator == BinaryOperator.PROPERTY_ACCESS) {
+      throw new ODataNotImplementedException();
+    }
+    final Node left = compile(expression.getLeftOperand());
+    final Node right = compile(expression.getRightOperand());
+
+    switch (operator) {
+    case AND:
+      return new Node() {
+        @Override
+        Object evaluate(final Object data) throws ODataException {
+          return Boolean.TRUE.equals(left.evaluate(data)) && Boolean.TRUE.equals(right.evaluate(data));
+        }
+      };
+    case OR:
+      return new Node() {
+        @Override
+        Object evaluate(final Object data) throws ODataException {
+          return Boolean.TRUE.equals(left.evaluate(data)) || Boolean.TRUE.equals(right.evaluate(data));
+        }
+      };
+    case EQ:
+    case NE:
+      final boolean equals = operator == BinaryOperator.EQ;
+      return new Node() {
+        @Override
+        Object evaluate(final Object data) throws ODataException {
+          final Object first = left.evaluate(data);
+          final Object second = right.evaluate(data);
+          return valuesEqual(first, second) == equals;
+        }
+      };
+    case LT:
+    case LE:
+    case GT:
+    case GE:
+      return new ComparisonNode(operator, left, right);
+    case ADD:
+    case SUB:
+    case MUL:
+    case DIV:
+    case MODULO:
+      return new ArithmeticNode(operator, getKind(expression.getEdmType()), left, right);
+    default:
+      throw new ODataNotImplementedException();
+    }
+  }
+
+  private static final class ComparisonNode extends Node {
+    private final BinaryOperator operator;
+    private final Node left;
+    private final Node right;
+
+    private ComparisonNode(final BinaryOperator operator, final Node left, final Node right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Object data) throws ODataException {
+      final Object first = left.evaluate(data);
+      final Object second = right.evaluate(data);
+      if (first == null || second == null) {
+        return false;
+      }
+      final int result = compareValues(first, second);
+      switch (operator) {
+      case LT:
+        return result < 0;
+      case LE:
+        return result <= 0;
+      case GT:
+        return result > 0;
+      default:
+        return result >= 0;
+      }
+    }
+  }
+
+  private static final class ArithmeticNode extends Node {
+    private final BinaryOperator operator;
+    private final EdmSimpleTypeKind kind;
+    private final Node left;
+    private final Node right;
+
+    private ArithmeticNode(final BinaryOperator operator, final EdmSimpleTypeKind kind,
+        final Node left, final Node right) {
+      this.operator = operator;
+      this.kind = kind;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Object data) throws ODataException {
+      final Number first = (Number) left.evaluate(data);
+      final Number second = (Number) right.evaluate(data);
+      if (first == null || second == null) {
+        return null;
+      }
+      if (kind == EdmSimpleTypeKind.Decimal) {
+        final BigDecimal a = toBigDecimal(first);
+        final BigDecimal b = toBigDecimal(second);
+        switch (operator) {
+        case ADD:
+          return a.add(b);
+        case SUB:
+          return a.subtract(b);
+        case MUL:
+          return a.multiply(b);
+        case DIV:
+          return a.divide(b, MathContext.DECIMAL128);
+        default:
+          return a.remainder(b);
+        }
+      } else if (kind == EdmSimpleTypeKind.Double || kind == EdmSimpleTypeKind.Single) {
+        final double a = first.doubleValue();
+        final double b = second.doubleValue();
+        switch (operator) {
+        case ADD:
+          return a + b;
+        case SUB:
+          return a - b;
+        case MUL:
+          return a * b;
+        case DIV:
+          return a / b;
+        default:
+          return a % b;
+        }
+      } else {
+        final long a = first.longValue();
+        final long b = second.longValue();
+        switch (operator) {
+        case ADD:
+          return a + b;
+        case SUB:
+          return a - b;
+        case MUL:
+          return a * b;
+        case DIV:
+          // no integer division; e.g., 25 div 2 is 12.5 and 1 div 0 is Infinity
+          return (double) a / b;
+        default:
+          return a % b;
+        }
+      }
+    }
+  }
+
+  private Node compileMember(final MemberExpression expression) throws ODataException {
+    final List<EdmProperty> propertyPath = new ArrayList<EdmProperty>();
+    CommonExpression currentExpression = expression;
+    while (currentExpression != null) {
+      final PropertyExpression currentPropertyExpression =
+          (PropertyExpression) (currentExpression.getKind() == ExpressionKind.MEMBER ?
+              ((MemberExpression) currentExpression).getProperty() : currentExpression);
+      final EdmTyped currentProperty = currentPropertyExpression.getEdmProperty();
+      final EdmTypeKind kind = currentProperty.getType().getKind();
+      if (kind == EdmTypeKind.SIMPLE || kind == EdmTypeKind.COMPLEX) {
+        propertyPath.add(0, (EdmProperty) currentProperty);
+      } else {
+        throw new ODataNotImplementedException();
+      }
+      currentExpression =
+          currentExpression.getKind() == ExpressionKind.MEMBER ? ((MemberExpression) currentExpression).getPath()
+              : null;
+    }
+    return compileProperty(propertyPath, (EdmSimpleType) expression.getEdmType());
+  }
+
+  private Node compileProperty(final List<EdmProperty> propertyPath, final EdmSimpleType type)
+      throws ODataException {
+    final EdmProperty[] path = propertyPath.toArray(new EdmProperty[propertyPath.size()]);
+    final EdmFacets facets = path[path.length - 1].getFacets();
+    final EdmSimpleTypeKind kind = getKind(type);
+    return new Node() {
+      @Override
+      Object evaluate(final Object data) throws ODataException {
+        Object value = data;
+        for (final EdmProperty property : path) {
+          if (value == null) {
+            return null;
+          }
+          value = valueAccess.getPropertyValue(value, property);
+        }
+        return normalize(type, kind, value, facets);
+      }
+    };
+  }
+
+  private Node compileMethod(final MethodExpression expression) throws ODataException {
+    final List<CommonExpression> parameters = expression.getParameters();
+    final Node first = compile(parameters.get(0));
+    final Node second = parameters.size() > 1 ? compile(parameters.get(1)) : null;
+    final Node third = parameters.size() > 2 ? compile(parameters.get(2)) : null;
+
+    switch (expression.getMethod()) {
+    case ENDSWITH:
+    case INDEXOF:
+    case STARTSWITH:
+    case SUBSTRINGOF:
+    case CONCAT:
+      return new StringMethodNode(expression, first, second, null);
+    case TOLOWER:
+    case TOUPPER:
+    case TRIM:
+    case LENGTH:
+      return new StringMethodNode(expression, first, null, null);
+    case SUBSTRING:
+      return new StringMethodNode(expression, first, second, third);
+    case YEAR:
+    case MONTH:
+    case DAY:
+    case HOUR:
+    case MINUTE:
+    case SECOND:
+      return new DatePartNode(expression, first);
+    case ROUND:
+    case FLOOR:
+    case CEILING:
+      return new RoundingNode(expression, first);
+    default:
+      throw new ODataNotImplementedException();
+    }
+  }
+
+  private static final class StringMethodNode extends Node {
+    private final MethodExpression expression;
+    private final Node first;
+    private final Node second;
+    private final Node third;
+
+    private StringMethodNode(final MethodExpression expression, final Node first, final Node second,
+        final Node third) {
+      this.expression = expression;
+      this.first = first;
+      this.second = second;
+      this.third = third;
+    }
+
+    @Override
+    Object evaluate(final Object data) throws ODataException {
+      final String string = (String) first.evaluate(data);
+      if (string == null) {
+        return null;
+      }
+      switch (expression.getMethod()) {
+      case TOLOWER:
+        return string.toLowerCase(Locale.ROOT);
+      case TOUPPER:
+        return string.toUpperCase(Locale.ROOT);
+      case TRIM:
+        return string.trim();
+      case LENGTH:
+        return Long.valueOf(string.length());
+      case SUBSTRING:
+        final int offset = ((Number) second.evaluate(data)).intValue();
+        return third == null ? string.substring(offset) :
+            string.substring(offset, offset + ((Number) third.evaluate(data)).intValue());
+      default:
+        break;
+      }
+
+      final String other = (String) second.evaluate(data);
+      if (other == null) {
+        return null;
+      }
+      switch (expression.getMethod()) {
+      case ENDSWITH:
+        return string.endsWith(other);
+      case INDEXOF:
+        return Long.valueOf(string.indexOf(other));
+      case STARTSWITH:
+        return string.startsWith(other);
+      case SUBSTRINGOF:
+        return other.contains(string);
+      default:
+        return string.concat(other);
+      }
+    }
+  }
+
+  private static final class DatePartNode extends Node {
+    private final int field;
+    private final Node operand;
+
+    private DatePartNode(final MethodExpression expression, final Node operand) {
+      switch (expression.getMethod()) {
+      case YEAR:
+        field = Calendar.YEAR;
+        break;
+      case MONTH:
+        field = Calendar.MONTH;
+        break;
+      case DAY:
+        field = Calendar.DAY_OF_MONTH;
+        break;
+      case HOUR:
+        field = Calendar.HOUR_OF_DAY;
+        break;
+      case MINUTE:
+        field = Calendar.MINUTE;
+        break;
+      default:
+        field = Calendar.SECOND;
+        break;
+      }
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Object data) throws ODataException {
+      final Object value = operand.evaluate(data);
+      Calendar calendar;
+      if (value instanceof Calendar) {
+        calendar = (Calendar) value;
+      } else if (value instanceof Long) {
+        // time of day
+        calendar = Calendar.getInstance(GMT);
+        calendar.clear();
+        calendar.setTimeInMillis((Long) value);
+      } else {
+        return null;
+      }
+      return Long.valueOf(field == Calendar.MONTH ? calendar.get(field) + 1 : calendar.get(field));
+    }
+  }
+
+  private static final class RoundingNode extends Node {
+    private final MethodExpression expression;
+    private final Node operand;
+
+    private RoundingNode(final MethodExpression expression, final Node operand) {
+      this.expression = expression;
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Object data) throws ODataException {
+      final Object value = operand.evaluate(data);
+      if (value instanceof BigDecimal) {
+        switch (expression.getMethod()) {
+        case ROUND:
+          return ((BigDecimal) value).setScale(0, RoundingMode.HALF_UP);
+        case FLOOR:
+          return ((BigDecimal) value).setScale(0, RoundingMode.FLOOR);
+        default:
+          return ((BigDecimal) value).setScale(0, RoundingMode.CEILING);
+        }
+      } else if (value instanceof Double) {
+        switch (expression.getMethod()) {
+        case ROUND:
+          return (double) Math.round((Double) value);
+        case FLOOR:
+          return Math.floor((Double) value);
+        default:
+          return Math.ceil((Double) value);
+        }
+      }
+      return value;
+    }
+  }
+
+  private static EdmSimpleTypeKind getKind(final EdmType type) {
+    for (final EdmSimpleTypeKind kind : EdmSimpleTypeKind.values()) {
+      if (kind != EdmSimpleTypeKind.Null && type == kind.getEdmSimpleTypeInstance()) {
+        return kind;
+      }
+    }
+    return EdmSimpleTypeKind.Null;
+  }
+
+  /**
+   * Converts a value into the representation used during evaluation.
+   */
+  private static Object normalize(final EdmSimpleType type, final EdmSimpleTypeKind kind, final Object value,
+      final EdmFacets facets) throws ODataException {
+    if (value == null) {
+      return null;
+    }
+    switch (kind) {
+    case Byte:
+    case SByte:
+    case Int16:
+    case Int32:
+    case Int64:
+      return value instanceof Number ? Long.valueOf(((Number) value).longValue()) :
+          Long.valueOf(type.valueToString(value, EdmLiteralKind.DEFAULT, facets));
+    case Decimal:
+      return value instanceof Number ? toBigDecimal((Number) value) :
+          new BigDecimal(type.valueToString(value, EdmLiteralKind.DEFAULT, facets));
+    case Double:
+    case Single:
+      return value instanceof Number ? Double.valueOf(((Number) value).doubleValue()) :
+          Double.valueOf(type.valueToString(value, EdmLiteralKind.DEFAULT, facets));
+    case Boolean:
+      return value instanceof Boolean ? value :
+          Boolean.valueOf(type.valueToString(value, EdmLiteralKind.DEFAULT, facets));
+    case DateTime:
+      final Calendar dateTime = Calendar.getInstance(GMT);
+      dateTime.setTimeInMillis(getTimeInMillis(type, value, facets));
+      return dateTime;
+    case DateTimeOffset:
+      if (value instanceof Calendar) {
+        return value;
+      }
+      final Calendar dateTimeOffset = value instanceof Date ? Calendar.getInstance() : Calendar.getInstance(GMT);
+      dateTimeOffset.setTimeInMillis(getTimeInMillis(type, value, facets));
+      return dateTimeOffset;
+    case Time:
+      if (value instanceof Long) {
+        return value;
+      }
+      Calendar time;
+      if (value instanceof Calendar) {
+        time = (Calendar) value;
+      } else if (value instanceof Date) {
+        time = Calendar.getInstance();
+        time.setTime((Date) value);
+      } else {
+        return type.valueToString(value, EdmLiteralKind.DEFAULT, facets);
+      }
+      return Long.valueOf((((time.get(Calendar.HOUR_OF_DAY) * 60L + time.get(Calendar.MINUTE)) * 60
+          + time.get(Calendar.SECOND)) * 1000 + time.get(Calendar.MILLISECOND)) % MILLIS_PER_DAY);
+    case String:
+      return value instanceof String ? value : type.valueToString(value, EdmLiteralKind.DEFAULT, facets);
+    default:
+      // Internal literal types like Bit and Uint7 do not have a kind.
+      if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+        return Long.valueOf(((Number) value).longValue());
+      } else if (value instanceof Float || value instanceof Double) {
+        return Double.valueOf(((Number) value).doubleValue());
+      } else if (value instanceof Number) {
+        return toBigDecimal((Number) value);
+      } else if (value instanceof Boolean) {
+        return value;
+      }
+      return type.valueToString(value, EdmLiteralKind.DEFAULT, facets);
+    }
+  }
+
+  private static long getTimeInMillis(final EdmSimpleType type, final Object value, final EdmFacets facets)
+      throws ODataException {
+    if (value instanceof Calendar) {
+      return ((Calendar) value).getTimeInMillis();
+    } else if (value instanceof Date) {
+      return ((Date) value).getTime();
+    } else if (value instanceof Long) {
+      return (Long) value;
+    }
+    return type.valueOfString(type.valueToString(value, EdmLiteralKind.DEFAULT, facets), EdmLiteralKind.DEFAULT,
+        facets, Calendar.class).getTimeInMillis();
+  }
+
+  private static BigDecimal toBigDecimal(final Number number) {
+    if (number instanceof BigDecimal) {
+      return (BigDecimal) number;
+    } else if (number instanceof BigInteger) {
+      return new BigDecimal((BigInteger) number);
+    } else if (number instanceof Double || number instanceof Float) {
+      return BigDecimal.valueOf(number.doubleValue());
+    }
+    return BigDecimal.valueOf(number.longValue());
+  }
+
+  private static boolean valuesEqual(final Object first, final Object second) {
+    if (first == null || second == null) {
+      return first == second;
+    } else if (first instanceof Number && second instanceof Number
+        || first instanceof Calendar && second instanceof Calendar) {
+      return compareValues(first, second) == 0;
+    }
+    return first.equals(second);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(final Object first, final Object second) {
+    if (first instanceof Number && second instanceof Number) {
+      if (first instanceof Long && second instanceof Long) {
+        final long a = (Long) first;
+        final long b = (Long) second;
+        return a < b ? -1 : a == b ? 0 : 1;
+      } else if (first instanceof Double || second instanceof Double) {
+        return Double.compare(((Number) first).doubleValue(), ((Number) second).doubleValue());
+      }
+      return toBigDecimal((Number) first).compareTo(toBigDecimal((Number) second));
+    }
+    return ((Comparable<Object>) first).compareTo(second);
+  }
+}
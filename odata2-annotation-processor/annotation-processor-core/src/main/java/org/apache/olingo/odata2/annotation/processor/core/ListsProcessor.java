@@ -24,18 +24,20 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.olingo.odata2.annotation.processor.core.ExpressionCompiler.CompiledFilter;
 import org.apache.olingo.odata2.annotation.processor.core.datasource.DataSource;
 import org.apache.olingo.odata2.annotation.processor.core.datasource.DataSource.BinaryData;
+import org.apache.olingo.odata2.annotation.processor.core.datasource.IndexedDataSource;
 import org.apache.olingo.odata2.annotation.processor.core.datasource.ValueAccess;
 import org.apache.olingo.odata2.api.ODataCallback;
 import org.apache.olingo.odata2.api.batch.BatchHandler;
-import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartExecutor;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpContentType;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
@@ -58,7 +60,6 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.edm.EdmStructuralType;
 import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.edm.EdmTypeKind;
-import org.apache.olingo.odata2.api.edm.EdmTyped;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
@@ -78,7 +79,6 @@ import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataHttpException;
 import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
-import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -88,17 +88,13 @@ import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathInfo;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.BinaryOperator;
 import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
-import org.apache.olingo.odata2.api.uri.expression.MemberExpression;
-import org.apache.olingo.odata2.api.uri.expression.MethodExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
-import org.apache.olingo.odata2.api.uri.expression.OrderExpression;
 import org.apache.olingo.odata2.api.uri.expression.PropertyExpression;
-import org.apache.olingo.odata2.api.uri.expression.SortOrder;
-import org.apache.olingo.odata2.api.uri.expression.UnaryExpression;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetComplexPropertyUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
@@ -140,7 +136,8 @@ public class ListsProcessor extends DataSourceProcessor {
           uriInfo.getKeyPredicates(),
           uriInfo.getFunctionImport(),
           mapFunctionParameters(uriInfo.getFunctionImportParameters()),
-          uriInfo.getNavigationSegments()));
+          uriInfo.getNavigationSegments(),
+          uriInfo.getFilter()));
     } catch (final ODataNotFoundException e) {
       data.clear();
     }
@@ -228,7 +225,8 @@ public class ListsProcessor extends DataSourceProcessor {
           uriInfo.getKeyPredicates(),
           uriInfo.getFunctionImport(),
           mapFunctionParameters(uriInfo.getFunctionImportParameters()),
-          uriInfo.getNavigationSegments()));
+          uriInfo.getNavigationSegments(),
+          uriInfo.getFilter()));
     } catch (final ODataNotFoundException e) {
       data.clear();
     }
@@ -256,7 +254,8 @@ public class ListsProcessor extends DataSourceProcessor {
           uriInfo.getKeyPredicates(),
           uriInfo.getFunctionImport(),
           mapFunctionParameters(uriInfo.getFunctionImportParameters()),
-          uriInfo.getNavigationSegments()));
+          uriInfo.getNavigationSegments(),
+          uriInfo.getFilter()));
     } catch (final ODataNotFoundException e) {
       data.clear();
     }
@@ -315,7 +314,7 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
@@ -338,8 +337,8 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    return ODataResponse.fromResponse(EntityProvider.writeText(appliesFilter(data, uriInfo.getFilter()) ? "1" : "0"))
-        .build();
+    final boolean exists = appliesFilter(data, compileFilter(uriInfo.getFilter()));
+    return ODataResponse.fromResponse(EntityProvider.writeText(exists ? "1" : "0")).build();
   }
 
   @Override
@@ -409,7 +408,7 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
@@ -422,6 +421,7 @@ public class ListsProcessor extends DataSourceProcessor {
     final ODataEntry entryValues = parseEntry(entitySet, content, requestContentType, properties);
 
     setStructuralTypeValuesFromMap(data, entityType, entryValues.getProperties(), merge);
+    updateData(entitySet, data);
 
     return ODataResponse.newBuilder().eTag(constructETag(entitySet, data)).build();
   }
@@ -539,7 +539,7 @@ public class ListsProcessor extends DataSourceProcessor {
 
     final Object targetData = dataSource.readRelatedData(entitySet, sourceData, targetEntitySet, keys);
 
-    if (!appliesFilter(targetData, uriInfo.getFilter())) {
+    if (!appliesFilter(targetData, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
@@ -629,9 +629,11 @@ public class ListsProcessor extends DataSourceProcessor {
     final List<EdmProperty> propertyPath = uriInfo.getPropertyPath();
     final EdmProperty property = propertyPath.get(propertyPath.size() - 1);
 
+    final Object entityData = data;
     data = getPropertyValue(data, propertyPath.subList(0, propertyPath.size() - 1));
     valueAccess.setPropertyValue(data, property, null);
     valueAccess.setMappingValue(data, property.getMapping(), null);
+    updateData(uriInfo.getTargetEntitySet(), entityData);
 
     return ODataResponse.newBuilder().build();
   }
@@ -646,13 +648,14 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
     final List<EdmProperty> propertyPath = uriInfo.getPropertyPath();
     final EdmProperty property = propertyPath.get(propertyPath.size() - 1);
 
+    final Object entityData = data;
     data = getPropertyValue(data, propertyPath.subList(0, propertyPath.size() - 1));
 
     ODataContext context = getContext();
@@ -678,6 +681,7 @@ public class ListsProcessor extends DataSourceProcessor {
       setStructuralTypeValuesFromMap(valueAccess.getPropertyValue(data, property),
           (EdmStructuralType) property.getType(), propertyValue, merge);
     }
+    updateData(uriInfo.getTargetEntitySet(), entityData);
 
     return ODataResponse.newBuilder().eTag(constructETag(uriInfo.getTargetEntitySet(), data)).build();
   }
@@ -698,13 +702,14 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
     final List<EdmProperty> propertyPath = uriInfo.getPropertyPath();
     final EdmProperty property = propertyPath.get(propertyPath.size() - 1);
 
+    final Object entityData = data;
     data = getPropertyValue(data, propertyPath.subList(0, propertyPath.size() - 1));
 
     ODataContext context = getContext();
@@ -721,6 +726,7 @@ public class ListsProcessor extends DataSourceProcessor {
 
     valueAccess.setPropertyValue(data, property, value);
     valueAccess.setMappingValue(data, property.getMapping(), requestContentType);
+    updateData(uriInfo.getTargetEntitySet(), entityData);
 
     return ODataResponse.newBuilder().eTag(constructETag(uriInfo.getTargetEntitySet(), data)).build();
   }
@@ -735,7 +741,7 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
@@ -780,7 +786,7 @@ public class ListsProcessor extends DataSourceProcessor {
         mapFunctionParameters(uriInfo.getFunctionImportParameters()),
         uriInfo.getNavigationSegments());
 
-    if (!appliesFilter(data, uriInfo.getFilter())) {
+    if (!appliesFilter(data, compileFilter(uriInfo.getFilter()))) {
       throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
     }
 
@@ -924,6 +930,67 @@ public class ListsProcessor extends DataSourceProcessor {
     return data;
   }
 
+  /**
+   * Retrieves the data of an entity set, as {@link #retrieveData(EdmEntitySet, List, EdmFunctionImport, Map, List)}
+   * does, but reads only the candidates for the filter from an index if the data source has an index which fits.
+   */
+  private Object retrieveData(final EdmEntitySet startEntitySet, final List<KeyPredicate> keyPredicates,
+      final EdmFunctionImport functionImport, final Map<String, Object> functionImportParameters,
+      final List<NavigationSegment> navigationSegments, final FilterExpression filter) throws ODataException {
+    if (dataSource instanceof IndexedDataSource && filter != null && functionImport == null
+        && keyPredicates.isEmpty() && navigationSegments.isEmpty()) {
+      final List<?> data = readDataByIndex(startEntitySet, filter.getExpression());
+      if (data != null) {
+        return data;
+      }
+    }
+    return retrieveData(startEntitySet, keyPredicates, functionImport, functionImportParameters, navigationSegments);
+  }
+
+  /**
+   * Reads data with the help of an index for a filter expression which requires a property to be equal
+   * to a literal, possibly as part of a conjunction; returns <code>null</code> if no index can be used.
+   */
+  private List<?> readDataByIndex(final EdmEntitySet entitySet, final CommonExpression expression)
+      throws ODataException {
+    if (expression.getKind() != ExpressionKind.BINARY) {
+      return null;
+    }
+    final BinaryExpression binaryExpression = (BinaryExpression) expression;
+    final CommonExpression left = binaryExpression.getLeftOperand();
+    final CommonExpression right = binaryExpression.getRightOperand();
+    if (binaryExpression.getOperator() == BinaryOperator.AND) {
+      final List<?> data = readDataByIndex(entitySet, left);
+      return data == null ? readDataByIndex(entitySet, right) : data;
+    } else if (binaryExpression.getOperator() == BinaryOperator.EQ) {
+      if (left.getKind() == ExpressionKind.PROPERTY && right.getKind() == ExpressionKind.LITERAL) {
+        return readDataByIndex(entitySet, (PropertyExpression) left, (LiteralExpression) right);
+      } else if (left.getKind() == ExpressionKind.LITERAL && right.getKind() == ExpressionKind.PROPERTY) {
+        return readDataByIndex(entitySet, (PropertyExpression) right, (LiteralExpression) left);
+      }
+    }
+    return null;
+  }
+
+  private List<?> readDataByIndex(final EdmEntitySet entitySet, final PropertyExpression property,
+      final LiteralExpression literal) throws ODataException {
+    if (literal.getEdmType() == EdmSimpleTypeKind.Null.getEdmSimpleTypeInstance()
+        || !(property.getEdmProperty() instanceof EdmProperty)) {
+      return null;
+    }
+    return ((IndexedDataSource) dataSource).readData(entitySet, (EdmProperty) property.getEdmProperty(),
+        EdmSimpleTypeKind.parseUriLiteral(literal.getUriLiteral()));
+  }
+
+  /**
+   * Reports a data object which has been changed in place to the data source if it keeps indexes.
+   */
+  private <T> void updateData(final EdmEntitySet entitySet, final T data) throws ODataException {
+    if (dataSource instanceof IndexedDataSource) {
+      ((IndexedDataSource) dataSource).updateData(entitySet, data);
+    }
+  }
+
   private <T> String constructETag(final EdmEntitySet entitySet, final T data) throws ODataException {
     final EdmEntityType entityType = entitySet.getEntityType();
     String eTag = null;
@@ -956,6 +1023,7 @@ public class ListsProcessor extends DataSourceProcessor {
 
   private class WriteCallback implements OnWriteEntryContent, OnWriteFeedContent {
     private final Object data;
+    private Map<List<Object>, Object> entryDataByKey;
 
     private <T> WriteCallback(final T data) {
       this.data = data;
@@ -1031,21 +1099,30 @@ public class ListsProcessor extends DataSourceProcessor {
           Collections.<String, Object> emptyMap());
     }
 
-    private <T> T readEntryData(final List<T> data, final EdmEntityType entityType, final Map<String, Object> key)
+    /**
+     * Finds the entry with the given key in the list of data; the list is indexed by key at the first call
+     * so that looking up all entries of a feed does not take quadratic time.
+     */
+    private Object readEntryData(final List<?> data, final EdmEntityType entityType, final Map<String, Object> key)
         throws ODataException {
-      for (final T entryData : data) {
-        boolean found = true;
-        for (final EdmProperty keyProperty : entityType.getKeyProperties()) {
-          if (!valueAccess.getPropertyValue(entryData, keyProperty).equals(key.get(keyProperty.getName()))) {
-            found = false;
-            break;
+      final List<EdmProperty> keyProperties = entityType.getKeyProperties();
+      if (entryDataByKey == null) {
+        entryDataByKey = new HashMap<List<Object>, Object>();
+        for (final Object entryData : data) {
+          List<Object> keyValues = new ArrayList<Object>(keyProperties.size());
+          for (final EdmProperty keyProperty : keyProperties) {
+            keyValues.add(valueAccess.getPropertyValue(entryData, keyProperty));
+          }
+          if (!entryDataByKey.containsKey(keyValues)) {
+            entryDataByKey.put(keyValues, entryData);
           }
-        }
-        if (found) {
-          return entryData;
         }
       }
-      return null;
+      List<Object> keyValues = new ArrayList<Object>(keyProperties.size());
+      for (final EdmProperty keyProperty : keyProperties) {
+        keyValues.add(key.get(keyProperty.getName()));
+      }
+      return entryDataByKey.get(keyValues);
     }
   }
 
@@ -1183,43 +1260,40 @@ public class ListsProcessor extends DataSourceProcessor {
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "applySystemQueryOptions");
 
     if (filter != null) {
-      // Remove all elements the filter does not apply for.
-      // A for-each loop would not work with "remove", see Java documentation.
-      for (Iterator<T> iterator = data.iterator(); iterator.hasNext();) {
-        if (!appliesFilter(iterator.next(), filter)) {
-          iterator.remove();
+      // Keep only the elements the filter applies for; the filter is compiled once for all elements.
+      final CompiledFilter compiledFilter = compileFilter(filter);
+      List<T> filteredData = new ArrayList<T>();
+      for (final T element : data) {
+        if (compiledFilter.appliesTo(element)) {
+          filteredData.add(element);
         }
       }
+      data.clear();
+      data.addAll(filteredData);
     }
 
     final Integer count = inlineCount == InlineCount.ALLPAGES ? data.size() : null;
 
     if (orderBy != null) {
-      sort(data, orderBy);
+      new ExpressionCompiler(valueAccess).compileOrderBy(orderBy).sort(data);
     } else if (skipToken != null || skip != null || top != null) {
       sortInDefaultOrder(entitySet, data);
     }
 
     if (skipToken != null) {
-      while (!data.isEmpty() && !getSkipToken(entitySet, data.get(0)).equals(skipToken)) {
-        data.remove(0);
+      int index = 0;
+      while (index < data.size() && !getSkipToken(entitySet, data.get(index)).equals(skipToken)) {
+        index++;
       }
+      data.subList(0, index).clear();
     }
 
     if (skip != null) {
-      if (skip >= data.size()) {
-        data.clear();
-      } else {
-        for (int i = 0; i < skip; i++) {
-          data.remove(0);
-        }
-      }
+      data.subList(0, Math.min(skip, data.size())).clear();
     }
 
-    if (top != null) {
-      while (data.size() > top) {
-        data.remove(top.intValue());
-      }
+    if (top != null && data.size() > top) {
+      data.subList(top, data.size()).clear();
     }
 
     context.stopRuntimeMeasurement(timingHandle);
@@ -1227,40 +1301,6 @@ public class ListsProcessor extends DataSourceProcessor {
     return count;
   }
 
-  private <T> void sort(final List<T> data, final OrderByExpression orderBy) {
-    Collections.sort(data, new Comparator<T>() {
-      @Override
-      public int compare(final T entity1, final T entity2) {
-        try {
-          int result = 0;
-          for (final OrderExpression expression : orderBy.getOrders()) {
-            String first = evaluateExpression(entity1, expression.getExpression());
-            String second = evaluateExpression(entity2, expression.getExpression());
-
-            if (first != null && second != null) {
-              result = first.compareTo(second);
-            } else if (first == null && second != null) {
-              result = 1;
-            } else if (first != null && second == null) {
-              result = -1;
-            }
-
-            if (expression.getSortOrder() == SortOrder.desc) {
-              result = -result;
-            }
-
-            if (result != 0) {
-              break;
-            }
-          }
-          return result;
-        } catch (final ODataException e) {
-          return 0;
-        }
-      }
-    });
-  }
-
   private <T> void sortInDefaultOrder(final EdmEntitySet entitySet, final List<T> data) {
     Collections.sort(data, new Comparator<T>() {
       @Override
@@ -1274,226 +1314,21 @@ public class ListsProcessor extends DataSourceProcessor {
     });
   }
 
-  private <T> boolean appliesFilter(final T data, final FilterExpression filter) throws ODataException {
+  private CompiledFilter compileFilter(final FilterExpression filter) throws ODataException {
+    return filter == null ? null : new ExpressionCompiler(valueAccess).compileFilter(filter);
+  }
+
+  private <T> boolean appliesFilter(final T data, final CompiledFilter filter) throws ODataException {
     ODataContext context = getContext();
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "appliesFilter");
 
     try {
-      return data != null && (filter == null || "true".equals(evaluateExpression(data, filter.getExpression())));
-    } catch (final RuntimeException e) {
-      return false;
+      return data != null && (filter == null || filter.appliesTo(data));
     } finally {
       context.stopRuntimeMeasurement(timingHandle);
     }
   }
 
-  private <T> String evaluateExpression(final T data, final CommonExpression expression) throws ODataException {
-    switch (expression.getKind()) {
-    case UNARY:
-      final UnaryExpression unaryExpression = (UnaryExpression) expression;
-      final String operand = evaluateExpression(data, unaryExpression.getOperand());
-
-      switch (unaryExpression.getOperator()) {
-      case NOT:
-        return Boolean.toString(!Boolean.parseBoolean(operand));
-      case MINUS:
-        return operand.startsWith("-") ? operand.substring(1) : "-" + operand;
-      default:
-        throw new ODataNotImplementedException();
-      }
-
-    case BINARY:
-      final BinaryExpression binaryExpression = (BinaryExpression) expression;
-      final EdmSimpleType type = (EdmSimpleType) binaryExpression.getLeftOperand().getEdmType();
-      final String left = evaluateExpression(data, binaryExpression.getLeftOperand());
-      final String right = evaluateExpression(data, binaryExpression.getRightOperand());
-
-      switch (binaryExpression.getOperator()) {
-      case ADD:
-        if (binaryExpression.getEdmType() == EdmSimpleTypeKind.Decimal.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Double.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Single.getEdmSimpleTypeInstance()) {
-          return Double.toString(Double.valueOf(left) + Double.valueOf(right));
-        } else {
-          return Long.toString(Long.valueOf(left) + Long.valueOf(right));
-        }
-      case SUB:
-        if (binaryExpression.getEdmType() == EdmSimpleTypeKind.Decimal.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Double.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Single.getEdmSimpleTypeInstance()) {
-          return Double.toString(Double.valueOf(left) - Double.valueOf(right));
-        } else {
-          return Long.toString(Long.valueOf(left) - Long.valueOf(right));
-        }
-      case MUL:
-        if (binaryExpression.getEdmType() == EdmSimpleTypeKind.Decimal.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Double.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Single.getEdmSimpleTypeInstance()) {
-          return Double.toString(Double.valueOf(left) * Double.valueOf(right));
-        } else {
-          return Long.toString(Long.valueOf(left) * Long.valueOf(right));
-        }
-      case DIV:
-        final String number = Double.toString(Double.valueOf(left) / Double.valueOf(right));
-        return number.endsWith(".0") ? number.replace(".0", "") : number;
-      case MODULO:
-        if (binaryExpression.getEdmType() == EdmSimpleTypeKind.Decimal.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Double.getEdmSimpleTypeInstance()
-            || binaryExpression.getEdmType() == EdmSimpleTypeKind.Single.getEdmSimpleTypeInstance()) {
-          return Double.toString(Double.valueOf(left) % Double.valueOf(right));
-        } else {
-          return Long.toString(Long.valueOf(left) % Long.valueOf(right));
-        }
-      case AND:
-        return Boolean.toString("true".equals(left) && "true".equals(right));
-      case OR:
-        return Boolean.toString("true".equals(left) || "true".equals(right));
-      case EQ:
-        return Boolean.toString(left.equals(right));
-      case NE:
-        return Boolean.toString(!left.equals(right));
-      case LT:
-        if (type == EdmSimpleTypeKind.String.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTimeOffset.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Guid.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Time.getEdmSimpleTypeInstance()) {
-          return Boolean.toString(left.compareTo(right) < 0);
-        } else {
-          return Boolean.toString(Double.valueOf(left) < Double.valueOf(right));
-        }
-      case LE:
-        if (type == EdmSimpleTypeKind.String.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTimeOffset.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Guid.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Time.getEdmSimpleTypeInstance()) {
-          return Boolean.toString(left.compareTo(right) <= 0);
-        } else {
-          return Boolean.toString(Double.valueOf(left) <= Double.valueOf(right));
-        }
-      case GT:
-        if (type == EdmSimpleTypeKind.String.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTimeOffset.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Guid.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Time.getEdmSimpleTypeInstance()) {
-          return Boolean.toString(left.compareTo(right) > 0);
-        } else {
-          return Boolean.toString(Double.valueOf(left) > Double.valueOf(right));
-        }
-      case GE:
-        if (type == EdmSimpleTypeKind.String.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.DateTimeOffset.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Guid.getEdmSimpleTypeInstance()
-            || type == EdmSimpleTypeKind.Time.getEdmSimpleTypeInstance()) {
-          return Boolean.toString(left.compareTo(right) >= 0);
-        } else {
-          return Boolean.toString(Double.valueOf(left) >= Double.valueOf(right));
-        }
-      case PROPERTY_ACCESS:
-        throw new ODataNotImplementedException();
-      default:
-        throw new ODataNotImplementedException();
-      }
-
-    case PROPERTY:
-      final EdmProperty property = (EdmProperty) ((PropertyExpression) expression).getEdmProperty();
-      final EdmSimpleType propertyType = (EdmSimpleType) property.getType();
-      return propertyType.valueToString(valueAccess.getPropertyValue(data, property), EdmLiteralKind.DEFAULT,
-          property.getFacets());
-
-    case MEMBER:
-      final MemberExpression memberExpression = (MemberExpression) expression;
-      final PropertyExpression propertyExpression = (PropertyExpression) memberExpression.getProperty();
-      final EdmProperty memberProperty = (EdmProperty) propertyExpression.getEdmProperty();
-      final EdmSimpleType memberType = (EdmSimpleType) memberExpression.getEdmType();
-      List<EdmProperty> propertyPath = new ArrayList<EdmProperty>();
-      CommonExpression currentExpression = memberExpression;
-      while (currentExpression != null) {
-        final PropertyExpression currentPropertyExpression =
-            (PropertyExpression) (currentExpression.getKind() == ExpressionKind.MEMBER ?
-                ((MemberExpression) currentExpression).getProperty() : currentExpression);
-        final EdmTyped currentProperty = currentPropertyExpression.getEdmProperty();
-        final EdmTypeKind kind = currentProperty.getType().getKind();
-        if (kind == EdmTypeKind.SIMPLE || kind == EdmTypeKind.COMPLEX) {
-          propertyPath.add(0, (EdmProperty) currentProperty);
-        } else {
-          throw new ODataNotImplementedException();
-        }
-        currentExpression =
-            currentExpression.getKind() == ExpressionKind.MEMBER ? ((MemberExpression) currentExpression).getPath()
-                : null;
-      }
-      return memberType.valueToString(getPropertyValue(data, propertyPath), EdmLiteralKind.DEFAULT, memberProperty
-          .getFacets());
-
-    case LITERAL:
-      final LiteralExpression literal = (LiteralExpression) expression;
-      final EdmSimpleType literalType = (EdmSimpleType) literal.getEdmType();
-      return literalType.valueToString(literalType.valueOfString(literal.getUriLiteral(), EdmLiteralKind.URI, null,
-          literalType.getDefaultType()),
-          EdmLiteralKind.DEFAULT, null);
-
-    case METHOD:
-      final MethodExpression methodExpression = (MethodExpression) expression;
-      final String first = evaluateExpression(data, methodExpression.getParameters().get(0));
-      final String second = methodExpression.getParameterCount() > 1 ?
-          evaluateExpression(data, methodExpression.getParameters().get(1)) : "";
-      final String third = methodExpression.getParameterCount() > 2 ?
-          evaluateExpression(data, methodExpression.getParameters().get(2)) : "";
-
-      switch (methodExpression.getMethod()) {
-      case ENDSWITH:
-        return Boolean.toString(first.endsWith(second));
-      case INDEXOF:
-        return Integer.toString(first.indexOf(second));
-      case STARTSWITH:
-        return Boolean.toString(first.startsWith(second));
-      case TOLOWER:
-        return first.toLowerCase(Locale.ROOT);
-      case TOUPPER:
-        return first.toUpperCase(Locale.ROOT);
-      case TRIM:
-        return first.trim();
-      case SUBSTRING:
-        final int offset = second.length() == 0 ? 0 : Integer.parseInt(second);
-        final int length = third.length() == 0 ? 0 : Integer.parseInt(second);
-        return first.substring(offset, offset + length);
-      case SUBSTRINGOF:
-        return Boolean.toString(second.contains(first));
-      case CONCAT:
-        return first + second;
-      case LENGTH:
-        return Integer.toString(first.length());
-      case YEAR:
-        return String.valueOf(Integer.parseInt(first.substring(0, 4)));
-      case MONTH:
-        return String.valueOf(Integer.parseInt(first.substring(5, 7)));
-      case DAY:
-        return String.valueOf(Integer.parseInt(first.substring(8, 10)));
-      case HOUR:
-        return String.valueOf(Integer.parseInt(first.substring(11, 13)));
-      case MINUTE:
-        return String.valueOf(Integer.parseInt(first.substring(14, 16)));
-      case SECOND:
-        return String.valueOf(Integer.parseInt(first.substring(17, 19)));
-      case ROUND:
-        return Long.toString(Math.round(Double.valueOf(first)));
-      case FLOOR:
-        return Long.toString(Math.round(Math.floor(Double.valueOf(first))));
-      case CEILING:
-        return Long.toString(Math.round(Math.ceil(Double.valueOf(first))));
-      default:
-        throw new ODataNotImplementedException();
-      }
-
-    default:
-      throw new ODataNotImplementedException();
-    }
-  }
-
   private <T> String getSkipToken(final EdmEntitySet entitySet, final T data) throws ODataException {
     String skipToken = "";
     for (final EdmProperty property : entitySet.getEntityType().getKeyProperties()) {
@@ -1651,13 +1486,11 @@ public class ListsProcessor extends DataSourceProcessor {
   public ODataResponse executeBatch(final BatchHandler handler, final String contentType, final InputStream content)
       throws ODataException {
     ODataResponse batchResponse;
-    List<BatchResponsePart> batchResponseParts = new ArrayList<BatchResponsePart>();
     PathInfo pathInfo = getContext().getPathInfo();
     EntityProviderBatchProperties batchProperties = EntityProviderBatchProperties.init().pathInfo(pathInfo).build();
-    List<BatchRequestPart> batchParts = EntityProvider.parseBatchRequest(contentType, content, batchProperties);
-    for (BatchRequestPart batchPart : batchParts) {
-      batchResponseParts.add(handler.handleBatchPart(batchPart));
-    }
+    BatchRequestPartIterator batchParts =
+        EntityProvider.parseBatchRequestIncrementally(contentType, content, batchProperties);
+    List<BatchResponsePart> batchResponseParts = BatchRequestPartExecutor.execute(handler, batchParts);
     batchResponse = EntityProvider.writeBatchResponse(batchResponseParts);
     return batchResponse;
   }
@@ -34,13 +34,17 @@ import org.apache.olingo.odata2.api.annotation.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.edm.EdmLiteral;
+import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
 import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
 import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
 
-public class AnnotationInMemoryDs implements DataSource {
+public class AnnotationInMemoryDs implements IndexedDataSource {
 
   private static final AnnotationHelper ANNOTATION_HELPER = new AnnotationHelper();
   private final Map<String, DataStore<Object>> dataStores = new HashMap<String, DataStore<Object>>();
@@ -126,6 +130,50 @@ public class AnnotationInMemoryDs implements DataSource {
     throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
   }
 
+  @Override
+  public List<?> readData(final EdmEntitySet entitySet, final EdmProperty property, final EdmLiteral value)
+      throws ODataNotImplementedException, EdmException, ODataApplicationException {
+
+    DataStore<Object> store = getDataStore(entitySet);
+    final String propertyName = property.getName();
+    if (!store.hasIndex(propertyName)) {
+      return null;
+    }
+    final Class<?> type = getIndexValueType(store.getPropertyType(propertyName));
+    if (type == null) {
+      return null;
+    }
+    Object indexValue;
+    try {
+      indexValue = value.getType().valueOfString(value.getLiteral(), EdmLiteralKind.DEFAULT, null, type);
+    } catch (final EdmSimpleTypeException e) {
+      return null;
+    }
+    return store.read(propertyName, indexValue);
+  }
+
+  /**
+   * Returns the (boxed) type of values which can be looked up in an index for properties
+   * of the given type, or <code>null</code> if their values are not suitable for equality lookups.
+   */
+  private Class<?> getIndexValueType(final Class<?> propertyType) {
+    if (propertyType == String.class || propertyType == Boolean.class || propertyType == Byte.class
+        || propertyType == Short.class || propertyType == Integer.class || propertyType == Long.class) {
+      return propertyType;
+    } else if (propertyType == boolean.class) {
+      return Boolean.class;
+    } else if (propertyType == byte.class) {
+      return Byte.class;
+    } else if (propertyType == short.class) {
+      return Short.class;
+    } else if (propertyType == int.class) {
+      return Integer.class;
+    } else if (propertyType == long.class) {
+      return Long.class;
+    }
+    return null;
+  }
+
   @Override
   public Object readData(final EdmFunctionImport function, final Map<String, Object> parameters,
       final Map<String, Object> keys)
@@ -176,20 +224,28 @@ public class AnnotationInMemoryDs implements DataSource {
     }
 
     List<Object> resultData = new ArrayList<Object>();
-    for (Object targetInstance : targetStore.read()) {
-      if (navigationInstance instanceof Collection) {
-        for (Object object : (Collection<?>) navigationInstance) {
-          if (targetStore.isKeyEqualChecked(targetInstance, object)) {
-            resultData.add(targetInstance);
-          }
-        }
-      } else if (targetStore.isKeyEqualChecked(targetInstance, navigationInstance)) {
-        resultData.add(targetInstance);
+    if (navigationInstance instanceof Collection) {
+      for (Object object : (Collection<?>) navigationInstance) {
+        addStoredInstance(targetStore, object, resultData);
       }
+    } else {
+      addStoredInstance(targetStore, navigationInstance, resultData);
     }
     return resultData;
   }
 
+  /**
+   * Look up the stored instance with the keys of <code>navigationInstance</code> in the target store
+   * and add it to <code>resultData</code> if it exists.
+   */
+  private void addStoredInstance(final DataStore<?> targetStore, final Object navigationInstance,
+      final List<Object> resultData) throws DataStoreException {
+    final Object targetInstance = targetStore.readChecked(navigationInstance);
+    if (targetInstance != null) {
+      resultData.add(targetInstance);
+    }
+  }
+
   /**
    * Extract the <code>result data</code> from the <code>resultData</code> list based on
    * <code>navigation information</code> and <code>targetKeys</code>.
@@ -287,6 +343,7 @@ public class AnnotationInMemoryDs implements DataSource {
    * @throws org.apache.olingo.odata2.api.edm.EdmException
    * @throws org.apache.olingo.odata2.api.exception.ODataApplicationException
    */
+  @Override
   public Object updateData(final EdmEntitySet entitySet, final Object data)
       throws ODataNotImplementedException, EdmException, ODataApplicationException {
 
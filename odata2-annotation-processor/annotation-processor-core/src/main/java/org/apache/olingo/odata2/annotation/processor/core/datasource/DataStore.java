@@ -26,22 +26,37 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.odata2.annotation.processor.core.util.AnnotationHelper;
 import org.apache.olingo.odata2.annotation.processor.core.util.AnnotationRuntimeException;
 import org.apache.olingo.odata2.annotation.processor.core.util.ClassHelper;
 import org.apache.olingo.odata2.api.annotation.edm.EdmKey;
+import org.apache.olingo.odata2.api.annotation.edm.EdmProperty;
 import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 
 /**
- *
+ * In-memory store for instances of one annotated class.
+ * <p>Instances are stored in a concurrent map by their key values. Reads do not lock, and iterating over
+ * {@link #read()} neither blocks writers nor fails because of concurrent modifications; writes are serialized
+ * to keep secondary indexes consistent.</p>
+ * <p>Secondary indexes are created for all key properties when the store is built, so that a <code>$filter</code>
+ * comparing a key property with a literal is looked up instead of scanned.
+ * Indexes on further properties can be created with {@link #createIndex(String)}. All indexes are maintained on
+ * {@link #create(Object)}, {@link #update(Object)}, and {@link #delete(Object)}, so instances which are changed
+ * in place have to be written back with {@link #update(Object)}.</p>
  */
 public class DataStore<T> {
 
   private static final AnnotationHelper ANNOTATION_HELPER = new AnnotationHelper();
-  private final Map<KeyElement, T> dataStore;
+  private static final Object NULL_VALUE = new Object();
+  private final ConcurrentMap<KeyElement, T> dataStore;
+  private final Map<String, PropertyIndex> indexes = new ConcurrentHashMap<String, PropertyIndex>();
+  private final Object writeLock = new Object();
   private final Class<T> dataTypeClass;
   private final KeyAccess keyAccess;
 
@@ -71,14 +86,15 @@ public class DataStore<T> {
     return (DataStore<T>) InMemoryDataStore.getInstance(clazz, !keepExisting);
   }
 
-  private DataStore(final Map<KeyElement, T> wrapStore, final Class<T> clz) throws DataStoreException {
-    dataStore = Collections.synchronizedMap(wrapStore);
+  private DataStore(final Class<T> clz) throws DataStoreException {
+    dataStore = new ConcurrentHashMap<KeyElement, T>();
     dataTypeClass = clz;
     keyAccess = new KeyAccess(clz);
-  }
-
-  private DataStore(final Class<T> clz) throws DataStoreException {
-    this(new HashMap<KeyElement, T>(), clz);
+    for (final Field keyField : keyAccess.keyFields) {
+      if (keyField.getAnnotation(EdmProperty.class) != null) {
+        indexes.put(ANNOTATION_HELPER.getPropertyName(keyField), new PropertyIndex(keyField));
+      }
+    }
   }
 
   public Class<T> getDataTypeClass() {
@@ -104,10 +120,93 @@ public class DataStore<T> {
     return dataStore.get(objKeys);
   }
 
+  /**
+   * Reads the stored instance with the same key values as the given instance.
+   * The given instance is validated as in {@link #isKeyEqualChecked(Object, Object)}.
+   * @param obj instance with the key values to look for
+   * @return the stored instance or <code>null</code> if there is none
+   * @throws DataStoreException if the given instance is <code>null</code> or of another class
+   */
+  @SuppressWarnings("unchecked")
+  public T readChecked(final Object obj) throws DataStoreException {
+    if (obj == null) {
+      throw new DataStoreException("Tried to read with null value which is not allowed.");
+    } else if (obj.getClass() != dataTypeClass) {
+      throw new DataStoreException("Value is no instance from required class '" + dataTypeClass + "'.");
+    }
+    return read((T) obj);
+  }
+
+  /**
+   * Returns an unmodifiable view of all stored instances.
+   * Iterating over it reflects the state at some point at or since the start of the iteration;
+   * concurrent writes are neither blocked nor cause exceptions.
+   */
   public Collection<T> read() {
     return Collections.unmodifiableCollection(dataStore.values());
   }
 
+  /**
+   * Reads all stored instances with the given value of the given property.
+   * An index on the property is used if it has been created with {@link #createIndex(String)},
+   * otherwise all instances are scanned.
+   * @param propertyName name of the (EDM) property
+   * @param value the value to look for, compared with {@link Object#equals(Object)}
+   * @return the matching instances
+   * @throws DataStoreException if the class has no such property
+   */
+  public List<T> read(final String propertyName, final Object value) throws DataStoreException {
+    final PropertyIndex index = indexes.get(propertyName);
+    if (index != null) {
+      return index.lookup(value);
+    }
+    final Field field = getPropertyField(propertyName);
+    List<T> result = new ArrayList<T>();
+    for (final T object : dataStore.values()) {
+      if (isEqual(ClassHelper.getFieldValue(object, field), value)) {
+        result.add(object);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates a secondary index on the given property which is used by {@link #read(String, Object)}.
+   * Creating an index on an already indexed property has no effect.
+   * @param propertyName name of the (EDM) property
+   * @throws DataStoreException if the class has no such property
+   */
+  public void createIndex(final String propertyName) throws DataStoreException {
+    final Field field = getPropertyField(propertyName);
+    synchronized (writeLock) {
+      if (!indexes.containsKey(propertyName)) {
+        PropertyIndex index = new PropertyIndex(field);
+        for (final Map.Entry<KeyElement, T> entry : dataStore.entrySet()) {
+          index.add(entry.getKey(), entry.getValue());
+        }
+        indexes.put(propertyName, index);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a secondary index exists on the given property.
+   * @param propertyName name of the (EDM) property
+   */
+  public boolean hasIndex(final String propertyName) {
+    return indexes.containsKey(propertyName);
+  }
+
+  /**
+   * Returns the Java type of the given property.
+   * @param propertyName name of the (EDM) property
+   * @throws DataStoreException if the class has no such property
+   */
+  public Class<?> getPropertyType(final String propertyName) throws DataStoreException {
+    final PropertyIndex index = indexes.get(propertyName);
+    return index == null ? getPropertyField(propertyName).getType() : index.field.getType();
+  }
+
   public T create(final T object) throws DataStoreException {
     KeyElement keyElement = getKeys(object);
     return create(object, keyElement);
@@ -118,29 +217,38 @@ public class DataStore<T> {
    * existing and generated keys would produce a duplicate entry, replace all keys.
    */
   private T create(final T object, final KeyElement keyElement) throws DataStoreException {
-    synchronized (dataStore) {
+    synchronized (writeLock) {
       final boolean replaceKeys = dataStore.containsKey(keyElement);
       if (keyElement.keyValuesMissing() || replaceKeys) {
         KeyElement newKey = createSetAndGetKeys(object, replaceKeys);
         return this.create(object, newKey);
       }
       dataStore.put(keyElement, object);
+      for (PropertyIndex index : indexes.values()) {
+        index.add(keyElement, object);
+      }
     }
     return object;
   }
 
   public T update(final T object) {
     KeyElement keyElement = getKeys(object);
-    synchronized (dataStore) {
-      dataStore.remove(keyElement);
+    synchronized (writeLock) {
       dataStore.put(keyElement, object);
+      for (PropertyIndex index : indexes.values()) {
+        index.remove(keyElement);
+        index.add(keyElement, object);
+      }
     }
     return object;
   }
 
   public T delete(final T object) {
     KeyElement keyElement = getKeys(object);
-    synchronized (dataStore) {
+    synchronized (writeLock) {
+      for (PropertyIndex index : indexes.values()) {
+        index.remove(keyElement);
+      }
       return dataStore.remove(keyElement);
     }
   }
@@ -281,6 +389,77 @@ public class DataStore<T> {
     }
   }
 
+  /**
+   * Secondary index which maps the values of one property to the keys of the instances having this value.
+   * Modifications happen under the write lock of the data store; lookups do not lock and check the current
+   * property value of each found instance.
+   */
+  private class PropertyIndex {
+    private final Field field;
+    private final ConcurrentMap<Object, Set<KeyElement>> keysByValue =
+        new ConcurrentHashMap<Object, Set<KeyElement>>();
+    private final Map<KeyElement, Object> indexedValues = new HashMap<KeyElement, Object>();
+
+    PropertyIndex(final Field field) {
+      this.field = field;
+    }
+
+    void add(final KeyElement keyElement, final T object) {
+      final Object value = toIndexValue(ClassHelper.getFieldValue(object, field));
+      Set<KeyElement> keys = keysByValue.get(value);
+      if (keys == null) {
+        keys = Collections.newSetFromMap(new ConcurrentHashMap<KeyElement, Boolean>());
+        keysByValue.put(value, keys);
+      }
+      keys.add(keyElement);
+      indexedValues.put(keyElement, value);
+    }
+
+    void remove(final KeyElement keyElement) {
+      final Object value = indexedValues.remove(keyElement);
+      if (value != null) {
+        final Set<KeyElement> keys = keysByValue.get(value);
+        keys.remove(keyElement);
+        if (keys.isEmpty()) {
+          keysByValue.remove(value);
+        }
+      }
+    }
+
+    List<T> lookup(final Object value) {
+      final Set<KeyElement> keys = keysByValue.get(toIndexValue(value));
+      if (keys == null) {
+        return new ArrayList<T>();
+      }
+      List<T> result = new ArrayList<T>(keys.size());
+      for (final KeyElement keyElement : keys) {
+        final T object = dataStore.get(keyElement);
+        if (object != null && isEqual(ClassHelper.getFieldValue(object, field), value)) {
+          result.add(object);
+        }
+      }
+      return result;
+    }
+
+    private Object toIndexValue(final Object value) {
+      return value == null ? NULL_VALUE : value;
+    }
+  }
+
+  private Field getPropertyField(final String propertyName) throws DataStoreException {
+    for (final Field field : ANNOTATION_HELPER.getAnnotatedFields(dataTypeClass, EdmProperty.class)) {
+      if (ANNOTATION_HELPER.getPropertyName(field).equals(propertyName)) {
+        return field;
+      }
+    }
+    throw new DataStoreException("No EdmProperty annotated field found for property '" + propertyName
+        + "' in class " + dataTypeClass);
+  }
+
+  private static boolean isEqual(final Object value, final Object other) {
+    return value == null ? other == null : value.equals(other);
+  }
+
   private KeyElement getKeys(final T object) {
     return keyAccess.getKeyValues(object);
   }
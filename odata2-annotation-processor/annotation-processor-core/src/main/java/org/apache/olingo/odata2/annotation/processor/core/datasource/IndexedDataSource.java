@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.annotation.processor.core.datasource;
+
+import java.util.List;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmLiteral;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
+
+/**
+ * <p>Optional extension of a {@link DataSource} which keeps secondary indexes
+ * on properties of the data objects.</p>
+ * <p>The processor uses an index to evaluate a <code>$filter</code> which requires
+ * a property to be equal to a literal, and reports in-place changes of data objects
+ * with {@link #updateData(EdmEntitySet, Object)} so that indexes stay current.</p>
+ */
+public interface IndexedDataSource extends DataSource {
+
+  /**
+   * Retrieves the data objects of the specified entity set where the specified
+   * property has the specified value, with the help of an index.
+   * @param entitySet the requested {@link EdmEntitySet}
+   * @param property the (simple) property of the entity type
+   * @param value the value the property must have
+   * @return the requested data list or <code>null</code> if the property has no index
+   * or the value cannot be used to look up the index
+   */
+  List<?> readData(EdmEntitySet entitySet, EdmProperty property, EdmLiteral value)
+      throws ODataNotImplementedException, EdmException, ODataApplicationException;
+
+  /**
+   * Updates a single data object after it has been changed in place.
+   * @param entitySet the {@link EdmEntitySet} the object must correspond to
+   * @param data the changed data object
+   * @return the updated data object
+   */
+  Object updateData(EdmEntitySet entitySet, Object data)
+      throws ODataNotImplementedException, EdmException, ODataApplicationException;
+}
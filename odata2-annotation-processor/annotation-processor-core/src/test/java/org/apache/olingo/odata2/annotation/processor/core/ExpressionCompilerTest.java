@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.annotation.processor.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.olingo.odata2.annotation.processor.core.ExpressionCompiler.CompiledFilter;
+import org.apache.olingo.odata2.annotation.processor.core.datasource.AnnotationValueAccess;
+import org.apache.olingo.odata2.annotation.processor.core.edm.AnnotationEdmProvider;
+import org.apache.olingo.odata2.annotation.processor.core.model.Building;
+import org.apache.olingo.odata2.annotation.processor.core.model.ModelSharedConstants;
+import org.apache.olingo.odata2.annotation.processor.core.model.Room;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExpressionCompilerTest {
+
+  private Edm edm;
+  private EdmEntityType roomType;
+  private ExpressionCompiler compiler;
+
+  @Before
+  public void before() throws Exception {
+    edm = RuntimeDelegate.createEdm(new AnnotationEdmProvider(Building.class.getPackage().getName()));
+    roomType = edm.getEntityType(ModelSharedConstants.NAMESPACE_1, "Room");
+    compiler = new ExpressionCompiler(new AnnotationValueAccess());
+  }
+
+  @Test
+  public void numericComparison() throws Exception {
+    final CompiledFilter filter = compileFilter("Seats gt 9 and Seats mul 2 le 40");
+    assertFalse(filter.appliesTo(createRoom(1, "A", 9)));
+    assertTrue(filter.appliesTo(createRoom(2, "B", 10)));
+    assertTrue(filter.appliesTo(createRoom(3, "C", 20)));
+    assertFalse(filter.appliesTo(createRoom(4, "D", 21)));
+    assertFalse(filter.appliesTo(null));
+  }
+
+  @Test
+  public void integralDivision() throws Exception {
+    assertTrue(compileFilter("Seats div 2 eq 12.5m").appliesTo(createRoom(1, "A", 25)));
+    assertFalse(compileFilter("Seats div 2 eq 12").appliesTo(createRoom(1, "A", 25)));
+    assertTrue(compileFilter("Seats div 0 gt 1000").appliesTo(createRoom(1, "A", 25)));
+  }
+
+  @Test
+  public void stringMethods() throws Exception {
+    assertTrue(compileFilter("startswith(Name,'Ro') and substringof('om',tolower(Name))")
+        .appliesTo(createRoom(1, "Room 1", 1)));
+    assertTrue(compileFilter("substring(Name,5) eq '1' and length(Name) eq 6")
+        .appliesTo(createRoom(1, "Room 1", 1)));
+    assertFalse(compileFilter("Name eq 'Room 2' or not (Seats eq 1)").appliesTo(createRoom(1, "Room 1", 1)));
+  }
+
+  @Test
+  public void nullValues() throws Exception {
+    final Room room = createRoom(1, null, 1);
+    assertTrue(compileFilter("Name eq null").appliesTo(room));
+    assertFalse(compileFilter("Name ne null").appliesTo(room));
+    assertFalse(compileFilter("startswith(Name,'R')").appliesTo(room));
+  }
+
+  @Test
+  public void sortNumerically() throws Exception {
+    List<Room> rooms = new ArrayList<Room>(Arrays.asList(
+        createRoom(1, "A", 10), createRoom(2, "B", 9), createRoom(3, "C", 100), createRoom(4, null, 9)));
+
+    compiler.compileOrderBy(UriParser.parseOrderBy(edm, roomType, "Seats desc, Name")).sort(rooms);
+
+    assertEquals("3 1 2 4", getIds(rooms));
+
+    compiler.compileOrderBy(UriParser.parseOrderBy(edm, roomType, "Name desc")).sort(rooms);
+
+    assertEquals("4 3 2 1", getIds(rooms));
+  }
+
+  private CompiledFilter compileFilter(final String expression) throws Exception {
+    return compiler.compileFilter(UriParser.parseFilter(edm, roomType, expression));
+  }
+
+  private Room createRoom(final int id, final String name, final int seats) {
+    Room room = new Room(id, name);
+    room.setSeats(seats);
+    return room;
+  }
+
+  private String getIds(final List<Room> rooms) {
+    StringBuilder ids = new StringBuilder();
+    for (final Room room : rooms) {
+      ids.append(ids.length() == 0 ? "" : " ").append(room.getId());
+    }
+    return ids.toString();
+  }
+}
@@ -29,6 +29,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.olingo.odata2.annotation.processor.core.datasource.DataSource.BinaryData;
+import org.apache.olingo.odata2.annotation.processor.core.datasource.DataStore.DataStoreException;
 import org.apache.olingo.odata2.annotation.processor.core.edm.AnnotationEdmProvider;
 import org.apache.olingo.odata2.annotation.processor.core.model.Building;
 import org.apache.olingo.odata2.annotation.processor.core.model.City;
@@ -47,6 +48,8 @@ import org.apache.olingo.odata2.api.annotation.edm.EdmKey;
 import org.apache.olingo.odata2.api.annotation.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmLiteral;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.EntitySet;
 import org.apache.olingo.odata2.api.exception.ODataException;
@@ -884,6 +887,84 @@ public class AnnotationsInMemoryDsTest {
     Assert.assertEquals(readBuilding, readRoom.getBuilding());
   }
 
+  @Test
+  public void readDataByIndex() throws Exception {
+    EdmEntitySet roomsEntitySet = createMockedEdmEntitySet("Rooms");
+    org.apache.olingo.odata2.api.edm.EdmProperty seatsProperty =
+        Mockito.mock(org.apache.olingo.odata2.api.edm.EdmProperty.class);
+    Mockito.when(seatsProperty.getName()).thenReturn("Seats");
+    final EdmLiteral tenSeats = new EdmLiteral(EdmSimpleTypeKind.Int32.getEdmSimpleTypeInstance(), "10");
+
+    DataStore<Room> roomStore = datasource.getDataStore(Room.class);
+    Room first = new Room(1, "First");
+    first.setSeats(10);
+    roomStore.create(first);
+    Room second = new Room(2, "Second");
+    second.setSeats(20);
+    roomStore.create(second);
+
+    Assert.assertNull(datasource.readData(roomsEntitySet, seatsProperty, tenSeats));
+    roomStore.createIndex("Seats");
+    Assert.assertTrue(roomStore.hasIndex("Seats"));
+    Assert.assertEquals(Collections.singletonList(first), datasource.readData(roomsEntitySet, seatsProperty, tenSeats));
+
+    second.setSeats(10);
+    datasource.updateData(roomsEntitySet, second);
+    Assert.assertEquals(2, datasource.readData(roomsEntitySet, seatsProperty, tenSeats).size());
+
+    Room third = new Room(3, "Third");
+    third.setSeats(10);
+    roomStore.create(third);
+    roomStore.delete(first);
+    List<?> result = datasource.readData(roomsEntitySet, seatsProperty, tenSeats);
+    Assert.assertEquals(2, result.size());
+    Assert.assertTrue(result.contains(second));
+    Assert.assertTrue(result.contains(third));
+    Assert.assertEquals(result.size(), roomStore.read("Seats", 10).size());
+    Assert.assertTrue(datasource.readData(roomsEntitySet, seatsProperty,
+        new EdmLiteral(EdmSimpleTypeKind.Int32.getEdmSimpleTypeInstance(), "30")).isEmpty());
+  }
+
+  @Test
+  public void readDataByKeyIndex() throws Exception {
+    EdmEntitySet employeesEntitySet = createMockedEdmEntitySet("Employees");
+    org.apache.olingo.odata2.api.edm.EdmProperty idProperty =
+        Mockito.mock(org.apache.olingo.odata2.api.edm.EdmProperty.class);
+    Mockito.when(idProperty.getName()).thenReturn("EmployeeId");
+
+    DataStore<Employee> employeeStore = datasource.getDataStore(Employee.class);
+    Assert.assertTrue(employeeStore.hasIndex("EmployeeId"));
+    Assert.assertFalse(employeeStore.hasIndex("EmployeeName"));
+    Employee first = new Employee("1", "First");
+    employeeStore.create(first);
+    employeeStore.create(new Employee("2", "Second"));
+
+    Assert.assertEquals(Collections.singletonList(first), datasource.readData(employeesEntitySet, idProperty,
+        new EdmLiteral(EdmSimpleTypeKind.String.getEdmSimpleTypeInstance(), "1")));
+    Assert.assertTrue(datasource.readData(employeesEntitySet, idProperty,
+        new EdmLiteral(EdmSimpleTypeKind.String.getEdmSimpleTypeInstance(), "3")).isEmpty());
+  }
+
+  @Test(expected = DataStoreException.class)
+  public void createIndexForUnknownProperty() throws Exception {
+    datasource.getDataStore(Room.class).createIndex("Unknown");
+  }
+
+  @Test
+  public void iterateWhileWriting() throws Exception {
+    DataStore<Room> roomStore = datasource.getDataStore(Room.class);
+    for (int i = 1; i <= 10; i++) {
+      roomStore.create(new Room(i, "Room " + i));
+    }
+    int count = 0;
+    for (Room room : roomStore.read()) {
+      roomStore.delete(room);
+      roomStore.create(new Room(100 + count, "New room"));
+      count++;
+    }
+    Assert.assertTrue(count >= 10);
+  }
+
   private EdmEntitySet createMockedEdmEntitySet(final String entitySetName) throws ODataException {
     return createMockedEdmEntitySet(edmProvider, entitySetName);
   }
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManager;
+
+/**
+ * This class provides a thread safe container for the state of a change set executed in bulk mode
+ * (see {@link ODataJPAContext#setBulkChangeSet(boolean)}).
+ * <p>While a bulk change set is active the JPA processor neither flushes nor clears the entity manager
+ * after each operation. Created entities whose keys are already assigned are queued per entity type and
+ * persisted type by type when the change set ends, so that the JPA provider can write the inserts of an
+ * entity type in JDBC batches. Created entities are registered by entity set and key, so that requests
+ * referring to them by Content-ID are resolved without a flush.</p>
+ */
+public final class ODataJPAChangeSetContext {
+
+  private static final ThreadLocal<ODataJPAChangeSetContext> current = new ThreadLocal<ODataJPAChangeSetContext>();
+
+  private final Map<Class<?>, List<Object>> pendingInserts = new LinkedHashMap<Class<?>, List<Object>>();
+  private final Map<Object, EntityManager> pendingEntities = new IdentityHashMap<Object, EntityManager>();
+  private final Map<String, Object> entities = new HashMap<String, Object>();
+
+  private ODataJPAChangeSetContext() {}
+
+  /**
+   * Starts a bulk change set on the current thread.
+   * @return the state of the change set
+   */
+  public static ODataJPAChangeSetContext begin() {
+    ODataJPAChangeSetContext changeSet = new ODataJPAChangeSetContext();
+    current.set(changeSet);
+    return changeSet;
+  }
+
+  /**
+   * @return the bulk change set of the current thread or <code>null</code>
+   */
+  public static ODataJPAChangeSetContext getCurrent() {
+    return current.get();
+  }
+
+  /**
+   * Ends the bulk change set of the current thread; queued entities which are not persisted yet are discarded.
+   */
+  public static void end() {
+    current.remove();
+  }
+
+  /**
+   * Queues a new entity; it is persisted together with the other new entities of its type
+   * by {@link #persistPending()} or {@link #flush(EntityManager)}.
+   * @param em the entity manager the entity is persisted with
+   * @param entity the new entity
+   */
+  public void persist(final EntityManager em, final Object entity) {
+    List<Object> inserts = pendingInserts.get(entity.getClass());
+    if (inserts == null) {
+      inserts = new ArrayList<Object>();
+      pendingInserts.put(entity.getClass(), inserts);
+    }
+    inserts.add(entity);
+    pendingEntities.put(entity, em);
+  }
+
+  /**
+   * @param entity an entity
+   * @return <code>true</code> if the entity is queued and not persisted yet
+   */
+  public boolean isPending(final Object entity) {
+    return pendingEntities.containsKey(entity);
+  }
+
+  /**
+   * Removes a queued entity, e.g., if it is deleted in the same change set.
+   * @param entity an entity
+   * @return <code>true</code> if the entity was queued
+   */
+  public boolean removePending(final Object entity) {
+    if (pendingEntities.remove(entity) == null) {
+      return false;
+    }
+    List<Object> inserts = pendingInserts.get(entity.getClass());
+    for (int i = 0; i < inserts.size(); i++) {
+      if (inserts.get(i) == entity) {
+        inserts.remove(i);
+        break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Persists the queued entities grouped by entity type, in the order the types were first queued.
+   * This is needed before a queued entity is referenced by another entity.
+   */
+  public void persistPending() {
+    for (List<Object> inserts : pendingInserts.values()) {
+      for (Object entity : inserts) {
+        pendingEntities.get(entity).persist(entity);
+      }
+    }
+    pendingInserts.clear();
+    pendingEntities.clear();
+  }
+
+  /**
+   * Persists the queued entities and flushes the entity manager; called when the change set ends.
+   * @param em the entity manager of the change set
+   */
+  public void flush(final EntityManager em) {
+    persistPending();
+    em.flush();
+  }
+
+  /**
+   * Registers an entity created in the change set.
+   * @param entitySetName the name of the entity set
+   * @param keys the key literals by key property name
+   * @param entity the entity
+   */
+  public void register(final String entitySetName, final Map<String, String> keys, final Object entity) {
+    entities.put(createKey(entitySetName, keys), entity);
+  }
+
+  /**
+   * Returns an entity created in the change set.
+   * @param entitySetName the name of the entity set
+   * @param keys the key literals by key property name
+   * @return the entity or <code>null</code>
+   */
+  public Object lookup(final String entitySetName, final Map<String, String> keys) {
+    return entities.get(createKey(entitySetName, keys));
+  }
+
+  /**
+   * Removes an entity created in the change set, e.g., if it is deleted in the same change set.
+   * @param entitySetName the name of the entity set
+   * @param keys the key literals by key property name
+   */
+  public void unregister(final String entitySetName, final Map<String, String> keys) {
+    entities.remove(createKey(entitySetName, keys));
+  }
+
+  private static String createKey(final String entitySetName, final Map<String, String> keys) {
+    StringBuilder key = new StringBuilder(entitySetName);
+    for (Map.Entry<String, String> entry : new TreeMap<String, String>(keys).entrySet()) {
+      key.append('|').append(entry.getKey()).append('=').append(entry.getValue().length()).append(':')
+          .append(entry.getValue());
+    }
+    return key.toString();
+  }
+}
@@ -223,6 +223,121 @@ public interface ODataJPAContext {
    */
   public void setPageSize(int size);
 
+  /**
+   * The method sets into the context whether server side paging of entity sets uses keyset (seek)
+   * pagination instead of offset pagination. With keyset pagination the $skiptoken encodes the
+   * key (and $orderby) values of the last entity of the page, and the next page is selected with a
+   * predicate on these values. Hence each page costs the same as the first page.
+   * Requests which cannot be paged by keyset (e.g. with $skip, $top or navigation) fall back
+   * to offset pagination. (Default is <code>false</code>)
+   * @param keysetPaging <code>true</code> to enable keyset pagination
+   */
+  public void setKeysetPaging(boolean keysetPaging);
+
+  /**
+   * The method returns whether server side paging of entity sets uses keyset (seek) pagination.
+   * @return <code>true</code> if keyset pagination is enabled
+   */
+  public boolean isKeysetPaging();
+
+  /**
+   * The method sets into the context whether expanded navigation properties are loaded with one query
+   * per navigation property and expand level for all entities of that level instead of one lazy load
+   * per entity. (Default is <code>false</code>)
+   * @param batchedExpand <code>true</code> to load expanded navigation properties in batches
+   */
+  public void setBatchedExpand(boolean batchedExpand);
+
+  /**
+   * The method returns whether expanded navigation properties of an entity set are loaded in batches.
+   * @return <code>true</code> if expanded navigation properties are loaded in batches
+   */
+  public boolean isBatchedExpand();
+
+  /**
+   * The method sets into the context whether the entity data model built from the JPA metamodel
+   * is cached process-wide. The cache is keyed by the persistence unit name, the mapping model,
+   * the class of the JPA EDM extension, and the naming mode, so the model of a persistence unit
+   * is built only once instead of once per request. The serialized metadata document and service
+   * documents of a cached model are shared by all requests as well. (Default is <code>false</code>)
+   * @param edmCaching <code>true</code> to cache the entity data model
+   */
+  public void setEdmCaching(boolean edmCaching);
+
+  /**
+   * The method returns whether the entity data model built from the JPA metamodel is cached process-wide.
+   * @return <code>true</code> if the entity data model is cached
+   */
+  public boolean isEdmCaching();
+
+  /**
+   * The method sets into the context whether the JPQL statements built for requests are cached
+   * process-wide. The cache is keyed by the persistence unit and the shape of the request (entity sets,
+   * navigation path, key predicates, $filter, $orderby, and $select) without the literals which become
+   * query parameters, so requests which differ only in these literals or in $top, $skip, or $skiptoken
+   * reuse the statement and bind their own parameter values. (Default is <code>false</code>)
+   * @param queryCaching <code>true</code> to cache the JPQL statements
+   */
+  public void setQueryCaching(boolean queryCaching);
+
+  /**
+   * The method returns whether the JPQL statements built for requests are cached process-wide.
+   * @return <code>true</code> if the JPQL statements are cached
+   */
+  public boolean isQueryCaching();
+
+  /**
+   * The method sets into the context whether change sets of $batch requests are executed in bulk mode.
+   * In bulk mode the entity manager is flushed once at the end of the change set instead of after each
+   * operation, new entities with assigned keys are persisted grouped by entity type so that the JPA
+   * provider can batch their inserts, and Content-ID references to entities created in the change set
+   * are resolved without a flush. The responses of create and update operations then contain the
+   * entities as written by the client, without values generated by the database on insert.
+   * (Default is <code>false</code>)
+   * @param bulkChangeSet <code>true</code> to execute change sets in bulk mode
+   * @see ODataJPAChangeSetContext
+   */
+  public void setBulkChangeSet(boolean bulkChangeSet);
+
+  /**
+   * The method returns whether change sets of $batch requests are executed in bulk mode.
+   * @return <code>true</code> if change sets are executed in bulk mode
+   */
+  public boolean isBulkChangeSet();
+
+  /**
+   * The method sets into the context whether all parts of $batch requests are executed while the request
+   * body is parsed. Then each part is executed before the next one is read, so that only one part is held
+   * in memory; however, the parts preceding a malformed part are executed (and their change sets committed)
+   * before the malformed part is detected. (Default is <code>false</code>, i.e., only the retrieve requests
+   * in front of the first change set are executed while parsing, see
+   * {@link org.apache.olingo.odata2.api.batch.BatchRequestPartExecutor}, and a malformed request is rejected
+   * without side effects)
+   * @param incrementalBatchExecution <code>true</code> to execute $batch parts while parsing
+   */
+  public void setIncrementalBatchExecution(boolean incrementalBatchExecution);
+
+  /**
+   * The method returns whether the parts of $batch requests are executed while the request body is parsed.
+   * @return <code>true</code> if $batch parts are executed while parsing
+   */
+  public boolean isIncrementalBatchExecution();
+
+  /**
+   * The method sets into the context whether entity set requests with $select read only the selected
+   * properties, the key properties, and the concurrency tokens from the database instead of whole entities.
+   * Requests with $expand, selections of complex or derived properties, entity types with virtual access,
+   * and keyset paged requests still read whole entities. (Default is <code>false</code>)
+   * @param selectProjection <code>true</code> to read projections for $select
+   */
+  public void setSelectProjection(boolean selectProjection);
+
+  /**
+   * The method returns whether entity set requests with $select read projections from the database.
+   * @return <code>true</code> if projections are read for $select
+   */
+  public boolean isSelectProjection();
+
   /**
    * The method sets the server side paging object
    * @param paging an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging}
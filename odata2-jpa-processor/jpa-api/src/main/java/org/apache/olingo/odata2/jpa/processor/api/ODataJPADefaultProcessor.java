@@ -19,7 +19,8 @@
 package org.apache.olingo.odata2.jpa.processor.api;
 
 import org.apache.olingo.odata2.api.batch.BatchHandler;
-import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartExecutor;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.InlineCount;
@@ -38,9 +39,13 @@ import org.apache.olingo.odata2.api.uri.SelectItem;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.*;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAStreamingProcessor;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
@@ -53,17 +58,30 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
   public ODataResponse readEntitySet(final GetEntitySetUriInfo uriParserResultView, final String contentType)
       throws ODataException {
     ODataResponse oDataResponse = null;
+    boolean streamed = false;
     try {
       oDataJPAContext.setODataContext(getContext());
-      List<Object> jpaEntities = jpaProcessor.process(uriParserResultView);
+      Iterator<Object> streamedEntities = null;
+      // custom JPA processors and response builders need not support streaming
+      if (jpaProcessor instanceof JPAStreamingProcessor
+          && responseBuilder instanceof ODataJPAStreamingResponseBuilder) {
+        streamedEntities = ((JPAStreamingProcessor) jpaProcessor).stream(uriParserResultView);
+      }
+      List<Object> jpaEntities = streamedEntities == null ? jpaProcessor.<Object> process(uriParserResultView) : null;
 
       InlineCount inlineCount = uriParserResultView.getInlineCount();
       if (inlineCount != null && inlineCount.equals(InlineCount.ALLPAGES)) {
-        ((UriInfoImpl) uriParserResultView).setCount(true);
-        responseBuilder.setCount(jpaProcessor.process((GetEntitySetCountUriInfo) uriParserResultView));
+        responseBuilder.setCount(countEntitySet(uriParserResultView, jpaEntities));
+      } else {
+        responseBuilder.setCount(-1);
       }
 
-      if (uriParserResultView.isNew()) {
+      if (streamedEntities != null) {
+        oDataResponse =
+            ((ODataJPAStreamingResponseBuilder) responseBuilder).build(uriParserResultView,
+                new StreamedEntities(streamedEntities), contentType);
+        streamed = true;
+      } else if (uriParserResultView.isNew()) {
         oDataResponse =
             responseBuilder.build((GetEntityUriInfo)uriParserResultView, jpaEntities.get(0), contentType);
       } else {
@@ -71,11 +89,71 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
             responseBuilder.build(uriParserResultView, jpaEntities, contentType);
       }
     } finally {
-      close();
+      if (!streamed) {
+        close();
+      }
     }
     return oDataResponse;
   }
 
+  /*
+   * Entities read while the response is written; the processor is closed together with the response entity.
+   */
+  private final class StreamedEntities implements Iterator<Object>, Closeable {
+
+    private final Iterator<Object> entities;
+
+    private StreamedEntities(final Iterator<Object> entities) {
+      this.entities = entities;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return entities.hasNext();
+    }
+
+    @Override
+    public Object next() {
+      return entities.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (entities instanceof Closeable) {
+          ((Closeable) entities).close();
+        }
+      } finally {
+        ODataJPADefaultProcessor.this.close();
+      }
+    }
+  }
+
+  /*
+   * The inline count of an entity set is read with a separate SELECT COUNT, so that the entity
+   * query only loads the page restricted by $top and $skip. Results of function imports are
+   * not paged and are counted as they are.
+   */
+  private long countEntitySet(final GetEntitySetUriInfo uriParserResultView, final List<Object> jpaEntities)
+      throws ODataException {
+    if (uriParserResultView.getFunctionImport() != null || uriParserResultView.isNew()) {
+      return jpaEntities.size();
+    }
+    UriInfoImpl uriInfo = (UriInfoImpl) uriParserResultView;
+    boolean isCount = uriInfo.isCount();
+    uriInfo.setCount(true);
+    try {
+      return jpaProcessor.process((GetEntitySetCountUriInfo) uriParserResultView);
+    } finally {
+      uriInfo.setCount(isCount);
+    }
+  }
+
   @Override
   public ODataResponse readEntity(final GetEntityUriInfo uriParserResultView, final String contentType)
       throws ODataException {
@@ -279,13 +357,18 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
       oDataJPAContext.setODataContext(getContext());
 
       ODataResponse batchResponse;
-      List<BatchResponsePart> batchResponseParts = new ArrayList<BatchResponsePart>();
+      List<BatchResponsePart> batchResponseParts;
       PathInfo pathInfo = getContext().getPathInfo();
       EntityProviderBatchProperties batchProperties = EntityProviderBatchProperties.init().pathInfo(pathInfo).build();
-      List<BatchRequestPart> batchParts = EntityProvider.parseBatchRequest(contentType, content, batchProperties);
-
-      for (BatchRequestPart batchPart : batchParts) {
-        batchResponseParts.add(handler.handleBatchPart(batchPart));
+      BatchRequestPartIterator batchParts =
+          EntityProvider.parseBatchRequestIncrementally(contentType, content, batchProperties);
+      if (oDataJPAContext.isIncrementalBatchExecution()) {
+        batchResponseParts = new ArrayList<BatchResponsePart>();
+        while (batchParts.hasNext()) {
+          batchResponseParts.add(handler.handleBatchPart(batchParts.next()));
+        }
+      } else {
+        batchResponseParts = BatchRequestPartExecutor.execute(handler, batchParts);
       }
       batchResponse = EntityProvider.writeBatchResponse(batchResponseParts);
       return batchResponse;
@@ -298,6 +381,7 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
   public BatchResponsePart executeChangeSet(final BatchHandler handler, final List<ODataRequest> requests)
       throws ODataException {
     List<ODataResponse> responses = new ArrayList<ODataResponse>();
+    ODataJPAChangeSetContext changeSet = oDataJPAContext.isBulkChangeSet() ? ODataJPAChangeSetContext.begin() : null;
     try {
       oDataJPAContext.getODataJPATransaction().begin();
 
@@ -313,12 +397,18 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
         }
         responses.add(response);
       }
+      if (changeSet != null) {
+        changeSet.flush(oDataJPAContext.getEntityManager());
+      }
       oDataJPAContext.getODataJPATransaction().commit();
 
       return BatchResponsePart.responses(responses).changeSet(true).build();
     } catch (Exception e) {
       throw new ODataException("Error on processing request content:" + e.getMessage(), e);
     } finally {
+      if (changeSet != null) {
+        ODataJPAChangeSetContext.end();
+      }
       close(true);
     }
   }
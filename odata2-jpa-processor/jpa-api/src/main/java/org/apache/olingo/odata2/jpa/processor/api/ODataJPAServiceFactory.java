@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.jpa.processor.api;
 import org.apache.olingo.odata2.api.ODataCallback;
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
@@ -30,6 +31,7 @@ import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAErrorCallbac
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAAccessFactory;
 import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAFactory;
+import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPASharedEdmFactory;
 
 /**
  * <p>
@@ -115,11 +117,17 @@ public abstract class ODataJPAServiceFactory extends ODataServiceFactory {
    * Creates an OData Service based on the values set in
    * {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext} and
    * {@link org.apache.olingo.odata2.api.processor.ODataContext}.
+   * <p>A query operation of a batch request which is executed concurrently (see
+   * {@link #getBatchQueryExecutor()}) gets a new OData JPA Context and hence its own EntityManager.</p>
    */
   @Override
-  public final ODataService createService(final ODataContext ctx) throws ODataException {
+  public final synchronized ODataService createService(final ODataContext ctx) throws ODataException {
 
     oDataContext = ctx;
+    if (ctx.isInBatchMode()) {
+      // the context of the batch request must not be shared with a concurrently executed query operation
+      oDataJPAContext = null;
+    }
 
     // Initialize OData JPA Context
     oDataJPAContext = initializeODataJPAContext();
@@ -138,12 +146,31 @@ public abstract class ODataJPAServiceFactory extends ODataServiceFactory {
     if(odataJPAProcessor == null) {
       odataJPAProcessor = accessFactory.createODataProcessor(oDataJPAContext);
     }
+    // OData Entity Data Model shared by all requests, if EDM caching is enabled
+    if (accessFactory instanceof ODataJPASharedEdmFactory) {
+      final Edm edm = ((ODataJPASharedEdmFactory) accessFactory).getSharedEdm(oDataJPAContext);
+      if (edm != null) {
+        return createODataSingleProcessorService(edm, odataJPAProcessor);
+      }
+    }
+
     // OData Entity Data Model Provider based on JPA
     EdmProvider edmProvider = accessFactory.createJPAEdmProvider(oDataJPAContext);
 
     return createODataSingleProcessorService(edmProvider, odataJPAProcessor);
   }
 
+  /**
+   * Closes the processor of a service created for a concurrently executed query operation of a batch request
+   * including its EntityManager.
+   */
+  @Override
+  public void releaseService(final ODataService service) throws ODataException {
+    if (service.getProcessor() instanceof ODataJPAProcessor) {
+      ((ODataJPAProcessor) service.getProcessor()).close(true);
+    }
+  }
+
   public ODataSingleProcessor createCustomODataProcessor(ODataJPAContext oDataJPAContext) {
     return null;
   }
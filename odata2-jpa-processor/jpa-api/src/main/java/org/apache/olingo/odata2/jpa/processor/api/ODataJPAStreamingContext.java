@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+/**
+ * Optional extension of an {@link ODataJPAContext} which enables streaming of entity sets.
+ * <p>The context created by {@link org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAFactory}
+ * implements this interface; entity sets of a context which does not implement it are read completely
+ * before the response is written.</p>
+ */
+public interface ODataJPAStreamingContext extends ODataJPAContext {
+
+  /**
+   * The method sets into the context the number of entities read per query while an entity set is streamed.
+   * If set to a positive value and no page size is set, entity set requests without $expand outside of
+   * $batch requests are read chunk by chunk while the response is written, and the persistence context
+   * is cleared after each chunk, so that the memory needed does not grow with the number of entities.
+   * Entity set queries are then ordered by the key properties. (Default is <code>0</code>, i.e., entity
+   * sets are read completely before the response is written)
+   * @param fetchSize the number of entities read per query
+   */
+  public void setStreamingFetchSize(int fetchSize);
+
+  /**
+   * The method returns the number of entities read per query while an entity set is streamed.
+   * @return the number of entities or <code>0</code> if entity sets are not streamed
+   */
+  public int getStreamingFetchSize();
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+import java.util.Iterator;
+
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Optional extension of an {@link ODataJPAResponseBuilder} which writes entity sets while they are read.
+ * <p>{@link ODataJPADefaultProcessor} streams entity sets only if its response builder implements
+ * this interface.</p>
+ */
+public interface ODataJPAStreamingResponseBuilder extends ODataJPAResponseBuilder {
+
+  /**
+   * The method builds an OData response for an OData Query Request whose JPA Entities are read while the
+   * response is written. The iterator is closed together with the response entity if it is
+   * {@link java.io.Closeable}.
+   * @param queryUriInfo is an information about the request URI
+   * @param jpaEntities is an iterator over the queried instances of JPA Entities
+   * @param contentType of the response
+   * @return an instance of type {@link org.apache.olingo.odata2.api.processor.ODataResponse}
+   * @throws ODataJPARuntimeException
+   */
+  public ODataResponse build(final GetEntitySetUriInfo queryUriInfo, final Iterator<Object> jpaEntities,
+      final String contentType) throws ODataJPARuntimeException;
+}
@@ -29,4 +29,9 @@ public interface JPAPaging {
 
   public int getStartPage();
 
+  /**
+   * @return the $skiptoken of the next page or <code>null</code> if there is no next page
+   */
+  public String getNextSkipToken();
+
 }
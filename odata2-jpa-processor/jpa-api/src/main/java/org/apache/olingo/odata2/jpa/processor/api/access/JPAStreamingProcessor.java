@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.access;
+
+import java.util.Iterator;
+
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Optional extension of a {@link JPAProcessor} which reads entity sets while the response is written.
+ * <p>{@link org.apache.olingo.odata2.jpa.processor.api.ODataJPADefaultProcessor} streams entity sets
+ * only if its JPA processor implements this interface.</p>
+ */
+public interface JPAStreamingProcessor extends JPAProcessor {
+
+  /**
+   * Processes OData request for querying an Entity Set like {@link #process(GetEntitySetUriInfo)}, but
+   * returns an iterator which reads the JPA entities chunk by chunk while it is iterated, if the request can
+   * be streamed (see
+   * {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAStreamingContext#setStreamingFetchSize(int)}).
+   * 
+   * @param requestView
+   * is an OData request for querying an entity set
+   * @return an iterator over the JPA entities, which has to be closed if it is {@link java.io.Closeable},
+   * or <code>null</code> if the request is not streamed
+   * @throws ODataJPAModelException
+   * @throws ODataJPARuntimeException
+   */
+  public Iterator<Object> stream(GetEntitySetUriInfo requestView)
+      throws ODataJPAModelException, ODataJPARuntimeException;
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.factory;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+
+/**
+ * Optional extension of an {@link ODataJPAAccessFactory} which provides entity data models
+ * shared by all requests.
+ * <p>{@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAServiceFactory} uses the shared model
+ * instead of a new EDM provider per request if the access factory implements this interface.</p>
+ */
+public interface ODataJPASharedEdmFactory {
+
+  /**
+   * Returns the frozen entity data model for the given context if the context enables
+   * EDM caching (see {@link ODataJPAContext#setEdmCaching(boolean)}).
+   * @param oDataJPAContext
+   * an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext}.
+   * The context should be initialized properly and cannot be null.
+   * @return the shared entity data model or <code>null</code> if the model is built per request
+   * @throws ODataException if the model cannot be built
+   */
+  public Edm getSharedEdm(ODataJPAContext oDataJPAContext) throws ODataException;
+}
@@ -380,6 +380,29 @@ public class ODataExpressionParser {
     positionalParameters.set(new HashMap<Integer, Object>());
   }
 
+  /**
+   * Converts a literal into the value of the positional parameter which replaces it in a where expression.
+   * The positional parameters collected so far are not changed.
+   * @param uriLiteral the literal as passed to the where expression
+   * @param edmSimpleType the type of the literal
+   * @param edmMappedType the JPA type of the compared key property or <code>null</code>
+   * @return the value or <code>null</code> if the literal is written into the where expression itself
+   * @throws ODataJPARuntimeException
+   */
+  public static Object toPositionalParameterValue(final String uriLiteral, final EdmSimpleType edmSimpleType,
+      final Class<?> edmMappedType) throws ODataJPARuntimeException {
+    final Map<Integer, Object> currentParameters = positionalParameters.get();
+    final Integer currentIndex = index.get();
+    try {
+      reInitializePositionalParameters();
+      evaluateComparingExpression(uriLiteral, edmSimpleType, edmMappedType, "?");
+      return positionalParameters.get().get(index.get() - 1);
+    } finally {
+      positionalParameters.set(currentParameters);
+      index.set(currentIndex);
+    }
+  }
+
   /**
    * This method converts String to Byte array
    * @param uriLiteral
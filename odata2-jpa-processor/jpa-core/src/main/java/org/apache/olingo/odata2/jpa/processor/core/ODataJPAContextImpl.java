@@ -26,15 +26,15 @@ import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.uri.UriInfo;
-import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAQueryExtensionEntityListener;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAStreamingContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmExtension;
 
 import java.util.List;
 
-public class ODataJPAContextImpl implements ODataJPAContext {
+public class ODataJPAContextImpl implements ODataJPAStreamingContext {
 
   private String pUnitName;
   private EntityManagerFactory emf;
@@ -45,6 +45,14 @@ public class ODataJPAContextImpl implements ODataJPAContext {
   private String jpaEdmMappingModelName;
   private JPAEdmExtension jpaEdmExtension;
   private int pageSize = 0;
+  private boolean keysetPaging = false;
+  private boolean batchedExpand = false;
+  private boolean edmCaching = false;
+  private boolean queryCaching = false;
+  private boolean bulkChangeSet = false;
+  private boolean incrementalBatchExecution = false;
+  private boolean selectProjection = false;
+  private int streamingFetchSize = 0;
   private JPAPaging jpaPaging;
   private static final ThreadLocal<ODataContext> oDataContextThreadLocal = new ThreadLocal<ODataContext>();
   private boolean defaultNaming = true;
@@ -167,6 +175,86 @@ public class ODataJPAContextImpl implements ODataJPAContext {
     pageSize = size;
   }
 
+  @Override
+  public void setKeysetPaging(final boolean keysetPaging) {
+    this.keysetPaging = keysetPaging;
+  }
+
+  @Override
+  public boolean isKeysetPaging() {
+    return keysetPaging;
+  }
+
+  @Override
+  public void setBatchedExpand(final boolean batchedExpand) {
+    this.batchedExpand = batchedExpand;
+  }
+
+  @Override
+  public boolean isBatchedExpand() {
+    return batchedExpand;
+  }
+
+  @Override
+  public void setEdmCaching(final boolean edmCaching) {
+    this.edmCaching = edmCaching;
+  }
+
+  @Override
+  public boolean isEdmCaching() {
+    return edmCaching;
+  }
+
+  @Override
+  public void setQueryCaching(final boolean queryCaching) {
+    this.queryCaching = queryCaching;
+  }
+
+  @Override
+  public boolean isQueryCaching() {
+    return queryCaching;
+  }
+
+  @Override
+  public void setBulkChangeSet(final boolean bulkChangeSet) {
+    this.bulkChangeSet = bulkChangeSet;
+  }
+
+  @Override
+  public boolean isBulkChangeSet() {
+    return bulkChangeSet;
+  }
+
+  @Override
+  public void setIncrementalBatchExecution(final boolean incrementalBatchExecution) {
+    this.incrementalBatchExecution = incrementalBatchExecution;
+  }
+
+  @Override
+  public boolean isIncrementalBatchExecution() {
+    return incrementalBatchExecution;
+  }
+
+  @Override
+  public void setSelectProjection(final boolean selectProjection) {
+    this.selectProjection = selectProjection;
+  }
+
+  @Override
+  public boolean isSelectProjection() {
+    return selectProjection;
+  }
+
+  @Override
+  public void setStreamingFetchSize(final int fetchSize) {
+    streamingFetchSize = fetchSize;
+  }
+
+  @Override
+  public int getStreamingFetchSize() {
+    return streamingFetchSize;
+  }
+
   @Override
   public void setPaging(final JPAPaging paging) {
     jpaPaging = paging;
@@ -18,15 +18,20 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.jpa.processor.core;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.ODataCallback;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.InlineCount;
+import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
@@ -39,6 +44,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleType;
 import org.apache.olingo.odata2.api.edm.EdmStructuralType;
 import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
@@ -58,18 +64,20 @@ import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
-import org.apache.olingo.odata2.jpa.processor.api.ODataJPAResponseBuilder;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAStreamingResponseBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAEntityParser;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAExpandBatchLoader;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.ReflectionUtil;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPAExpandCallBack;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPATombstoneCallBack;
 
-public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBuilder {
+public final class ODataJPAResponseBuilderDefault implements ODataJPAStreamingResponseBuilder {
 
   private final ODataJPAContext oDataJPAContext;
   private long count = -1;
@@ -106,6 +114,10 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
       if (expandList != null && !expandList.isEmpty()) {
         int count = 0;
         List<EdmNavigationProperty> edmNavPropertyList = constructListofNavProperty(expandList);
+        if (oDataJPAContext.isBatchedExpand()) {
+          new JPAExpandBatchLoader(oDataJPAContext.getEntityManager(), jpaResultParser)
+              .load(edmEntityType, jpaEntities, expandList);
+        }
         for (Object jpaEntity : jpaEntities) {
           Map<String, Object> relationShipMap = edmEntityList.get(count);
           HashMap<String, Object> navigationMap =
@@ -131,6 +143,86 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
     return odataResponse;
   }
 
+  /* Response for Read Entity Set written while the entities are read */
+  @Override
+  public ODataResponse build(final GetEntitySetUriInfo resultsView, final Iterator<Object> jpaEntities,
+      final String contentType) throws ODataJPARuntimeException {
+
+    ODataResponse odataResponse = null;
+    try {
+      // reads the first chunk, so that a failing query is reported before the response is written
+      jpaEntities.hasNext();
+      EdmEntityType edmEntityType = resultsView.getTargetEntitySet().getEntityType();
+      JPAEntityParser jpaResultParser = new JPAEntityParser(oDataJPAContext, (UriInfo) resultsView);
+      final List<SelectItem> selectedItems = resultsView.getSelect();
+      List<EdmProperty> edmProperties = selectedItems != null && !selectedItems.isEmpty() ?
+          buildSelectItemList(selectedItems, edmEntityType) : getEdmProperties(edmEntityType);
+
+      EntityProviderWriteProperties feedProperties = getEntityProviderProperties(oDataJPAContext, resultsView, null,
+          count);
+      odataResponse = EntityProvider.writeFeed(contentType, resultsView.getTargetEntitySet(),
+          new EdmEntityIterator(jpaEntities, jpaResultParser, edmProperties, edmEntityType), feedProperties);
+      odataResponse = ODataResponse.fromResponse(odataResponse).status(HttpStatusCodes.OK).build();
+
+    } catch (EntityProviderException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    } catch (ODataRuntimeException e) {
+      if (e.getCause() instanceof ODataJPARuntimeException) {
+        throw (ODataJPARuntimeException) e.getCause();
+      }
+      throw e;
+    }
+
+    return odataResponse;
+  }
+
+  /*
+   * Parses each JPA entity to its property value map when the feed producer asks for the next entry.
+   */
+  private static final class EdmEntityIterator implements Iterator<Map<String, Object>>, Closeable {
+
+    private final Iterator<Object> jpaEntities;
+    private final JPAEntityParser jpaResultParser;
+    private final List<EdmProperty> edmProperties;
+    private final EdmEntityType edmEntityType;
+
+    private EdmEntityIterator(final Iterator<Object> jpaEntities, final JPAEntityParser jpaResultParser,
+        final List<EdmProperty> edmProperties, final EdmEntityType edmEntityType) {
+      this.jpaEntities = jpaEntities;
+      this.jpaResultParser = jpaResultParser;
+      this.edmProperties = edmProperties;
+      this.edmEntityType = edmEntityType;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return jpaEntities.hasNext();
+    }
+
+    @Override
+    public Map<String, Object> next() {
+      try {
+        return jpaResultParser.parse2EdmPropertyValueMap(jpaEntities.next(), edmProperties, edmEntityType);
+      } catch (ODataJPARuntimeException e) {
+        throw new ODataRuntimeException(e);
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (jpaEntities instanceof Closeable) {
+        ((Closeable) jpaEntities).close();
+      }
+    }
+  }
+
   /* Response for Read Entity */
   @Override
   public ODataResponse build(final GetEntityUriInfo resultsView, final Object jpaEntity,
@@ -161,6 +253,10 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
 
       expandList = resultsView.getExpand();
       if (expandList != null && !expandList.isEmpty()) {
+        if (oDataJPAContext.isBatchedExpand()) {
+          new JPAExpandBatchLoader(oDataJPAContext.getEntityManager(), jpaResultParser)
+              .load(edmEntityType, Collections.singletonList(jpaEntity), expandList);
+        }
         HashMap<String, Object> navigationMap =
             jpaResultParser.parse2EdmNavigationValueMap(jpaEntity, constructListofNavProperty(expandList));
         edmPropertyValueMap.putAll(navigationMap);
@@ -522,12 +618,12 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
       entityFeedPropertiesBuilder =
           EntityProviderWriteProperties.serviceRoot(pathInfo.getServiceRoot());
       JPAPaging paging = odataJPAContext.getPaging();
-      if (odataJPAContext.getPageSize() > 0 && paging != null && paging.getNextPage() > 0) {
+      if (odataJPAContext.getPageSize() > 0 && paging != null && paging.getNextSkipToken() != null) {
         String nextLink =
             serviceRoot.relativize(pathInfo.getRequestUri()).toString();
         nextLink = percentEncodeNextLink(nextLink);
         nextLink += (nextLink != null ? nextLink.contains("?") ? "&" : "?" : "?")
-            + "$skiptoken=" + odataJPAContext.getPaging().getNextPage();
+            + "$skiptoken=" + paging.getNextSkipToken();
         entityFeedPropertiesBuilder.nextLink(nextLink);
       }
       entityFeedPropertiesBuilder.inlineCount(count);
@@ -569,36 +665,6 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
         .replaceFirst("(?:\\?|&)$", ""); // Remove potentially trailing "?" or "&" left over from remove actions
   }
 
-  /*
-   * This method handles $inlinecount request. It also modifies the list of results in case of
-   * $inlinecount and $top/$skip combinations. Specific to Entity Set.
-   */
-  private static Integer getInlineCountForNonFilterQueryEntitySet(final List<Map<String, Object>> edmEntityList,
-      final GetEntitySetUriInfo resultsView) {
-    // when $skip and/or $top is present with $inlinecount, first get the total count
-    Integer count = null;
-    if (resultsView.getInlineCount() == InlineCount.ALLPAGES) {
-      if (resultsView.getSkip() != null || resultsView.getTop() != null) {
-        count = edmEntityList.size();
-        // Now update the list
-        if (resultsView.getSkip() != null) {
-          // Index checks to avoid IndexOutOfBoundsException
-          if (resultsView.getSkip() > edmEntityList.size()) {
-            edmEntityList.clear();
-            return count;
-          }
-          edmEntityList.subList(0, resultsView.getSkip()).clear();
-        }
-        if (resultsView.getTop() != null && resultsView.getTop() >= 0 && resultsView.getTop() < edmEntityList.size()) {
-          final List<Map<String, Object>> edmEntitySubList =
-              new ArrayList<Map<String, Object>>(edmEntityList.subList(0, resultsView.getTop()));
-          edmEntityList.retainAll(edmEntitySubList);
-        }
-      }
-    }// Inlinecount of None is handled by default - null
-    return count;
-  }
-
   private static EntityProviderWriteProperties getEntityProviderProperties(final ODataJPAContext odataJPAContext,
       final GetEntityUriInfo resultsView) throws ODataJPARuntimeException {
     ODataEntityProviderPropertiesBuilder entityFeedPropertiesBuilder = null;
@@ -659,6 +725,15 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
           selectPropertyList.add(keyProperty);
         }
       }
+      // the ETag is computed from the concurrency tokens even if they are not selected
+      for (String propertyName : entity.getPropertyNames()) {
+        EdmTyped property = entity.getProperty(propertyName);
+        if (property instanceof EdmProperty && !selectPropertyList.contains(property)
+            && ((EdmProperty) property).getFacets() != null
+            && ((EdmProperty) property).getFacets().getConcurrencyMode() == EdmConcurrencyMode.Fixed) {
+          selectPropertyList.add((EdmProperty) property);
+        }
+      }
 
     } catch (EdmException e) {
       throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide registry of resolved getter and setter methods keyed by JPA class.
+ * <p>{@link JPAEntityParser} instances are created per request and per expand callback;
+ * the registry makes the case-insensitive method resolution and failed lookups a one-time cost
+ * per JPA class instead of a per-request cost.</p>
+ * <p>The classes are weakly referenced. The resolved methods are held by their
+ * {@link JPAPropertyAccessor}s, which the registry references weakly as well; they stay cached as long as
+ * a parser uses them and are resolved again from the stored method names once they have been collected.
+ * So the registry does not keep the class loader of a redeployed application alive.</p>
+ */
+public final class JPAAccessorRegistry {
+
+  private static final JPAAccessorRegistry INSTANCE = new JPAAccessorRegistry();
+
+  /** Marker for methods which do not exist. */
+  private static final Object NO_SUCH_METHOD = new Object();
+  /** Prefix of the keys of accessors created for a given method. */
+  private static final char ACCESSOR_KEY = '#';
+
+  private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+  static {
+    for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+        long.class, float.class, double.class }) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  private final Map<Class<?>, ConcurrentMap<String, Object>> methods =
+      new WeakHashMap<Class<?>, ConcurrentMap<String, Object>>();
+
+  private JPAAccessorRegistry() {}
+
+  /**
+   * @return the process-wide registry
+   */
+  public static JPAAccessorRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns an accessor for a getter method.
+   * @param method the getter method
+   * @return the accessor
+   */
+  public JPAPropertyAccessor getAccessor(final Method method) {
+    final ConcurrentMap<String, Object> classMethods = getClassMethods(method.getDeclaringClass());
+    final String key = ACCESSOR_KEY + getSignature(method.getName(), method.getParameterTypes());
+    final Object entry = classMethods.get(key);
+    JPAPropertyAccessor accessor = entry == null ? null : ((ResolvedMethod) entry).get();
+    if (accessor == null) {
+      accessor = new JPAPropertyAccessor(method);
+      classMethods.put(key, new ResolvedMethod(null, accessor));
+    }
+    return accessor;
+  }
+
+  /**
+   * Looks up a method by its name ignoring case, as {@link ReflectionUtil#getMethod(Object, String)}.
+   * @param type the JPA class
+   * @param name the method name
+   * @return the method
+   * @throws NoSuchMethodException if the class has no such method
+   */
+  public Method getMethod(final Class<?> type, final String name) throws NoSuchMethodException {
+    final ConcurrentMap<String, Object> classMethods = getClassMethods(type);
+    final Object entry = classMethods.get(name);
+    if (entry == NO_SUCH_METHOD) {
+      throw new NoSuchMethodException(name);
+    }
+    JPAPropertyAccessor accessor = entry == null ? null : ((ResolvedMethod) entry).get();
+    if (accessor == null) {
+      Method method;
+      if (entry == null) {
+        try {
+          method = ReflectionUtil.getMethod(type, name);
+        } catch (NoSuchMethodException e) {
+          classMethods.putIfAbsent(name, NO_SUCH_METHOD);
+          throw new NoSuchMethodException(name);
+        }
+      } else {
+        method = ((ResolvedMethod) entry).signature.resolve(type);
+      }
+      accessor = getAccessor(method);
+      classMethods.put(name, new ResolvedMethod(
+          entry == null ? new MethodSignature(method) : ((ResolvedMethod) entry).signature, accessor));
+    }
+    return accessor.getMethod();
+  }
+
+  /**
+   * Looks up a public method by its exact signature, as {@link Class#getMethod(String, Class...)}.
+   * @param type the JPA class
+   * @param name the method name
+   * @param parameterTypes the parameter types
+   * @return the method
+   * @throws NoSuchMethodException if the class has no such method
+   */
+  public Method getExactMethod(final Class<?> type, final String name, final Class<?>... parameterTypes)
+      throws NoSuchMethodException {
+    final String signature = getSignature(name, parameterTypes);
+    final ConcurrentMap<String, Object> classMethods = getClassMethods(type);
+    final Object entry = classMethods.get(signature);
+    if (entry == NO_SUCH_METHOD) {
+      throw new NoSuchMethodException(name);
+    }
+    JPAPropertyAccessor accessor = entry == null ? null : ((ResolvedMethod) entry).get();
+    if (accessor == null) {
+      try {
+        accessor = getAccessor(type.getMethod(name, parameterTypes));
+      } catch (NoSuchMethodException e) {
+        classMethods.putIfAbsent(signature, NO_SUCH_METHOD);
+        throw new NoSuchMethodException(name);
+      }
+      classMethods.put(signature, new ResolvedMethod(null, accessor));
+    }
+    return accessor.getMethod();
+  }
+
+  /**
+   * Removes all resolved methods, e.g. after classes have been redeployed.
+   */
+  public void clear() {
+    synchronized (methods) {
+      methods.clear();
+    }
+  }
+
+  private ConcurrentMap<String, Object> getClassMethods(final Class<?> type) {
+    synchronized (methods) {
+      ConcurrentMap<String, Object> classMethods = methods.get(type);
+      if (classMethods == null) {
+        classMethods = new ConcurrentHashMap<String, Object>();
+        methods.put(type, classMethods);
+      }
+      return classMethods;
+    }
+  }
+
+  private static String getSignature(final String name, final Class<?>[] parameterTypes) {
+    // the parentheses keep signatures apart from the case-insensitive names looked up by getMethod
+    StringBuilder signature = new StringBuilder(name).append('(');
+    if (parameterTypes != null) {
+      for (Class<?> parameterType : parameterTypes) {
+        signature.append(parameterType.getName()).append(',');
+      }
+    }
+    return signature.append(')').toString();
+  }
+
+  /* A resolved method; the accessor is weakly referenced as it keeps the class of the method alive. */
+  private static final class ResolvedMethod {
+    private final MethodSignature signature;
+    private final Reference<JPAPropertyAccessor> accessor;
+
+    private ResolvedMethod(final MethodSignature signature, final JPAPropertyAccessor accessor) {
+      this.signature = signature;
+      this.accessor = new WeakReference<JPAPropertyAccessor>(accessor);
+    }
+
+    private JPAPropertyAccessor get() {
+      return accessor.get();
+    }
+  }
+
+  /* Name and parameter type names of a method, to resolve it again once its accessor has been collected. */
+  private static final class MethodSignature {
+    private final String name;
+    private final String[] parameterTypes;
+    private final boolean inherited;
+
+    private MethodSignature(final Method method) {
+      name = method.getName();
+      final Class<?>[] types = method.getParameterTypes();
+      parameterTypes = new String[types.length];
+      for (int i = 0; i < types.length; i++) {
+        parameterTypes[i] = types[i].getName();
+      }
+      // public methods are found among the inherited ones, all others among the declared ones
+      inherited = Modifier.isPublic(method.getModifiers());
+    }
+
+    private Method resolve(final Class<?> type) throws NoSuchMethodException {
+      Class<?>[] types = new Class<?>[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++) {
+        types[i] = PRIMITIVE_TYPES.get(parameterTypes[i]);
+        if (types[i] == null) {
+          try {
+            types[i] = Class.forName(parameterTypes[i], false, type.getClassLoader());
+          } catch (ClassNotFoundException e) {
+            throw new NoSuchMethodException(name);
+          }
+        }
+      }
+      return inherited ? type.getMethod(name, types) : type.getDeclaredMethod(name, types);
+    }
+  }
+}
@@ -23,7 +23,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Blob;
 import java.sql.Clob;
@@ -60,6 +59,8 @@ public final class JPAEntityParser {
 
   private HashMap<String, HashMap<String, Method>> jpaEntityAccessMap = null;
   private HashMap<String, HashMap<String, String>> jpaEmbeddableKeyMap = null;
+  /* accessors used by this parser; holding them keeps them cached in the registry while the parser reads */
+  private final HashMap<Method, JPAPropertyAccessor> accessors = new HashMap<Method, JPAPropertyAccessor>();
 
 
   private final ODataJPAContext oDataJPAContext;
@@ -103,11 +104,14 @@ public final class JPAEntityParser {
     Object propertyValue = null;
     String jpaEntityAccessKey = null;
 
+    final JPAQueryProjection.Row row = jpaEntity instanceof JPAQueryProjection.Row ?
+        (JPAQueryProjection.Row) jpaEntity : null;
     jpaEntityAccessKey = jpaEntity.getClass().getName();
-    if (!jpaEntityAccessMap.containsKey(jpaEntityAccessKey)) {
+    // rows hold the values read by a projection query, so no getters are needed
+    if (row == null && !jpaEntityAccessMap.containsKey(jpaEntityAccessKey)) {
       accessModifierMap =
           getAccessModifiers((List<EdmProperty>) selectPropertyList, jpaEntity.getClass(), ACCESS_MODIFIER_GET);
-    } else {
+    } else if (row == null) {
       accessModifierMap = jpaEntityAccessMap.get(jpaEntityAccessKey);
     }
 
@@ -151,7 +155,12 @@ public final class JPAEntityParser {
 
         propertyValue = jpaEntity;
         String propertyName = property.getName();
-        if (((EdmSimplePropertyImplProv) property).getComposite() != null) {
+        if (row != null) {
+          propertyValue = row.get(propertyName);
+          if (defaults != null && propertyValue == null) {
+            propertyValue = defaults.get(propertyName);
+          }
+        } else if (((EdmSimplePropertyImplProv) property).getComposite() != null) {
           propertyValue = "";
           boolean isNull = true;
           for(EdmProperty p: ((EdmSimplePropertyImplProv) property).getComposite()) {
@@ -173,7 +182,7 @@ public final class JPAEntityParser {
                 value = getEmbeddablePropertyValue(methodName, jpaEntity);
               }
             } else {
-              value = getPropertyValue(accessModifierMap.get(p.getName()), jpaEntity, p.getName());
+              value = readPropertyValue(accessModifierMap.get(p.getName()), jpaEntity, p.getName());
             }
             if (value != null) {
               isNull = false;
@@ -202,7 +211,7 @@ public final class JPAEntityParser {
               }
             }
           } else {
-            propertyValue = getPropertyValue(accessModifierMap.get(propertyName), propertyValue, propertyName);
+            propertyValue = readPropertyValue(accessModifierMap.get(propertyName), propertyValue, propertyName);
           }
           if (property.getType().getKind()
               .equals(EdmTypeKind.COMPLEX)) {
@@ -280,14 +289,13 @@ public final class JPAEntityParser {
     			Method getterMethod = null;
     			JPAEdmMapping jpaEdmMapping = (JPAEdmMapping)navigationProperty.getMapping();
     			if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
-    				getterMethod = jpaEntity.getClass().getMethod(ACCESS_MODIFIER_GET, String.class);
+    				getterMethod = JPAAccessorRegistry.getInstance().getExactMethod(jpaEntity.getClass(),
+    				    ACCESS_MODIFIER_GET, String.class);
     			}else{
-    				getterMethod = jpaEntity.getClass()
-    						.getMethod(methodName, (Class<?>[]) null);
+    				getterMethod = JPAAccessorRegistry.getInstance().getExactMethod(jpaEntity.getClass(), methodName);
     			}
 
-    			getterMethod.setAccessible(true);
-    			result = getPropertyValue(getterMethod, jpaEntity,
+    			result = readPropertyValue(getterMethod, jpaEntity,
     					navigationProperty.getMapping().getInternalName());
     			navigationMap.put(navigationProperty.getName(), result);
     		}
@@ -329,53 +337,23 @@ public final class JPAEntityParser {
 
   public static Object getPropertyValue(final Method method, final Object entity, String propertyName) 
 		  throws ODataJPARuntimeException {
-    Object propertyValue = null;
     if (method == null) {
       return null;
     }
-    try {
-      method.setAccessible(true);
-      Class<?> returnType = method.getReturnType();
+    return JPAAccessorRegistry.getInstance().getAccessor(method).getValue(entity, propertyName);
+  }
 
-      if (returnType.equals(char[].class)) {
-        char[] ch = (char[]) method.invoke(entity);
-        if (ch != null) {
-          propertyValue = (String) String.valueOf((char[]) method.invoke(entity));
-        }
-      } else if (returnType.equals(Character[].class)) {
-        propertyValue = (String) toString((Character[]) method.invoke(entity));
-      } else if (returnType.equals(char.class)) {
-        char c = (Character) method.invoke(entity);
-        if (c != '\u0000') {
-          propertyValue = (String) String.valueOf(c);
-        }
-      } else if (returnType.equals(Character.class)) {
-        Character c = (Character) method.invoke(entity);
-        if (c != null) {
-          propertyValue = toString(new Character[] { c });
-        }
-      } else if (returnType.equals(Blob.class)) {
-        propertyValue = getBytes((Blob) method.invoke(entity));
-      } else if (returnType.equals(Clob.class)) {
-        propertyValue = getString((Clob) method.invoke(entity));
-      } else {
-    	  if(method.getParameterTypes().length>0) {
-    		  propertyValue = method.invoke(entity,propertyName);
-    	  } else {
-    		  propertyValue = method.invoke(entity);
-    	  }
-      }
-    } catch (IllegalAccessException e) {
-      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
-    } catch (IllegalArgumentException e) {
-      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
-    } catch (InvocationTargetException e) {
-      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
-    } catch (SecurityException e) {
-      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+  private Object readPropertyValue(final Method method, final Object entity, final String propertyName)
+      throws ODataJPARuntimeException {
+    if (method == null) {
+      return null;
     }
-
-    return propertyValue;
+    JPAPropertyAccessor accessor = accessors.get(method);
+    if (accessor == null) {
+      accessor = JPAAccessorRegistry.getInstance().getAccessor(method);
+      accessors.put(method, accessor);
+    }
+    return accessor.getValue(entity, propertyName);
   }
 
   public static String getString(final Clob clob) throws ODataJPARuntimeException {
@@ -510,13 +488,13 @@ public final class JPAEntityParser {
         }
         if (isVirtualAccess) {
 
-        	method = propertyValue.getClass().getMethod(ACCESS_MODIFIER_GET, String.class);
+        	method = JPAAccessorRegistry.getInstance().getExactMethod(propertyValue.getClass(), ACCESS_MODIFIER_GET,
+        	    String.class);
         	namePart = namePart.replaceFirst(ACCESS_MODIFIER_GET, "");
         } else {
-        	method = propertyValue.getClass().getMethod(namePart, (Class<?>[]) null);
+        	method = JPAAccessorRegistry.getInstance().getExactMethod(propertyValue.getClass(), namePart);
         }
-        method.setAccessible(true);
-        propertyValue = getPropertyValue(method, propertyValue,namePart);
+        propertyValue = readPropertyValue(method, propertyValue,namePart);
         isVirtualAccess = false;
       }
     } catch (NoSuchMethodException e) {
@@ -663,6 +641,7 @@ public final class JPAEntityParser {
     if (embeddableKey == null) {
       embeddableKey = new HashMap<String, String>();
     }
+    JPAAccessorRegistry registry = JPAAccessorRegistry.getInstance();
 
     Method method = null;
     try {
@@ -688,28 +667,28 @@ public final class JPAEntityParser {
         		  JPAEdmMapping jpaEdmMapping = (JPAEdmMapping) property.getMapping();
         		  if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
         		    try {
-                  accessModifierMap.put(propertyName, jpaEntityType.getMethod(ACCESS_MODIFIER_SET,
-                      new Class<?>[]{String.class, Object.class}));
+                  accessModifierMap.put(propertyName, registry.getExactMethod(jpaEntityType, ACCESS_MODIFIER_SET,
+                      String.class, Object.class));
                 } catch(Exception e) {
         		      try {
-                    accessModifierMap.put(propertyName, ReflectionUtil.getMethod(jpaEntityType, methodName));
+                    accessModifierMap.put(propertyName, registry.getMethod(jpaEntityType, methodName));
                   } catch(Exception e2) {
                     accessModifierMap.put(propertyName, null);
                   }
                 }
         		  }else {
-        			  accessModifierMap.put(propertyName,  ReflectionUtil.getMethod(jpaEntityType, methodName));
+        			  accessModifierMap.put(propertyName,  registry.getMethod(jpaEntityType, methodName));
         		  }
         	  } else {
         		  JPAEdmMapping jpaEdmMapping = (JPAEdmMapping) property.getMapping();
         		  if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
         		    try {
-                  method = jpaEntityType.getMethod(ACCESS_MODIFIER_GET, String.class);
+                  method = registry.getExactMethod(jpaEntityType, ACCESS_MODIFIER_GET, String.class);
                 } catch(Exception e) {
         		      //Abafa
                 }
         		  }else{
-        			  method =  ReflectionUtil.getMethod(jpaEntityType, methodName);
+        			  method =  registry.getMethod(jpaEntityType, methodName);
         		  }
         	  }
           }
@@ -722,7 +701,7 @@ public final class JPAEntityParser {
                 && accessModifier.equals(ACCESS_MODIFIER_GET)) {
               String nameWithIs = getAccessModifierName(property.getName(),
                   property.getMapping(), ACCESS_MODIFIER_IS);
-              method = jpaEntityType.getMethod(nameWithIs, (Class<?>[]) null);
+              method = registry.getExactMethod(jpaEntityType, nameWithIs);
             } else {
               throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e1);
             }
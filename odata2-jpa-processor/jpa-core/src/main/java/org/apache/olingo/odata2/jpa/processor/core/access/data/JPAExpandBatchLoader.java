@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Initializes the expanded navigation properties of a list of JPA entities level by level with
+ * one query per navigation property and expand level (instead of one lazy load per entity).
+ * <p>The query has the form
+ * <code>SELECT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.items WHERE E1.id IN :keys</code>; its result
+ * is not used, it only loads the relationship into the managed entities of the persistence context.
+ * The entities reached this way are the parents of the next expand level. The navigation values are
+ * still read with the getter methods, so the JPA entities and the written response stay unchanged.
+ * Navigation properties which cannot be loaded this way (e.g. of entities with composite keys or
+ * virtual access) are left to the lazy loading of the getter methods.</p>
+ */
+public class JPAExpandBatchLoader {
+
+  /** Maximum number of keys used in a single query. */
+  public static final int MAX_KEYS_PER_QUERY = 500;
+
+  private static final String KEYS_PARAMETER = "keys";
+  private static final String SOURCE_ALIAS = "E1";
+  private static final String FETCH = "FETCH";
+
+  private final EntityManager em;
+  private final JPAEntityParser parser;
+
+  public JPAExpandBatchLoader(final EntityManager em, final JPAEntityParser parser) {
+    this.em = em;
+    this.parser = parser;
+  }
+
+  /**
+   * Loads the navigation properties of the expand paths for all given entities and,
+   * level by level, for all entities reached by them.
+   * @param entityType the entity type of the JPA entities
+   * @param jpaEntities the JPA entities
+   * @param expandList the expand paths, as returned by the URI info
+   * @throws ODataJPARuntimeException
+   */
+  public void load(final EdmEntityType entityType, final List<Object> jpaEntities,
+      final List<ArrayList<NavigationPropertySegment>> expandList) throws ODataJPARuntimeException {
+    try {
+      loadLevel(entityType, jpaEntities, new ArrayList<List<NavigationPropertySegment>>(expandList));
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+  }
+
+  private void loadLevel(final EdmEntityType entityType, final List<Object> jpaEntities,
+      final List<List<NavigationPropertySegment>> expandPaths) throws EdmException, ODataJPARuntimeException {
+    // the remaining paths of the next level grouped by the navigation property of this level
+    Map<String, NavigationPropertySegment> segments = new LinkedHashMap<String, NavigationPropertySegment>();
+    Map<String, List<List<NavigationPropertySegment>>> nextPaths =
+        new LinkedHashMap<String, List<List<NavigationPropertySegment>>>();
+    for (List<NavigationPropertySegment> expandPath : expandPaths) {
+      if (expandPath.isEmpty()) {
+        continue;
+      }
+      final String name = expandPath.get(0).getNavigationProperty().getName();
+      if (!segments.containsKey(name)) {
+        segments.put(name, expandPath.get(0));
+        nextPaths.put(name, new ArrayList<List<NavigationPropertySegment>>());
+      }
+      if (expandPath.size() > 1) {
+        nextPaths.get(name).add(expandPath.subList(1, expandPath.size()));
+      }
+    }
+
+    final EdmProperty keyProperty = getBatchableKeyProperty(entityType);
+    final String keyGetter = keyProperty == null ? null : JPAEntityParser.getAccessModifierName(
+        keyProperty.getName(), keyProperty.getMapping(), JPAEntityParser.ACCESS_MODIFIER_GET);
+    final List<Object> keys = keyGetter == null ? Collections.emptyList() : getKeys(keyGetter, jpaEntities);
+
+    for (Map.Entry<String, NavigationPropertySegment> entry : segments.entrySet()) {
+      final NavigationPropertySegment segment = entry.getValue();
+      final EdmNavigationProperty navigationProperty = segment.getNavigationProperty();
+      if (keys.size() > 1 && isBatchable(navigationProperty)) {
+        fetch(entityType, keyProperty, navigationProperty, keys);
+      }
+      final List<List<NavigationPropertySegment>> paths = nextPaths.get(entry.getKey());
+      if (!paths.isEmpty()) {
+        loadLevel(segment.getTargetEntitySet().getEntityType(), getTargets(jpaEntities, navigationProperty), paths);
+      }
+    }
+  }
+
+  private List<Object> getKeys(final String keyGetter, final List<Object> jpaEntities)
+      throws ODataJPARuntimeException {
+    Set<Object> keys = new HashSet<Object>();
+    List<Object> orderedKeys = new ArrayList<Object>(jpaEntities.size());
+    for (Object jpaEntity : jpaEntities) {
+      if (jpaEntity != null) {
+        final Object key = parser.getEmbeddablePropertyValue(keyGetter, jpaEntity);
+        if (key != null && keys.add(key)) {
+          orderedKeys.add(key);
+        }
+      }
+    }
+    return orderedKeys;
+  }
+
+  /* Reads the targets with the getter methods; they are the parents of the next expand level. */
+  private List<Object> getTargets(final List<Object> jpaEntities, final EdmNavigationProperty navigationProperty)
+      throws EdmException, ODataJPARuntimeException {
+    final List<EdmNavigationProperty> navigationProperties = Collections.singletonList(navigationProperty);
+    List<Object> targets = new ArrayList<Object>();
+    for (Object jpaEntity : jpaEntities) {
+      if (jpaEntity == null) {
+        continue;
+      }
+      final Object value =
+          parser.parse2EdmNavigationValueMap(jpaEntity, navigationProperties).get(navigationProperty.getName());
+      if (value instanceof Collection) {
+        targets.addAll((Collection<?>) value);
+      } else if (value != null) {
+        targets.add(value);
+      }
+    }
+    return targets;
+  }
+
+  private void fetch(final EdmEntityType entityType, final EdmProperty keyProperty,
+      final EdmNavigationProperty navigationProperty, final List<Object> keys)
+      throws EdmException, ODataJPARuntimeException {
+    final String jpqlStatement = JPQLStatement.KEYWORD.SELECT + JPQLStatement.DELIMITER.SPACE + SOURCE_ALIAS
+        + JPQLStatement.DELIMITER.SPACE + JPQLStatement.KEYWORD.FROM + JPQLStatement.DELIMITER.SPACE
+        + entityType.getMapping().getInternalName() + JPQLStatement.DELIMITER.SPACE + SOURCE_ALIAS
+        + JPQLStatement.DELIMITER.SPACE + JPQLStatement.KEYWORD.LEFT_OUTER_JOIN + JPQLStatement.DELIMITER.SPACE
+        + FETCH + JPQLStatement.DELIMITER.SPACE
+        + SOURCE_ALIAS + JPQLStatement.DELIMITER.PERIOD + navigationProperty.getMapping().getInternalName()
+        + JPQLStatement.DELIMITER.SPACE + JPQLStatement.KEYWORD.WHERE + JPQLStatement.DELIMITER.SPACE
+        + SOURCE_ALIAS + JPQLStatement.DELIMITER.PERIOD + getInternalName(keyProperty)
+        + " IN " + JPQLStatement.DELIMITER.COLON + KEYS_PARAMETER;
+
+    for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_QUERY) {
+      try {
+        Query query = em.createQuery(jpqlStatement);
+        query.setParameter(KEYS_PARAMETER, keys.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, keys.size())));
+        query.getResultList();
+      } catch (IllegalArgumentException e) {
+        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+      } catch (PersistenceException e) {
+        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+      }
+    }
+  }
+
+  private static EdmProperty getBatchableKeyProperty(final EdmEntityType entityType) throws EdmException {
+    final EdmMapping mapping = entityType.getMapping();
+    if (!(mapping instanceof JPAEdmMapping) || ((JPAEdmMapping) mapping).isVirtualAccess()
+        || mapping.getInternalName() == null) {
+      return null;
+    }
+    final List<EdmProperty> keyProperties = entityType.getKeyProperties();
+    if (keyProperties.size() != 1) {
+      return null;
+    }
+    final EdmMapping keyMapping = keyProperties.get(0).getMapping();
+    if (keyMapping != null && (keyMapping.getInternalExpression() != null
+        || (keyMapping.getInternalName() != null && keyMapping.getInternalName().indexOf('.') >= 0))) {
+      return null;
+    }
+    return keyProperties.get(0);
+  }
+
+  private static boolean isBatchable(final EdmNavigationProperty navigationProperty) throws EdmException {
+    final EdmMapping mapping = navigationProperty.getMapping();
+    return mapping instanceof JPAEdmMapping && !((JPAEdmMapping) mapping).isVirtualAccess()
+        && mapping.getInternalName() != null;
+  }
+
+  private static String getInternalName(final EdmProperty property) throws EdmException {
+    final EdmMapping mapping = property.getMapping();
+    return mapping != null && mapping.getInternalName() != null ? mapping.getInternalName() : property.getName();
+  }
+}
@@ -0,0 +1,426 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
+import org.apache.olingo.odata2.api.uri.expression.OrderExpression;
+import org.apache.olingo.odata2.api.uri.expression.PropertyExpression;
+import org.apache.olingo.odata2.api.uri.expression.SortOrder;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Keyset (seek) pagination of an entity set query.
+ * <p>The entities are ordered by the $orderby properties followed by the key properties.
+ * The $skiptoken of the next page encodes the values of these properties of the last entity
+ * of the current page, and the next page is selected with a predicate like
+ * <code>(E1.name &gt; ?1) OR (E1.name = ?1 AND E1.id &gt; ?2)</code>
+ * instead of letting the database skip all preceding rows.</p>
+ * <p>Keyset pagination is only used for entity sets without navigation, $skip and $top
+ * whose $orderby refers to key properties or to non-nullable properties of the entity itself;
+ * all other requests use offset pagination.</p>
+ */
+public class JPAKeysetPaging {
+
+  private static final String TOKEN_PREFIX = "k";
+  private static final String VALUE_SEPARATOR = ".";
+  private static final String UTF_8 = "UTF-8";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final Map<Class<?>, Class<?>> WRAPPER_TYPES = new HashMap<Class<?>, Class<?>>();
+
+  static {
+    WRAPPER_TYPES.put(boolean.class, Boolean.class);
+    WRAPPER_TYPES.put(byte.class, Byte.class);
+    WRAPPER_TYPES.put(char.class, Character.class);
+    WRAPPER_TYPES.put(short.class, Short.class);
+    WRAPPER_TYPES.put(int.class, Integer.class);
+    WRAPPER_TYPES.put(long.class, Long.class);
+    WRAPPER_TYPES.put(float.class, Float.class);
+    WRAPPER_TYPES.put(double.class, Double.class);
+  }
+
+  private final List<SeekProperty> seekProperties;
+  private final List<Object> lastValues;
+  private final int pageSize;
+  private int firstParameterIndex = 1;
+
+  private JPAKeysetPaging(final List<SeekProperty> seekProperties, final List<Object> lastValues,
+      final int pageSize) {
+    this.seekProperties = seekProperties;
+    this.lastValues = lastValues;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Creates the keyset pagination for the given request.
+   * @param uriInfo the entity set request
+   * @param pageSize the server side page size
+   * @return the keyset pagination or <code>null</code> if the request has to be paged by offset
+   * @throws ODataJPARuntimeException if the $skiptoken is no valid keyset position
+   */
+  public static JPAKeysetPaging create(final GetEntitySetUriInfo uriInfo, final int pageSize)
+      throws ODataJPARuntimeException {
+    if (pageSize <= 0 || !((UriInfo) uriInfo).getNavigationSegments().isEmpty()
+        || uriInfo.getSkip() != null || uriInfo.getTop() != null) {
+      return null;
+    }
+    final String skipToken = uriInfo.getSkipToken();
+    if (skipToken != null && !skipToken.startsWith(TOKEN_PREFIX)) {
+      return null;
+    }
+
+    List<SeekProperty> seekProperties = new ArrayList<SeekProperty>();
+    try {
+      final EdmEntityType entityType = uriInfo.getTargetEntitySet().getEntityType();
+      if (entityType.getMapping() instanceof JPAEdmMapping
+          && ((JPAEdmMapping) entityType.getMapping()).isVirtualAccess()) {
+        return null;
+      }
+      final List<String> keyPropertyNames = entityType.getKeyPropertyNames();
+      if (uriInfo.getOrderBy() != null) {
+        for (OrderExpression order : uriInfo.getOrderBy().getOrders()) {
+          if (order.getExpression().getKind() != ExpressionKind.PROPERTY) {
+            return null;
+          }
+          final EdmTyped edmTyped = ((PropertyExpression) order.getExpression()).getEdmProperty();
+          if (!(edmTyped instanceof EdmProperty)) {
+            return null;
+          }
+          final EdmProperty property = (EdmProperty) edmTyped;
+          if (!keyPropertyNames.contains(property.getName()) && isNullable(property)) {
+            return null;
+          }
+          final SeekProperty seekProperty = SeekProperty.create(property, order.getSortOrder() == SortOrder.desc);
+          if (seekProperty == null) {
+            return null;
+          }
+          seekProperties.add(seekProperty);
+        }
+      }
+      for (EdmProperty keyProperty : entityType.getKeyProperties()) {
+        if (!contains(seekProperties, keyProperty.getName())) {
+          final SeekProperty seekProperty = SeekProperty.create(keyProperty, false);
+          if (seekProperty == null) {
+            return null;
+          }
+          seekProperties.add(seekProperty);
+        }
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+
+    return new JPAKeysetPaging(seekProperties,
+        skipToken == null ? null : parseSkipToken(skipToken, seekProperties), pageSize);
+  }
+
+  /**
+   * @return the maximum number of entities of a page
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * @return <code>true</code> if the request selects a page following a keyset position
+   */
+  public boolean hasPosition() {
+    return lastValues != null;
+  }
+
+  /**
+   * Builds the condition selecting the entities after the keyset position of the $skiptoken.
+   * @param tableAlias the alias of the entity in the JPQL statement
+   * @param firstParameterIndex the index of the first positional parameter used by the condition
+   * @return the condition or <code>null</code> for the first page
+   */
+  public String buildCondition(final String tableAlias, final int firstParameterIndex) {
+    if (lastValues == null) {
+      return null;
+    }
+    this.firstParameterIndex = firstParameterIndex;
+    StringBuilder condition = new StringBuilder();
+    condition.append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+    for (int i = 0; i < seekProperties.size(); i++) {
+      if (i > 0) {
+        condition.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.OR)
+            .append(JPQLStatement.DELIMITER.SPACE);
+      }
+      condition.append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+      for (int j = 0; j < i; j++) {
+        appendComparison(condition, tableAlias, j, JPQLStatement.Operator.EQ);
+        condition.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.AND)
+            .append(JPQLStatement.DELIMITER.SPACE);
+      }
+      appendComparison(condition, tableAlias, i,
+          seekProperties.get(i).descending ? JPQLStatement.Operator.LT : JPQLStatement.Operator.GT);
+      condition.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+    }
+    condition.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+    return condition.toString();
+  }
+
+  /**
+   * Builds the order by clause which orders the entities by the $orderby and key properties.
+   * @param tableAlias the alias of the entity in the JPQL statement
+   * @return the order by clause
+   */
+  public String buildOrderBy(final String tableAlias) {
+    StringBuilder orderBy = new StringBuilder();
+    for (SeekProperty seekProperty : seekProperties) {
+      if (orderBy.length() > 0) {
+        orderBy.append(" , ");
+      }
+      orderBy.append(tableAlias).append(JPQLStatement.DELIMITER.PERIOD).append(seekProperty.attribute);
+      if (seekProperty.descending) {
+        orderBy.append(JPQLStatement.DELIMITER.SPACE).append("DESC");
+      }
+    }
+    return orderBy.toString();
+  }
+
+  /**
+   * Sets the values of the keyset position as parameters of the query built with
+   * the condition of {@link #buildCondition(String, int)}.
+   * @param query the query
+   */
+  public void setParameters(final Query query) {
+    if (lastValues == null) {
+      return;
+    }
+    for (int i = 0; i < lastValues.size(); i++) {
+      final Object value = lastValues.get(i);
+      if (value instanceof Calendar) {
+        query.setParameter(firstParameterIndex + i, (Calendar) value, TemporalType.TIMESTAMP);
+      } else {
+        query.setParameter(firstParameterIndex + i, value);
+      }
+    }
+  }
+
+  /**
+   * Creates the $skiptoken of the page following the given entity.
+   * @param parser the parser used to read the property values
+   * @param lastEntity the last entity of the current page
+   * @return the $skiptoken
+   * @throws ODataJPARuntimeException if a property value cannot be read or is <code>null</code>
+   */
+  public String createSkipToken(final JPAEntityParser parser, final Object lastEntity)
+      throws ODataJPARuntimeException {
+    StringBuilder skipToken = new StringBuilder(TOKEN_PREFIX);
+    for (int i = 0; i < seekProperties.size(); i++) {
+      final SeekProperty seekProperty = seekProperties.get(i);
+      final Object value = parser.getEmbeddablePropertyValue(seekProperty.getter, lastEntity);
+      if (value == null) {
+        throw ODataJPARuntimeException.throwException(
+            ODataJPARuntimeException.ERROR_JPQL_PARAM_VALUE.addContent(seekProperty.attribute), null);
+      }
+      if (i > 0) {
+        skipToken.append(VALUE_SEPARATOR);
+      }
+      appendHex(skipToken, toString(value));
+    }
+    return skipToken.toString();
+  }
+
+  private void appendComparison(final StringBuilder condition, final String tableAlias, final int index,
+      final String operator) {
+    condition.append(tableAlias).append(JPQLStatement.DELIMITER.PERIOD).append(seekProperties.get(index).attribute)
+        .append(JPQLStatement.DELIMITER.SPACE).append(operator).append(JPQLStatement.DELIMITER.SPACE)
+        .append('?').append(firstParameterIndex + index);
+  }
+
+  private static boolean isNullable(final EdmProperty property) throws EdmException {
+    final EdmFacets facets = property.getFacets();
+    return facets == null || facets.isNullable() == null || facets.isNullable();
+  }
+
+  private static boolean contains(final List<SeekProperty> seekProperties, final String propertyName) {
+    for (SeekProperty seekProperty : seekProperties) {
+      if (seekProperty.propertyName.equals(propertyName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<Object> parseSkipToken(final String skipToken, final List<SeekProperty> seekProperties)
+      throws ODataJPARuntimeException {
+    final String[] parts = skipToken.substring(TOKEN_PREFIX.length()).split("\\" + VALUE_SEPARATOR, -1);
+    if (parts.length != seekProperties.size()) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.ERROR_JPQL_PARAM_VALUE.addContent(skipToken), null);
+    }
+    List<Object> values = new ArrayList<Object>(parts.length);
+    for (int i = 0; i < parts.length; i++) {
+      try {
+        values.add(fromString(parseHex(parts[i]), seekProperties.get(i).type));
+      } catch (Exception e) {
+        throw ODataJPARuntimeException.throwException(
+            ODataJPARuntimeException.ERROR_JPQL_PARAM_VALUE.addContent(skipToken), e);
+      }
+    }
+    return values;
+  }
+
+  private static String toString(final Object value) {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).getTime() + ":" + ((Timestamp) value).getNanos();
+    } else if (value instanceof Date) {
+      return String.valueOf(((Date) value).getTime());
+    } else if (value instanceof Calendar) {
+      return String.valueOf(((Calendar) value).getTimeInMillis());
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    } else {
+      return value.toString();
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object fromString(final String value, final Class<?> type) throws Exception {
+    if (type == String.class || type == Object.class) {
+      return value;
+    } else if (type == Character.class) {
+      return Character.valueOf(value.charAt(0));
+    } else if (Date.class.isAssignableFrom(type)) {
+      // attributes declared as java.util.Date may hold a Timestamp, which is encoded with its nanoseconds
+      final int separator = value.indexOf(':');
+      final long millis = Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+      if (separator >= 0 && type.isAssignableFrom(Timestamp.class)) {
+        Timestamp timestamp = new Timestamp(millis);
+        timestamp.setNanos(Integer.parseInt(value.substring(separator + 1)));
+        return timestamp;
+      }
+      return type.getConstructor(long.class).newInstance(millis);
+    } else if (Calendar.class.isAssignableFrom(type)) {
+      final int separator = value.indexOf(':');
+      Calendar calendar = Calendar.getInstance();
+      calendar.setTimeInMillis(Long.parseLong(separator < 0 ? value : value.substring(0, separator)));
+      return calendar;
+    } else if (type.isEnum()) {
+      return Enum.valueOf((Class<? extends Enum>) type, value);
+    } else if (type == UUID.class) {
+      return UUID.fromString(value);
+    }
+    try {
+      final Method valueOf = type.getMethod("valueOf", String.class);
+      if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+        return valueOf.invoke(null, value);
+      }
+    } catch (NoSuchMethodException e) {
+      // fall back to the constructor
+    }
+    final Constructor<?> constructor = type.getConstructor(String.class);
+    return constructor.newInstance(value);
+  }
+
+  private static void appendHex(final StringBuilder builder, final String value) {
+    try {
+      for (byte b : value.getBytes(UTF_8)) {
+        builder.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+      }
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String parseHex(final String hex) throws UnsupportedEncodingException {
+    if (hex.length() % 2 != 0) {
+      throw new IllegalArgumentException(hex);
+    }
+    byte[] bytes = new byte[hex.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * A property the entities are ordered and sought by.
+   */
+  private static final class SeekProperty {
+    private final String propertyName;
+    private final String attribute;
+    private final String getter;
+    private final Class<?> type;
+    private final boolean descending;
+
+    private SeekProperty(final String propertyName, final String attribute, final String getter,
+        final Class<?> type, final boolean descending) {
+      this.propertyName = propertyName;
+      this.attribute = attribute;
+      this.getter = getter;
+      this.type = type;
+      this.descending = descending;
+    }
+
+    static SeekProperty create(final EdmProperty property, final boolean descending)
+        throws EdmException, ODataJPARuntimeException {
+      final EdmMapping mapping = property.getMapping();
+      if (mapping != null && mapping.getInternalExpression() != null) {
+        return null;
+      }
+      Class<?> type = null;
+      if (mapping instanceof JPAEdmMapping) {
+        type = ((JPAEdmMapping) mapping).getJPAType();
+      }
+      if (type == null) {
+        if (!(property.getType() instanceof EdmSimpleType)) {
+          return null;
+        }
+        type = ((EdmSimpleType) property.getType()).getDefaultType();
+      }
+      if (WRAPPER_TYPES.containsKey(type)) {
+        type = WRAPPER_TYPES.get(type);
+      }
+      final String attribute = mapping != null && mapping.getInternalName() != null ?
+          mapping.getInternalName() : property.getName();
+      return new SeekProperty(property.getName(), attribute,
+          JPAEntityParser.getAccessModifierName(property.getName(), mapping, JPAEntityParser.ACCESS_MODIFIER_GET),
+          type, descending);
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.jpa.processor.core.access.data;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
@@ -31,6 +32,7 @@ public class JPAPage implements JPAPaging {
   private int startPage;
   private int nextPage;
   private List<Object> pagedEntries;
+  private String nextSkipToken;
 
   protected JPAPage(final int startPage, final int nextPage, final List<Object> pagedEntities, final int pageSize) {
     this.pageSize = pageSize;
@@ -59,6 +61,18 @@ public class JPAPage implements JPAPaging {
     return startPage;
   }
 
+  @Override
+  public String getNextSkipToken() {
+    if (nextSkipToken != null) {
+      return nextSkipToken;
+    }
+    return nextPage > 0 ? String.valueOf(nextPage) : null;
+  }
+
+  void setNextSkipToken(final String nextSkipToken) {
+    this.nextSkipToken = nextSkipToken;
+  }
+
   public static class JPAPageBuilder {
 
     private int pageSize;
@@ -70,6 +84,7 @@ public class JPAPage implements JPAPaging {
     private Query query;
     private List<Object> entities;
     private List<Object> pagedEntities;
+    private JPAKeysetPaging keysetPaging;
 
     private static class TopSkip {
       public int top;
@@ -109,8 +124,25 @@ public class JPAPage implements JPAPaging {
       return new JPAPage(startPage, nextPage, pagedEntities, pageSize);
     }
 
+    /**
+     * Builds an iterator which reads the page from the query chunk by chunk while it is iterated,
+     * instead of reading the whole page at once. No next page is determined.
+     * @param em the entity manager, which is cleared before each further chunk is read
+     * @param fetchSize the number of entities read per chunk
+     * @param projection the projection of the query or <code>null</code> if it selects entities
+     * @return the iterator
+     */
+    public JPAQueryResultIterator buildIterator(final EntityManager em, final int fetchSize,
+        final JPAQueryProjection projection) {
+      TopSkip topSkip = formulateTopSkip();
+      return new JPAQueryResultIterator(em, query, topSkip.skip, topSkip.top, fetchSize, projection);
+    }
+
     @SuppressWarnings("unchecked")
     private JPAPage buildFromQuery() {
+      if (keysetPaging != null) {
+        return buildFromKeysetQuery();
+      }
       TopSkip topSkip = formulateTopSkip();
       query.setFirstResult(topSkip.skip);
       query.setMaxResults(topSkip.top);
@@ -119,6 +151,14 @@ public class JPAPage implements JPAPaging {
       return new JPAPage(startPage, nextPage, pagedEntities, pageSize);
     }
 
+    @SuppressWarnings("unchecked")
+    private JPAPage buildFromKeysetQuery() {
+      // The query already selects the entities after the keyset position of the skip token
+      query.setMaxResults(keysetPaging.getPageSize());
+      pagedEntities = query.getResultList();
+      return new JPAPage(0, 0, pagedEntities, keysetPaging.getPageSize());
+    }
+
     private TopSkip formulateTopSkip() {
       TopSkip topSkip = new TopSkip();
       int size = 0;
@@ -205,6 +245,11 @@ public class JPAPage implements JPAPaging {
       return this;
     }
 
+    public JPAPageBuilder keysetPaging(final JPAKeysetPaging keysetPaging) {
+      this.keysetPaging = keysetPaging;
+      return this;
+    }
+
     public JPAPageBuilder entities(final List<Object> result) {
       entities = result;
       return this;
@@ -19,12 +19,12 @@
 package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import com.google.gson.JsonElement;
-import org.apache.olingo.odata2.api.commons.InlineCount;
 import org.apache.olingo.odata2.api.edm.*;
 import org.apache.olingo.odata2.api.edm.provider.NavigationProperty;
 import org.apache.olingo.odata2.api.edm.provider.Property;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.*;
@@ -35,7 +35,7 @@ import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 import org.apache.olingo.odata2.jpa.processor.api.*;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAFunction;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAMethodContext;
-import org.apache.olingo.odata2.jpa.processor.api.access.JPAProcessor;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAStreamingProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
@@ -47,6 +47,7 @@ import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAQueryBuilder.J
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
@@ -59,7 +60,7 @@ import java.sql.Timestamp;
 import java.util.*;
 import java.util.Map.Entry;
 
-public class JPAProcessorImpl implements JPAProcessor {
+public class JPAProcessorImpl implements JPAStreamingProcessor {
 
   private static final String DELTATOKEN = "!deltatoken";
   ODataJPAContext oDataJPAContext;
@@ -138,10 +139,8 @@ public class JPAProcessorImpl implements JPAProcessor {
       return (List<Object>) process((GetFunctionImportUriInfo) uriParserResultView);
     }
 
-    InlineCount inlineCount = uriParserResultView.getInlineCount();
-    Integer top = uriParserResultView.getTop() == null ? 1 : uriParserResultView.getTop().intValue();
-    boolean hasNoAllPages = inlineCount == null ? true : !inlineCount.equals(InlineCount.ALLPAGES);
-    if (top.intValue() == 0 && hasNoAllPages) {
+    // $inlinecount=allpages is served by a separate count query, so $top=0 never needs the entities
+    if (uriParserResultView.getTop() != null && uriParserResultView.getTop().intValue() == 0) {
       return new ArrayList<Object>();
     }
 
@@ -174,11 +173,70 @@ public class JPAProcessorImpl implements JPAProcessor {
       }
       return result == null ? new ArrayList<Object>() : result;
     } catch (EdmException e) {
-      throw new RuntimeException(e);
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
     } catch (InstantiationException e) {
-      throw new RuntimeException(e);
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
     } catch (IllegalAccessException e) {
-      throw new RuntimeException(e);
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    }
+  }
+
+  /* Process Get Entity Set Request (Query) while the response is written */
+  @Override
+  public Iterator<Object> stream(final GetEntitySetUriInfo uriParserResultView)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    final int fetchSize = JPAQueryResultIterator.getFetchSize(oDataJPAContext);
+    final ODataContext odataContext = oDataJPAContext.getODataContext();
+    // a next link, expanded entities and $batch responses need the complete result;
+    // the response of a HEAD request has no body to stream into
+    if (fetchSize <= 0 || oDataJPAContext.getPageSize() > 0 || uriParserResultView.isNew()
+        || uriParserResultView.getFunctionImport() != null
+        || uriParserResultView.getExpand() != null && !uriParserResultView.getExpand().isEmpty()
+        || odataContext != null && (odataContext.isInBatchMode() || "HEAD".equals(odataContext.getHttpMethod()))) {
+      return null;
+    }
+    if (uriParserResultView.getTop() != null && uriParserResultView.getTop().intValue() == 0) {
+      return null;
+    }
+
+    try {
+      JPAEdmMapping mapping = (JPAEdmMapping) uriParserResultView.getTargetEntitySet().getEntityType().getMapping();
+      if (mapping == null || mapping.isVirtualAccess()) {
+        return null;
+      }
+      JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
+      if (queryBuilder.getODataJPATombstoneEntityListener((UriInfo) uriParserResultView) != null) {
+        return null;
+      }
+      Query query = queryBuilder.build(uriParserResultView).getQuery();
+      setPositionalParametersToQuery(query);
+
+      JPAPageBuilder pageBuilder = new JPAPageBuilder().query(query);
+      if (uriParserResultView.getSkip() != null) {
+        pageBuilder.skip(uriParserResultView.getSkip().intValue());
+      }
+      if (uriParserResultView.getTop() != null) {
+        pageBuilder.top(uriParserResultView.getTop().intValue());
+      }
+      return pageBuilder.buildIterator(em, fetchSize, queryBuilder.getProjection());
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    } catch (InstantiationException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    } catch (IllegalAccessException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
     }
   }
 
@@ -305,7 +363,24 @@ public class JPAProcessorImpl implements JPAProcessor {
 
     ((UriInfoImpl) uriParserResultView).setRawEntity(true);
 
-    Object selectedObject = readEntity(new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView), (UriInfo) uriParserResultView, true);
+    ODataJPAChangeSetContext changeSet = null;
+    Object selectedObject = null;
+    try {
+      changeSet = getBulkChangeSet((UriInfo) uriParserResultView);
+      selectedObject = lookupInChangeSet(changeSet, (UriInfo) uriParserResultView);
+      if (selectedObject != null) {
+        changeSet.unregister(uriParserResultView.getTargetEntitySet().getName(),
+            getKeyLiterals(uriParserResultView.getKeyPredicates()));
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    }
+    if (selectedObject == null) {
+      selectedObject = readEntity(new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView),
+          (UriInfo) uriParserResultView, true);
+    }
     if (selectedObject != null) {
       try {
         final EdmEntitySet oDataEntitySet = uriParserResultView.getTargetEntitySet();
@@ -318,8 +393,12 @@ public class JPAProcessorImpl implements JPAProcessor {
 
         boolean override = listener.overrideDelete((UriInfo) uriParserResultView, selectedObject);
         if (!override) {
-          em.remove(selectedObject);
-          em.flush();
+          if (changeSet == null) {
+            em.remove(selectedObject);
+            em.flush();
+          } else if (!changeSet.removePending(selectedObject)) {
+            em.remove(selectedObject);
+          }
         }
 
         if (listener != null) {
@@ -381,8 +460,26 @@ public class JPAProcessorImpl implements JPAProcessor {
   /* Common method for Read and Delete */
   private Object readEntity(final Query query, final UriInfo uriInfo, final boolean rawEntity) throws ODataJPARuntimeException {
     Object selectedObject = null;
+    ODataJPAChangeSetContext changeSet = null;
+    try {
+      changeSet = getBulkChangeSet(uriInfo);
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    }
+    if (changeSet != null) {
+      // a bulk change set is flushed once at its end
+      query.setFlushMode(FlushModeType.COMMIT);
+    }
     @SuppressWarnings("rawtypes")
     List resultList = query.getResultList();
+    if (resultList.isEmpty() && changeSet != null) {
+      // the entity may have been created in the change set without being written yet
+      changeSet.persistPending();
+      em.flush();
+      resultList = query.getResultList();
+    }
 
     if (!rawEntity) {
       resultList = normalizeList(resultList, uriInfo);
@@ -518,7 +615,15 @@ public class JPAProcessorImpl implements JPAProcessor {
         clone.setTargetEntitySet(createView.getStartEntitySet());
         clone.getNavigationSegments().clear();
         clone.setTargetType(clone.getTargetEntitySet().getEntityType());
-        Object relatedEntity = readEntity(new JPAQueryBuilder(oDataJPAContext).build((PutMergePatchUriInfo) clone), (UriInfo) clone);
+        ODataJPAChangeSetContext changeSet = getBulkChangeSet(clone);
+        Object relatedEntity = lookupInChangeSet(changeSet, clone);
+        if (relatedEntity == null) {
+          relatedEntity = readEntity(new JPAQueryBuilder(oDataJPAContext).build((PutMergePatchUriInfo) clone),
+              (UriInfo) clone);
+        } else if (changeSet.isPending(relatedEntity)) {
+          // the referenced entity has to be persisted before the new entity refers to it
+          changeSet.persistPending();
+        }
 
         if (createView.getNavigationSegments().size() == 1) {
 
@@ -576,6 +681,15 @@ public class JPAProcessorImpl implements JPAProcessor {
           return resultEntity;
         }
 
+        ODataJPAChangeSetContext changeSet = getBulkChangeSet((UriInfo) createView);
+        if (changeSet != null) {
+          createInChangeSet(changeSet, createView, jpaEntity);
+          if (listener != null) {
+            listener.execEvent(((UriInfoImpl) createView), oDataEntityType, "afterInsert", jpaEntity);
+          }
+          return jpaEntity;
+        }
+
         em.persist(jpaEntity);
       }
 
@@ -658,8 +772,12 @@ public class JPAProcessorImpl implements JPAProcessor {
 
       boolean canOverride = listener.canOverridePut((UriInfo) updateView);
 
+      ODataJPAChangeSetContext changeSet = getBulkChangeSet((UriInfo) updateView);
       if (!canOverride) {
-        jpaEntity = readEntity(queryBuilder.build(updateView), (UriInfo) updateView, true);
+        jpaEntity = lookupInChangeSet(changeSet, (UriInfo) updateView);
+        if (jpaEntity == null) {
+          jpaEntity = readEntity(queryBuilder.build(updateView), (UriInfo) updateView, true);
+        }
 
         if (jpaEntity == null) {
           throw ODataJPARuntimeException
@@ -699,6 +817,11 @@ public class JPAProcessorImpl implements JPAProcessor {
       ((UriInfoImpl) updateView).setRawEntity(false);
       if (overridePut != null) {
         jpaEntity = overridePut;
+      } else if (changeSet != null) {
+        // the entity is written when the bulk change set is flushed and is returned as updated
+        if (listener != null) {
+          listener.execEvent(((UriInfoImpl) updateView), oDataEntityType, "afterUpdate", jpaEntity);
+        }
       } else {
         em.flush();
         em.clear();
@@ -744,7 +867,6 @@ public class JPAProcessorImpl implements JPAProcessor {
         .entities(result)
         .skipToken(uriParserResultView.getSkipToken());
 
-    // $top/$skip with $inlinecount case handled in response builder to avoid multiple DB call
     if (uriParserResultView.getSkip() != null) {
       pageBuilder.skip(uriParserResultView.getSkip().intValue());
     }
@@ -759,14 +881,19 @@ public class JPAProcessorImpl implements JPAProcessor {
     return page.getPagedEntities();
   }
 
-  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView, JPAQueryBuilder queryBuilder) {
+  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView,
+      JPAQueryBuilder queryBuilder) throws ODataJPARuntimeException {
+
+    JPAKeysetPaging keysetPaging = queryBuilder.getKeysetPaging();
+    if (keysetPaging != null) {
+      return handleKeysetPaging(query, uriParserResultView, keysetPaging);
+    }
 
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
     pageBuilder.pageSize(oDataJPAContext.getPageSize())
         .query(query)
         .skipToken(uriParserResultView.getSkipToken());
 
-    // $top/$skip with $inlinecount case handled in response builder to avoid multiple DB call
     if (uriParserResultView.getSkip() != null) {
       pageBuilder.skip(uriParserResultView.getSkip().intValue());
     }
@@ -778,12 +905,34 @@ public class JPAProcessorImpl implements JPAProcessor {
     JPAPage page = pageBuilder.build();
     oDataJPAContext.setPaging(page);
 
+    JPAQueryProjection projection = queryBuilder.getProjection();
+    if (projection != null) {
+      return projection.toRows(page.getPagedEntities());
+    }
     List<Object> entities = normalizeList(page.getPagedEntities(), (UriInfo) uriParserResultView);
 
     return entities;
 
   }
 
+  private List<Object> handleKeysetPaging(final Query query, final GetEntitySetUriInfo uriParserResultView,
+      final JPAKeysetPaging keysetPaging) throws ODataJPARuntimeException {
+
+    JPAPage page = new JPAPageBuilder()
+        .pageSize(keysetPaging.getPageSize())
+        .query(query)
+        .keysetPaging(keysetPaging)
+        .build();
+    List<Object> pagedEntities = page.getPagedEntities();
+    if (pagedEntities.size() >= keysetPaging.getPageSize()) {
+      JPAEntityParser parser = new JPAEntityParser(oDataJPAContext, (UriInfo) uriParserResultView);
+      page.setNextSkipToken(keysetPaging.createSkipToken(parser, pagedEntities.get(pagedEntities.size() - 1)));
+    }
+    oDataJPAContext.setPaging(page);
+
+    return normalizeList(pagedEntities, (UriInfo) uriParserResultView);
+  }
+
   private List normalizeList(List entities, final UriInfo uriParserResultView) {
     if (entities != null && uriParserResultView != null && !entities.isEmpty()) {
       try {
@@ -843,6 +992,78 @@ public class JPAProcessorImpl implements JPAProcessor {
 
   }
 
+  /*
+   * Returns the bulk change set of the current thread if the target entity type takes part in it;
+   * entity types with virtual access are always written and read again at once.
+   */
+  private ODataJPAChangeSetContext getBulkChangeSet(final UriInfo uriInfo) throws EdmException {
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.getCurrent();
+    if (changeSet == null
+        || ((JPAEdmMappingImpl) uriInfo.getTargetEntitySet().getEntityType().getMapping()).isVirtualAccess()) {
+      return null;
+    }
+    return changeSet;
+  }
+
+  /*
+   * Returns the entity addressed by the key predicates if it has been created in the bulk change set.
+   */
+  private Object lookupInChangeSet(final ODataJPAChangeSetContext changeSet, final UriInfo uriInfo)
+      throws EdmException {
+    if (changeSet == null || !uriInfo.getNavigationSegments().isEmpty() || uriInfo.getKeyPredicates().isEmpty()) {
+      return null;
+    }
+    return changeSet.lookup(uriInfo.getTargetEntitySet().getName(), getKeyLiterals(uriInfo.getKeyPredicates()));
+  }
+
+  /*
+   * Creates an entity in the bulk change set. An entity with assigned keys is queued and persisted with the
+   * other new entities of its type at the end of the change set; otherwise it is persisted at once so that
+   * its keys are generated. The entity is registered for references by Content-ID.
+   */
+  private void createInChangeSet(final ODataJPAChangeSetContext changeSet, final PostUriInfo createView,
+      final Object jpaEntity) throws EdmException, ODataJPARuntimeException {
+    Map<String, String> keys = getKeyLiterals(createView, jpaEntity);
+    if (keys == null) {
+      em.persist(jpaEntity);
+      keys = getKeyLiterals(createView, jpaEntity);
+    } else {
+      changeSet.persist(em, jpaEntity);
+    }
+    if (keys != null) {
+      changeSet.register(createView.getTargetEntitySet().getName(), keys, jpaEntity);
+    }
+  }
+
+  /*
+   * Returns the key literals of a new entity by key property name, or null if a key is not assigned yet.
+   */
+  private Map<String, String> getKeyLiterals(final PostUriInfo createView, final Object jpaEntity)
+      throws EdmException, ODataJPARuntimeException {
+    EdmEntityType edmEntityType = createView.getEntityContainer().getEntitySet(createView.getTargetEntitySet()
+        .getEntityType().getMapping().getInternalName()).getEntityType();
+    HashMap<String, Object> edmPropertyValueMap =
+        new JPAEntityParser(oDataJPAContext, (UriInfo) createView).parse2EdmPropertyValueMap(jpaEntity, edmEntityType);
+    Map<String, String> keys = new HashMap<String, String>();
+    for (EdmProperty key : findOriginalKeys((EdmEntityTypeImplProv) createView.getTargetEntitySet().getEntityType())) {
+      Object value = edmPropertyValueMap.get(key.getName());
+      if (value == null || value instanceof Number && ((Number) value).doubleValue() == 0) {
+        return null;
+      }
+      keys.put(key.getName(), ((EdmSimpleType) key.getType()).valueToString(value, EdmLiteralKind.DEFAULT,
+          key.getFacets()));
+    }
+    return keys;
+  }
+
+  private static Map<String, String> getKeyLiterals(final List<KeyPredicate> keyPredicates) throws EdmException {
+    Map<String, String> keys = new HashMap<String, String>();
+    for (KeyPredicate keyPredicate : keyPredicates) {
+      keys.put(keyPredicate.getProperty().getName(), keyPredicate.getLiteral());
+    }
+    return keys;
+  }
+
   private boolean setTransaction() {
     ODataJPATransaction transaction = oDataJPAContext.getODataJPATransaction();
     if (!transaction.isActive()) {
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Blob;
+import java.sql.Clob;
+
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Reads a property value from a JPA entity with a getter method.
+ * <p>The conversion of the getter's return type (e.g. <code>char[]</code> or {@link Clob} to
+ * {@link String}) is resolved once when the accessor is created.
+ * Accessors are thread-safe; {@link JPAAccessorRegistry} caches them with weak references, as a strongly
+ * cached {@link Method} would keep the class loader of a redeployed application alive.</p>
+ */
+public final class JPAPropertyAccessor {
+
+  private enum Conversion {
+    NONE, CHAR_ARRAY, CHARACTER_ARRAY, CHAR, CHARACTER, BLOB, CLOB
+  }
+
+  private final Method method;
+  private final Conversion conversion;
+  private final boolean nameParameter;
+
+  JPAPropertyAccessor(final Method method) {
+    this.method = method;
+    if (!method.isAccessible()) {
+      method.setAccessible(true);
+    }
+    nameParameter = method.getParameterTypes().length > 0;
+    conversion = getConversion(method.getReturnType());
+  }
+
+  /**
+   * @return the getter method
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Reads the property value.
+   * @param entity the JPA entity
+   * @param propertyName the name of the property, passed to getters with a name parameter
+   * (e.g. of virtual entities)
+   * @return the (converted) property value
+   * @throws ODataJPARuntimeException if the getter cannot be invoked
+   */
+  public Object getValue(final Object entity, final String propertyName) throws ODataJPARuntimeException {
+    try {
+      final Object value = nameParameter ? method.invoke(entity, propertyName) : method.invoke(entity);
+      switch (conversion) {
+      case CHAR_ARRAY:
+        return value == null ? null : String.valueOf((char[]) value);
+      case CHARACTER_ARRAY:
+        return JPAEntityParser.toString((Character[]) value);
+      case CHAR:
+        final char c = (Character) value;
+        return c == '\u0000' ? null : String.valueOf(c);
+      case CHARACTER:
+        return value == null ? null : JPAEntityParser.toString(new Character[] { (Character) value });
+      case BLOB:
+        return JPAEntityParser.getBytes((Blob) value);
+      case CLOB:
+        return JPAEntityParser.getString((Clob) value);
+      default:
+        return value;
+      }
+    } catch (IllegalAccessException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    } catch (IllegalArgumentException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    } catch (InvocationTargetException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    } catch (SecurityException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+  }
+
+  /**
+   * Converts a value read by a query instead of a getter, based on its runtime type.
+   * @param value the value
+   * @return the converted value
+   * @throws ODataJPARuntimeException if a LOB cannot be read
+   */
+  static Object convert(final Object value) throws ODataJPARuntimeException {
+    if (value instanceof char[]) {
+      return String.valueOf((char[]) value);
+    } else if (value instanceof Character[]) {
+      return JPAEntityParser.toString((Character[]) value);
+    } else if (value instanceof Character) {
+      return JPAEntityParser.toString(new Character[] { (Character) value });
+    } else if (value instanceof Blob) {
+      return JPAEntityParser.getBytes((Blob) value);
+    } else if (value instanceof Clob) {
+      return JPAEntityParser.getString((Clob) value);
+    } else {
+      return value;
+    }
+  }
+
+  private static Conversion getConversion(final Class<?> returnType) {
+    if (returnType.equals(char[].class)) {
+      return Conversion.CHAR_ARRAY;
+    } else if (returnType.equals(Character[].class)) {
+      return Conversion.CHARACTER_ARRAY;
+    } else if (returnType.equals(char.class)) {
+      return Conversion.CHAR;
+    } else if (returnType.equals(Character.class)) {
+      return Conversion.CHARACTER;
+    } else if (returnType.equals(Blob.class)) {
+      return Conversion.BLOB;
+    } else if (returnType.equals(Clob.class)) {
+      return Conversion.CLOB;
+    } else {
+      return Conversion.NONE;
+    }
+  }
+}
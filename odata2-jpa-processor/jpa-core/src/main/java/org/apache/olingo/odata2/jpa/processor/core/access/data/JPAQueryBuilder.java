@@ -52,6 +52,7 @@ import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.core.ODataParameterizedWhereExpressionUtil;
+import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLSelectContext;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
 
 public class JPAQueryBuilder {
@@ -69,6 +70,8 @@ public class JPAQueryBuilder {
   private int pageSize = 0;
   private ODataJPAContext odataJPAContext;
   private boolean ignoreListener = false;
+  private JPAKeysetPaging keysetPaging = null;
+  private JPAQueryProjection projection = null;
 
   public JPAQueryBuilder(ODataJPAContext odataJPAContext) {
     this.em = odataJPAContext.getEntityManager();
@@ -90,6 +93,13 @@ public class JPAQueryBuilder {
         query = listener.getQuery(uriInfo, em);
       }
       if (query == null) {
+        if (pageSize > 0 && odataJPAContext.isKeysetPaging()) {
+          keysetPaging = JPAKeysetPaging.create(uriInfo, pageSize);
+        }
+        if (keysetPaging == null) {
+          // keyset skip tokens are read from the entities
+          projection = JPAQueryProjection.create(odataJPAContext, uriInfo);
+        }
         query = buildQuery((UriInfo) uriInfo, UriInfoType.GetEntitySet);
       } else {
         queryInfo.setTombstoneQuery(true);
@@ -214,42 +224,110 @@ public class JPAQueryBuilder {
     }
 
     JPQLContextType contextType = determineJPQLContextType(uriParserResultView, type);
-    JPQLContext jpqlContext = buildJPQLContext(contextType, uriParserResultView);
-    JPQLStatement jpqlStatement = JPQLStatement.createBuilder(jpqlContext).build();
+    JPQLStatementCache statementCache = null;
+    JPQLStatementCache.Key cacheKey = null;
+    JPQLStatementCache.Statement statement = null;
+    if (odataJPAContext.isQueryCaching() && keysetPaging == null) {
+      // keyset conditions depend on the skip token, so keyset paged queries are not cached
+      statementCache = JPQLStatementCache.getInstance();
+      cacheKey = JPQLStatementCache.createKey(odataJPAContext, contextType, uriParserResultView);
+      statement = statementCache.get(cacheKey);
+    }
+    if (statement == null) {
+      JPQLContext jpqlContext = buildJPQLContext(contextType, uriParserResultView);
+      if (keysetPaging != null && type == UriInfoType.GetEntitySet && jpqlContext instanceof JPQLSelectContext) {
+        applyKeysetPaging((JPQLSelectContext) jpqlContext);
+      }
+      if (projection != null && type == UriInfoType.GetEntitySet && jpqlContext instanceof JPQLSelectContext) {
+        ((JPQLSelectContext) jpqlContext).setProjection(projection.getAttributes());
+      }
+      String jpql = JPQLStatement.createBuilder(jpqlContext).build().toString();
+      Map<Integer, Object> positionalParameters = takePositionalParameters(jpql);
+      if (statementCache != null) {
+        statement = statementCache.put(cacheKey, jpql, positionalParameters);
+      } else {
+        statement = new JPQLStatementCache.Statement(jpql, positionalParameters);
+      }
+    }
+
+    Query query = em.createQuery(statement.getJPQL());
+    for (Entry<Integer, Object> param : statement.getParameters(cacheKey).entrySet()) {
+      if (param.getValue() instanceof Calendar || param.getValue() instanceof Timestamp) {
+        query.setParameter(param.getKey(), (Calendar) param.getValue(), TemporalType.TIMESTAMP);
+      } else if (param.getValue() instanceof Time) {
+        query.setParameter(param.getKey(), (Time) param.getValue(), TemporalType.TIME);
+      } else {
+        try {
+          query.setParameter(param.getKey(), param.getValue());
+        } catch(Exception e) {
+          Class clazz = query.getParameter(param.getKey()).getParameterType();
+
+          if (clazz != null) {
+            query.setParameter(param.getKey(), listener.convert(param.getValue(), clazz));
+          } else {
+            throw new RuntimeException(e);
+          }
+        }
+      }
+    }
+    if (keysetPaging != null && type == UriInfoType.GetEntitySet) {
+      keysetPaging.setParameters(query);
+    }
+    return query;
+  }
 
-    Query query = em.createQuery(jpqlStatement.toString());
+  /*
+   * Removes the positional parameters of the given statement from the parameters collected while
+   * the JPQL context was built.
+   */
+  private static Map<Integer, Object> takePositionalParameters(final String jpql) {
     Map<String, Map<Integer, Object>> parameterizedMap = ODataParameterizedWhereExpressionUtil.
         getParameterizedQueryMap();
     if (parameterizedMap != null && parameterizedMap.size() > 0) {
       for (Entry<String, Map<Integer, Object>> parameterEntry : parameterizedMap.entrySet()) {
-        if (jpqlStatement.toString().contains(parameterEntry.getKey())) {
-          Map<Integer, Object> positionalParameters = parameterEntry.getValue();
-          for (Entry<Integer, Object> param : positionalParameters.entrySet()) {
-            if (param.getValue() instanceof Calendar || param.getValue() instanceof Timestamp) {
-              query.setParameter(param.getKey(), (Calendar) param.getValue(), TemporalType.TIMESTAMP);
-            } else if (param.getValue() instanceof Time) {
-              query.setParameter(param.getKey(), (Time) param.getValue(), TemporalType.TIME);
-            } else {
-              try {
-                query.setParameter(param.getKey(), param.getValue());
-              } catch(Exception e) {
-                Class clazz = query.getParameter(param.getKey()).getParameterType();
-
-                if (clazz != null) {
-                  query.setParameter(param.getKey(), listener.convert(param.getValue(), clazz));
-                } else {
-                  throw new RuntimeException(e);
-                }
-              }
-            }
-          }
+        if (jpql.contains(parameterEntry.getKey())) {
           parameterizedMap.remove(parameterEntry.getKey());
           ODataParameterizedWhereExpressionUtil.setJPQLStatement(null);
-          break;
+          return parameterEntry.getValue();
         }
       }
     }
-    return query;
+    return null;
+  }
+
+  /*
+   * Restricts the query to the entities after the keyset position of the skip token; the positional
+   * parameters of the keyset condition follow the ones of the filter expression.
+   */
+  private void applyKeysetPaging(final JPQLSelectContext selectContext) {
+    String whereExpression = selectContext.getWhereExpression();
+    int lastParameterIndex = 0;
+    Map<String, Map<Integer, Object>> parameterizedMap = ODataParameterizedWhereExpressionUtil.
+        getParameterizedQueryMap();
+    if (whereExpression != null && parameterizedMap != null && parameterizedMap.get(whereExpression) != null) {
+      for (Integer index : parameterizedMap.get(whereExpression).keySet()) {
+        lastParameterIndex = Math.max(lastParameterIndex, index);
+      }
+    }
+    String alias = selectContext.getJPAEntityAlias();
+    selectContext.setKeysetPaging(keysetPaging.buildCondition(alias, lastParameterIndex + 1),
+        keysetPaging.buildOrderBy(alias));
+  }
+
+  /**
+   * @return the keyset pagination of the last built entity set query or <code>null</code>
+   * if the entity set is paged by offset
+   */
+  public JPAKeysetPaging getKeysetPaging() {
+    return keysetPaging;
+  }
+
+  /**
+   * @return the projection of the last built entity set query or <code>null</code>
+   * if the query selects whole entities
+   */
+  public JPAQueryProjection getProjection() {
+    return projection;
   }
 
   
@@ -277,7 +355,9 @@ public class JPAQueryBuilder {
 
   public JPQLContext buildJPQLContext(JPQLContextType contextType, UriInfo uriParserResultView)
       throws ODataJPAModelException, ODataJPARuntimeException {
-    if (pageSize > 0 && (contextType == JPQLContextType.SELECT || contextType == JPQLContextType.JOIN)) {
+    // paged and streamed entity sets are read window by window, which needs a stable order
+    if ((pageSize > 0 || JPAQueryResultIterator.getFetchSize(odataJPAContext) > 0)
+        && (contextType == JPQLContextType.SELECT || contextType == JPQLContextType.JOIN)) {
       return JPQLContext.createBuilder(contextType, uriParserResultView, true).build();
     } else {
       return JPQLContext.createBuilder(contextType, uriParserResultView).build();
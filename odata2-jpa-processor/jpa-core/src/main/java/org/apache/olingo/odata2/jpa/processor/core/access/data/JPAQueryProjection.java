@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.uri.SelectItem;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.core.edm.provider.EdmSimplePropertyImplProv;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+
+/**
+ * Projection of an entity set query with $select.
+ * <p>Instead of whole entities the query selects only the JPA attributes of the selected properties,
+ * the key properties, and the concurrency tokens, e.g. <code>SELECT E1.id, E1.name FROM Customer E1</code>.
+ * The resulting tuples are mapped to {@link Row}s holding the property values by EDM property name,
+ * which {@link JPAEntityParser} reads instead of calling getters.</p>
+ * <p>Only properties mapped to a simple attribute of the entity itself are projected; calculated
+ * properties are left to the query extension listener.</p>
+ */
+public class JPAQueryProjection {
+
+  private final List<String> propertyNames;
+  private final List<String> attributes;
+
+  private JPAQueryProjection(final List<String> propertyNames, final List<String> attributes) {
+    this.propertyNames = propertyNames;
+    this.attributes = attributes;
+  }
+
+  /**
+   * Creates the projection for the given request.
+   * @param context the OData JPA context
+   * @param uriInfo the entity set request
+   * @return the projection or <code>null</code> if whole entities have to be read
+   * @throws EdmException
+   */
+  public static JPAQueryProjection create(final ODataJPAContext context, final GetEntitySetUriInfo uriInfo)
+      throws EdmException {
+    final List<SelectItem> select = uriInfo.getSelect();
+    if (!context.isSelectProjection() || select == null || select.isEmpty()
+        || uriInfo.getExpand() != null && !uriInfo.getExpand().isEmpty()
+        || uriInfo.getFunctionImport() != null || ((UriInfo) uriInfo).isNew()) {
+      return null;
+    }
+    final EdmEntityType entityType = uriInfo.getTargetEntitySet().getEntityType();
+    final EdmMapping mapping = entityType.getMapping();
+    if (!(mapping instanceof JPAEdmMappingImpl) || ((JPAEdmMappingImpl) mapping).isVirtualAccess()
+        || ((JPAEdmMappingImpl) mapping).getODataJPATombstoneEntityListener() != null) {
+      return null;
+    }
+
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (SelectItem selectItem : select) {
+      if (selectItem.isStar() || !selectItem.getNavigationPropertySegments().isEmpty()) {
+        return null;
+      }
+      add(properties, selectItem.getProperty());
+    }
+    for (EdmProperty keyProperty : entityType.getKeyProperties()) {
+      add(properties, keyProperty);
+    }
+    for (String propertyName : entityType.getPropertyNames()) {
+      final EdmTyped property = entityType.getProperty(propertyName);
+      if (property instanceof EdmProperty && ((EdmProperty) property).getFacets() != null
+          && ((EdmProperty) property).getFacets().getConcurrencyMode() == EdmConcurrencyMode.Fixed) {
+        add(properties, (EdmProperty) property);
+      }
+    }
+
+    List<String> propertyNames = new ArrayList<String>(properties.size());
+    List<String> attributes = new ArrayList<String>(properties.size());
+    for (EdmProperty property : properties) {
+      if (property.getMapping() != null && property.getMapping().isCalculated()) {
+        continue;
+      }
+      final String attribute = getAttribute(property);
+      if (attribute == null) {
+        return null;
+      }
+      propertyNames.add(property.getName());
+      attributes.add(attribute);
+    }
+    return attributes.isEmpty() ? null : new JPAQueryProjection(propertyNames, attributes);
+  }
+
+  private static void add(final List<EdmProperty> properties, final EdmProperty property) {
+    if (!properties.contains(property)) {
+      properties.add(property);
+    }
+  }
+
+  /*
+   * Returns the JPA attribute of a property or null if it is no simple attribute of the entity itself.
+   */
+  private static String getAttribute(final EdmProperty property) throws EdmException {
+    if (property.getType().getKind() != EdmTypeKind.SIMPLE || !(property.getMapping() instanceof JPAEdmMappingImpl)) {
+      return null;
+    }
+    final JPAEdmMappingImpl mapping = (JPAEdmMappingImpl) property.getMapping();
+    if (mapping.isVirtualAccess() || mapping.isPath() || mapping.getInternalExpression() != null) {
+      return null;
+    }
+    if (property instanceof EdmSimplePropertyImplProv) {
+      final EdmSimplePropertyImplProv simpleProperty = (EdmSimplePropertyImplProv) property;
+      if (simpleProperty.getComposite() != null
+          || simpleProperty.getProperty() != null && simpleProperty.getProperty().isForeignKey()) {
+        return null;
+      }
+    }
+    // paths through relationships or embeddables are read from the entity
+    final String attribute = mapping.getInternalName();
+    return attribute == null || attribute.indexOf('.') >= 0 ? null : attribute;
+  }
+
+  /**
+   * @return the JPA attributes to select
+   */
+  public List<String> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * Maps the tuples of the projection query to rows.
+   * @param tuples the query result; a tuple is an <code>Object[]</code> if more than one attribute is selected
+   * @return the rows
+   * @throws ODataJPARuntimeException if a LOB cannot be read
+   */
+  public List<Object> toRows(final List<?> tuples) throws ODataJPARuntimeException {
+    List<Object> rows = new ArrayList<Object>(tuples.size());
+    for (Object tuple : tuples) {
+      final Object[] values = attributes.size() == 1 ? new Object[] { tuple } : (Object[]) tuple;
+      Map<String, Object> row = new HashMap<String, Object>();
+      for (int i = 0; i < values.length; i++) {
+        row.put(propertyNames.get(i), JPAPropertyAccessor.convert(values[i]));
+      }
+      rows.add(new Row(row));
+    }
+    return rows;
+  }
+
+  /**
+   * Property values of an entity read by a projection query, by EDM property name.
+   */
+  public static final class Row {
+
+    private final Map<String, Object> values;
+
+    Row(final Map<String, Object> values) {
+      this.values = values;
+    }
+
+    /**
+     * @param propertyName the name of the EDM property
+     * @return the value of the property or <code>null</code> if it has not been read
+     */
+    public Object get(final String propertyName) {
+      return values.get(propertyName);
+    }
+
+    @Override
+    public String toString() {
+      return values.toString();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAStreamingContext;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Iterator over the result of an entity set query which reads the result chunk by chunk.
+ * <p>Each chunk is read with its own <code>setFirstResult</code>/<code>setMaxResults</code> window of the
+ * query, so the query has to be ordered. Before a further chunk is read the persistence context is cleared,
+ * so that the entities of the previous chunk, which have been processed by then, are no longer managed.</p>
+ * <p>An {@link ODataJPARuntimeException} raised while a chunk is read is thrown as cause of an
+ * {@link ODataRuntimeException}.</p>
+ */
+public class JPAQueryResultIterator implements Iterator<Object>, Closeable {
+
+  private final EntityManager em;
+  private final Query query;
+  private final int firstResult;
+  private final int maxResults;
+  private final int fetchSize;
+  private final JPAQueryProjection projection;
+  private List<?> chunk = null;
+  private int index = 0;
+  private int read = 0;
+  private boolean last = false;
+
+  JPAQueryResultIterator(final EntityManager em, final Query query, final int firstResult, final int maxResults,
+      final int fetchSize, final JPAQueryProjection projection) {
+    this.em = em;
+    this.query = query;
+    this.firstResult = firstResult;
+    this.maxResults = maxResults;
+    this.fetchSize = fetchSize;
+    this.projection = projection;
+  }
+
+  /**
+   * @param context the JPA context of the request
+   * @return the number of entities read per chunk, <code>0</code> if entity sets are not streamed
+   */
+  static int getFetchSize(final ODataJPAContext context) {
+    return context instanceof ODataJPAStreamingContext ?
+        ((ODataJPAStreamingContext) context).getStreamingFetchSize() : 0;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (chunk == null || index >= chunk.size() && !last) {
+      fetch();
+    }
+    return index < chunk.size();
+  }
+
+  @Override
+  public Object next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return chunk.get(index++);
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Stops reading; the entity manager is not closed.
+   */
+  @Override
+  public void close() {
+    chunk = Collections.emptyList();
+    last = true;
+  }
+
+  private void fetch() {
+    if (chunk != null && projection == null) {
+      em.clear();
+    }
+    final int size = Math.min(fetchSize, maxResults - read);
+    if (size <= 0) {
+      chunk = Collections.emptyList();
+      last = true;
+      return;
+    }
+    query.setFirstResult(firstResult + read);
+    query.setMaxResults(size);
+    final List<?> result = query.getResultList();
+    try {
+      chunk = projection == null ? result : projection.toRows(result);
+    } catch (ODataJPARuntimeException e) {
+      throw new ODataRuntimeException(e);
+    }
+    index = 0;
+    read += result.size();
+    last = result.size() < size;
+  }
+}
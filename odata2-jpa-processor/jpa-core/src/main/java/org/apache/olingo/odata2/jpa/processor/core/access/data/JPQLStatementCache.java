@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.uri.KeyPredicate;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.SelectItem;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.expression.MemberExpression;
+import org.apache.olingo.odata2.api.uri.expression.MethodExpression;
+import org.apache.olingo.odata2.api.uri.expression.PropertyExpression;
+import org.apache.olingo.odata2.api.uri.expression.UnaryExpression;
+import org.apache.olingo.odata2.core.commons.LruCache;
+import org.apache.olingo.odata2.core.edm.provider.EdmSimplePropertyImplProv;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.core.ODataExpressionParser;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+
+/**
+ * Bounded, thread-safe least-recently-used cache of the JPQL statements built by {@link JPAQueryBuilder}.
+ * <p>An entry is keyed by the persistence unit and the shape of the request: the JPQL context type,
+ * the entity sets, the navigation path, the key predicates, the $filter and $orderby expressions,
+ * the $select list, and whether the query is paged. $top, $skip, and $skiptoken are not part of the
+ * key since they are applied with <code>setFirstResult</code> and <code>setMaxResults</code>.
+ * Literals of key predicates and of $filter which become positional parameters are replaced in the key
+ * by their type, so <code>Id eq 1</code> and <code>Id eq 2</code> share an entry.</p>
+ * <p>The cached entry holds the JPQL text and the indexes of its positional parameters. While the key is
+ * created the parameter values of the request are collected in one pass over the key predicates and the
+ * filter tree, so a hit only binds these values and skips building the JPQL context and assembling
+ * the statement.</p>
+ * <p>The cache counts hits and misses. It is used if {@link ODataJPAContext#isQueryCaching()} is set.</p>
+ */
+public final class JPQLStatementCache {
+
+  public static final int DEFAULT_MAX_SIZE = 512;
+
+  private static final JPQLStatementCache INSTANCE = new JPQLStatementCache(DEFAULT_MAX_SIZE);
+  private static final char KEY_SEPARATOR = '|';
+
+  private final LruCache<String, Statement> cache;
+
+  JPQLStatementCache(final int maxSize) {
+    cache = new LruCache<String, Statement>(maxSize);
+  }
+
+  /**
+   * @return the process-wide cache instance
+   */
+  public static JPQLStatementCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the cached statement for the given key and counts the hit or miss.
+   * @param key the key created by {@link #createKey(ODataJPAContext, JPQLContextType, UriInfo)}
+   * @return the statement or <code>null</code>
+   */
+  Statement get(final Key key) {
+    return cache.get(key.getText());
+  }
+
+  /**
+   * Caches a statement built for the given key. The statement is not cached if the parameter values
+   * collected for the key are not the ones the statement was built with.
+   * @param key the key created by {@link #createKey(ODataJPAContext, JPQLContextType, UriInfo)}
+   * @param jpql the JPQL text
+   * @param parameters the values of the positional parameters by index
+   * @return the statement
+   */
+  Statement put(final Key key, final String jpql, final Map<Integer, Object> parameters) {
+    Statement statement = new Statement(jpql, parameters);
+    if (statement.isBoundBy(key)) {
+      cache.put(key.getText(), statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Creates the key of a JPQL statement and collects the values of its positional parameters.
+   * Literals which are written into the statement itself, e.g. <code>null</code> or Boolean literals,
+   * and the literals of composite properties stay part of the key.
+   * @param context the OData JPA context
+   * @param contextType the type of the JPQL context
+   * @param uriInfo the parsed request
+   * @return the key
+   * @throws EdmException
+   * @throws ODataJPARuntimeException
+   */
+  static Key createKey(final ODataJPAContext context, final JPQLContextType contextType, final UriInfo uriInfo)
+      throws EdmException, ODataJPARuntimeException {
+    Key key = new Key();
+    key.append(context.getPersistenceUnitName()).append(KEY_SEPARATOR)
+        .append(context.getJPAEdmMappingModel()).append(KEY_SEPARATOR)
+        .append(contextType).append(KEY_SEPARATOR)
+        .append(context.getPageSize() > 0 || JPAQueryResultIterator.getFetchSize(context) > 0).append(KEY_SEPARATOR)
+        .append(uriInfo.getTop() != null || uriInfo.getSkip() != null).append(KEY_SEPARATOR)
+        .append(context.isSelectProjection() && (uriInfo.getExpand() == null || uriInfo.getExpand().isEmpty()))
+        .append(KEY_SEPARATOR);
+    appendEntitySet(key, uriInfo.getStartEntitySet());
+    appendEntitySet(key, uriInfo.getTargetEntitySet());
+    appendKeyPredicates(key, uriInfo.getKeyPredicates());
+    for (NavigationSegment navigationSegment : uriInfo.getNavigationSegments()) {
+      append(key, navigationSegment.getNavigationProperty().getName());
+      appendKeyPredicates(key, navigationSegment.getKeyPredicates());
+    }
+    if (uriInfo.getFilter() != null) {
+      appendExpression(key, uriInfo.getFilter());
+    }
+    key.append(KEY_SEPARATOR);
+    append(key, uriInfo.getOrderBy() == null ? null : uriInfo.getOrderBy().getExpressionString());
+    if (uriInfo.getSelect() != null) {
+      for (SelectItem selectItem : uriInfo.getSelect()) {
+        for (NavigationPropertySegment segment : selectItem.getNavigationPropertySegments()) {
+          append(key, segment.getNavigationProperty().getName());
+        }
+        append(key, selectItem.isStar() ? "*" : selectItem.getProperty().getName());
+      }
+    }
+    return key.build();
+  }
+
+  private static void appendEntitySet(final Key key, final EdmEntitySet entitySet) throws EdmException {
+    append(key, entitySet == null ? null : entitySet.getEntityContainer().getName() + '.' + entitySet.getName());
+  }
+
+  private static void appendKeyPredicates(final Key key, final List<KeyPredicate> keyPredicates)
+      throws EdmException, ODataJPARuntimeException {
+    if (keyPredicates != null) {
+      for (KeyPredicate keyPredicate : keyPredicates) {
+        final EdmProperty property = keyPredicate.getProperty();
+        append(key, property.getName());
+        final EdmMapping mapping = property.getMapping();
+        if (isComposite(property) || !(mapping instanceof JPAEdmMappingImpl)) {
+          key.appendUnboundLiteral(keyPredicate.getLiteral());
+        } else {
+          key.appendLiteral(keyPredicate.getLiteral(), (EdmSimpleType) property.getType(),
+              ((JPAEdmMappingImpl) mapping).getJPAType());
+        }
+      }
+    }
+    key.append(KEY_SEPARATOR);
+  }
+
+  /*
+   * Appends the filter tree in the order in which ODataExpressionParser numbers the positional parameters.
+   */
+  private static void appendExpression(final Key key, final CommonExpression expression)
+      throws EdmException, ODataJPARuntimeException {
+    switch (expression.getKind()) {
+    case FILTER:
+      appendExpression(key, ((FilterExpression) expression).getExpression());
+      break;
+    case UNARY:
+      final UnaryExpression unaryExpression = (UnaryExpression) expression;
+      key.append(unaryExpression.getOperator().name()).append('(');
+      appendExpression(key, unaryExpression.getOperand());
+      key.append(')');
+      break;
+    case BINARY:
+      final BinaryExpression binaryExpression = (BinaryExpression) expression;
+      key.append('(');
+      appendExpression(key, binaryExpression.getLeftOperand());
+      key.append(' ').append(binaryExpression.getOperator().name()).append(' ');
+      if (binaryExpression.getLeftOperand() instanceof PropertyExpression
+          && isComposite(((PropertyExpression) binaryExpression.getLeftOperand()).getEdmProperty())) {
+        // the literal is split into the values of the composite's properties
+        key.appendUnboundLiteral(binaryExpression.getRightOperand().getUriLiteral());
+      } else {
+        appendExpression(key, binaryExpression.getRightOperand());
+      }
+      key.append(')');
+      break;
+    case METHOD:
+      final MethodExpression methodExpression = (MethodExpression) expression;
+      key.append(methodExpression.getMethod().name()).append('(');
+      for (CommonExpression parameter : methodExpression.getParameters()) {
+        appendExpression(key, parameter);
+        key.append(',');
+      }
+      key.append(')');
+      break;
+    case MEMBER:
+      final MemberExpression memberExpression = (MemberExpression) expression;
+      appendExpression(key, memberExpression.getPath());
+      key.append('/');
+      appendExpression(key, memberExpression.getProperty());
+      break;
+    case LITERAL:
+      key.appendLiteral(EdmSimpleTypeKind.parseUriLiteral(expression.getUriLiteral()).getLiteral(),
+          (EdmSimpleType) expression.getEdmType(), null);
+      break;
+    default:
+      append(key, expression.getUriLiteral());
+    }
+  }
+
+  private static boolean isComposite(final EdmTyped property) {
+    return property instanceof EdmSimplePropertyImplProv
+        && ((EdmSimplePropertyImplProv) property).getComposite() != null;
+  }
+
+  /*
+   * Texts are prefixed with their length so that separators inside literals cannot produce equal keys.
+   */
+  private static void append(final Key key, final String text) {
+    if (text == null) {
+      key.append('-');
+    } else {
+      key.append(text.length()).append(':').append(text);
+    }
+    key.append(KEY_SEPARATOR);
+  }
+
+  /**
+   * Sets the maximum number of cached entries; a value of <code>0</code> disables caching.
+   * @param maxSize maximum number of cached entries
+   */
+  public void setMaxSize(final int maxSize) {
+    cache.setMaxSize(maxSize);
+  }
+
+  public int getMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  /**
+   * @return the ratio of hits to all lookups, or <code>0</code> if there were no lookups
+   */
+  public double getHitRate() {
+    return cache.getHitRate();
+  }
+
+  /**
+   * Removes all cached entries and resets the hit and miss counters.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * The key of a cached statement with the values of the positional parameters of the request.
+   */
+  static final class Key {
+    private final StringBuilder text = new StringBuilder();
+    private final List<Object> parameterValues = new ArrayList<Object>();
+    private final List<String> parameterLiterals = new ArrayList<String>();
+    private boolean bound = true;
+    private String builtText;
+
+    private Key() {}
+
+    /**
+     * Creates a key which contains all literals, so the parameter values of the cached statement are used.
+     * @param text the key
+     */
+    Key(final String text) {
+      builtText = text;
+      bound = false;
+    }
+
+    private Key append(final Object value) {
+      text.append(value);
+      return this;
+    }
+
+    private Key append(final char c) {
+      text.append(c);
+      return this;
+    }
+
+    private Key build() {
+      if (!bound) {
+        // the parameter values cannot be collected, so all literals become part of the key
+        for (String literal : parameterLiterals) {
+          JPQLStatementCache.append(this, literal);
+        }
+      }
+      builtText = text.toString();
+      return this;
+    }
+
+    /* Appends a literal which is written into the statement itself. */
+    private void appendLiteral(final String literal) {
+      JPQLStatementCache.append(this, literal);
+    }
+
+    /* Appends a literal whose parameter values are not collected. */
+    private void appendUnboundLiteral(final String literal) {
+      appendLiteral(literal);
+      bound = false;
+    }
+
+    private void appendLiteral(final String literal, final EdmSimpleType type, final Class<?> mappedType)
+        throws EdmException, ODataJPARuntimeException {
+      final Object value = ODataExpressionParser.toPositionalParameterValue(literal, type, mappedType);
+      if (value == null) {
+        appendLiteral(literal);
+      } else {
+        append('?').append(type.getNamespace()).append('.').append(type.getName()).append(KEY_SEPARATOR);
+        parameterValues.add(value);
+        parameterLiterals.add(literal);
+      }
+    }
+
+    String getText() {
+      return builtText;
+    }
+
+    /**
+     * @return the values of the positional parameters in the order of their indexes or <code>null</code>
+     * if the values of the cached statement are used
+     */
+    List<Object> getParameterValues() {
+      return bound ? parameterValues : null;
+    }
+  }
+
+  /**
+   * A cached JPQL statement with the indexes and values of its positional parameters.
+   */
+  static final class Statement {
+    private final String jpql;
+    private final Map<Integer, Object> parameters;
+    private final Integer[] indexes;
+
+    Statement(final String jpql, final Map<Integer, Object> parameters) {
+      this.jpql = jpql;
+      this.parameters = parameters == null || parameters.isEmpty() ?
+          Collections.<Integer, Object> emptyMap() :
+          Collections.unmodifiableMap(new HashMap<Integer, Object>(parameters));
+      indexes = this.parameters.keySet().toArray(new Integer[this.parameters.size()]);
+      Arrays.sort(indexes);
+    }
+
+    String getJPQL() {
+      return jpql;
+    }
+
+    Map<Integer, Object> getParameters() {
+      return parameters;
+    }
+
+    /**
+     * Returns the values of the positional parameters for a request.
+     * @param key the key of the request or <code>null</code>
+     * @return the parameter values of the key by index, or the values the statement was built with
+     * if the key does not carry values
+     */
+    Map<Integer, Object> getParameters(final Key key) {
+      if (key == null || key.getParameterValues() == null) {
+        return parameters;
+      }
+      Map<Integer, Object> boundParameters = new HashMap<Integer, Object>();
+      for (int i = 0; i < indexes.length; i++) {
+        boundParameters.put(indexes[i], key.getParameterValues().get(i));
+      }
+      return boundParameters;
+    }
+
+    private boolean isBoundBy(final Key key) {
+      if (key.getParameterValues() == null) {
+        return true;
+      }
+      Object[] values = new Object[indexes.length];
+      for (int i = 0; i < indexes.length; i++) {
+        values[i] = parameters.get(indexes[i]);
+      }
+      return Arrays.deepEquals(values, key.getParameterValues().toArray());
+    }
+  }
+}
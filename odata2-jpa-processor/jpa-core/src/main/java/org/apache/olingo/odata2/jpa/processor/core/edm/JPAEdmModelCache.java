@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.edm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAFactory;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmModelView;
+
+/**
+ * Process-wide cache of the entity data models built from JPA metamodels.
+ * <p>{@link ODataJPAEdmProvider} instances are created per request; with
+ * {@link ODataJPAContext#setEdmCaching(boolean)} the walk through the JPA metamodel and the mapping model
+ * is done once per persistence unit instead of once per request. The built schemas are shared and must
+ * not be modified. With {@link #getEdm(ODataJPAContext)} the requests also share one frozen entity data
+ * model.</p>
+ * <p>The cache counts how often models are built and served from the cache and how long the builds take.</p>
+ */
+public final class JPAEdmModelCache {
+
+  private static final JPAEdmModelCache INSTANCE = new JPAEdmModelCache();
+  private static final char KEY_SEPARATOR = '|';
+
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+  private final AtomicLong buildCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong buildTime = new AtomicLong();
+
+  private JPAEdmModelCache() {}
+
+  /**
+   * @return the process-wide cache
+   */
+  public static JPAEdmModelCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the schemas of the entity data model for the given context; the model is built
+   * if it is not cached yet. Concurrent requests for the same model wait for a single build.
+   * @param context the OData JPA context
+   * @return the schemas
+   * @throws ODataJPAModelException
+   * @throws ODataJPARuntimeException
+   */
+  public List<Schema> getSchemas(final ODataJPAContext context)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    final String key = createKey(context);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry();
+      final Entry existing = entries.putIfAbsent(key, entry);
+      if (existing != null) {
+        entry = existing;
+      }
+    }
+
+    List<Schema> schemas = entry.schemas;
+    if (schemas != null) {
+      hitCount.incrementAndGet();
+      return schemas;
+    }
+    synchronized (entry) {
+      schemas = entry.schemas;
+      if (schemas == null) {
+        final long start = System.nanoTime();
+        JPAEdmModelView jpaEdmModel =
+            ODataJPAFactory.createFactory().getJPAAccessFactory().getJPAEdmModelView(context);
+        jpaEdmModel.getBuilder().build();
+        List<Schema> builtSchemas = new ArrayList<Schema>();
+        builtSchemas.add(jpaEdmModel.getEdmSchemaView().getEdmSchema());
+        schemas = Collections.unmodifiableList(builtSchemas);
+        entry.buildTime = (System.nanoTime() - start) / 1000000;
+        entry.schemas = schemas;
+        buildCount.incrementAndGet();
+        buildTime.addAndGet(entry.buildTime);
+      } else {
+        hitCount.incrementAndGet();
+      }
+    }
+    return schemas;
+  }
+
+  /**
+   * Returns the frozen entity data model for the given context; it is created once per cached model
+   * and shared by all requests. It is based only on the cached schemas and does not refer to the context.
+   * @param context the OData JPA context
+   * @return the entity data model
+   * @throws ODataException
+   */
+  public Edm getEdm(final ODataJPAContext context) throws ODataException {
+    final List<Schema> schemas = getSchemas(context);
+    final Entry entry = entries.get(createKey(context));
+    if (entry == null) {
+      // invalidated concurrently; the model is used for this request only
+      return RuntimeDelegate.createFrozenEdm(new ODataJPAEdmProvider(schemas));
+    }
+    Edm edm = entry.edm;
+    if (edm == null) {
+      synchronized (entry) {
+        edm = entry.edm;
+        if (edm == null) {
+          edm = RuntimeDelegate.createFrozenEdm(new ODataJPAEdmProvider(schemas));
+          entry.edm = edm;
+        }
+      }
+    }
+    return edm;
+  }
+
+  /**
+   * Removes the cached models of a persistence unit, e.g., after the persistence unit has been redeployed.
+   * @param persistenceUnitName the name of the persistence unit
+   */
+  public void invalidate(final String persistenceUnitName) {
+    final String prefix = persistenceUnitName + KEY_SEPARATOR;
+    for (final String key : entries.keySet()) {
+      if (key.startsWith(prefix)) {
+        entries.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Removes all cached models and resets the statistics.
+   */
+  public void clear() {
+    entries.clear();
+    buildCount.set(0);
+    hitCount.set(0);
+    buildTime.set(0);
+  }
+
+  /**
+   * @return the number of models built since the last {@link #clear()}
+   */
+  public long getBuildCount() {
+    return buildCount.get();
+  }
+
+  /**
+   * @return the number of models served from the cache since the last {@link #clear()}
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * @return the total time in milliseconds spent building models since the last {@link #clear()}
+   */
+  public long getBuildTime() {
+    return buildTime.get();
+  }
+
+  /**
+   * @param context the OData JPA context
+   * @return the time in milliseconds the cached model for the context took to build,
+   * or <code>-1</code> if no model is cached for the context
+   */
+  public long getBuildTime(final ODataJPAContext context) {
+    final Entry entry = entries.get(createKey(context));
+    return entry == null || entry.schemas == null ? -1 : entry.buildTime;
+  }
+
+  private static String createKey(final ODataJPAContext context) {
+    return new StringBuilder()
+        .append(context.getPersistenceUnitName()).append(KEY_SEPARATOR)
+        .append(context.getJPAEdmMappingModel()).append(KEY_SEPARATOR)
+        .append(context.getJPAEdmExtension() == null ? null : context.getJPAEdmExtension().getClass().getName())
+        .append(KEY_SEPARATOR)
+        .append(context.getDefaultNaming())
+        .toString();
+  }
+
+  private static final class Entry {
+    private volatile List<Schema> schemas;
+    private volatile Edm edm;
+    private volatile long buildTime;
+  }
+}
@@ -46,6 +46,7 @@ public class ODataJPAEdmProvider extends EdmProvider {
 
   private ODataJPAContext oDataJPAContext;
   private JPAEdmModelView jpaEdmModel;
+  private ODataJPAContext cachingContext;
 
   private List<Schema> schemas;
   private HashMap<String, EntityType> entityTypes;
@@ -62,6 +63,15 @@ public class ODataJPAEdmProvider extends EdmProvider {
     functionImports = new LinkedHashMap<String, FunctionImport>();
   }
 
+  /**
+   * Creates a provider for already built schemas; it does not refer to any request.
+   * @param schemas the schemas of the entity data model
+   */
+  ODataJPAEdmProvider(final List<Schema> schemas) {
+    this();
+    this.schemas = schemas;
+  }
+
   public ODataJPAEdmProvider(final ODataJPAContext oDataJPAContext) {
     if (oDataJPAContext == null) {
       throw new IllegalArgumentException(ODataJPAException.ODATA_JPACTX_NULL);
@@ -71,7 +81,12 @@ public class ODataJPAEdmProvider extends EdmProvider {
     complexTypes = new LinkedHashMap<String, ComplexType>();
     associations = new LinkedHashMap<String, Association>();
     functionImports = new LinkedHashMap<String, FunctionImport>();
-    jpaEdmModel = ODataJPAFactory.createFactory().getJPAAccessFactory().getJPAEdmModelView(oDataJPAContext);
+    if (oDataJPAContext.isEdmCaching()) {
+      // the model is taken from (or built into) the process-wide cache when it is needed
+      cachingContext = oDataJPAContext;
+    } else {
+      jpaEdmModel = ODataJPAFactory.createFactory().getJPAAccessFactory().getJPAEdmModelView(oDataJPAContext);
+    }
   }
 
   public ODataJPAContext getODataJPAContext() {
@@ -280,12 +295,16 @@ public class ODataJPAEdmProvider extends EdmProvider {
 
   @Override
   public List<Schema> getSchemas() throws ODataException {
+    if (schemas == null && cachingContext != null) {
+      schemas = JPAEdmModelCache.getInstance().getSchemas(cachingContext);
+      return schemas;
+    }
     if (schemas == null && jpaEdmModel != null) {
       jpaEdmModel.getBuilder().build();
       schemas = new ArrayList<Schema>();
       schemas.add(jpaEdmModel.getEdmSchemaView().getEdmSchema());
     }
-    if (jpaEdmModel == null) {
+    if (schemas == null) {
 
       throw ODataJPAModelException.throwException(ODataJPAModelException.BUILDER_NULL, null);
     }
@@ -20,7 +20,9 @@ package org.apache.olingo.odata2.jpa.processor.core.factory;
 
 import java.util.Locale;
 
+import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPADefaultProcessor;
@@ -33,6 +35,7 @@ import org.apache.olingo.odata2.jpa.processor.api.factory.JPAAccessFactory;
 import org.apache.olingo.odata2.jpa.processor.api.factory.JPQLBuilderFactory;
 import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAAccessFactory;
 import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPAFactory;
+import org.apache.olingo.odata2.jpa.processor.api.factory.ODataJPASharedEdmFactory;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext.JPQLContextBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextView;
@@ -44,6 +47,7 @@ import org.apache.olingo.odata2.jpa.processor.core.ODataJPAResponseBuilderDefaul
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAFunctionContext;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAProcessorImpl;
 import org.apache.olingo.odata2.jpa.processor.core.access.model.JPAEdmMappingModelService;
+import org.apache.olingo.odata2.jpa.processor.core.edm.JPAEdmModelCache;
 import org.apache.olingo.odata2.jpa.processor.core.edm.ODataJPAEdmProvider;
 import org.apache.olingo.odata2.jpa.processor.core.exception.ODataJPAMessageServiceDefault;
 import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLJoinSelectContext;
@@ -167,7 +171,7 @@ public class ODataJPAFactoryImpl extends ODataJPAFactory {
 
   }
 
-  private static class ODataJPAAccessFactoryImpl implements ODataJPAAccessFactory {
+  private static class ODataJPAAccessFactoryImpl implements ODataJPAAccessFactory, ODataJPASharedEdmFactory {
 
     private static ODataJPAAccessFactoryImpl factory = null;
 
@@ -183,6 +187,11 @@ public class ODataJPAFactoryImpl extends ODataJPAFactory {
       return new ODataJPAEdmProvider(oDataJPAContext);
     }
 
+    @Override
+    public Edm getSharedEdm(final ODataJPAContext oDataJPAContext) throws ODataException {
+      return oDataJPAContext.isEdmCaching() ? JPAEdmModelCache.getInstance().getEdm(oDataJPAContext) : null;
+    }
+
     @Override
     public ODataJPAContext createODataJPAContext() {
       return new ODataJPAContextImpl();
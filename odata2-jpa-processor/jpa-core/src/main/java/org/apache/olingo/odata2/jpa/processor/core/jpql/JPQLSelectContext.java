@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.jpa.processor.core.jpql;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
@@ -31,6 +32,7 @@ import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeExcep
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectContextView;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 import org.apache.olingo.odata2.jpa.processor.core.ODataExpressionParser;
 import org.apache.olingo.odata2.jpa.processor.core.ODataParameterizedWhereExpressionUtil;
 
@@ -58,6 +60,37 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
     this.selectExpression = selectExpression;
   }
 
+  /**
+   * Restricts the selection to the entities following a keyset position and orders them by the keyset.
+   * @param keysetCondition condition selecting the entities after the keyset position
+   * (<code>null</code> for the first page)
+   * @param keysetOrderBy order by clause of the keyset
+   */
+  public void setKeysetPaging(final String keysetCondition, final String keysetOrderBy) {
+    if (keysetCondition != null) {
+      whereCondition = whereCondition == null ? keysetCondition :
+          JPQLStatement.DELIMITER.PARENTHESIS_LEFT + whereCondition + JPQLStatement.DELIMITER.PARENTHESIS_RIGHT
+              + JPQLStatement.DELIMITER.SPACE + JPQLStatement.Operator.AND + JPQLStatement.DELIMITER.SPACE
+              + keysetCondition;
+    }
+    orderByCollection = keysetOrderBy;
+  }
+
+  /**
+   * Selects the given attributes of the entity instead of the entity itself.
+   * @param attributes the names of the JPA attributes
+   */
+  public void setProjection(final List<String> attributes) {
+    StringBuilder projection = new StringBuilder();
+    for (String attribute : attributes) {
+      if (projection.length() > 0) {
+        projection.append(JPQLStatement.DELIMITER.COMMA).append(JPQLStatement.DELIMITER.SPACE);
+      }
+      projection.append(getJPAEntityAlias()).append(JPQLStatement.DELIMITER.PERIOD).append(attribute);
+    }
+    selectExpression = projection.toString();
+  }
+
   @Override
   public String getSelectExpression() {
     return selectExpression;
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAChangeSetContext;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Test;
+
+public class ODataJPAChangeSetContextTest {
+
+  @After
+  public void tearDown() {
+    ODataJPAChangeSetContext.end();
+  }
+
+  @Test
+  public void testInsertsAreGroupedByType() {
+    Object customer1 = new Customer();
+    Object order1 = new Order();
+    Object customer2 = new Customer();
+    Object order2 = new Order();
+
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    em.persist(customer1);
+    em.persist(customer2);
+    em.persist(order1);
+    em.persist(order2);
+    em.flush();
+    EasyMock.replay(em);
+
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+    assertSame(changeSet, ODataJPAChangeSetContext.getCurrent());
+    changeSet.persist(em, customer1);
+    changeSet.persist(em, order1);
+    changeSet.persist(em, customer2);
+    changeSet.persist(em, order2);
+    assertTrue(changeSet.isPending(order1));
+    changeSet.flush(em);
+
+    assertFalse(changeSet.isPending(order1));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testRemovePending() {
+    Object customer1 = new Customer();
+    Object customer2 = new Customer();
+
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    em.persist(customer2);
+    EasyMock.replay(em);
+
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+    changeSet.persist(em, customer1);
+    changeSet.persist(em, customer2);
+    assertTrue(changeSet.removePending(customer1));
+    assertFalse(changeSet.removePending(customer1));
+    changeSet.persistPending();
+
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testRegisteredEntityIsFoundByKey() {
+    Object customer = new Customer();
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+    changeSet.register("Customers", keys("ID", "1", "Name", "a"), customer);
+
+    assertSame(customer, changeSet.lookup("Customers", keys("Name", "a", "ID", "1")));
+    assertNull(changeSet.lookup("Customers", keys("ID", "1", "Name", "b")));
+    assertNull(changeSet.lookup("Orders", keys("ID", "1", "Name", "a")));
+
+    changeSet.unregister("Customers", keys("ID", "1", "Name", "a"));
+    assertNull(changeSet.lookup("Customers", keys("ID", "1", "Name", "a")));
+  }
+
+  @Test
+  public void testEnd() {
+    ODataJPAChangeSetContext.begin();
+    ODataJPAChangeSetContext.end();
+    assertNull(ODataJPAChangeSetContext.getCurrent());
+  }
+
+  private static Map<String, String> keys(final String... namesAndValues) {
+    Map<String, String> keys = new HashMap<String, String>();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      keys.put(namesAndValues[i], namesAndValues[i + 1]);
+    }
+    return keys;
+  }
+
+  private static class Customer {}
+
+  private static class Order {}
+}
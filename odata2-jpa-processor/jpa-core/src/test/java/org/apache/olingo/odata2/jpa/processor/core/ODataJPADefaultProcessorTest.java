@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.jpa.processor.core;
 
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -63,16 +64,19 @@ import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetCountUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPADefaultProcessor;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAResponseBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
+import org.apache.olingo.odata2.jpa.processor.core.mock.JPAProcessorMockAbstract;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataContextMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataServiceMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.data.SalesOrderHeader;
@@ -114,6 +118,34 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
 
   }
 
+  @Test
+  public void testReadEntitySetWithoutStreamingSupport() throws ODataException {
+    final List<Object> jpaEntities = new ArrayList<Object>();
+    final GetEntitySetUriInfo uriInfo = EasyMock.createNiceMock(GetEntitySetUriInfo.class);
+    EasyMock.replay(uriInfo);
+    final ODataResponse response = ODataResponse.newBuilder().build();
+    final ODataJPAResponseBuilder customResponseBuilder = EasyMock.createMock(ODataJPAResponseBuilder.class);
+    customResponseBuilder.setCount(-1);
+    EasyMock.expect(customResponseBuilder.build(uriInfo, jpaEntities, HttpContentType.APPLICATION_XML))
+        .andReturn(response);
+    EasyMock.replay(customResponseBuilder);
+    ODataJPADefaultProcessor processor = new ODataJPADefaultProcessor(getLocalmockODataJPAContext()) {
+      {
+        jpaProcessor = new JPAProcessorMockAbstract() {
+          @SuppressWarnings("unchecked")
+          @Override
+          public <T> List<T> process(final GetEntitySetUriInfo requestView) {
+            return (List<T>) jpaEntities;
+          }
+        };
+        responseBuilder = customResponseBuilder;
+      }
+    };
+
+    assertSame(response, processor.readEntitySet(uriInfo, HttpContentType.APPLICATION_XML));
+    EasyMock.verify(customResponseBuilder);
+  }
+
   @Test
   public void testcountEntitySet() {
     try {
@@ -327,6 +359,7 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
   private ODataJPAContext getLocalmockODataJPAContext() {
     ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
     EasyMock.expect(odataJPAContext.getPageSize()).andReturn(0).anyTimes();
+    EasyMock.expect(odataJPAContext.isIncrementalBatchExecution()).andStubReturn(false);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn("salesorderprocessing");
     EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andStubReturn(mockEntityManagerFactory());
     EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(getLocalJpaTransaction());
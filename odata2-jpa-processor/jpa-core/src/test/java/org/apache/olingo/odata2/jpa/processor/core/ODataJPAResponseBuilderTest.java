@@ -20,6 +20,7 @@ package org.apache.olingo.odata2.jpa.processor.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -29,8 +30,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.odata2.api.commons.InlineCount;
 import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
@@ -57,6 +60,7 @@ import org.apache.olingo.odata2.api.uri.PathInfo;
 import org.apache.olingo.odata2.api.uri.SelectItem;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAResponseBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
@@ -192,6 +196,34 @@ public class ODataJPAResponseBuilderTest extends JPAEdmTestModelView {
 
   }
 
+  @Test
+  public void testBuildStreamedFirstChunkFails() {
+    final ODataJPARuntimeException exception =
+        ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL, null);
+    Iterator<Object> jpaEntities = new Iterator<Object>() {
+      @Override
+      public boolean hasNext() {
+        throw new ODataRuntimeException(exception);
+      }
+
+      @Override
+      public Object next() {
+        throw new NoSuchElementException();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    try {
+      new ODataJPAResponseBuilderDefault(getODataJPAContext()).build(getResultsView(), jpaEntities, "application/xml");
+      fail("Expected ODataJPARuntimeException");
+    } catch (ODataJPARuntimeException e) {
+      assertSame(exception, e);
+    }
+  }
+
   @Test
   public void testBuildNegatives() {// Bad content type
     try {
@@ -287,6 +319,11 @@ public class ODataJPAResponseBuilderTest extends JPAEdmTestModelView {
       public int getNextPage() {
         return 10;
       }
+
+      @Override
+      public String getNextSkipToken() {
+        return "10";
+      }
     };
 
     return paging;
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.Test;
+
+public class JPAAccessorRegistryTest {
+
+  private final JPAAccessorRegistry registry = JPAAccessorRegistry.getInstance();
+
+  @Test
+  public void testMethodIsResolvedOnce() throws Exception {
+    Method method = registry.getMethod(Entity.class, "getname");
+    assertEquals("getName", method.getName());
+    assertEquals(method, registry.getMethod(Entity.class, "getname"));
+    assertEquals(registry.getExactMethod(Entity.class, "getName"), registry.getExactMethod(Entity.class, "getName"));
+  }
+
+  @Test
+  public void testAccessorIsCached() throws Exception {
+    JPAPropertyAccessor accessor = registry.getAccessor(registry.getMethod(Entity.class, "getcode"));
+    // while the accessor is in use, hits return its method without resolving it again
+    assertSame(accessor.getMethod(), registry.getMethod(Entity.class, "getcode"));
+    assertSame(accessor, registry.getAccessor(registry.getMethod(Entity.class, "getcode")));
+    assertSame(accessor, registry.getAccessor(registry.getExactMethod(Entity.class, "getCode")));
+  }
+
+  @Test
+  public void testMethodWithPrimitiveParameter() throws Exception {
+    Method method = registry.getMethod(Entity.class, "setcode");
+    assertEquals(Entity.class.getMethod("setCode", char.class), method);
+    assertEquals(method, registry.getMethod(Entity.class, "setcode"));
+  }
+
+  @Test
+  public void testClassLoaderIsNotKeptAlive() throws Exception {
+    ClassLoader classLoader = new URLClassLoader(
+        new URL[] { Entity.class.getProtectionDomain().getCodeSource().getLocation() }, null);
+    Class<?> type = classLoader.loadClass(Entity.class.getName());
+    registry.getMethod(type, "getname");
+    registry.getExactMethod(type, "getName");
+    registry.getAccessor(type.getMethod("getName")).getValue(type.newInstance(), null);
+
+    WeakReference<ClassLoader> reference = new WeakReference<ClassLoader>(classLoader);
+    classLoader = null;
+    type = null;
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+  }
+
+  @Test
+  public void testMissingMethod() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      try {
+        registry.getExactMethod(Entity.class, "getUnknown");
+        fail("Expected NoSuchMethodException");
+      } catch (NoSuchMethodException e) {
+        assertEquals("getUnknown", e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testAccessorConversions() throws Exception {
+    Entity entity = new Entity();
+    assertEquals("abc", registry.getAccessor(Entity.class.getMethod("getName")).getValue(entity, null));
+    assertEquals("x", registry.getAccessor(Entity.class.getMethod("getCode")).getValue(entity, null));
+    assertNull(registry.getAccessor(Entity.class.getMethod("getEmpty")).getValue(entity, null));
+    assertEquals("value of Field",
+        registry.getAccessor(Entity.class.getMethod("get", String.class)).getValue(entity, "Field"));
+  }
+
+  public static class Entity {
+    public char[] getName() {
+      return "abc".toCharArray();
+    }
+
+    public char getCode() {
+      return 'x';
+    }
+
+    public void setCode(final char code) {}
+
+    public char getEmpty() {
+      return '\u0000';
+    }
+
+    public String get(final String name) {
+      return "value of " + name;
+    }
+  }
+}
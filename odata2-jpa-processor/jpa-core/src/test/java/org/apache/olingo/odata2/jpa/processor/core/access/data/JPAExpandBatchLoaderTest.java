@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPAExpandBatchLoaderTest {
+
+  @Test
+  public void testOneQueryPerExpandLevel() throws Exception {
+    Order first = new Order(1L, new Item("a"), new Item("b"));
+    Order second = new Order(2L, new Item("c"));
+    Order third = new Order(3L);
+
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.items WHERE E1.id IN :keys",
+        Arrays.<Object> asList(1L, 2L, 3L));
+    expectQuery(em, "SELECT E1 FROM Item E1 LEFT OUTER JOIN FETCH E1.detail WHERE E1.name IN :keys",
+        Arrays.<Object> asList("a", "b", "c"));
+    EasyMock.replay(em);
+
+    NavigationPropertySegment items = mockSegment("Items", "items", EdmMultiplicity.MANY, mockItemType());
+    NavigationPropertySegment detail = mockSegment("Detail", "detail", EdmMultiplicity.ZERO_TO_ONE,
+        mockItemType());
+    new JPAExpandBatchLoader(em, new JPAEntityParser(null, null)).load(mockOrderType(),
+        Arrays.<Object> asList(first, second, third), Arrays.asList(
+            new ArrayList<NavigationPropertySegment>(Arrays.asList(items)),
+            new ArrayList<NavigationPropertySegment>(Arrays.asList(items, detail))));
+
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testNestedLevelOfSingleEntity() throws Exception {
+    Order order = new Order(1L, new Item("a"), new Item("b"));
+
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Item E1 LEFT OUTER JOIN FETCH E1.detail WHERE E1.name IN :keys",
+        Arrays.<Object> asList("a", "b"));
+    EasyMock.replay(em);
+
+    new JPAExpandBatchLoader(em, new JPAEntityParser(null, null)).load(mockOrderType(),
+        Collections.<Object> singletonList(order), Collections.singletonList(
+            new ArrayList<NavigationPropertySegment>(Arrays.asList(
+                mockSegment("Items", "items", EdmMultiplicity.MANY, mockItemType()),
+                mockSegment("Detail", "detail", EdmMultiplicity.ZERO_TO_ONE, mockItemType())))));
+
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testKeysAreSplitIntoChunks() throws Exception {
+    List<Object> orders = new ArrayList<Object>();
+    List<Object> keys = new ArrayList<Object>();
+    for (long id = 0; id <= JPAExpandBatchLoader.MAX_KEYS_PER_QUERY; id++) {
+      orders.add(new Order(id));
+      keys.add(id);
+    }
+
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    final String jpql = "SELECT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.items WHERE E1.id IN :keys";
+    expectQuery(em, jpql, keys.subList(0, JPAExpandBatchLoader.MAX_KEYS_PER_QUERY));
+    expectQuery(em, jpql, keys.subList(JPAExpandBatchLoader.MAX_KEYS_PER_QUERY, keys.size()));
+    EasyMock.replay(em);
+
+    new JPAExpandBatchLoader(em, new JPAEntityParser(null, null)).load(mockOrderType(), orders,
+        Collections.singletonList(new ArrayList<NavigationPropertySegment>(Arrays.asList(
+            mockSegment("Items", "items", EdmMultiplicity.MANY, mockItemType())))));
+
+    EasyMock.verify(em);
+  }
+
+  private void expectQuery(final EntityManager em, final String jpql, final List<Object> keys) {
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter("keys", keys)).andReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(new ArrayList<Object>());
+    EasyMock.replay(query);
+    EasyMock.expect(em.createQuery(jpql)).andReturn(query);
+  }
+
+  private EdmEntityType mockOrderType() throws EdmException {
+    return mockEntityType("Order", "Id", "id");
+  }
+
+  private EdmEntityType mockItemType() throws EdmException {
+    return mockEntityType("Item", "Name", "name");
+  }
+
+  private EdmEntityType mockEntityType(final String internalName, final String keyName,
+      final String keyInternalName) throws EdmException {
+    JPAEdmMappingImpl keyMapping = new JPAEdmMappingImpl();
+    keyMapping.setInternalName(keyInternalName);
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn(keyName);
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.replay(keyProperty);
+
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.replay(entityType);
+    return entityType;
+  }
+
+  private NavigationPropertySegment mockSegment(final String name, final String internalName,
+      final EdmMultiplicity multiplicity, final EdmEntityType targetType) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmNavigationProperty navigationProperty = EasyMock.createMock(EdmNavigationProperty.class);
+    EasyMock.expect(navigationProperty.getName()).andStubReturn(name);
+    EasyMock.expect(navigationProperty.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(navigationProperty.getMultiplicity()).andStubReturn(multiplicity);
+    EasyMock.replay(navigationProperty);
+
+    EdmEntitySet targetEntitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(targetEntitySet.getEntityType()).andStubReturn(targetType);
+    EasyMock.replay(targetEntitySet);
+
+    NavigationPropertySegment segment = EasyMock.createMock(NavigationPropertySegment.class);
+    EasyMock.expect(segment.getNavigationProperty()).andStubReturn(navigationProperty);
+    EasyMock.expect(segment.getTargetEntitySet()).andStubReturn(targetEntitySet);
+    EasyMock.replay(segment);
+    return segment;
+  }
+
+  public static class Order {
+    private final Long id;
+    private final List<Item> items;
+
+    public Order(final Long id, final Item... items) {
+      this.id = id;
+      this.items = Arrays.asList(items);
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public List<Item> getItems() {
+      return items;
+    }
+  }
+
+  public static class Item {
+    private final String name;
+
+    public Item(final String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Item getDetail() {
+      return null;
+    }
+  }
+}
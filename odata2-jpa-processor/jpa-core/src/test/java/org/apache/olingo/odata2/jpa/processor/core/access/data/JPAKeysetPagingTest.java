@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPAKeysetPagingTest {
+
+  private static final int PAGE_SIZE = 10;
+
+  @Test
+  public void testFirstPage() throws Exception {
+    JPAKeysetPaging keysetPaging = JPAKeysetPaging.create(mockUriInfo(null, "id"), PAGE_SIZE);
+
+    assertNotNull(keysetPaging);
+    assertFalse(keysetPaging.hasPosition());
+    assertEquals(PAGE_SIZE, keysetPaging.getPageSize());
+    assertNull(keysetPaging.buildCondition("E1", 1));
+    assertEquals("E1.id", keysetPaging.buildOrderBy("E1"));
+  }
+
+  @Test
+  public void testNextPage() throws Exception {
+    JPAKeysetPaging firstPage = JPAKeysetPaging.create(mockUriInfo(null, "id"), PAGE_SIZE);
+    String skipToken = firstPage.createSkipToken(new JPAEntityParser(null, null), new Entity(42L, 7));
+    assertTrue(skipToken.matches("k[0-9a-f]+"));
+
+    JPAKeysetPaging nextPage = JPAKeysetPaging.create(mockUriInfo(skipToken, "id"), PAGE_SIZE);
+    assertTrue(nextPage.hasPosition());
+    assertEquals("((E1.id > ?3))", nextPage.buildCondition("E1", 3));
+
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter(3, Long.valueOf(42L))).andReturn(query);
+    EasyMock.replay(query);
+    nextPage.setParameters(query);
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testCompositeKey() throws Exception {
+    JPAKeysetPaging firstPage = JPAKeysetPaging.create(mockUriInfo(null, "id", "item"), PAGE_SIZE);
+    assertEquals("E1.id , E1.item", firstPage.buildOrderBy("E1"));
+    String skipToken = firstPage.createSkipToken(new JPAEntityParser(null, null), new Entity(1L, 2));
+
+    JPAKeysetPaging nextPage = JPAKeysetPaging.create(mockUriInfo(skipToken, "id", "item"), PAGE_SIZE);
+    assertEquals("((E1.id > ?1) OR (E1.id = ?1 AND E1.item > ?2))", nextPage.buildCondition("E1", 1));
+
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter(1, Long.valueOf(1L))).andReturn(query);
+    EasyMock.expect(query.setParameter(2, Integer.valueOf(2))).andReturn(query);
+    EasyMock.replay(query);
+    nextPage.setParameters(query);
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testDateHoldingTimestamp() throws Exception {
+    Timestamp created = new Timestamp(1234567890123L);
+    created.setNanos(123456789);
+    JPAKeysetPaging firstPage = JPAKeysetPaging.create(mockUriInfo(null, "created"), PAGE_SIZE);
+    String skipToken = firstPage.createSkipToken(new JPAEntityParser(null, null), new Event(created));
+
+    JPAKeysetPaging nextPage = JPAKeysetPaging.create(mockUriInfo(skipToken, "created"), PAGE_SIZE);
+    assertEquals("((E1.created > ?1))", nextPage.buildCondition("E1", 1));
+
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter(1, created)).andReturn(query);
+    EasyMock.replay(query);
+    nextPage.setParameters(query);
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testOffsetSkipToken() throws Exception {
+    assertNull(JPAKeysetPaging.create(mockUriInfo("10", "id"), PAGE_SIZE));
+  }
+
+  @Test
+  public void testNoPageSize() throws Exception {
+    assertNull(JPAKeysetPaging.create(mockUriInfo(null, "id"), 0));
+  }
+
+  @Test
+  public void testInvalidSkipToken() throws Exception {
+    try {
+      JPAKeysetPaging.create(mockUriInfo("k3", "id"), PAGE_SIZE);
+      fail("Exception expected");
+    } catch (Exception e) {
+      assertNotNull(e.getMessage());
+    }
+  }
+
+  private UriInfo mockUriInfo(final String skipToken, final String... keyNames) throws EdmException {
+    List<EdmProperty> keyProperties = new ArrayList<EdmProperty>();
+    List<String> keyPropertyNames = new ArrayList<String>();
+    for (String keyName : keyNames) {
+      keyProperties.add(mockKeyProperty(keyName,
+          "id".equals(keyName) ? long.class : "created".equals(keyName) ? Date.class : Integer.class));
+      keyPropertyNames.add(keyName);
+    }
+
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(null);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(keyProperties);
+    EasyMock.expect(entityType.getKeyPropertyNames()).andStubReturn(keyPropertyNames);
+    EasyMock.replay(entityType);
+
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+    EasyMock.replay(entitySet);
+
+    UriInfo uriInfo = EasyMock.createMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(Collections.<NavigationSegment> emptyList());
+    EasyMock.expect(uriInfo.getSkip()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getTop()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getSkipToken()).andStubReturn(skipToken);
+    EasyMock.expect(uriInfo.getOrderBy()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.replay(uriInfo);
+    return uriInfo;
+  }
+
+  private EdmProperty mockKeyProperty(final String name, final Class<?> type) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(name);
+    mapping.setJPAType(type);
+
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(property.getName()).andStubReturn(name);
+    EasyMock.expect(property.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(property);
+    return property;
+  }
+
+  public static class Entity {
+    private final long id;
+    private final Integer item;
+
+    public Entity(final long id, final Integer item) {
+      this.id = id;
+      this.item = item;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public Integer getItem() {
+      return item;
+    }
+  }
+
+  public static class Event {
+    private final Date created;
+
+    public Event(final Date created) {
+      this.created = created;
+    }
+
+    public Date getCreated() {
+      return created;
+    }
+  }
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.FullQualifiedName;
+import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
+import org.apache.olingo.odata2.api.edm.provider.EntityContainer;
+import org.apache.olingo.odata2.api.edm.provider.EntityContainerInfo;
+import org.apache.olingo.odata2.api.edm.provider.EntitySet;
+import org.apache.olingo.odata2.api.edm.provider.EntityType;
+import org.apache.olingo.odata2.api.edm.provider.Key;
+import org.apache.olingo.odata2.api.edm.provider.Property;
+import org.apache.olingo.odata2.api.edm.provider.PropertyRef;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.edm.provider.SimpleProperty;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
+import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
+import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAChangeSetContext;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAQueryExtensionEntityListener;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.core.mock.ODataContextMock;
+import org.apache.olingo.odata2.jpa.processor.core.mock.PathSegmentMock;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Test;
+
+public class JPAProcessorImplChangeSetTest {
+
+  private static final String NAMESPACE = "ChangeSet";
+  private static final String CONTAINER = "ChangeSetContainer";
+  // the processor looks up the entity set of a created entity by the name of its JPA entity
+  private static final String NOTES = "Note";
+
+  @After
+  public void tearDown() {
+    ODataJPAChangeSetContext.end();
+  }
+
+  @Test
+  public void testCreateQueuesEntityWithAssignedKey() throws Exception {
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.replay(em);
+    Edm edm = createEdm(false);
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+
+    Note note = (Note) new JPAProcessorImpl(mockODataJPAContext(em))
+        .process((PostUriInfo) parse(edm, NOTES), properties(1L, "created"));
+
+    assertEquals(Long.valueOf(1L), note.getId());
+    assertTrue(changeSet.isPending(note));
+    assertSame(note, changeSet.lookup(NOTES, Collections.singletonMap("Id", "1")));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testCreatePersistsEntityWithUnassignedKey() throws Exception {
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    em.persist(EasyMock.isA(Note.class));
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+      @Override
+      public Object answer() {
+        ((Note) EasyMock.getCurrentArguments()[0]).setId(7L);
+        return null;
+      }
+    });
+    EasyMock.replay(em);
+    Edm edm = createEdm(false);
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+
+    Note note = (Note) new JPAProcessorImpl(mockODataJPAContext(em))
+        .process((PostUriInfo) parse(edm, NOTES), properties(null, "created"));
+
+    assertFalse(changeSet.isPending(note));
+    assertSame(note, changeSet.lookup(NOTES, Collections.singletonMap("Id", "7")));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testUpdateResolvesEntityCreatedInChangeSet() throws Exception {
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.replay(em);
+    Edm edm = createEdm(false);
+    ODataJPAChangeSetContext.begin();
+    JPAProcessorImpl processor = new JPAProcessorImpl(mockODataJPAContext(em));
+    Note note = (Note) processor.process((PostUriInfo) parse(edm, NOTES), properties(1L, "created"));
+
+    // a request referring to the new entity by Content-ID is rewritten to its key by the batch handler
+    Object updated = processor.process((PutMergePatchUriInfo) parse(edm, NOTES + "(1L)"), properties(null, "updated"));
+
+    assertSame(note, updated);
+    assertEquals("updated", note.getText());
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testDeletePendingEntity() throws Exception {
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.replay(em);
+    Edm edm = createEdm(false);
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+    JPAProcessorImpl processor = new JPAProcessorImpl(mockODataJPAContext(em));
+    Note note = (Note) processor.process((PostUriInfo) parse(edm, NOTES), properties(1L, "created"));
+
+    assertSame(note, processor.process((DeleteUriInfo) parse(edm, NOTES + "(1L)"), null));
+
+    assertFalse(changeSet.isPending(note));
+    assertNull(changeSet.lookup(NOTES, Collections.singletonMap("Id", "1")));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testReadFlushesPendingEntitiesIfNothingIsFound() throws Exception {
+    Query query = EasyMock.createStrictMock(Query.class);
+    EasyMock.expect(query.setFlushMode(FlushModeType.COMMIT)).andReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(new ArrayList<Object>());
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.expect(em.createQuery(EasyMock.isA(String.class))).andReturn(query);
+    em.persist(EasyMock.isA(Note.class));
+    em.flush();
+    EasyMock.replay(em);
+    Edm edm = createEdm(false);
+    ODataJPAChangeSetContext changeSet = ODataJPAChangeSetContext.begin();
+    JPAProcessorImpl processor = new JPAProcessorImpl(mockODataJPAContext(em));
+    Note note = (Note) processor.process((PostUriInfo) parse(edm, NOTES), properties(1L, "created"));
+    EasyMock.expect(query.setParameter(EasyMock.anyInt(), EasyMock.anyObject())).andStubReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(Collections.singletonList(note));
+    EasyMock.replay(query);
+
+    assertSame(note, processor.process((GetEntityUriInfo) parse(edm, NOTES + "(1L)")));
+
+    assertFalse(changeSet.isPending(note));
+    EasyMock.verify(em, query);
+  }
+
+  @Test
+  public void testReadOfVirtualAccessTypeIgnoresChangeSet() throws Exception {
+    Query query = EasyMock.createStrictMock(Query.class);
+    EasyMock.expect(query.setParameter(EasyMock.anyInt(), EasyMock.anyObject())).andStubReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(new ArrayList<Object>());
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.expect(em.createQuery(EasyMock.isA(String.class))).andReturn(query);
+    EasyMock.replay(em);
+    Edm edm = createEdm(true);
+    ODataJPAChangeSetContext.begin();
+
+    assertNull(new JPAProcessorImpl(mockODataJPAContext(em)).process((GetEntityUriInfo) parse(edm, NOTES + "(1L)")));
+
+    EasyMock.verify(em, query);
+  }
+
+  private static ODataJPAContext mockODataJPAContext(final EntityManager em) throws ODataException {
+    ODataContext odataContext = new ODataContextMock().mockWithoutOnJPAWriteContent();
+    ODataJPATransaction transaction = EasyMock.createNiceMock(ODataJPATransaction.class);
+    EasyMock.replay(transaction);
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.getODataContext()).andStubReturn(odataContext);
+    EasyMock.expect(context.getODataJPATransaction()).andStubReturn(transaction);
+    EasyMock.expect(context.getODataJPAQueryExtensionEntityListener())
+        .andStubReturn(new ODataJPAQueryExtensionEntityListener() {});
+    EasyMock.replay(context);
+    return context;
+  }
+
+  private static Map<String, Object> properties(final Long id, final String text) {
+    Map<String, Object> properties = new HashMap<String, Object>();
+    if (id != null) {
+      properties.put("Id", id);
+    }
+    properties.put("Text", text);
+    return properties;
+  }
+
+  private static UriInfo parse(final Edm edm, final String path) throws ODataException {
+    PathSegmentMock segment = new PathSegmentMock();
+    segment.setPath(path);
+    return UriParser.parse(edm, Collections.<PathSegment> singletonList(segment), new HashMap<String, String>());
+  }
+
+  private static Edm createEdm(final boolean virtualAccess) {
+    JPAEdmMappingImpl typeMapping = new JPAEdmMappingImpl();
+    typeMapping.setInternalName(NOTES);
+    typeMapping.setJPAType(Note.class);
+    typeMapping.setVirtualAccess(virtualAccess);
+    final EntityType noteType = new EntityType().setName("Note")
+        .setKey(new Key().setKeys(Collections.singletonList(new PropertyRef().setName("Id"))))
+        .setProperties(Arrays.<Property> asList(
+            new SimpleProperty().setName("Id").setType(EdmSimpleTypeKind.Int64)
+                .setMapping(createMapping("id", Long.class)),
+            new SimpleProperty().setName("Text").setType(EdmSimpleTypeKind.String)
+                .setMapping(createMapping("text", String.class))))
+        .setMapping(typeMapping);
+    final EntitySet notes = new EntitySet().setName(NOTES).setEntityType(new FullQualifiedName(NAMESPACE, "Note"));
+    final EntityContainer container = new EntityContainer().setName(CONTAINER).setDefaultEntityContainer(true)
+        .setEntitySets(Collections.singletonList(notes));
+
+    return new EdmImplProv(new EdmProvider() {
+      @Override
+      public EntityContainerInfo getEntityContainerInfo(final String name) {
+        return name == null || CONTAINER.equals(name)
+            ? new EntityContainerInfo().setName(CONTAINER).setDefaultEntityContainer(true) : null;
+      }
+
+      @Override
+      public EntityType getEntityType(final FullQualifiedName edmFQName) {
+        return new FullQualifiedName(NAMESPACE, "Note").equals(edmFQName) ? noteType : null;
+      }
+
+      @Override
+      public EntitySet getEntitySet(final String entityContainer, final String name) {
+        return CONTAINER.equals(entityContainer) && NOTES.equals(name) ? notes : null;
+      }
+
+      @Override
+      public List<Schema> getSchemas() {
+        return Collections.singletonList(new Schema().setNamespace(NAMESPACE)
+            .setEntityTypes(Collections.singletonList(noteType))
+            .setEntityContainers(Collections.singletonList(container)));
+      }
+    });
+  }
+
+  private static JPAEdmMappingImpl createMapping(final String internalName, final Class<?> type) {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    mapping.setJPAType(type);
+    return mapping;
+  }
+
+  public static class Note {
+    private Long id;
+    private String text;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(final Long id) {
+      this.id = id;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    public void setText(final String text) {
+      this.text = text;
+    }
+  }
+}
@@ -128,6 +128,19 @@ public class JPAProcessorImplTest {
     }
   }
 
+  @Test
+  public void testProcessGetEntitySetUriInfoTopZeroWithInlineCount() throws Exception {
+    UriInfo objUriInfo = EasyMock.createMock(UriInfo.class);
+    EasyMock.expect(objUriInfo.isNew()).andStubReturn(false);
+    EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getTop()).andStubReturn(0);
+    EasyMock.expect(objUriInfo.getInlineCount()).andStubReturn(InlineCount.ALLPAGES);
+    EasyMock.replay(objUriInfo);
+
+    // The inline count is read with a separate count query, the entity query is not needed at all
+    Assert.assertTrue(objJPAProcessorImpl.process((GetEntitySetUriInfo) objUriInfo).isEmpty());
+  }
+
   @Test
   public void testProcessDeleteUriInfo() {
     try {
@@ -292,6 +305,10 @@ public class JPAProcessorImplTest {
     EasyMock.expect(odataJPAContext.getODataContext()).andStubReturn(getLocalODataContext());
     EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(getLocalEntityManager());
     EasyMock.expect(odataJPAContext.getPageSize()).andReturn(10).anyTimes();
+    EasyMock.expect(odataJPAContext.isKeysetPaging()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isQueryCaching()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isSelectProjection()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isIncrementalBatchExecution()).andStubReturn(false);
     odataJPAContext.setPaging(EasyMock.isA(JPAPaging.class));
     EasyMock.expectLastCall();
     EasyMock.replay(odataJPAContext);
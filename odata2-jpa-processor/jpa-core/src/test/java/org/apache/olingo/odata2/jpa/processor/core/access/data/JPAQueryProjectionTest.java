@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.SelectItem;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPAQueryProjectionTest {
+
+  private EdmProperty keyProperty;
+  private EdmProperty nameProperty;
+
+  @Test
+  public void testQuerySelectsSelectedAndKeyAttributes() throws Exception {
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.createQuery("SELECT E1.name, E1.id FROM SalesOrder E1")).andReturn(query);
+    EasyMock.replay(em);
+
+    JPAQueryBuilder queryBuilder = new JPAQueryBuilder(mockContext(em, true));
+    assertSame(query, queryBuilder.build((GetEntitySetUriInfo) mockUriInfo(false)).getQuery());
+
+    assertEquals(Arrays.asList("name", "id"), queryBuilder.getProjection().getAttributes());
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testExpandReadsEntities() throws Exception {
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.createQuery("SELECT E1 FROM SalesOrder E1")).andReturn(query);
+    EasyMock.replay(em);
+
+    JPAQueryBuilder queryBuilder = new JPAQueryBuilder(mockContext(em, true));
+    queryBuilder.build((GetEntitySetUriInfo) mockUriInfo(true));
+
+    assertNull(queryBuilder.getProjection());
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    assertNull(JPAQueryProjection.create(mockContext(null, false), (GetEntitySetUriInfo) mockUriInfo(false)));
+  }
+
+  @Test
+  public void testRowsAreParsedWithoutGetters() throws Exception {
+    UriInfo uriInfo = mockUriInfo(false);
+    JPAQueryProjection projection = JPAQueryProjection.create(mockContext(null, true), (GetEntitySetUriInfo) uriInfo);
+    List<Object> rows = projection.toRows(Arrays.asList(new Object[] { new char[] { 'a', 'b' }, 1L },
+        new Object[] { null, 2L }));
+
+    JPAEntityParser parser = new JPAEntityParser(null, uriInfo);
+    EdmEntityType entityType = uriInfo.getTargetEntitySet().getEntityType();
+    List<EdmProperty> properties = Arrays.asList(nameProperty, keyProperty);
+    Map<String, Object> first = parser.parse2EdmPropertyValueMap(rows.get(0), properties, entityType);
+    assertEquals("ab", first.get("Name"));
+    assertEquals(1L, first.get("Id"));
+    Map<String, Object> second = parser.parse2EdmPropertyValueMap(rows.get(1), properties, entityType);
+    assertNull(second.get("Name"));
+    assertEquals(2L, second.get("Id"));
+  }
+
+  private ODataJPAContext mockContext(final EntityManager em, final boolean selectProjection) {
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.isSelectProjection()).andStubReturn(selectProjection);
+    EasyMock.replay(context);
+    return context;
+  }
+
+  private UriInfo mockUriInfo(final boolean expand) throws EdmException {
+    keyProperty = mockProperty("Id", "id");
+    nameProperty = mockProperty("Name", "name");
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName("SalesOrder");
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.expect(entityType.getPropertyNames()).andStubReturn(Arrays.asList("Id", "Name"));
+    EasyMock.expect(entityType.getProperty("Id")).andStubReturn(keyProperty);
+    EasyMock.expect(entityType.getProperty("Name")).andStubReturn(nameProperty);
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getName()).andStubReturn("SalesOrders");
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+    SelectItem selectItem = EasyMock.createMock(SelectItem.class);
+    EasyMock.expect(selectItem.isStar()).andStubReturn(false);
+    EasyMock.expect(selectItem.getProperty()).andStubReturn(nameProperty);
+    EasyMock.expect(selectItem.getNavigationPropertySegments())
+        .andStubReturn(Collections.<NavigationPropertySegment> emptyList());
+    List<ArrayList<NavigationPropertySegment>> expandList = new ArrayList<ArrayList<NavigationPropertySegment>>();
+    if (expand) {
+      expandList.add(new ArrayList<NavigationPropertySegment>());
+    }
+
+    UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getStartEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(Collections.<NavigationSegment> emptyList());
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(Collections.singletonList(selectItem));
+    EasyMock.expect(uriInfo.getExpand()).andStubReturn(expandList);
+    EasyMock.replay(entityType, entitySet, selectItem, uriInfo);
+    return uriInfo;
+  }
+
+  private EdmProperty mockProperty(final String name, final String internalName) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmSimpleType type = EasyMock.createMock(EdmSimpleType.class);
+    EasyMock.expect(type.getKind()).andStubReturn(EdmTypeKind.SIMPLE);
+    EdmProperty property = EasyMock.createNiceMock(EdmProperty.class);
+    EasyMock.expect(property.getName()).andStubReturn(name);
+    EasyMock.expect(property.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(property.getType()).andStubReturn(type);
+    EasyMock.replay(type, property);
+    return property;
+  }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage.JPAPageBuilder;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPAQueryResultIteratorTest {
+
+  @Test
+  public void testPageIsReadInChunks() {
+    Query query = EasyMock.createStrictMock(Query.class);
+    expectChunk(query, 5, 2, Arrays.<Object> asList("a", "b"));
+    expectChunk(query, 7, 2, Arrays.<Object> asList("c", "d"));
+    expectChunk(query, 9, 1, Arrays.<Object> asList("e"));
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    em.clear();
+    EasyMock.expectLastCall().times(3);
+    EasyMock.replay(em);
+
+    JPAQueryResultIterator iterator = new JPAPageBuilder().query(query).skip(5).top(5).buildIterator(em, 2, null);
+
+    assertEquals(Arrays.<Object> asList("a", "b", "c", "d", "e"), toList(iterator));
+    EasyMock.verify(query, em);
+  }
+
+  @Test
+  public void testShortChunkEndsIteration() {
+    Query query = EasyMock.createStrictMock(Query.class);
+    expectChunk(query, 0, 3, Arrays.<Object> asList("a", "b", "c"));
+    expectChunk(query, 3, 3, Arrays.<Object> asList("d"));
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createNiceMock(EntityManager.class);
+    EasyMock.replay(em);
+
+    JPAQueryResultIterator iterator = new JPAPageBuilder().query(query).top(1000).buildIterator(em, 3, null);
+
+    assertEquals(Arrays.<Object> asList("a", "b", "c", "d"), toList(iterator));
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testClose() {
+    Query query = EasyMock.createStrictMock(Query.class);
+    expectChunk(query, 0, 2, Arrays.<Object> asList("a", "b"));
+    EasyMock.replay(query);
+
+    JPAQueryResultIterator iterator = new JPAPageBuilder().query(query).top(10).buildIterator(null, 2, null);
+    iterator.next();
+    iterator.close();
+
+    assertFalse(iterator.hasNext());
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testEmptyResult() {
+    Query query = EasyMock.createStrictMock(Query.class);
+    expectChunk(query, 0, 2, Collections.emptyList());
+    EasyMock.replay(query);
+
+    assertFalse(new JPAPageBuilder().query(query).top(10).buildIterator(null, 2, null).hasNext());
+    EasyMock.verify(query);
+  }
+
+  @Test
+  public void testFailingChunk() throws ODataJPARuntimeException {
+    final List<Object> firstChunk = Arrays.<Object> asList("a", "b");
+    final List<Object> secondChunk = Arrays.<Object> asList("c");
+    final ODataJPARuntimeException exception =
+        ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL, null);
+    Query query = EasyMock.createStrictMock(Query.class);
+    expectChunk(query, 0, 2, firstChunk);
+    expectChunk(query, 2, 2, secondChunk);
+    EasyMock.replay(query);
+    JPAQueryProjection projection = EasyMock.createMock(JPAQueryProjection.class);
+    EasyMock.expect(projection.toRows(firstChunk)).andReturn(firstChunk);
+    EasyMock.expect(projection.toRows(secondChunk)).andThrow(exception);
+    EasyMock.replay(projection);
+
+    JPAQueryResultIterator iterator = new JPAPageBuilder().query(query).top(10).buildIterator(null, 2, projection);
+    iterator.next();
+    iterator.next();
+    try {
+      iterator.hasNext();
+      fail("Expected ODataRuntimeException");
+    } catch (ODataRuntimeException e) {
+      assertSame(exception, e.getCause());
+    }
+    EasyMock.verify(query, projection);
+  }
+
+  private void expectChunk(final Query query, final int firstResult, final int maxResults,
+      final List<Object> result) {
+    EasyMock.expect(query.setFirstResult(firstResult)).andReturn(query);
+    EasyMock.expect(query.setMaxResults(maxResults)).andReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(result);
+  }
+
+  private List<Object> toList(final JPAQueryResultIterator iterator) {
+    List<Object> list = new ArrayList<Object>();
+    while (iterator.hasNext()) {
+      list.add(iterator.next());
+    }
+    return list;
+  }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class JPQLStatementCacheTest {
+
+  private static final String JPQL = "SELECT E1 FROM SalesOrder E1 ORDER BY E1.id";
+
+  private static Edm edm;
+
+  @BeforeClass
+  public static void setUpEdm() throws Exception {
+    edm = EntityProvider.readMetadata(JPQLStatementCacheTest.class.getClassLoader()
+        .getResourceAsStream("metadata.xml"), true);
+  }
+
+  @Before
+  public void setUp() {
+    JPQLStatementCache.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() {
+    JPQLStatementCache.getInstance().clear();
+  }
+
+  @Test
+  public void testQueryBuilderReusesStatement() throws Exception {
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.createQuery(JPQL)).andReturn(query).times(2);
+    EasyMock.replay(em);
+    ODataJPAContext context = mockContext(em);
+
+    UriInfo first = mockUriInfo(null, 10);
+    UriInfo second = mockUriInfo(null, 20);
+    assertSame(query, new JPAQueryBuilder(context).build((GetEntitySetUriInfo) first).getQuery());
+    assertSame(query, new JPAQueryBuilder(context).build((GetEntitySetUriInfo) second).getQuery());
+
+    EasyMock.verify(em);
+    JPQLStatementCache cache = JPQLStatementCache.getInstance();
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testQueryBuilderBindsParametersOfRequest() throws Exception {
+    final String jpql = "SELECT E1 FROM SalesOrder E1 WHERE (E1.soId = ?2) ORDER BY E1.id";
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter(2, 1L)).andReturn(query);
+    EasyMock.expect(query.setParameter(2, 2L)).andReturn(query);
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.createQuery(jpql)).andReturn(query).times(2);
+    EasyMock.replay(em);
+    ODataJPAContext context = mockContext(em);
+
+    new JPAQueryBuilder(context).build((GetEntitySetUriInfo) mockUriInfo("soId eq 1L", 10));
+    new JPAQueryBuilder(context).build((GetEntitySetUriInfo) mockUriInfo("soId eq 2L", 10));
+
+    EasyMock.verify(em, query);
+    assertEquals(1, JPQLStatementCache.getInstance().getHitCount());
+  }
+
+  @Test
+  public void testKeyIgnoresPagingAndParameterLiterals() throws Exception {
+    ODataJPAContext context = mockContext(null);
+    JPQLStatementCache.Key key =
+        JPQLStatementCache.createKey(context, JPQLContextType.SELECT, mockUriInfo("soId eq 1L and id eq 'a'", 10));
+    assertEquals(Arrays.<Object> asList(1L, "a"), key.getParameterValues());
+    JPQLStatementCache.Key otherKey =
+        JPQLStatementCache.createKey(context, JPQLContextType.SELECT, mockUriInfo("soId eq 2L and id eq 'b'", 20));
+    assertEquals(key.getText(), otherKey.getText());
+    assertEquals(Arrays.<Object> asList(2L, "b"), otherKey.getParameterValues());
+
+    assertFalse(key.getText().equals(JPQLStatementCache.createKey(context, JPQLContextType.SELECT,
+        mockUriInfo("soId eq 1L or id eq 'a'", 10)).getText()));
+    assertFalse(key.getText().equals(JPQLStatementCache.createKey(context, JPQLContextType.SELECT_COUNT,
+        mockUriInfo("soId eq 1L and id eq 'a'", 10)).getText()));
+  }
+
+  @Test
+  public void testKeyContainsLiteralsWrittenIntoStatement() throws Exception {
+    ODataJPAContext context = mockContext(null);
+    JPQLStatementCache.Key key =
+        JPQLStatementCache.createKey(context, JPQLContextType.SELECT, mockUriInfo("text eq null", 10));
+    assertEquals(Collections.emptyList(), key.getParameterValues());
+    assertFalse(key.getText().equals(JPQLStatementCache.createKey(context, JPQLContextType.SELECT,
+        mockUriInfo("text eq 'null'", 10)).getText()));
+  }
+
+  @Test
+  public void testStatementIsBoundToParametersOfRequest() throws Exception {
+    ODataJPAContext context = mockContext(null);
+    JPQLStatementCache cache = new JPQLStatementCache(2);
+    JPQLStatementCache.Key key =
+        JPQLStatementCache.createKey(context, JPQLContextType.SELECT, mockUriInfo("soId eq 1L and id eq 'a'", 10));
+    Map<Integer, Object> parameters = new HashMap<Integer, Object>();
+    parameters.put(1, 1L);
+    parameters.put(3, "a");
+    cache.put(key, JPQL, parameters);
+
+    JPQLStatementCache.Key otherKey =
+        JPQLStatementCache.createKey(context, JPQLContextType.SELECT, mockUriInfo("soId eq 2L and id eq 'b'", 10));
+    Map<Integer, Object> boundParameters = cache.get(otherKey).getParameters(otherKey);
+    assertEquals(2, boundParameters.size());
+    assertEquals(2L, boundParameters.get(1));
+    assertEquals("b", boundParameters.get(3));
+  }
+
+  @Test
+  public void testStatementWithOtherParametersIsNotCached() throws Exception {
+    JPQLStatementCache cache = new JPQLStatementCache(2);
+    JPQLStatementCache.Key key = JPQLStatementCache.createKey(mockContext(null), JPQLContextType.SELECT,
+        mockUriInfo("soId eq 1L", 10));
+    cache.put(key, JPQL, Collections.<Integer, Object> singletonMap(1, 2L));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testMaxSize() {
+    JPQLStatementCache cache = new JPQLStatementCache(2);
+    cache.put(new JPQLStatementCache.Key("a"), JPQL, Collections.<Integer, Object> singletonMap(1, "x"));
+    cache.put(new JPQLStatementCache.Key("b"), JPQL, null);
+    cache.get(new JPQLStatementCache.Key("a"));
+    cache.put(new JPQLStatementCache.Key("c"), JPQL, null);
+    assertEquals(2, cache.size());
+    assertNull(cache.get(new JPQLStatementCache.Key("b")));
+    assertEquals("x", cache.get(new JPQLStatementCache.Key("a")).getParameters().get(1));
+
+    cache.setMaxSize(0);
+    assertEquals(0, cache.size());
+    cache.put(new JPQLStatementCache.Key("d"), JPQL, null);
+    assertNull(cache.get(new JPQLStatementCache.Key("d")));
+  }
+
+  private ODataJPAContext mockContext(final EntityManager em) {
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.getPersistenceUnitName()).andStubReturn("salesorderprocessing");
+    EasyMock.expect(context.isQueryCaching()).andStubReturn(true);
+    EasyMock.replay(context);
+    return context;
+  }
+
+  private UriInfo mockUriInfo(final String filter, final int top) throws ODataException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName("SalesOrder");
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    JPAEdmMappingImpl keyMapping = new JPAEdmMappingImpl();
+    keyMapping.setInternalName("id");
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn("Id");
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EdmEntityContainer container = EasyMock.createMock(EdmEntityContainer.class);
+    EasyMock.expect(container.getName()).andStubReturn("Container");
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getName()).andStubReturn("SalesOrders");
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+    EasyMock.expect(entitySet.getEntityContainer()).andStubReturn(container);
+    FilterExpression filterExpression = null;
+    if (filter != null) {
+      filterExpression = UriParser.parseFilter(edm, edm.getEntityType("SalesOrderProcessing", "Note"), filter);
+    }
+
+    UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getStartEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(Collections.<NavigationSegment> emptyList());
+    EasyMock.expect(uriInfo.getFilter()).andStubReturn(filterExpression);
+    EasyMock.expect(uriInfo.getTop()).andStubReturn(top);
+    EasyMock.replay(keyProperty, entityType, container, entitySet, uriInfo);
+    return uriInfo;
+  }
+}
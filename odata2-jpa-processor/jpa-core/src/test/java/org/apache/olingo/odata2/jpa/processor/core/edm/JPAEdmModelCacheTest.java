@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.edm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EmbeddableType;
+import javax.persistence.metamodel.EntityType;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.edm.EdmImpl;
+import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
+import org.apache.olingo.odata2.core.edm.provider.EdmServiceMetadataImplProv;
+import org.apache.olingo.odata2.jpa.processor.core.ODataJPAContextImpl;
+import org.apache.olingo.odata2.jpa.processor.core.mock.model.JPAMetaModelMock;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JPAEdmModelCacheTest {
+
+  private static final String PUNIT_NAME = "salesorderprocessing";
+
+  @Before
+  public void setUp() {
+    JPAEdmModelCache.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() {
+    JPAEdmModelCache.getInstance().clear();
+  }
+
+  @Test
+  public void testModelIsBuiltOncePerPersistenceUnit() throws Exception {
+    ODataJPAEdmProvider first = new ODataJPAEdmProvider(createContext(PUNIT_NAME));
+    ODataJPAEdmProvider second = new ODataJPAEdmProvider(createContext(PUNIT_NAME));
+
+    List<Schema> schemas = first.getSchemas();
+    assertSame(schemas, second.getSchemas());
+    assertEquals(1, JPAEdmModelCache.getInstance().getBuildCount());
+    assertEquals(1, JPAEdmModelCache.getInstance().getHitCount());
+    assertTrue(JPAEdmModelCache.getInstance().getBuildTime(createContext(PUNIT_NAME)) >= 0);
+  }
+
+  @Test
+  public void testModelsAreKeyedByPersistenceUnit() throws Exception {
+    List<Schema> schemas = new ODataJPAEdmProvider(createContext(PUNIT_NAME)).getSchemas();
+    assertNotSame(schemas, new ODataJPAEdmProvider(createContext("other")).getSchemas());
+    assertEquals(2, JPAEdmModelCache.getInstance().getBuildCount());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    List<Schema> schemas = new ODataJPAEdmProvider(createContext(PUNIT_NAME)).getSchemas();
+    JPAEdmModelCache.getInstance().invalidate(PUNIT_NAME);
+    assertEquals(-1, JPAEdmModelCache.getInstance().getBuildTime(createContext(PUNIT_NAME)));
+    assertNotSame(schemas, new ODataJPAEdmProvider(createContext(PUNIT_NAME)).getSchemas());
+    assertEquals(2, JPAEdmModelCache.getInstance().getBuildCount());
+  }
+
+  @Test
+  public void testDocumentsAreSharedAcrossProviders() throws Exception {
+    EdmServiceMetadataImplProv first = (EdmServiceMetadataImplProv)
+        new EdmImplProv(new ODataJPAEdmProvider(createContext(PUNIT_NAME))).getServiceMetadata();
+    EdmServiceMetadataImplProv second = (EdmServiceMetadataImplProv)
+        new EdmImplProv(new ODataJPAEdmProvider(createContext(PUNIT_NAME))).getServiceMetadata();
+
+    assertEquals(first.getMetadataETag(), second.getMetadataETag());
+    first.putServiceDocument("key", ODataResponse.entity(new ByteArrayInputStream(new byte[] { 1 })).build());
+    assertNotNull(second.getServiceDocument("key"));
+    assertEquals(1, JPAEdmModelCache.getInstance().getBuildCount());
+  }
+
+  @Test
+  public void testEdmIsShared() throws Exception {
+    Edm edm = JPAEdmModelCache.getInstance().getEdm(createContext(PUNIT_NAME));
+    assertSame(edm, JPAEdmModelCache.getInstance().getEdm(createContext(PUNIT_NAME)));
+    assertTrue(((EdmImpl) edm).isFrozen());
+    assertEquals(1, JPAEdmModelCache.getInstance().getBuildCount());
+
+    JPAEdmModelCache.getInstance().invalidate(PUNIT_NAME);
+    assertNotSame(edm, JPAEdmModelCache.getInstance().getEdm(createContext(PUNIT_NAME)));
+  }
+
+  private ODataJPAContextImpl createContext(final String pUnitName) {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.getMetamodel()).andStubReturn(new EmptyMetaModel());
+    EasyMock.expect(em.isOpen()).andStubReturn(true);
+    EasyMock.replay(em);
+
+    ODataJPAContextImpl context = new ODataJPAContextImpl();
+    context.setPersistenceUnitName(pUnitName);
+    context.setEntityManager(em);
+    context.setEdmCaching(true);
+    return context;
+  }
+
+  private static class EmptyMetaModel extends JPAMetaModelMock {
+    @Override
+    public Set<EntityType<?>> getEntities() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public Set<EmbeddableType<?>> getEmbeddables() {
+      return Collections.emptySet();
+    }
+  }
+}
@@ -41,6 +41,10 @@ public abstract class ODataJPAContextMock {
   public static ODataJPAContext mockODataJPAContext() {
     ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn(NAMESPACE);
+    EasyMock.expect(odataJPAContext.isEdmCaching()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isQueryCaching()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isSelectProjection()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isIncrementalBatchExecution()).andStubReturn(false);
     EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andReturn(mockEntityManagerFactory());
     EasyMock.expect(odataJPAContext.getEntityManager()).andReturn(mockEntityManager());
     EasyMock.expect(odataJPAContext.getJPAEdmMappingModel()).andReturn(MAPPING_MODEL);
@@ -54,6 +58,10 @@ public abstract class ODataJPAContextMock {
   public static ODataJPAContext mockODataJPAContext(final ODataContext context) {
     ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn(NAMESPACE);
+    EasyMock.expect(odataJPAContext.isEdmCaching()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isQueryCaching()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isSelectProjection()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.isIncrementalBatchExecution()).andStubReturn(false);
     EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andReturn(mockEntityManagerFactory());
     EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(mockEntityManager());
     EasyMock.expect(odataJPAContext.getJPAEdmMappingModel()).andReturn(MAPPING_MODEL);
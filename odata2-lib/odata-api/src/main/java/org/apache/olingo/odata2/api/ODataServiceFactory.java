@@ -18,6 +18,9 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.api;
 
+import java.util.concurrent.ExecutorService;
+
+import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
@@ -76,6 +79,18 @@ public abstract class ODataServiceFactory {
     return RuntimeDelegate.createODataSingleProcessorService(provider, processor);
   }
 
+  /**
+   * Create a default service instance based on </code>ODataSingleProcessor<code> for an existing
+   * entity data model. Together with {@link RuntimeDelegate#createFrozenEdm(EdmProvider)} this allows
+   * to build the entity data model once and to share it between all service instances.
+   * @param edm The entity data model of the service.
+   * @param processor A custom processor implementation derived from <code>ODataSingleProcessor</code> .
+   * @return A new default <code>ODataSingleProcessorService</code> instance.
+   */
+  public ODataService createODataSingleProcessorService(final Edm edm, final ODataSingleProcessor processor) {
+    return RuntimeDelegate.createODataSingleProcessorService(edm, processor);
+  }
+
   /**
    * A service can return implementation classes for various callback interfaces.
    * @param callbackInterface a interface type to query for implementation
@@ -89,4 +104,29 @@ public abstract class ODataServiceFactory {
     return null;
   }
 
+  /**
+   * Returns the executor which runs the query operations of a batch request (retrieve requests outside of
+   * change sets) concurrently. Each concurrently executed query operation gets its own service instance
+   * created by {@link #createService(ODataContext)}. Change sets are still executed sequentially,
+   * after all preceding query operations have completed, and the responses keep the order of the request parts.
+   * <p>The default implementation returns <code>null</code> so that all parts are executed sequentially.
+   * An implementation should return an executor shared by all requests with a bounded number of threads,
+   * e.g., one created by {@link java.util.concurrent.Executors#newFixedThreadPool(int)}.</p>
+   * @return an executor or <code>null</code>
+   */
+  public ExecutorService getBatchQueryExecutor() {
+    return null;
+  }
+
+  /**
+   * Releases a service which has been created by {@link #createService(ODataContext)} for a query operation
+   * executed by the {@link #getBatchQueryExecutor()}. The method is called in the executing thread
+   * after the response of the query operation has been created.
+   * <p>The default implementation does nothing. A factory whose services hold resources
+   * (e.g., database connections) should free them here.</p>
+   * @param service the service of the query operation
+   * @throws ODataException if the service could not be released; the query operation then gets an error response
+   */
+  public void releaseService(final ODataService service) throws ODataException {}
+
 }
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataRequest;
+
+/**
+ * Executes the parts of a Batch Request while the request body is read.
+ * <p>Retrieve requests in front of the first change set are handed to the {@link BatchHandler}
+ * as soon as they have been read, i.e., part N is executed before part N+1 is read.
+ * The first change set and all parts after it are executed only after the complete body has been
+ * parsed successfully, so a malformed request is rejected before any data has been modified.</p>
+ */
+public final class BatchRequestPartExecutor {
+
+  private BatchRequestPartExecutor() {}
+
+  /**
+   * Executes all parts provided by <code>batchParts</code> with the given handler.
+   * @param handler the {@link BatchHandler} which executes the parts
+   * @param batchParts the parts of the Batch Request body, see
+   * {@link org.apache.olingo.odata2.api.ep.EntityProvider#parseBatchRequestIncrementally}
+   * @return the response parts in the order of the request parts
+   * @throws ODataException if parsing of a part or the execution fails
+   */
+  public static List<BatchResponsePart> execute(final BatchHandler handler, final BatchRequestPartIterator batchParts)
+      throws ODataException {
+    List<BatchResponsePart> batchResponseParts = new ArrayList<BatchResponsePart>();
+    List<BatchRequestPart> deferredParts = new ArrayList<BatchRequestPart>();
+    while (batchParts.hasNext()) {
+      final BatchRequestPart batchPart = batchParts.next();
+      if (deferredParts.isEmpty() && isRetrieve(batchPart)) {
+        batchResponseParts.add(handler.handleBatchPart(batchPart));
+      } else {
+        deferredParts.add(batchPart);
+      }
+    }
+    for (BatchRequestPart batchPart : deferredParts) {
+      batchResponseParts.add(handler.handleBatchPart(batchPart));
+    }
+    return batchResponseParts;
+  }
+
+  private static boolean isRetrieve(final BatchRequestPart batchPart) {
+    if (batchPart.isChangeSet()) {
+      return false;
+    }
+    for (ODataRequest request : batchPart.getRequests()) {
+      if (request.getMethod() != ODataHttpMethod.GET) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
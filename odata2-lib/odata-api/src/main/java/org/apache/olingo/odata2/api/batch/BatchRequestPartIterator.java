@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.batch;
+
+/**
+ * Provides the parts of a Batch Request body one at a time while the body is read.
+ * <p>Only the MIME part which is returned next is held in memory, so a part can be handled
+ * before the following parts have been received. A parsing error in a later part is reported
+ * by {@link #hasNext()} or {@link #next()} after the preceding parts have been returned.
+ * The underlying input stream is closed when the end of the Batch Request body is reached
+ * or an error occurs.</p>
+ */
+public interface BatchRequestPartIterator {
+
+  /**
+   * Checks whether the Batch Request body contains a further part. Reads the body up to the end of that part.
+   * @return <code>true</code> if a further {@link BatchRequestPart} is available
+   * @throws BatchException if parsing of the part fails
+   */
+  public boolean hasNext() throws BatchException;
+
+  /**
+   * Returns the next part of the Batch Request body.
+   * @return the next {@link BatchRequestPart}
+   * @throws BatchException if parsing of the part fails
+   * @throws java.util.NoSuchElementException if there are no further parts
+   */
+  public BatchRequestPart next() throws BatchException;
+}
@@ -38,6 +38,16 @@ public interface EdmServiceMetadata {
    */
   InputStream getMetadata() throws ODataException;
 
+  /**
+   * @return <b>String</b> strong entity tag of the metadata document (including the quotes),
+   * which changes whenever the content of the metadata document changes.
+   * <p>This method has been added to an interface which is not meant to be implemented by applications;
+   * implementations outside of this library must add it, they may return <b>null</b> if they do not
+   * provide an entity tag, in which case the metadata document is sent without an entity tag.</p>
+   * @throws ODataException
+   */
+  String getMetadataETag() throws ODataException;
+
   /**
    * @return <b>String</b> data service version of this service
    * @throws ODataException
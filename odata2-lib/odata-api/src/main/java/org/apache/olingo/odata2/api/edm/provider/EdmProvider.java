@@ -126,4 +126,17 @@ public abstract class EdmProvider {
     return null;
   }
 
+  /**
+   * This method should return a token which changes whenever the entity data model
+   * provided by this provider changes, e.g., a version number or a time stamp.
+   * The serialized metadata document and service documents are cached
+   * as long as the returned token stays equal.
+   * The default implementation returns <b>null</b>, i.e., the model never changes.
+   * @return token for the current state of the entity data model or <b>null</b>
+   * @throws ODataException
+   */
+  public Object getModelVersion() throws ODataException {
+    return null;
+  }
+
 }
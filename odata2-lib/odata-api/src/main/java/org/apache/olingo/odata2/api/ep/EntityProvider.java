@@ -19,11 +19,13 @@
 package org.apache.olingo.odata2.api.ep;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
@@ -33,7 +35,9 @@ import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
 import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.provider.DataServices;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
@@ -154,6 +158,28 @@ public final class EntityProvider {
     ODataResponse writeFeed(String contentType, EdmEntitySet entitySet, List<Map<String, Object>> data,
         EntityProviderWriteProperties properties) throws EntityProviderException;
 
+    /**
+     * Write given <code>data</code> (which is given in form of an {@link Iterator} over a {@link Map} for each entity)
+     * as feed in the specified format (given as <code>contentType</code>) based on given
+     * <code>entity data model for an entity set</code> (given as {@link EdmEntitySet})
+     * and <code>properties</code> for this entity provider (given as {@link EntityProviderWriteProperties}).
+     * <p>In contrast to {@link #writeFeed(String, EdmEntitySet, List, EntityProviderWriteProperties)} the feed is
+     * serialized lazily, entry by entry, while the entity of the resulting {@link ODataResponse} is read.
+     * Hence the <code>data</code> iterator is consumed only during reading of the response entity and at most one
+     * serialized entry is held in memory. If the iterator also implements {@link java.io.Closeable}
+     * it is closed together with the response.</p>
+     * 
+     * @param contentType format in which the feed should be written
+     * @param entitySet entity data model for given entity data set
+     * @param data entries in form of an {@link Iterator} with a {@link Map} for each entity (such a {@link Map}
+     * contains all properties [as <code>property name</code> to <code>property value</code> mapping).
+     * @param properties additional properties necessary for writing of data
+     * @return resulting {@link ODataResponse} with lazily written feed content.
+     * @throws EntityProviderException if writing of data (serialization) fails
+     */
+    ODataResponse writeFeed(String contentType, EdmEntitySet entitySet, Iterator<Map<String, Object>> data,
+        EntityProviderWriteProperties properties) throws EntityProviderException;
+
     /**
      * Write given <code>data</code> (which is given in form of a {@link Map} for which contains all properties
      * as <code>property name</code> to <code>property value</code> mapping) for the entry in the specified
@@ -259,6 +285,25 @@ public final class EntityProvider {
     ODataFeed readFeed(String contentType, EdmEntitySet entitySet, InputStream content,
         EntityProviderReadProperties properties) throws EntityProviderException;
 
+    /**
+     * Read (de-serialize) a data feed from <code>content</code> (as {@link InputStream}) in specified format (given as
+     * <code>contentType</code>) based on <code>entity data model</code> (given as {@link EdmEntitySet}) and hand
+     * each entry to the given <code>entryHandler</code> as soon as it has been read.
+     * <p>In contrast to {@link #readFeed(String, EdmEntitySet, InputStream, EntityProviderReadProperties)} the
+     * entries are not collected, so the content can be processed (e.g., persisted) while it is still being read.
+     * Entries of inline feeds are part of their parent entry as usual.</p>
+     * 
+     * @param contentType format of content in the given input stream.
+     * @param entitySet entity data model for entity set to be read
+     * @param content feed data in form of an {@link InputStream} which contains the data in specified format
+     * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+     * @param entryHandler callback which receives the read entries
+     * @return the {@link FeedMetadata} of the feed (like <code>inline count</code> and <code>next link</code>)
+     * @throws EntityProviderException if reading of data (de-serialization) fails or an entry could not be handled
+     */
+    FeedMetadata readFeed(String contentType, EdmEntitySet entitySet, InputStream content,
+        EntityProviderReadProperties properties, OnReadFeedEntry entryHandler) throws EntityProviderException;
+
     /**
      * Read (de-serialize) a delta data feed from <code>content</code> (as {@link InputStream}) in specified format
      * (given as <code>contentType</code>)
@@ -424,6 +469,19 @@ public final class EntityProvider {
     List<BatchRequestPart> parseBatchRequest(String contentType, InputStream content,
         EntityProviderBatchProperties properties) throws BatchException;
 
+    /**
+     * Parse Batch Request body <code>inputStream</code> (as {@link InputStream}) incrementally and provide the
+     * Batch Request parts one at a time as {@link BatchRequestPart}
+     * 
+     * @param contentType format of content in the given input stream
+     * @param content request body
+     * @param properties additional properties necessary for parsing. Must not be null.
+     * @return {@link BatchRequestPartIterator} over the parts of the request body
+     * @throws BatchException if the content type is invalid
+     */
+    BatchRequestPartIterator parseBatchRequestIncrementally(String contentType, InputStream content,
+        EntityProviderBatchProperties properties) throws BatchException;
+
     /**
      * Write responses of Batch Response Parts in Batch Response as {@link ODataResponse}.
      * Batch Response body matches one-to-one with the corresponding Batch Request body
@@ -588,6 +646,31 @@ public final class EntityProvider {
     return createEntityProvider().writeFeed(contentType, entitySet, data, properties);
   }
 
+  /**
+   * Write given <code>data</code> (which is given in form of an {@link Iterator} over a {@link Map} for each entity)
+   * as feed in the specified format (given as <code>contentType</code>) based on given
+   * <code>entity data model for an entity set</code> (given as {@link EdmEntitySet})
+   * and <code>properties</code> for this entity provider (given as {@link EntityProviderWriteProperties}).
+   * <p>In contrast to {@link #writeFeed(String, EdmEntitySet, List, EntityProviderWriteProperties)} the feed is
+   * serialized lazily, entry by entry, while the entity of the resulting {@link ODataResponse} is read.
+   * Hence the <code>data</code> iterator is consumed only during reading of the response entity and at most one
+   * serialized entry is held in memory. If the iterator also implements {@link java.io.Closeable}
+   * it is closed together with the response.</p>
+   * 
+   * @param contentType format in which the feed should be written
+   * @param entitySet entity data model for given entity data set
+   * @param data entries in form of an {@link Iterator} with a {@link Map} for each entity (such a {@link Map}
+   * contains all properties [as <code>property name</code> to <code>property value</code> mapping).
+   * @param properties additional properties necessary for writing of data
+   * @return resulting {@link ODataResponse} with lazily written feed content.
+   * @throws EntityProviderException if writing of data (serialization) fails
+   */
+  public static ODataResponse writeFeed(final String contentType, final EdmEntitySet entitySet,
+      final Iterator<Map<String, Object>> data, final EntityProviderWriteProperties properties)
+      throws EntityProviderException {
+    return createEntityProvider().writeFeed(contentType, entitySet, data, properties);
+  }
+
   /**
    * Write given <code>data</code> (which is given in form of a {@link Map} for which contains all properties
    * as <code>property name</code> to <code>property value</code> mapping) for the entry in the specified
@@ -708,6 +791,28 @@ public final class EntityProvider {
     return createEntityProvider().readFeed(contentType, entitySet, content, properties);
   }
 
+  /**
+   * Read (de-serialize) a data feed from <code>content</code> (as {@link InputStream}) in specified format (given as
+   * <code>contentType</code>) based on <code>entity data model</code> (given as {@link EdmEntitySet}) and hand
+   * each entry to the given <code>entryHandler</code> as soon as it has been read.
+   * <p>In contrast to {@link #readFeed(String, EdmEntitySet, InputStream, EntityProviderReadProperties)} the
+   * entries are not collected, so the content can be processed (e.g., persisted) while it is still being read.
+   * Entries of inline feeds are part of their parent entry as usual.</p>
+   * 
+   * @param contentType format of content in the given input stream.
+   * @param entitySet entity data model for entity set to be read
+   * @param content feed data in form of an {@link InputStream} which contains the data in specified format
+   * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+   * @param entryHandler callback which receives the read entries
+   * @return the {@link FeedMetadata} of the feed (like <code>inline count</code> and <code>next link</code>)
+   * @throws EntityProviderException if reading of data (de-serialization) fails or an entry could not be handled
+   */
+  public static FeedMetadata readFeed(final String contentType, final EdmEntitySet entitySet,
+      final InputStream content, final EntityProviderReadProperties properties, final OnReadFeedEntry entryHandler)
+      throws EntityProviderException {
+    return createEntityProvider().readFeed(contentType, entitySet, content, properties, entryHandler);
+  }
+
   /**
    * Read (de-serialize) a delta data feed from <code>content</code> (as {@link InputStream}) in specified format
    * (given as <code>contentType</code>) based on <code>entity data model</code> (given as {@link EdmEntitySet}) and
@@ -919,6 +1024,27 @@ public final class EntityProvider {
     return createEntityProvider().parseBatchRequest(contentType, content, properties);
   }
 
+  /**
+   * Parse Batch Request body <code>inputStream</code> (as {@link InputStream}) incrementally and provide the
+   * Batch Request parts one at a time as {@link BatchRequestPart}.
+   * In contrast to {@link #parseBatchRequest(String, InputStream, EntityProviderBatchProperties)}
+   * only the part which is returned next is held in memory.
+   * A syntax error in a later part is detected only when that part is requested; a caller which executes
+   * each part before requesting the next one therefore cannot reject a malformed request without side effects.
+   * {@link org.apache.olingo.odata2.api.batch.BatchRequestPartExecutor} executes retrieve requests while
+   * parsing and defers modifying requests until the complete body has been parsed.
+   * 
+   * @param contentType format of content in the given input stream
+   * @param content request body
+   * @param properties additional properties necessary for parsing. Must not be null.
+   * @return {@link BatchRequestPartIterator} over the parts of the request body
+   * @throws BatchException if the content type is invalid
+   */
+  public static BatchRequestPartIterator parseBatchRequestIncrementally(final String contentType,
+      final InputStream content, final EntityProviderBatchProperties properties) throws BatchException {
+    return createEntityProvider().parseBatchRequestIncrementally(contentType, content, properties);
+  }
+
   /**
    * Write responses of Batch Response Parts in Batch Response as {@link ODataResponse}.
    * Batch Response body matches one-to-one with the corresponding Batch Request body
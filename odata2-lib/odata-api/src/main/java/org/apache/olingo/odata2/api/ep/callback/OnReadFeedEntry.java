@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.callback;
+
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+
+/**
+ * <p>
+ * Callback interface for reading a feed entry by entry, see
+ * {@link org.apache.olingo.odata2.api.ep.EntityProvider#readFeed(String, org.apache.olingo.odata2.api.edm.EdmEntitySet,
+ * java.io.InputStream, org.apache.olingo.odata2.api.ep.EntityProviderReadProperties, OnReadFeedEntry)
+ * EntityProvider.readFeed}.
+ * </p>
+ * <p>
+ * The {@link #handleReadEntry(ODataEntry)} method is called for each entry of the feed as soon as it has been
+ * read completely, i.e., before the following entries are read. The entries are not collected,
+ * so the memory needed for reading a feed does not grow with the number of its entries.
+ * </p>
+ */
+public interface OnReadFeedEntry {
+
+  /**
+   * Handles a read (de-serialized) entry of the feed.
+   * @param entry the entry as {@link ODataEntry}
+   * @throws ODataApplicationException if the entry could not be handled; reading of the feed is aborted
+   */
+  void handleReadEntry(ODataEntry entry) throws ODataApplicationException;
+}
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.api.processor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
@@ -61,7 +62,8 @@ public abstract class ODataResponse {
   public abstract Object getEntity();
 
   /**
-   * @return a response entity as inputStream which becomes the body part of a response message
+   * @return a response entity as inputStream which becomes the body part of a response message;
+   * the content of an {@link ODataStreamingOutput} entity is written into a buffer first
    * @throws ODataException throws ODataException in case of entity is not a stream (internal ClassCastException)
    */
   public InputStream getEntityAsStream() throws ODataException {
@@ -72,6 +74,8 @@ public abstract class ODataResponse {
       return new ByteArrayInputStream((byte[]) obj);
     } else if(obj instanceof String) {
       return getInputStream((String) obj);
+    } else if(obj instanceof ODataStreamingOutput) {
+      return getInputStream((ODataStreamingOutput) obj);
     }
     throw new ODataException("Entity is not an instance of an InputStream (entity class: " +
         (obj == null ? "NULL": obj.getClass()) + ")");
@@ -93,6 +97,17 @@ public abstract class ODataResponse {
     }
   }
 
+  private InputStream getInputStream(final ODataStreamingOutput streamingEntity) throws ODataException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      streamingEntity.write(output);
+      close();
+    } catch (IOException e) {
+      throw new ODataException("Unexpected exception for writing of streaming entity into InputStream.", e);
+    }
+    return new ByteArrayInputStream(output.toByteArray());
+  }
+
   /**
    * Close the underlying entity input stream (if such a stream is available) and release all with this repsonse
    * associated resources.
@@ -379,6 +379,7 @@ public abstract class ODataSingleProcessor implements MetadataProcessor, Service
 
     return ODataResponse.status(HttpStatusCodes.OK)
         .header(ODataHttpHeaders.DATASERVICEVERSION, edmServiceMetadata.getDataServiceVersion())
+        .eTag(edmServiceMetadata.getMetadataETag())
         .entity(edmServiceMetadata.getMetadata()).build();
   }
 
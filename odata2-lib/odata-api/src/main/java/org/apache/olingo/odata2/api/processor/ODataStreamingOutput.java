@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>Response entity which writes its content directly into the output stream of the
+ * transport layer (e.g. the <code>ServletOutputStream</code>) instead of being read
+ * from an <code>InputStream</code>.</p>
+ * <p>An instance can be set as entity of an {@link ODataResponse}; the servlet, the JAX-RS
+ * runtime and the batch response writer call {@link #write(OutputStream)} exactly once.
+ * Because the length of the content is not known in advance, no <code>Content-Length</code>
+ * header is sent (unless set explicitly) and the response is transferred chunked.
+ * Inside a batch response the content is buffered in memory, because every part
+ * carries its own <code>Content-Length</code>.
+ * If the entity also implements {@link java.io.Closeable}, it is closed together with the response.</p>
+ */
+public interface ODataStreamingOutput {
+
+  /**
+   * Writes the content of the response entity.
+   * The given stream must not be closed by the implementation.
+   * @param output stream to write into
+   * @throws IOException if writing fails
+   */
+  void write(OutputStream output) throws IOException;
+}
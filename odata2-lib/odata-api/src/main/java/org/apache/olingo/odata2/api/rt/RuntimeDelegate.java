@@ -32,6 +32,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.ep.EntityProvider.EntityProviderInterface;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
@@ -91,11 +92,15 @@ public abstract class RuntimeDelegate {
 
     protected abstract Edm createEdm(EdmProvider provider);
 
+    protected abstract Edm createFrozenEdm(EdmProvider provider) throws ODataException;
+
     protected abstract EntityProviderInterface createEntityProvider();
 
     protected abstract ODataService createODataSingleProcessorService(EdmProvider provider,
         ODataSingleProcessor processor);
 
+    protected abstract ODataService createODataSingleProcessorService(Edm edm, ODataSingleProcessor processor);
+
     protected abstract EdmProvider createEdmProvider(InputStream metadataXml, boolean validate)
         throws EntityProviderException;
 
@@ -154,6 +159,18 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createEdm(provider);
   }
 
+  /**
+   * Creates and returns an entity data model which is built completely at once.
+   * The returned model does not request anything from the provider afterwards;
+   * it is immutable and can be shared by all requests and threads.
+   * @param provider a provider implemented by the OData service
+   * @return an implementation object
+   * @throws ODataException if the provider fails or the model is inconsistent
+   */
+  public static Edm createFrozenEdm(final EdmProvider provider) throws ODataException {
+    return RuntimeDelegate.getInstance().createFrozenEdm(provider);
+  }
+
   /**
    * Returns an parser which can parse OData uris based on metadata.
    * @param edm metadata of the implemented service
@@ -182,6 +199,16 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createODataSingleProcessorService(provider, processor);
   }
 
+  /**
+   * Creates and returns a single processor service for an existing entity data model.
+   * @param edm the entity data model of the OData service, e.g., created by {@link #createFrozenEdm(EdmProvider)}
+   * @param processor a single data processor implementation of the OData service
+   * @return a implementation object
+   */
+  public static ODataService createODataSingleProcessorService(final Edm edm, final ODataSingleProcessor processor) {
+    return RuntimeDelegate.getInstance().createODataSingleProcessorService(edm, processor);
+  }
+
   /**
    * Creates and returns an edm provider.
    * @param metadataXml a metadata xml input stream (means the metadata document)
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
+import org.apache.olingo.odata2.core.PathInfoImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of <code>$batch</code> request bodies (<code>BatchParser</code>) with a mix of
+ * query operations and change sets, completely and part by part.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchParserBenchmark {
+
+  private static final String BOUNDARY = "batch_8194-cf13-1f56";
+  private static final String CHANGESET_BOUNDARY = "changeset_f980-1cb6-94dd";
+  private static final String CRLF = "\r\n";
+
+  /** Number of parts; every fifth part is a change set with two changes. */
+  @Param({ "10", "100", "1000" })
+  public int parts;
+
+  private byte[] content;
+  private EntityProviderBatchProperties properties;
+
+  @Setup
+  public void setup() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 1; i <= parts; i++) {
+      body.append("--").append(BOUNDARY).append(CRLF);
+      if (i % 5 == 0) {
+        body.append("Content-Type: multipart/mixed; boundary=").append(CHANGESET_BOUNDARY).append(CRLF)
+            .append(CRLF);
+        for (int j = 1; j <= 2; j++) {
+          final String employeeName = "{\"EmployeeName\":\"Employee " + i + "-" + j + "\"}";
+          body.append("--").append(CHANGESET_BOUNDARY).append(CRLF)
+              .append("Content-Type: application/http").append(CRLF)
+              .append("Content-Transfer-Encoding: binary").append(CRLF)
+              .append("Content-ID: change").append(i).append('-').append(j).append(CRLF)
+              .append(CRLF)
+              .append("PUT Employees('").append(i).append("')/EmployeeName HTTP/1.1").append(CRLF)
+              .append("Content-Type: application/json;odata=verbose").append(CRLF)
+              .append("Content-Length: ").append(employeeName.length()).append(CRLF)
+              .append(CRLF)
+              .append(employeeName).append(CRLF);
+        }
+        body.append("--").append(CHANGESET_BOUNDARY).append("--").append(CRLF).append(CRLF);
+      } else {
+        body.append("Content-Type: application/http").append(CRLF)
+            .append("Content-Transfer-Encoding: binary").append(CRLF)
+            .append(CRLF)
+            .append("GET Employees('").append(i).append("')?$expand=ne_Room HTTP/1.1").append(CRLF)
+            .append("Accept: application/json;odata=verbose").append(CRLF)
+            .append("MaxDataServiceVersion: 2.0").append(CRLF)
+            .append(CRLF)
+            .append(CRLF);
+      }
+    }
+    body.append("--").append(BOUNDARY).append("--").append(CRLF);
+    content = body.toString().getBytes(Charset.forName("UTF-8"));
+
+    PathInfoImpl pathInfo = new PathInfoImpl();
+    pathInfo.setServiceRoot(BenchmarkData.getServiceRoot());
+    properties = EntityProviderBatchProperties.init().pathInfo(pathInfo).build();
+  }
+
+  @Benchmark
+  public int parseBatchRequest() throws Exception {
+    return EntityProvider.parseBatchRequest("multipart/mixed;boundary=" + BOUNDARY,
+        new ByteArrayInputStream(content), properties).size();
+  }
+
+  @Benchmark
+  public int parseBatchRequestIncrementally() throws Exception {
+    BatchRequestPartIterator iterator = EntityProvider.parseBatchRequestIncrementally(
+        "multipart/mixed;boundary=" + BOUNDARY, new ByteArrayInputStream(content), properties);
+    int count = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count++;
+    }
+    return count;
+  }
+}
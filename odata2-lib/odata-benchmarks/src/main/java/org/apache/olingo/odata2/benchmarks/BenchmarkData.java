@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnWriteEntryContent;
+import org.apache.olingo.odata2.api.ep.callback.WriteEntryCallbackContext;
+import org.apache.olingo.odata2.api.ep.callback.WriteEntryCallbackResult;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.ref.edm.ScenarioEdmProvider;
+
+/**
+ * Test data shared by the benchmarks: the EDM of the reference scenario and
+ * generated entity data for its entity sets.
+ */
+final class BenchmarkData {
+
+  static final String SERVICE_ROOT = "http://localhost:8080/ReferenceScenario.svc/";
+
+  private BenchmarkData() {}
+
+  static Edm createScenarioEdm() throws ODataException {
+    return RuntimeDelegate.createEdm(new ScenarioEdmProvider());
+  }
+
+  static URI getServiceRoot() {
+    try {
+      return new URI(SERVICE_ROOT);
+    } catch (final URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static EdmEntitySet getEmployees(final Edm edm) throws ODataException {
+    return edm.getDefaultEntityContainer().getEntitySet("Employees");
+  }
+
+  /**
+   * Creates the property values of <code>count</code> employees; every tenth employee
+   * shares its room with the nine employees before.
+   */
+  static List<Map<String, Object>> createEmployees(final int count) {
+    Calendar entryDate = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    entryDate.clear();
+    entryDate.set(2013, Calendar.JANUARY, 1);
+
+    List<Map<String, Object>> employees = new ArrayList<Map<String, Object>>(count);
+    for (int i = 1; i <= count; i++) {
+      Map<String, Object> city = new HashMap<String, Object>();
+      city.put("PostalCode", String.valueOf(10000 + i % 90000));
+      city.put("CityName", "City " + i % 100);
+      Map<String, Object> location = new HashMap<String, Object>();
+      location.put("City", city);
+      location.put("Country", "Country " + i % 10);
+
+      Map<String, Object> employee = new HashMap<String, Object>();
+      employee.put("EmployeeId", String.valueOf(i));
+      employee.put("EmployeeName", "Employee \"" + i + "\" with some text");
+      employee.put("ManagerId", String.valueOf(i - i % 10 + 1));
+      employee.put("RoomId", String.valueOf(i / 10 + 1));
+      employee.put("TeamId", String.valueOf(i % 5 + 1));
+      employee.put("Location", location);
+      employee.put("Age", (short) (i % 60 + 18));
+      employee.put("EntryDate", entryDate);
+      employee.put("ImageUrl", "Employees('" + i + "')/$value");
+      employees.add(employee);
+    }
+    return employees;
+  }
+
+  static Map<String, Object> createRoom(final String id) {
+    Map<String, Object> room = new HashMap<String, Object>();
+    room.put("Id", id);
+    room.put("Name", "Room " + id);
+    room.put("Seats", (short) 10);
+    room.put("Version", (short) 1);
+    return room;
+  }
+
+  /**
+   * Creates the properties to write employees, optionally with their room expanded inline.
+   */
+  static EntityProviderWriteProperties createWriteProperties(final Edm edm, final boolean expandRoom)
+      throws ODataException {
+    EntityProviderWriteProperties.ODataEntityProviderPropertiesBuilder builder =
+        EntityProviderWriteProperties.serviceRoot(getServiceRoot());
+    if (expandRoom) {
+      builder.expandSelectTree(createExpandSelectTree(edm, "ne_Room"))
+          .callbacks(Collections.<String, ODataCallback> singletonMap("ne_Room", new RoomCallback()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates the expand-select tree for the given <code>$expand</code> option on the employees.
+   */
+  static ExpandSelectTreeNode createExpandSelectTree(final Edm edm, final String expand) throws ODataException {
+    final List<PathSegment> pathSegments =
+        Collections.singletonList(UriParser.createPathSegment("Employees", null));
+    final UriInfo uriInfo = UriParser.parse(edm, pathSegments, Collections.singletonMap("$expand", expand));
+    return UriParser.createExpandSelectTree(uriInfo.getSelect(), uriInfo.getExpand());
+  }
+
+  /**
+   * Reads the response content completely and returns its length, so that no work is eliminated.
+   */
+  static long consume(final ODataResponse response) throws IOException {
+    final Object entity = response.getEntity();
+    if (entity instanceof InputStream) {
+      return consume((InputStream) entity);
+    }
+    return entity == null ? 0 : entity.toString().length();
+  }
+
+  static long consume(final InputStream content) throws IOException {
+    byte[] buffer = new byte[8192];
+    long length = 0;
+    try {
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        length += read;
+      }
+    } finally {
+      content.close();
+    }
+    return length;
+  }
+
+  static byte[] toByteArray(final ODataResponse response) throws IOException {
+    final InputStream content = (InputStream) response.getEntity();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    try {
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+    } finally {
+      content.close();
+    }
+    return out.toByteArray();
+  }
+
+  /** Provides the room of an employee as inline entry. */
+  private static class RoomCallback implements OnWriteEntryContent {
+    @Override
+    public WriteEntryCallbackResult retrieveEntryResult(final WriteEntryCallbackContext context)
+        throws ODataApplicationException {
+      WriteEntryCallbackResult result = new WriteEntryCallbackResult();
+      result.setEntryData(createRoom((String) context.getEntryData().get("RoomId")));
+      result.setInlineProperties(EntityProviderWriteProperties.serviceRoot(getServiceRoot())
+          .expandSelectTree(context.getCurrentExpandSelectTreeNode()).build());
+      return result;
+    }
+  }
+}
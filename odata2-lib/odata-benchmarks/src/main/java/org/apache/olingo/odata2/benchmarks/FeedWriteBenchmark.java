@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of an employee feed of the reference scenario in JSON and Atom format,
+ * with and without the room of each employee expanded inline
+ * (<code>JsonFeedEntityProducer</code> and <code>AtomFeedProducer</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedWriteBenchmark {
+
+  @Param({ "10", "100", "1000", "10000", "100000" })
+  public int feedSize;
+
+  @Param({ HttpContentType.APPLICATION_JSON, HttpContentType.APPLICATION_ATOM_XML })
+  public String contentType;
+
+  @Param({ "false", "true" })
+  public boolean expand;
+
+  private EdmEntitySet entitySet;
+  private List<Map<String, Object>> data;
+  private EntityProviderWriteProperties properties;
+
+  @Setup
+  public void setup() throws Exception {
+    final Edm edm = BenchmarkData.createScenarioEdm();
+    entitySet = BenchmarkData.getEmployees(edm);
+    data = BenchmarkData.createEmployees(feedSize);
+    properties = BenchmarkData.createWriteProperties(edm, expand);
+  }
+
+  @Benchmark
+  public long writeFeed() throws Exception {
+    return BenchmarkData.consume(EntityProvider.writeFeed(contentType, entitySet, data, properties));
+  }
+}
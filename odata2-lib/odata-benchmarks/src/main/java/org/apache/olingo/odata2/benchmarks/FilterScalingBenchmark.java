@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.core.uri.expression.TokenList;
+import org.apache.olingo.odata2.core.uri.expression.Tokenizer;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tokenizing and parsing of generated <code>$filter</code> expressions of the form
+ * <code>EmployeeId eq '0' or EmployeeId eq '1' or ...</code> with a growing number of terms.
+ * The average time per operation divided by the number of terms should stay constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterScalingBenchmark {
+
+  @Param({ "10", "100", "500", "2000" })
+  public int terms;
+
+  private EdmEntityType employeeType;
+  private Edm edm;
+  private String filter;
+
+  @Setup
+  public void setup() throws Exception {
+    edm = RuntimeDelegate.createEdm(new EdmTestProvider());
+    employeeType = edm.getDefaultEntityContainer().getEntitySet("Employees").getEntityType();
+
+    StringBuilder expression = new StringBuilder();
+    for (int i = 0; i < terms; i++) {
+      if (i > 0) {
+        expression.append(" or ");
+      }
+      expression.append("EmployeeId eq '").append(i).append('\'');
+    }
+    filter = expression.toString();
+  }
+
+  @Benchmark
+  public TokenList tokenize() throws Exception {
+    return new Tokenizer(filter).tokenize();
+  }
+
+  @Benchmark
+  public FilterExpression parseFilter() throws Exception {
+    return UriParser.parseFilter(edm, employeeType, filter);
+  }
+}
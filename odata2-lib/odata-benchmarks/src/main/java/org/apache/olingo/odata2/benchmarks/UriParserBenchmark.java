@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of resource paths with system query options (<code>UriParserImpl.parse</code>)
+ * and of <code>$filter</code> expressions (<code>FilterParserImpl</code>) against the mocked
+ * reference scenario EDM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriParserBenchmark {
+
+  @Param({ "EmployeeName eq 'Walter Winter'",
+      "Age gt 30 and Location/City/CityName eq 'Walldorf' or startswith(EmployeeName,'W') eq true",
+      "substringof('Frederic',EmployeeName) and year(EntryDate) ge 2000 and (Age add 5) mul 2 le 150" })
+  public String filter;
+
+  private Edm edm;
+  private EdmEntityType employeeType;
+  private List<PathSegment> pathSegments;
+  private Map<String, String> queryParameters;
+
+  @Setup
+  public void setup() throws Exception {
+    edm = RuntimeDelegate.createEdm(new EdmTestProvider());
+    employeeType = edm.getDefaultEntityContainer().getEntitySet("Employees").getEntityType();
+
+    pathSegments = new ArrayList<PathSegment>();
+    pathSegments.add(UriParser.createPathSegment("Rooms('1')", null));
+    pathSegments.add(UriParser.createPathSegment("nr_Employees", null));
+    queryParameters = new HashMap<String, String>();
+    queryParameters.put("$filter", filter);
+    queryParameters.put("$orderby", "EmployeeName desc,Age");
+    queryParameters.put("$top", "20");
+    queryParameters.put("$skip", "10");
+    queryParameters.put("$expand", "ne_Room/nr_Building,ne_Team");
+    queryParameters.put("$select", "EmployeeName,Age,ne_Room/Name,ne_Team");
+  }
+
+  @Benchmark
+  public UriInfo parseUri() throws Exception {
+    return UriParser.parse(edm, pathSegments, queryParameters);
+  }
+
+  @Benchmark
+  public FilterExpression parseFilter() throws Exception {
+    return UriParser.parseFilter(edm, employeeType, filter);
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
 import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
+import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
@@ -64,6 +65,7 @@ import org.apache.olingo.odata2.core.debug.ODataDebugResponseWrapper;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.rest.ODataExceptionWrapper;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.core.uri.UriParserCache;
 import org.apache.olingo.odata2.core.uri.UriParserImpl;
 import org.apache.olingo.odata2.core.uri.UriType;
 
@@ -97,7 +99,11 @@ public class ODataRequestHandler {
     ODataResponse odataResponse;
     final int timingHandle = context.startRuntimeMeasurement("ODataRequestHandler", "handle");
     try {
-      UriParser uriParser = new UriParserImpl(service.getEntityDataModel());
+      final Edm edm = service.getEntityDataModel();
+      UriParser uriParser = new UriParserImpl(edm);
+      if (UriParserCache.getInstance().isCacheable(edm)) {
+        context.setParameter(UriParserCache.CONTEXT_PARAMETER, UriParserCache.getInstance());
+      }
       Dispatcher dispatcher = new Dispatcher(serviceFactory, service);
 
       final String serverDataServiceVersion = getServerDataServiceVersion();
@@ -151,6 +157,11 @@ public class ODataRequestHandler {
         }
       }
 
+      if (isNotModified(method, uriType, s, odataResponse.getETag(),
+          context.getRequestHeader(HttpHeaders.IF_NONE_MATCH))) {
+        extendedResponse = extendedResponse.status(HttpStatusCodes.NOT_MODIFIED).entity(null);
+      }
+
       odataResponse = extendedResponse.build();
     } catch (final Exception e) {
       if (PRINT_EXCEPTION) {
@@ -535,6 +546,25 @@ public class ODataRequestHandler {
     }
   }
 
+  /**
+   * The service document and the metadata document are cached and carry a strong entity tag;
+   * a client which already has the current version gets a response without content.
+   */
+  private static boolean isNotModified(final ODataHttpMethod method, final UriType uriType,
+      final HttpStatusCodes status, final String eTag, final String ifNoneMatch) {
+    if (method != ODataHttpMethod.GET || (uriType != UriType.URI0 && uriType != UriType.URI8)
+        || status != HttpStatusCodes.OK || eTag == null || ifNoneMatch == null) {
+      return false;
+    }
+    for (final String requestedETag : ifNoneMatch.split(",")) {
+      final String trimmed = requestedETag.trim();
+      if ("*".equals(trimmed) || eTag.equals(trimmed)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static boolean checkUriType(UriType uriType) {
     return uriType == UriType.URI2 || uriType == UriType.URI6A || uriType == UriType.URI3
          || uriType == UriType.URI4 || uriType == UriType.URI5 || uriType == UriType.URI17;
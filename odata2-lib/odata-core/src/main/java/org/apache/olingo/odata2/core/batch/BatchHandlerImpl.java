@@ -21,10 +21,15 @@ package org.apache.olingo.odata2.core.batch;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
@@ -42,12 +47,14 @@ import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
 import org.apache.olingo.odata2.core.PathInfoImpl;
+import org.apache.olingo.odata2.core.rest.ODataExceptionWrapper;
 
 public class BatchHandlerImpl implements BatchHandler {
   private static final int BAD_REQUEST = 400;
   private ODataServiceFactory factory;
   private ODataService service;
   private Map<String, String> contentIdMap;
+  private final List<Future<ODataResponse>> pendingQueryOperations = new ArrayList<Future<ODataResponse>>();
   private static final String BATCH_ODATA_REQUEST_HEADERS = "batchODataRequestHeaders";
 
   public BatchHandlerImpl(final ODataServiceFactory factory, final ODataService service) {
@@ -58,6 +65,7 @@ public class BatchHandlerImpl implements BatchHandler {
   @Override
   public BatchResponsePart handleBatchPart(final BatchRequestPart batchPart) throws ODataException {
     if (batchPart.isChangeSet()) {
+      awaitQueryOperations();
       List<ODataRequest> changeSetRequests = batchPart.getRequests();
       contentIdMap = new HashMap<String, String>();
       return service.getBatchProcessor().executeChangeSet(this, changeSetRequests);
@@ -66,6 +74,10 @@ public class BatchHandlerImpl implements BatchHandler {
         throw new ODataException("Query Operation should contain one request");
       }
       ODataRequest request = batchPart.getRequests().get(0);
+      ExecutorService queryExecutor = factory.getBatchQueryExecutor();
+      if (queryExecutor != null && request.getMethod() == ODataHttpMethod.GET) {
+        return submitQueryOperation(queryExecutor, request);
+      }
       ODataRequestHandler handler = createHandler(request);
       String mimeHeaderContentId =
           request.getRequestHeaderValue(BatchHelper.MIME_HEADER_CONTENT_ID.toLowerCase(Locale.ENGLISH));
@@ -78,6 +90,103 @@ public class BatchHandlerImpl implements BatchHandler {
     }
   }
 
+  /**
+   * Executes a query operation with the executor. The operation runs with its own service instance
+   * because the processor of the batch request holds the context of a single request only;
+   * the service is released with {@link ODataServiceFactory#releaseService(ODataService)} afterwards.
+   */
+  private BatchResponsePart submitQueryOperation(final ExecutorService queryExecutor, final ODataRequest request)
+      throws ODataException {
+    final ODataContextImpl context = createContext(request);
+    final Future<ODataResponse> response = queryExecutor.submit(new Callable<ODataResponse>() {
+      @Override
+      public ODataResponse call() {
+        final String mimeHeaderContentId =
+            request.getRequestHeaderValue(BatchHelper.MIME_HEADER_CONTENT_ID.toLowerCase(Locale.ENGLISH));
+        final String requestHeaderContentId =
+            request.getRequestHeaderValue(BatchHelper.REQUEST_HEADER_CONTENT_ID.toLowerCase(Locale.ENGLISH));
+        ODataService queryService = null;
+        ODataResponse result;
+        try {
+          queryService = factory.createService(context);
+          context.setService(queryService);
+          queryService.getProcessor().setContext(context);
+          result = setContentIdHeader(new ODataRequestHandler(factory, queryService, context).handle(request),
+              mimeHeaderContentId, requestHeaderContentId);
+        } catch (final Exception e) {
+          result = createErrorResponse(context, request, e);
+        }
+        if (queryService != null) {
+          try {
+            factory.releaseService(queryService);
+          } catch (final ODataException e) {
+            result = createErrorResponse(context, request, e);
+          }
+        }
+        return result;
+      }
+    });
+    pendingQueryOperations.add(response);
+    return new QueryOperationResponsePart(response, context, request);
+  }
+
+  private void awaitQueryOperations() throws ODataException {
+    for (Future<ODataResponse> queryOperation : pendingQueryOperations) {
+      try {
+        queryOperation.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ODataException(e);
+      } catch (final ExecutionException e) {
+        // the failure is reported in the response part of the query operation
+      }
+    }
+    pendingQueryOperations.clear();
+  }
+
+  private static ODataResponse createErrorResponse(final ODataContext context, final ODataRequest request,
+      final Exception exception) {
+    return new ODataExceptionWrapper(context, request.getQueryParameters(), request.getAcceptHeaders())
+        .wrapInExceptionResponse(exception);
+  }
+
+  /**
+   * Response part of a query operation which is executed concurrently;
+   * the response is waited for when it is requested.
+   * A failure of the execution results in an error response for this part only.
+   */
+  private static class QueryOperationResponsePart extends BatchResponsePart {
+    private final Future<ODataResponse> response;
+    private final ODataContext context;
+    private final ODataRequest request;
+
+    public QueryOperationResponsePart(final Future<ODataResponse> response, final ODataContext context,
+        final ODataRequest request) {
+      this.response = response;
+      this.context = context;
+      this.request = request;
+    }
+
+    @Override
+    public List<ODataResponse> getResponses() {
+      ODataResponse result;
+      try {
+        result = response.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        result = createErrorResponse(context, request, new ODataException(e));
+      } catch (final ExecutionException e) {
+        result = createErrorResponse(context, request, new ODataException(e.getCause()));
+      }
+      return Collections.singletonList(result);
+    }
+
+    @Override
+    public boolean isChangeSet() {
+      return false;
+    }
+  }
+
   @Override
   public ODataResponse handleRequest(final ODataRequest suppliedRequest) throws ODataException {
     ODataRequest request;
@@ -181,6 +290,12 @@ public class BatchHandlerImpl implements BatchHandler {
   }
 
   private ODataRequestHandler createHandler(final ODataRequest request) throws ODataException {
+    ODataContextImpl context = createContext(request);
+    service.getProcessor().setContext(context);
+    return new ODataRequestHandler(factory, service, context);
+  }
+
+  private ODataContextImpl createContext(final ODataRequest request) throws ODataException {
     ODataContextImpl context = new ODataContextImpl(request, factory);
     ODataContext parentContext = service.getProcessor().getContext();
     context.setBatchParentContext(parentContext);
@@ -190,8 +305,7 @@ public class BatchHandlerImpl implements BatchHandler {
     } else if (parentContext != null && parentContext.getRequestHeaders() != null) {
       context.setParameter(BATCH_ODATA_REQUEST_HEADERS, parentContext.getRequestHeaders());
     }
-    service.getProcessor().setContext(context);
-    return new ODataRequestHandler(factory, service, context);
+    return context;
   }
 
 }
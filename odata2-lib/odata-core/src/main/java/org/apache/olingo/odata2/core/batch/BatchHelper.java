@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.core.batch;
 import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart;
 import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
@@ -253,6 +254,27 @@ public class BatchHelper {
       Object entity = response.getEntity();
       if(entity == null) {
         return EMPTY_BYTES;
+      } else if(entity instanceof ODataStreamingOutput) {
+        // the part needs a Content-Length header in front of its body, so the output is buffered
+        byte[] content = null;
+        try {
+          extractCharset(ContentType.parse(response.getHeader("Content-Type")));
+          ByteArrayOutputStream output = new ByteArrayOutputStream();
+          ((ODataStreamingOutput) entity).write(output);
+          content = output.toByteArray();
+        } catch (IOException e) {
+          throw new ODataRuntimeException("Error on writing response content", e);
+        } finally {
+          try {
+            response.close();
+          } catch (IOException e) {
+            // a failed close must not hide the failure of the write
+            if (content != null) {
+              throw new ODataRuntimeException("Error closing the response", e);
+            }
+          }
+        }
+        return content;
       } else if(entity instanceof InputStream) {
 		  ReadableByteChannel ic = null;
 		  WritableByteChannel oc = null;
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.batch.v2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.odata2.api.batch.BatchException;
+
+/**
+ * Splits a multipart message into its body parts while the message is read.
+ * In contrast to {@link BatchParserCommon#splitMessageByBoundary(List, String)} only the lines
+ * of the current body part are held in memory; the preamble is skipped and the epilogue is not read.
+ */
+public class BatchBodyPartSplitter {
+
+  private final BatchLineReader reader;
+  private final String boundary;
+  private final Pattern boundaryDelimiterPattern;
+  private final Pattern boundaryPattern;
+  private boolean isStarted = false;
+  private boolean isEndReached = false;
+  private int firstLineNumber = 0;
+
+  public BatchBodyPartSplitter(final BatchLineReader reader, final String boundary) {
+    this.reader = reader;
+    this.boundary = boundary;
+    final String quotedBoundary = Pattern.quote(boundary);
+    boundaryDelimiterPattern = Pattern.compile("--" + quotedBoundary + "--[\\s ]*");
+    boundaryPattern = Pattern.compile("--" + quotedBoundary + "[\\s ]*");
+  }
+
+  /**
+   * Reads the next body part.
+   * @return the lines of the body part (without the line break preceding the boundary)
+   * or <code>null</code> if the close delimiter has been reached
+   * @throws IOException if reading fails
+   * @throws BatchException if the message is not delimited correctly
+   */
+  public List<Line> nextBodyPart() throws IOException, BatchException {
+    if (isEndReached) {
+      return null;
+    }
+
+    List<Line> currentPart = new ArrayList<Line>();
+    Line currentLine;
+    while ((currentLine = reader.readNextLine()) != null) {
+      if (firstLineNumber == 0) {
+        firstLineNumber = currentLine.getLineNumber();
+      }
+
+      if (boundaryDelimiterPattern.matcher(currentLine.toString()).matches()) {
+        isEndReached = true;
+        if (!isStarted) {
+          throw new BatchException(BatchException.NO_MATCH_WITH_BOUNDARY_STRING
+              .addContent(boundary).addContent(firstLineNumber));
+        }
+        return removeEndingCRLF(currentPart);
+      } else if (boundaryPattern.matcher(currentLine.toString()).matches()) {
+        if (isStarted) {
+          return removeEndingCRLF(currentPart);
+        }
+        // The lines read so far are the preamble.
+        isStarted = true;
+      } else if (isStarted) {
+        currentPart.add(currentLine);
+      }
+    }
+
+    isEndReached = true;
+    if (!isStarted) {
+      throw new BatchException(BatchException.MISSING_BOUNDARY_DELIMITER.addContent(firstLineNumber));
+    }
+    throw new BatchException(BatchException.MISSING_CLOSE_DELIMITER.addContent(firstLineNumber));
+  }
+
+  private static List<Line> removeEndingCRLF(final List<Line> part) {
+    if (!part.isEmpty()) {
+      part.set(part.size() - 1, BatchParserCommon.removeEndingCRLF(part.get(part.size() - 1)));
+    }
+    return part;
+  }
+}
@@ -47,6 +47,7 @@ public class BatchLineReader {
   private byte[] buffer;
   private int offset = 0;
   private int limit = 0;
+  private int lineNumber = 0;
 
   public BatchLineReader(final InputStream reader) {
     this(reader, BUFFER_SIZE);
@@ -81,20 +82,30 @@ public class BatchLineReader {
 
   public List<Line> toLineList() throws IOException {
     final List<Line> result = new ArrayList<Line>();
-    String currentLine = readLine();
-    if(currentLine != null) {
-      currentBoundary = currentLine.trim();
-      int counter = 1;
-      result.add(new Line(currentLine, counter++));
-
-      while ((currentLine = readLine()) != null) {
-        result.add(new Line(currentLine, counter++));
-      }
+    Line currentLine;
+    while ((currentLine = readNextLine()) != null) {
+      result.add(currentLine);
     }
 
     return result;
   }
 
+  /**
+   * Reads the next line of the message together with its line number.
+   * @return the next line or <code>null</code> if the end of the message has been reached
+   * @throws IOException if reading fails
+   */
+  public Line readNextLine() throws IOException {
+    final String currentLine = readLine();
+    if (currentLine == null) {
+      return null;
+    }
+    if (lineNumber == 0) {
+      currentBoundary = currentLine.trim();
+    }
+    return new Line(currentLine, ++lineNumber);
+  }
+
   private void updateCurrentCharset(String currentLine) {
     if(currentLine != null) {
       if(isContentTypeHeaderLine(currentLine)) {
@@ -22,10 +22,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchParserResult;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.uri.PathInfo;
@@ -64,11 +66,7 @@ public class BatchParser {
     } catch (IOException e) {
       throw new ODataRuntimeException(e);
     } finally {
-      try {
-        in.close();
-      } catch (IOException e) {
-        throw new ODataRuntimeException(e);
-      }
+      close(in);
     }
   }
 
@@ -78,26 +76,98 @@ public class BatchParser {
     final String baseUri = getBaseUri();
     final String boundary = BatchParserCommon.getBoundary(contentTypeMime, 1);
     final List<BatchParserResult> resultList = new LinkedList<BatchParserResult>();
-    final List<List<Line>> bodyPartStrings = splitBodyParts(in, boundary);
+    final BatchBodyPartSplitter splitter = new BatchBodyPartSplitter(new BatchLineReader(in), boundary);
 
-    for (List<Line> bodyPartString : bodyPartStrings) {
+    List<Line> bodyPartString;
+    while ((bodyPartString = splitter.nextBodyPart()) != null) {
       BatchBodyPart bodyPart = new BatchBodyPart(bodyPartString, boundary, isStrict).parse();
       resultList.addAll(transformator.transform(bodyPart, batchRequestPathInfo, baseUri));
     }
 
     return resultList;
   }
-  
-  private List<List<Line>> splitBodyParts(final InputStream in, final String boundary)
-      throws IOException, BatchException {
 
-    final BatchLineReader reader = new BatchLineReader(in);
-    final List<Line> message = reader.toLineList();
-    reader.close();
+  /**
+   * Parses the batch request incrementally; each body part is read from the input stream
+   * and transformed only when it is requested from the returned iterator.
+   * @param in the batch request body
+   * @return iterator over the batch request parts
+   * @throws BatchException if the content type does not contain a valid boundary
+   */
+  public BatchRequestPartIterator parseBatchRequestIncrementally(final InputStream in) throws BatchException {
+    final String boundary;
+    final String baseUri;
+    try {
+      boundary = BatchParserCommon.getBoundary(contentTypeMime, 1);
+      baseUri = getBaseUri();
+    } catch (BatchException e) {
+      close(in);
+      throw e;
+    }
+    return new IncrementalBatchRequestParser(in, boundary, baseUri);
+  }
 
-    return BatchParserCommon.splitMessageByBoundary(message, boundary);
+  private static void close(final InputStream in) {
+    try {
+      in.close();
+    } catch (IOException e) {
+      throw new ODataRuntimeException(e);
+    }
   }
 
+  private class IncrementalBatchRequestParser implements BatchRequestPartIterator {
+    private final InputStream in;
+    private final BatchBodyPartSplitter splitter;
+    private final BatchTransformator transformator = new BatchRequestTransformator();
+    private final String boundary;
+    private final String baseUri;
+    private final LinkedList<BatchParserResult> pendingParts = new LinkedList<BatchParserResult>();
+    private boolean isClosed = false;
+
+    public IncrementalBatchRequestParser(final InputStream in, final String boundary, final String baseUri) {
+      this.in = in;
+      this.boundary = boundary;
+      this.baseUri = baseUri;
+      splitter = new BatchBodyPartSplitter(new BatchLineReader(in), boundary);
+    }
+
+    @Override
+    public boolean hasNext() throws BatchException {
+      while (pendingParts.isEmpty() && !isClosed) {
+        try {
+          final List<Line> bodyPartString = splitter.nextBodyPart();
+          if (bodyPartString == null) {
+            closeInput();
+          } else {
+            BatchBodyPart bodyPart = new BatchBodyPart(bodyPartString, boundary, isStrict).parse();
+            pendingParts.addAll(transformator.transform(bodyPart, batchRequestPathInfo, baseUri));
+          }
+        } catch (IOException e) {
+          closeInput();
+          throw new ODataRuntimeException(e);
+        } catch (BatchException e) {
+          closeInput();
+          throw e;
+        }
+      }
+      return !pendingParts.isEmpty();
+    }
+
+    @Override
+    public BatchRequestPart next() throws BatchException {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return (BatchRequestPart) pendingParts.removeFirst();
+    }
+
+    private void closeInput() {
+      if (!isClosed) {
+        isClosed = true;
+        close(in);
+      }
+    }
+  }
 
   private String getBaseUri() throws BatchException {
     String baseUri = "";
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.commons;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe least-recently-used cache which counts hits and misses.
+ * <p>If the maximum size is exceeded, the entry which has not been accessed for the longest time
+ * is removed. A maximum size of <code>0</code> disables caching.</p>
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class LruCache<K, V> {
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Map<K, V> cache;
+  private volatile int maxSize;
+
+  public LruCache(final int maxSize) {
+    this.maxSize = maxSize;
+    cache = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+        return size() > LruCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached value for the given key and counts the hit or miss.
+   * @param key the key
+   * @return the value or <code>null</code>
+   */
+  public V get(final K key) {
+    V value;
+    synchronized (cache) {
+      value = cache.get(key);
+    }
+    if (value == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return value;
+  }
+
+  /**
+   * Caches a value unless caching is disabled.
+   * @param key the key
+   * @param value the value
+   */
+  public void put(final K key, final V value) {
+    if (maxSize > 0) {
+      synchronized (cache) {
+        cache.put(key, value);
+      }
+    }
+  }
+
+  /**
+   * Sets the maximum number of cached entries; a value of <code>0</code> disables caching.
+   * @param maxSize maximum number of cached entries
+   */
+  public void setMaxSize(final int maxSize) {
+    this.maxSize = maxSize;
+    synchronized (cache) {
+      if (maxSize <= 0) {
+        cache.clear();
+      } else {
+        while (cache.size() > maxSize) {
+          cache.remove(cache.keySet().iterator().next());
+        }
+      }
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return the ratio of hits to all lookups, or <code>0</code> if there were no lookups
+   */
+  public double getHitRate() {
+    final long hitCount = hits.get();
+    final long lookups = hitCount + misses.get();
+    return lookups == 0 ? 0 : (double) hitCount / lookups;
+  }
+
+  /**
+   * Removes all cached entries and resets the hit and miss counters.
+   */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+    hits.set(0);
+    misses.set(0);
+  }
+}
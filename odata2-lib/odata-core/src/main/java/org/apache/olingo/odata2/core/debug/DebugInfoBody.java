@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.debug;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
@@ -36,6 +38,7 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.olingo.odata2.api.commons.HttpContentType;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
 import org.apache.olingo.odata2.core.ep.BasicEntityProvider;
 import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
@@ -87,19 +90,30 @@ public class DebugInfoBody implements DebugInfo {
     if (response.getEntity() instanceof String) {
       return (String) response.getEntity();
     } else if (response.getEntity() instanceof InputStream) {
-      InputStream input = (InputStream) response.getEntity();
+      return getContentString((InputStream) response.getEntity());
+    } else if (response.getEntity() instanceof ODataStreamingOutput) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
       try {
-        return isText ?
-            new BasicEntityProvider().readText(input) :
-            Base64.encodeBase64String(new BasicEntityProvider().readBinary((input)));
-      } catch (final EntityProviderException e) {
+        ((ODataStreamingOutput) response.getEntity()).write(output);
+      } catch (final IOException e) {
         return null;
       }
+      return getContentString(new ByteArrayInputStream(output.toByteArray()));
     } else {
       throw new ClassCastException("Unsupported content entity class: " + response.getEntity().getClass().getName());
     }
   }
 
+  private String getContentString(final InputStream input) {
+    try {
+      return isText ?
+          new BasicEntityProvider().readText(input) :
+          Base64.encodeBase64String(new BasicEntityProvider().readBinary((input)));
+    } catch (final EntityProviderException e) {
+      return null;
+    }
+  }
+
   @Override
   public void appendHtml(final Writer writer) throws IOException {
     final String body = getContentString();
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.edm;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Helper methods for the date and time types which parse and format without regular expressions
+ * and compute with milliseconds since the epoch instead of {@link Calendar} objects.
+ * <p>The arithmetic uses the proleptic Gregorian calendar; callers fall back to a
+ * {@link java.util.GregorianCalendar} for instants before the Gregorian cutover
+ * so that the results do not change for such values.</p>
+ */
+final class DateTimeUtil {
+
+  /** 1582-10-15T00:00:00Z, the first day of the Gregorian calendar in {@link java.util.GregorianCalendar}. */
+  static final long GREGORIAN_CUTOVER = -12219292800000L;
+  /** First year which lies completely after the Gregorian cutover. */
+  static final int FIRST_GREGORIAN_YEAR = 1583;
+
+  static final int MILLIS_PER_SECOND = 1000;
+  static final int MILLIS_PER_DAY = 24 * 60 * 60 * MILLIS_PER_SECOND;
+  static final int NANOS_PER_MILLI = 1000 * 1000;
+
+  private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+  private static final int DAYS_0000_03_01_TO_1970 = 719468;
+  private static final int DAYS_PER_ERA = 146097;
+
+  private DateTimeUtil() {}
+
+  /**
+   * Fields of a literal <code>yyyy-mm-ddThh:mm[:ss[.fffffffff]]</code> with one to four digits for the year
+   * and one or two digits for the other fields.
+   */
+  static final class LocalDateTimeLiteral {
+    int year;
+    int month;
+    int day;
+    int hour;
+    int minute;
+    int second;
+    /** Index of the '.' in the literal or -1 if there are no fractional seconds. */
+    int fractionStart = -1;
+    /** Number of digits of the fractional seconds, including trailing zeroes. */
+    int fractionDigits;
+    /** Number of digits of the fractional seconds without trailing zeroes. */
+    int significantDigits;
+    /** Index of the first character after the literal. */
+    int end;
+  }
+
+  /**
+   * Parses the date and time at the start of the given value.
+   * @param value the value
+   * @return the fields or <code>null</code> if the value does not start with a date and time;
+   * fractional seconds are read as long as there are digits
+   */
+  static LocalDateTimeLiteral parseLocalDateTime(final String value) {
+    final int length = value.length();
+    LocalDateTimeLiteral literal = new LocalDateTimeLiteral();
+    int index = 0;
+    int end = digitsEnd(value, index, 4);
+    if (end == index) {
+      return null;
+    }
+    literal.year = parseDigits(value, index, end);
+    index = end;
+    for (int field = 0; field < 4; field++) {
+      if (index >= length || value.charAt(index) != (field == 2 ? 'T' : field == 3 ? ':' : '-')) {
+        return null;
+      }
+      index++;
+      end = digitsEnd(value, index, 2);
+      if (end == index) {
+        return null;
+      }
+      final int number = parseDigits(value, index, end);
+      switch (field) {
+      case 0:
+        literal.month = number;
+        break;
+      case 1:
+        literal.day = number;
+        break;
+      case 2:
+        literal.hour = number;
+        break;
+      default:
+        literal.minute = number;
+        break;
+      }
+      index = end;
+    }
+    if (index < length && value.charAt(index) == ':') {
+      end = digitsEnd(value, index + 1, 2);
+      if (end > index + 1) {
+        literal.second = parseDigits(value, index + 1, end);
+        index = end;
+        if (index < length && value.charAt(index) == '.') {
+          literal.fractionStart = index;
+          end = digitsEnd(value, index + 1, Integer.MAX_VALUE);
+          literal.fractionDigits = end - index - 1;
+          int significantEnd = end;
+          while (significantEnd > index + 1 && value.charAt(significantEnd - 1) == '0') {
+            significantEnd--;
+          }
+          literal.significantDigits = significantEnd - index - 1;
+          index = end;
+        }
+      }
+    }
+    literal.end = index;
+    return literal;
+  }
+
+  /**
+   * Returns the nanoseconds of the fractional seconds of a parsed literal.
+   * The number of significant digits must not exceed nine.
+   */
+  static int getNanos(final String value, final LocalDateTimeLiteral literal) {
+    if (literal.significantDigits == 0) {
+      return 0;
+    }
+    int nanos = parseDigits(value, literal.fractionStart + 1, literal.fractionStart + 1 + literal.significantDigits);
+    for (int i = literal.significantDigits; i < 9; i++) {
+      nanos *= 10;
+    }
+    return nanos;
+  }
+
+  /**
+   * Returns the index after the run of at most <code>maxDigits</code> ASCII digits starting at <code>begin</code>.
+   */
+  static int digitsEnd(final String value, final int begin, final int maxDigits) {
+    int index = begin;
+    final int length = value.length();
+    while (index < length && index - begin < maxDigits && isDigit(value.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Parses the ASCII digits between <code>begin</code> and <code>end</code>; at most nine digits.
+   */
+  static int parseDigits(final String value, final int begin, final int end) {
+    int number = 0;
+    for (int i = begin; i < end; i++) {
+      number = number * 10 + (value.charAt(i) - '0');
+    }
+    return number;
+  }
+
+  /**
+   * Checks whether the fields describe a valid date and time, as a non-lenient
+   * {@link java.util.GregorianCalendar} would do for years after the Gregorian cutover.
+   */
+  static boolean isValid(final int year, final int month, final int day, final int hour, final int minute,
+      final int second) {
+    return month >= 1 && month <= 12 && day >= 1 && day <= getDaysInMonth(year, month)
+        && hour <= 23 && minute <= 59 && second <= 59;
+  }
+
+  private static int getDaysInMonth(final int year, final int month) {
+    switch (month) {
+    case 2:
+      return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+    case 4:
+    case 6:
+    case 9:
+    case 11:
+      return 30;
+    default:
+      return 31;
+    }
+  }
+
+  /**
+   * Computes the milliseconds since 1970-01-01T00:00:00Z of the given date and time in GMT
+   * (proleptic Gregorian calendar).
+   */
+  static long toEpochMillis(final int year, final int month, final int day, final int hour, final int minute,
+      final int second, final int millis) {
+    // Algorithm "days from civil" with years starting in March.
+    final int y = month <= 2 ? year - 1 : year;
+    final int era = (y >= 0 ? y : y - 399) / 400;
+    final int yearOfEra = y - era * 400;
+    final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    final long days = (long) era * DAYS_PER_ERA + dayOfEra - DAYS_0000_03_01_TO_1970;
+    return ((days * 24 + hour) * 60 + minute) * 60 * MILLIS_PER_SECOND + (long) second * MILLIS_PER_SECOND + millis;
+  }
+
+  /**
+   * Appends the given instant in GMT as <code>yyyy-mm-ddThh:mm:ss</code> (proleptic Gregorian calendar).
+   * @param result a {@link StringBuilder}
+   * @param millis milliseconds since 1970-01-01T00:00:00Z
+   */
+  static void appendDateTime(final StringBuilder result, final long millis) {
+    final long days = floorDiv(millis, MILLIS_PER_DAY);
+    final int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+
+    // Algorithm "civil from days" with years starting in March.
+    final long shiftedDays = days + DAYS_0000_03_01_TO_1970;
+    final long era = (shiftedDays >= 0 ? shiftedDays : shiftedDays - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+    final int dayOfEra = (int) (shiftedDays - era * DAYS_PER_ERA);
+    final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+    appendTwoDigits(result, year / 100);
+    appendTwoDigits(result, year % 100);
+    result.append('-');
+    appendTwoDigits(result, month);
+    result.append('-');
+    appendTwoDigits(result, day);
+    result.append('T');
+    appendTwoDigits(result, millisOfDay / (60 * 60 * MILLIS_PER_SECOND));
+    result.append(':');
+    appendTwoDigits(result, millisOfDay / (60 * MILLIS_PER_SECOND) % 60);
+    result.append(':');
+    appendTwoDigits(result, millisOfDay / MILLIS_PER_SECOND % 60);
+  }
+
+  /**
+   * Appends the given number to the given string builder,
+   * assuming that the number has at most two digits, performance-optimized.
+   * @param result a {@link StringBuilder}
+   * @param number an integer that must satisfy <code>0 <= number <= 99</code>
+   */
+  static void appendTwoDigits(final StringBuilder result, final int number) {
+    result.append((char) ('0' + number / 10));
+    result.append((char) ('0' + number % 10));
+  }
+
+  /**
+   * Appends a time-zone offset in the form <code>+hh:mm</code> or <code>-hh:mm</code>.
+   */
+  static void appendOffset(final StringBuilder result, final int offsetInMinutes) {
+    final int absoluteOffset = Math.abs(offsetInMinutes);
+    result.append(offsetInMinutes < 0 ? '-' : '+');
+    appendTwoDigits(result, absoluteOffset / 60);
+    result.append(':');
+    appendTwoDigits(result, absoluteOffset % 60);
+  }
+
+  /**
+   * Gets the offset of the default time zone at the given instant, as a {@link Calendar}
+   * in the default time zone would report it as sum of its zone and daylight-saving offsets.
+   */
+  static int getDefaultOffset(final long millis) {
+    return TimeZone.getDefault().getOffset(millis);
+  }
+
+  /**
+   * Creates a {@link Calendar} in the GMT time zone set to the given instant.
+   */
+  static Calendar newGmtCalendar(final long millis) {
+    Calendar calendar = Calendar.getInstance((TimeZone) GMT.clone());
+    calendar.clear();
+    calendar.setTimeInMillis(millis);
+    return calendar;
+  }
+
+  static long floorDiv(final long dividend, final long divisor) {
+    final long quotient = dividend / divisor;
+    return dividend % divisor < 0 ? quotient - 1 : quotient;
+  }
+
+  static int floorMod(final long dividend, final int divisor) {
+    return (int) (dividend - floorDiv(dividend, divisor) * divisor);
+  }
+
+  /**
+   * Parses the JSON form <code>/Date(&lt;milliseconds&gt;[&lt;sign&gt;&lt;offset in minutes&gt;])/</code>.
+   * @param value the value
+   * @param withOffset whether an offset is allowed
+   * @return the indexes of the start and the end of the milliseconds and of the sign and the end of the offset
+   * (-1 if not present) or <code>null</code> if the value does not have the JSON form
+   */
+  static int[] parseJsonDate(final String value, final boolean withOffset) {
+    final int length = value.length();
+    if (!value.startsWith("/Date(") || !value.endsWith(")/")) {
+      return null;
+    }
+    final int begin = 6;
+    final int contentEnd = length - 2;
+    int index = begin < contentEnd && value.charAt(begin) == '-' ? begin + 1 : begin;
+    final int millisEnd = digitsEnd(value, index, Integer.MAX_VALUE);
+    if (millisEnd == index || millisEnd > contentEnd) {
+      return null;
+    }
+    if (millisEnd == contentEnd) {
+      return new int[] { begin, millisEnd, -1, -1 };
+    }
+    final char sign = value.charAt(millisEnd);
+    if (!withOffset || sign != '+' && sign != '-') {
+      return null;
+    }
+    final int offsetEnd = digitsEnd(value, millisEnd + 1, 4);
+    if (offsetEnd == millisEnd + 1 || offsetEnd != contentEnd) {
+      return null;
+    }
+    return new int[] { begin, millisEnd, millisEnd, offsetEnd };
+  }
+
+  /**
+   * Checks whether the given class is one of the <code>java.time</code> types;
+   * conversions for them are done by {@link JavaTimeConverter} which is only loaded on demand.
+   */
+  static boolean isJavaTimeType(final Class<?> type) {
+    return type.getName().startsWith("java.time.");
+  }
+}
@@ -22,8 +22,6 @@ import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.odata2.api.edm.EdmFacets;
 import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
@@ -31,14 +29,14 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
 
 /**
  * Implementation of the EDM simple type DateTime.
- * 
+ * <p>Literals are parsed and formatted without regular expressions and, for instants
+ * after the Gregorian cutover, without {@link Calendar} objects.
+ * Besides {@link Calendar}, {@link Date}, {@link Timestamp}, and {@link Long},
+ * the <code>java.time</code> types <code>Instant</code>, <code>LocalDateTime</code>,
+ * <code>OffsetDateTime</code>, and <code>ZonedDateTime</code> are supported.</p>
  */
 public class EdmDateTime extends AbstractSimpleType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "(\\p{Digit}{1,4})-(\\p{Digit}{1,2})-(\\p{Digit}{1,2})"
-          + "T(\\p{Digit}{1,2}):(\\p{Digit}{1,2})(?::(\\p{Digit}{1,2})(\\.(\\p{Digit}{0,9}?)0*)?)?");
-  private static final Pattern JSON_PATTERN = Pattern.compile("/Date\\((-?\\p{Digit}+)\\)/");
   private static final EdmDateTime instance = new EdmDateTime();
 
   public static EdmDateTime getInstance() {
@@ -54,38 +52,28 @@ public class EdmDateTime extends AbstractSimpleType {
   protected <T> T internalValueOfString(final String value, final EdmLiteralKind literalKind, final EdmFacets facets,
       final Class<T> returnType) throws EdmSimpleTypeException {
     // In JSON, we allow also the XML literal form, so there is on purpose
-    // no exception if the JSON pattern does not match.
+    // no exception if the JSON form does not match.
     if (literalKind == EdmLiteralKind.JSON) {
-      final Matcher matcher = JSON_PATTERN.matcher(value);
-      if (matcher.matches()) {
+      final int[] json = DateTimeUtil.parseJsonDate(value, false);
+      if (json != null) {
         long millis;
         try {
-          millis = Long.parseLong(matcher.group(1));
+          millis = Long.parseLong(value.substring(json[0], json[1]));
         } catch (final NumberFormatException e) {
           throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value), e);
         }
         if (returnType.isAssignableFrom(Long.class)) {
           return returnType.cast(millis);
-        } else if (returnType.isAssignableFrom(Date.class)) {
-          return returnType.cast(new Date(millis));
-        } else if (returnType.isAssignableFrom(Calendar.class)) {
-          Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-          dateTimeValue.clear();
-          dateTimeValue.setTimeInMillis(millis);
-          return returnType.cast(dateTimeValue);
-        } else {
-          throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
         }
+        return convert(millis, DateTimeUtil.floorMod(millis, DateTimeUtil.MILLIS_PER_SECOND)
+            * DateTimeUtil.NANOS_PER_MILLI, returnType);
       }
     }
 
-    Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-    dateTimeValue.clear();
-
     String valueString;
     if (literalKind == EdmLiteralKind.URI) {
-      //OLINGO-883 prefix is case insensitve so we need to check with lower case if we want to use startsWith()
-      if (value.length() > 10 && value.toLowerCase().startsWith("datetime'") && value.endsWith("'")) {
+      //OLINGO-883 prefix is case insensitive
+      if (value.length() > 10 && value.regionMatches(true, 0, "datetime'", 0, 9) && value.endsWith("'")) {
         valueString = value.substring(9, value.length() - 1);
       } else {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
@@ -94,38 +82,57 @@ public class EdmDateTime extends AbstractSimpleType {
       valueString = value;
     }
 
-    Matcher matcher = PATTERN.matcher(valueString);
-    if (!matcher.matches()) {
+    final DateTimeUtil.LocalDateTimeLiteral literal = DateTimeUtil.parseLocalDateTime(valueString);
+    if (literal == null || literal.end != valueString.length()) {
        return EdmDateTimeOffset.getInstance().internalValueOfString(value, literalKind, facets, returnType);
     }
 
-    dateTimeValue.set(
-        Short.parseShort(matcher.group(1)),
-        Byte.parseByte(matcher.group(2)) - 1, // month is zero-based
-        Byte.parseByte(matcher.group(3)),
-        Byte.parseByte(matcher.group(4)),
-        Byte.parseByte(matcher.group(5)),
-        matcher.group(6) == null ? 0 : Byte.parseByte(matcher.group(6)));
-
+    final boolean isJavaTime = DateTimeUtil.isJavaTimeType(returnType);
     int nanoSeconds = 0;
-    if (matcher.group(7) != null) {
-      if (matcher.group(7).length() == 1 || matcher.group(7).length() > 10) {
+    if (literal.fractionStart >= 0) {
+      if (literal.fractionDigits == 0 || literal.fractionDigits > 9) {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
       }
-      final String decimals = matcher.group(8);
-      if (facets != null && facets.getPrecision() != null && facets.getPrecision() < decimals.length()) {
+      if (facets != null && facets.getPrecision() != null && facets.getPrecision() < literal.significantDigits) {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_FACETS_NOT_MATCHED.addContent(value, facets));
       }
-      nanoSeconds = Integer.parseInt(decimals + "000000000".substring(decimals.length()));
-      if (!(returnType.isAssignableFrom(Timestamp.class))) {
-        if (nanoSeconds % (1000 * 1000) == 0) {
-          dateTimeValue.set(Calendar.MILLISECOND, nanoSeconds / (1000 * 1000));
-        } else {
-          throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
-        }
+      nanoSeconds = DateTimeUtil.getNanos(valueString, literal);
+      if (!isJavaTime && !returnType.isAssignableFrom(Timestamp.class)
+          && nanoSeconds % DateTimeUtil.NANOS_PER_MILLI != 0) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+      }
+    }
+
+    return convert(toMillis(literal, nanoSeconds / DateTimeUtil.NANOS_PER_MILLI, isJavaTime, value),
+        nanoSeconds, returnType);
+  }
+
+  /**
+   * Computes the milliseconds since 1970-01-01T00:00:00Z of the parsed literal (interpreted as GMT).
+   * @param literal the parsed literal
+   * @param milliSeconds the milliseconds of the second
+   * @param proleptic whether the proleptic Gregorian calendar is to be used also before the Gregorian cutover
+   * @param value the original value for exception messages
+   * @return the milliseconds
+   * @throws EdmSimpleTypeException if the fields do not form a valid date and time
+   */
+  static long toMillis(final DateTimeUtil.LocalDateTimeLiteral literal, final int milliSeconds,
+      final boolean proleptic, final String value) throws EdmSimpleTypeException {
+    if (proleptic || literal.year >= DateTimeUtil.FIRST_GREGORIAN_YEAR) {
+      if (!DateTimeUtil.isValid(literal.year, literal.month, literal.day,
+          literal.hour, literal.minute, literal.second)) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
       }
+      return DateTimeUtil.toEpochMillis(literal.year, literal.month, literal.day,
+          literal.hour, literal.minute, literal.second, milliSeconds);
     }
 
+    // Dates before the Gregorian cutover are computed in the Julian calendar.
+    Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    dateTimeValue.clear();
+    dateTimeValue.set(literal.year, literal.month - 1, literal.day, // month is zero-based
+        literal.hour, literal.minute, literal.second);
+    dateTimeValue.set(Calendar.MILLISECOND, milliSeconds);
     // The Calendar class does not check any values until a get method is called,
     // so we do just that to validate the fields set above, not because we want
     // to return something else. For strict checks, the lenient mode is switched
@@ -136,84 +143,107 @@ public class EdmDateTime extends AbstractSimpleType {
     } catch (final IllegalArgumentException e) {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value), e);
     }
-    dateTimeValue.setLenient(true);
+    return dateTimeValue.getTimeInMillis();
+  }
 
+  private static <T> T convert(final long millis, final int nanoSeconds, final Class<T> returnType)
+      throws EdmSimpleTypeException {
     if (returnType.isAssignableFrom(Calendar.class)) {
-      return returnType.cast(dateTimeValue);
+      return returnType.cast(DateTimeUtil.newGmtCalendar(millis));
     } else if (returnType.isAssignableFrom(Long.class)) {
-      return returnType.cast(dateTimeValue.getTimeInMillis());
+      return returnType.cast(millis);
     } else if (returnType.isAssignableFrom(Date.class)) {
-      return returnType.cast(dateTimeValue.getTime());
+      return returnType.cast(new Date(millis));
     } else if (returnType.isAssignableFrom(Timestamp.class)) {
-        Timestamp timestamp = new Timestamp(dateTimeValue.getTimeInMillis());
-        timestamp.setNanos(nanoSeconds);
-        return returnType.cast(timestamp);
-    } else {
-      throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
+      Timestamp timestamp = new Timestamp(millis);
+      timestamp.setNanos(nanoSeconds);
+      return returnType.cast(timestamp);
+    } else if (DateTimeUtil.isJavaTimeType(returnType)) {
+      final T result = JavaTimeConverter.create(millis, nanoSeconds, 0, returnType);
+      if (result != null) {
+        return result;
+      }
     }
+    throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
   }
 
   @Override
   protected <T> String internalValueToString(final T value, final EdmLiteralKind literalKind, final EdmFacets facets)
       throws EdmSimpleTypeException {
     long timeInMillis;
+    int nanoSeconds = -1; // only set for value types with nanosecond precision
+    boolean proleptic = false;
     if (value instanceof Date) {
       timeInMillis = ((Date) value).getTime();
+      if (value instanceof Timestamp) {
+        nanoSeconds = ((Timestamp) value).getNanos();
+      }
     } else if (value instanceof Calendar) {
       timeInMillis = ((Calendar) value).getTimeInMillis();
     } else if (value instanceof Long) {
       timeInMillis = ((Long) value).longValue();
+    } else if (DateTimeUtil.isJavaTimeType(value.getClass()) && JavaTimeConverter.isSupported(value)) {
+      timeInMillis = JavaTimeConverter.getEpochMillis(value);
+      nanoSeconds = JavaTimeConverter.getNanos(value);
+      proleptic = true;
     } else {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(value.getClass()));
     }
 
     if (literalKind == EdmLiteralKind.JSON) {
-      if (value instanceof Timestamp && ((Timestamp) value).getNanos() % (1000 * 1000) != 0) {
+      if (nanoSeconds > 0 && nanoSeconds % DateTimeUtil.NANOS_PER_MILLI != 0) {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_ILLEGAL_CONTENT.addContent(value));
       } else {
         return "/Date(" + timeInMillis + ")/";
       }
     }
 
-    Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-    dateTimeValue.setTimeInMillis(timeInMillis);
-
     StringBuilder result = new StringBuilder(29); // 29 characters are enough for nanosecond precision.
-    final int year = dateTimeValue.get(Calendar.YEAR);
-    appendTwoDigits(result, year / 100);
-    appendTwoDigits(result, year % 100);
-    result.append('-');
-    appendTwoDigits(result, dateTimeValue.get(Calendar.MONTH) + 1); // month is zero-based
-    result.append('-');
-    appendTwoDigits(result, dateTimeValue.get(Calendar.DAY_OF_MONTH));
-    result.append('T');
-    appendTwoDigits(result, dateTimeValue.get(Calendar.HOUR_OF_DAY));
-    result.append(':');
-    appendTwoDigits(result, dateTimeValue.get(Calendar.MINUTE));
-    result.append(':');
-    appendTwoDigits(result, dateTimeValue.get(Calendar.SECOND));
-
-    final int fractionalSecs = value instanceof Timestamp ?
-        ((Timestamp) value).getNanos() :
-        dateTimeValue.get(Calendar.MILLISECOND);
     try {
-      appendFractionalSeconds(result, fractionalSecs, value instanceof Timestamp, facets);
+      appendDateTime(result, timeInMillis, nanoSeconds, proleptic, facets);
     } catch (final IllegalArgumentException e) {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_FACETS_NOT_MATCHED.addContent(value, facets), e);
     }
-
     return result.toString();
   }
 
   /**
-   * Appends the given number to the given string builder,
-   * assuming that the number has at most two digits, performance-optimized.
+   * Appends the given instant in GMT in the form <code>yyyy-mm-ddThh:mm:ss[.fffffffff]</code>.
    * @param result a {@link StringBuilder}
-   * @param number an integer that must satisfy <code>0 <= number <= 99</code>
+   * @param millis milliseconds since 1970-01-01T00:00:00Z
+   * @param nanoSeconds nanoseconds of the second or -1 if the milliseconds are to be used
+   * @param proleptic whether the proleptic Gregorian calendar is to be used also before the Gregorian cutover
+   * @param facets the EDM facets containing an upper limit for decimal digits (optional)
+   * @throws IllegalArgumentException if precision is not met
    */
-  private static void appendTwoDigits(final StringBuilder result, final int number) {
-    result.append((char) ('0' + number / 10));
-    result.append((char) ('0' + number % 10));
+  static void appendDateTime(final StringBuilder result, final long millis, final int nanoSeconds,
+      final boolean proleptic, final EdmFacets facets) throws IllegalArgumentException {
+    if (proleptic || millis >= DateTimeUtil.GREGORIAN_CUTOVER) {
+      DateTimeUtil.appendDateTime(result, millis);
+    } else {
+      // Dates before the Gregorian cutover are computed in the Julian calendar.
+      Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+      dateTimeValue.setTimeInMillis(millis);
+      final int year = dateTimeValue.get(Calendar.YEAR);
+      DateTimeUtil.appendTwoDigits(result, year / 100);
+      DateTimeUtil.appendTwoDigits(result, year % 100);
+      result.append('-');
+      DateTimeUtil.appendTwoDigits(result, dateTimeValue.get(Calendar.MONTH) + 1); // month is zero-based
+      result.append('-');
+      DateTimeUtil.appendTwoDigits(result, dateTimeValue.get(Calendar.DAY_OF_MONTH));
+      result.append('T');
+      DateTimeUtil.appendTwoDigits(result, dateTimeValue.get(Calendar.HOUR_OF_DAY));
+      result.append(':');
+      DateTimeUtil.appendTwoDigits(result, dateTimeValue.get(Calendar.MINUTE));
+      result.append(':');
+      DateTimeUtil.appendTwoDigits(result, dateTimeValue.get(Calendar.SECOND));
+    }
+
+    if (nanoSeconds >= 0) {
+      appendFractionalSeconds(result, nanoSeconds, true, facets);
+    } else {
+      appendFractionalSeconds(result, DateTimeUtil.floorMod(millis, DateTimeUtil.MILLIS_PER_SECOND), false, facets);
+    }
   }
 
   /**
@@ -22,7 +22,6 @@ import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.olingo.odata2.api.edm.EdmFacets;
@@ -34,6 +33,8 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
  * 
  * Details about parsing of time strings to value objects can be found in the
  * {@link org.apache.olingo.odata2.api.edm.EdmSimpleType} documentation.
+ * <p>Literals are parsed and formatted without regular expressions; see {@link EdmDateTime}
+ * for the supported value types.</p>
  */
 public class EdmDateTimeOffset extends AbstractSimpleType {
 
@@ -42,8 +43,8 @@ public class EdmDateTimeOffset extends AbstractSimpleType {
       "\\p{Digit}{1,4}-\\p{Digit}{1,2}-\\p{Digit}{1,2}"
           + "T\\p{Digit}{1,2}:\\p{Digit}{1,2}(?::\\p{Digit}{1,2}(?:\\.\\p{Digit}{1,7})?)?"
           + "(Z|([-+]\\p{Digit}{1,2}:\\p{Digit}{2}))?");
-  private static final Pattern JSON_PATTERN = Pattern.compile(
-      "/Date\\((-?\\p{Digit}+)(?:(\\+|-)(\\p{Digit}{1,4}))?\\)/");
+  private static final int MAX_FRACTION_DIGITS = 7;
+  private static final int MILLIS_PER_MINUTE = 60 * 1000;
   private static final EdmDateTimeOffset instance = new EdmDateTimeOffset();
 
   public static EdmDateTimeOffset getInstance() {
@@ -59,8 +60,8 @@ public class EdmDateTimeOffset extends AbstractSimpleType {
   protected <T> T internalValueOfString(final String value, final EdmLiteralKind literalKind, final EdmFacets facets,
       final Class<T> returnType) throws EdmSimpleTypeException {
     if (literalKind == EdmLiteralKind.URI) {
-      //OLINGO-883 prefix is case insensitve so we need to check with lower case if we want to use startsWith()
-      if (value.length() > 16 && value.toLowerCase().startsWith("datetimeoffset'") && value.endsWith("'")) {
+      //OLINGO-883 prefix is case insensitive
+      if (value.length() > 16 && value.regionMatches(true, 0, "datetimeoffset'", 0, 15) && value.endsWith("'")) {
         return internalValueOfString(value.substring(15, value.length() - 1), EdmLiteralKind.DEFAULT, facets,
             returnType);
       } else {
@@ -68,68 +69,112 @@ public class EdmDateTimeOffset extends AbstractSimpleType {
       }
     }
 
-    Calendar dateTimeValue = null;
-    long millis = 0;
-
     if (literalKind == EdmLiteralKind.JSON) {
-      final Matcher matcher = JSON_PATTERN.matcher(value);
-      if (matcher.matches()) {
+      final int[] json = DateTimeUtil.parseJsonDate(value, true);
+      if (json != null) {
+        long millis;
         try {
-          millis = Long.parseLong(matcher.group(1));
+          millis = Long.parseLong(value.substring(json[0], json[1]));
         } catch (final NumberFormatException e) {
           throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value), e);
         }
-        String timeZone = "GMT";
-        if (matcher.group(2) != null) {
-          final int offsetInMinutes = Integer.parseInt(matcher.group(3));
+        int offsetInMinutes = 0;
+        if (json[2] >= 0) {
+          offsetInMinutes = DateTimeUtil.parseDigits(value, json[2] + 1, json[3]);
           if (offsetInMinutes >= 24 * 60) {
             throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
           }
-          if (offsetInMinutes != 0) {
-            timeZone += matcher.group(2) + String.valueOf(offsetInMinutes / 60)
-                + ":" + String.format("%02d", offsetInMinutes % 60);
-            // Convert the local-time milliseconds to UTC.
-            millis -= ("+".equals(matcher.group(2)) ? 1 : -1) * offsetInMinutes * 60 * 1000;
+          if (value.charAt(json[2]) == '-') {
+            offsetInMinutes = -offsetInMinutes;
           }
+          // Convert the local-time milliseconds to UTC.
+          millis -= (long) offsetInMinutes * MILLIS_PER_MINUTE;
         }
-        dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone(timeZone));
+        return convert(millis, DateTimeUtil.floorMod(millis, DateTimeUtil.MILLIS_PER_SECOND)
+            * DateTimeUtil.NANOS_PER_MILLI, offsetInMinutes, false, returnType);
       }
     }
 
-    int nanoSeconds = 0;
-    if (dateTimeValue == null) {
-      final Matcher matcherNumber = PATTERN_NUMBER.matcher(value);
-      if (matcherNumber.matches()) {
-        millis = Long.valueOf(value);
-        dateTimeValue = Calendar.getInstance();
-        dateTimeValue.setTimeInMillis(millis);
-      } else {
+    if (isNumber(value)) {
+      long millis;
+      try {
+        millis = Long.parseLong(value);
+      } catch (final NumberFormatException e) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value), e);
+      }
+      return convert(millis, DateTimeUtil.floorMod(millis, DateTimeUtil.MILLIS_PER_SECOND)
+          * DateTimeUtil.NANOS_PER_MILLI, 0, true, returnType);
+    }
 
-        final Matcher matcher = PATTERN.matcher(value);
-        if (!matcher.matches()) {
-          throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
-        }
+    final DateTimeUtil.LocalDateTimeLiteral literal = DateTimeUtil.parseLocalDateTime(value);
+    if (literal == null || literal.fractionStart >= 0
+        && (literal.fractionDigits == 0 || literal.fractionDigits > MAX_FRACTION_DIGITS)) {
+      throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+    }
+    final int offsetInMinutes = parseOffset(value, literal.end);
 
-        final String timeZoneOffset =
-            matcher.group(1) != null && matcher.group(2) != null && !matcher.group(2).matches("[-+]0+:0+") ? matcher
-                .group(2) : null;
-        dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT" + timeZoneOffset));
-        if (dateTimeValue.get(Calendar.ZONE_OFFSET) == 0 && timeZoneOffset != null) {
-          throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
-        }
-        dateTimeValue.clear();
-        final Timestamp timestamp = EdmDateTime.getInstance().internalValueOfString(
-            value.substring(0, matcher.group(1) == null ? value.length() : matcher.start(1)),
-            EdmLiteralKind.DEFAULT, facets, Timestamp.class);
-        millis = timestamp.getTime() - dateTimeValue.get(Calendar.ZONE_OFFSET);
-        nanoSeconds = timestamp.getNanos();
-        if (nanoSeconds % (1000 * 1000) != 0 && !returnType.isAssignableFrom(Timestamp.class)) {
-          throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
-        }
+    final boolean isJavaTime = DateTimeUtil.isJavaTimeType(returnType);
+    int nanoSeconds = 0;
+    if (literal.fractionStart >= 0) {
+      if (facets != null && facets.getPrecision() != null && facets.getPrecision() < literal.significantDigits) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_FACETS_NOT_MATCHED.addContent(value, facets));
+      }
+      nanoSeconds = DateTimeUtil.getNanos(value, literal);
+      if (nanoSeconds % DateTimeUtil.NANOS_PER_MILLI != 0 && !isJavaTime
+          && !returnType.isAssignableFrom(Timestamp.class)) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
       }
     }
+    final long millis = EdmDateTime.toMillis(literal, nanoSeconds / DateTimeUtil.NANOS_PER_MILLI, isJavaTime, value)
+        - (long) offsetInMinutes * MILLIS_PER_MINUTE;
+
+    return convert(millis, nanoSeconds, offsetInMinutes, false, returnType);
+  }
+
+  private static boolean isNumber(final String value) {
+    return !value.isEmpty() && DateTimeUtil.digitsEnd(value, 0, Integer.MAX_VALUE) == value.length();
+  }
 
+  /**
+   * Parses the time-zone offset <code>Z</code> or <code>[-+]hh:mm</code> at the end of the value.
+   * @return the offset in minutes
+   */
+  private static int parseOffset(final String value, final int index) throws EdmSimpleTypeException {
+    final int length = value.length();
+    if (index == length || index == length - 1 && value.charAt(index) == 'Z') {
+      return 0;
+    }
+    final char sign = value.charAt(index);
+    final int hoursEnd = DateTimeUtil.digitsEnd(value, index + 1, 2);
+    final int minutesEnd = DateTimeUtil.digitsEnd(value, hoursEnd + 1, 2);
+    if (sign != '+' && sign != '-' || hoursEnd == index + 1 || hoursEnd == length || value.charAt(hoursEnd) != ':'
+        || minutesEnd != hoursEnd + 3 || minutesEnd != length) {
+      throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+    }
+    final int hours = DateTimeUtil.parseDigits(value, index + 1, hoursEnd);
+    final int minutes = DateTimeUtil.parseDigits(value, hoursEnd + 1, minutesEnd);
+    if (hours > 23 || minutes > 59) {
+      throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+    }
+    return (sign == '-' ? -1 : 1) * (hours * 60 + minutes);
+  }
+
+  /**
+   * Converts the instant into the requested type.
+   * @param millis milliseconds since 1970-01-01T00:00:00Z
+   * @param nanoSeconds nanoseconds of the second
+   * @param offsetInMinutes offset of the time zone of the literal
+   * @param defaultTimeZone whether the default time zone is to be used instead of the offset
+   * @param returnType the requested type
+   */
+  private static <T> T convert(final long millis, final int nanoSeconds, final int offsetInMinutes,
+      final boolean defaultTimeZone, final Class<T> returnType) throws EdmSimpleTypeException {
     if (returnType.isAssignableFrom(Calendar.class)) {
+      Calendar dateTimeValue = defaultTimeZone ?
+          Calendar.getInstance() :
+          offsetInMinutes == 0 ?
+              DateTimeUtil.newGmtCalendar(millis) :
+              Calendar.getInstance(TimeZone.getTimeZone(getTimeZoneId(offsetInMinutes)));
       dateTimeValue.clear();
       dateTimeValue.setTimeInMillis(millis);
       return returnType.cast(dateTimeValue);
@@ -138,27 +183,41 @@ public class EdmDateTimeOffset extends AbstractSimpleType {
     } else if (returnType.isAssignableFrom(Date.class)) {
       return returnType.cast(new Date(millis));
     } else if (returnType.isAssignableFrom(Timestamp.class)) {
-        Timestamp timestamp = new Timestamp(millis);
-        timestamp.setNanos(nanoSeconds);
-        return returnType.cast(timestamp);
-    } else {
-      throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
+      Timestamp timestamp = new Timestamp(millis);
+      timestamp.setNanos(nanoSeconds);
+      return returnType.cast(timestamp);
+    } else if (DateTimeUtil.isJavaTimeType(returnType)) {
+      final T result = JavaTimeConverter.create(millis, nanoSeconds,
+          defaultTimeZone ? DateTimeUtil.getDefaultOffset(millis) : offsetInMinutes * MILLIS_PER_MINUTE, returnType);
+      if (result != null) {
+        return result;
+      }
     }
+    throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
+  }
+
+  private static String getTimeZoneId(final int offsetInMinutes) {
+    StringBuilder id = new StringBuilder(9).append("GMT");
+    DateTimeUtil.appendOffset(id, offsetInMinutes);
+    return id.toString();
   }
 
   @Override
   protected <T> String internalValueToString(final T value, final EdmLiteralKind literalKind, final EdmFacets facets)
       throws EdmSimpleTypeException {
-    Long milliSeconds; // number of milliseconds since 1970-01-01T00:00:00Z
+    long milliSeconds; // number of milliseconds since 1970-01-01T00:00:00Z
     int offset; // offset in milliseconds from GMT to the requested time zone
+    int nanoSeconds = -1; // only set for value types with nanosecond precision
+    boolean proleptic = false;
     if (value instanceof Date) {
       milliSeconds = ((Date) value).getTime();
       // Although java.util.Date, as stated in its documentation,
       // "is intended to reflect coordinated universal time (UTC)",
       // its toString() method uses the default time zone. And so do we.
-      Calendar dateTimeValue = Calendar.getInstance();
-      dateTimeValue.setTime((Date) value);
-      offset = dateTimeValue.get(Calendar.ZONE_OFFSET) + dateTimeValue.get(Calendar.DST_OFFSET);
+      offset = DateTimeUtil.getDefaultOffset(milliSeconds);
+      if (value instanceof Timestamp) {
+        nanoSeconds = ((Timestamp) value).getNanos();
+      }
     } else if (value instanceof Calendar) {
       final Calendar dateTimeValue = (Calendar) ((Calendar) value).clone();
       milliSeconds = dateTimeValue.getTimeInMillis();
@@ -166,29 +225,45 @@ public class EdmDateTimeOffset extends AbstractSimpleType {
     } else if (value instanceof Long) {
       milliSeconds = (Long) value;
       offset = 0;
+    } else if (DateTimeUtil.isJavaTimeType(value.getClass()) && JavaTimeConverter.isSupported(value)) {
+      milliSeconds = JavaTimeConverter.getEpochMillis(value);
+      offset = JavaTimeConverter.getOffsetMillis(value);
+      nanoSeconds = JavaTimeConverter.getNanos(value);
+      proleptic = true;
     } else {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(value.getClass()));
     }
 
     milliSeconds += offset; // Convert from UTC to local time.
-    final int offsetInMinutes = offset / 60 / 1000;
+    final int offsetInMinutes = offset / MILLIS_PER_MINUTE;
 
     if (literalKind == EdmLiteralKind.JSON) {
-      if (value instanceof Timestamp && ((Timestamp) value).getNanos() % (1000 * 1000) != 0) {
+      if (nanoSeconds > 0 && nanoSeconds % DateTimeUtil.NANOS_PER_MILLI != 0) {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_ILLEGAL_CONTENT.addContent(value));
       } else {
-        return "/Date(" + milliSeconds + (offset == 0 ? "" : String.format("%+05d", offsetInMinutes)) + ")/";
+        StringBuilder result = new StringBuilder(32).append("/Date(").append(milliSeconds);
+        if (offset != 0) {
+          final int absoluteOffset = Math.abs(offsetInMinutes);
+          result.append(offsetInMinutes < 0 ? '-' : '+');
+          DateTimeUtil.appendTwoDigits(result, absoluteOffset / 100);
+          DateTimeUtil.appendTwoDigits(result, absoluteOffset % 100);
+        }
+        return result.append(")/").toString();
       }
 
     } else {
-      final String localTimeString =
-          EdmDateTime.getInstance().valueToString(
-              value instanceof Timestamp ? value : milliSeconds, EdmLiteralKind.DEFAULT, facets);
-      final int offsetHours = offsetInMinutes / 60;
-      final int offsetMinutes = Math.abs(offsetInMinutes % 60);
-      final String offsetString = offset == 0 ? "Z" : String.format("%+03d:%02d", offsetHours, offsetMinutes);
-
-      return localTimeString + offsetString;
+      StringBuilder result = new StringBuilder(35); // enough for nanosecond precision and offset
+      try {
+        EdmDateTime.appendDateTime(result, milliSeconds, nanoSeconds, proleptic, facets);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_FACETS_NOT_MATCHED.addContent(value, facets), e);
+      }
+      if (offset == 0) {
+        result.append('Z');
+      } else {
+        DateTimeUtil.appendOffset(result, offsetInMinutes);
+      }
+      return result.toString();
     }
   }
 
@@ -21,6 +21,8 @@ package org.apache.olingo.odata2.core.edm;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
@@ -33,52 +35,83 @@ import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
 import org.apache.olingo.odata2.api.edm.EdmServiceMetadata;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregatorCache;
 
 /**
- *  
+ * Entity data model which resolves its elements lazily and caches them.
+ * <p>The caches are thread-safe, so an instance can be shared between requests.
+ * After {@link #freeze()} no elements are resolved anymore; unknown names are
+ * answered from the cache without asking the underlying model source.</p>
  */
 public abstract class EdmImpl implements Edm {
 
-  private Map<String, EdmEntityContainer> edmEntityContainers;
-  private Map<FullQualifiedName, EdmEntityType> edmEntityTypes;
-  private Map<FullQualifiedName, EdmComplexType> edmComplexTypes;
-  private Map<FullQualifiedName, EdmAssociation> edmAssociations;
-  private Map<String, String> aliasToNamespaceInfo;
-  private List<EdmEntitySet> edmEntitySets;
-  private List<EdmFunctionImport> edmFunctionImports;
+  private final ConcurrentMap<String, EdmEntityContainer> edmEntityContainers;
+  private volatile EdmEntityContainer defaultEntityContainer;
+  private final ConcurrentMap<FullQualifiedName, EdmEntityType> edmEntityTypes;
+  private final ConcurrentMap<FullQualifiedName, EdmComplexType> edmComplexTypes;
+  private final ConcurrentMap<FullQualifiedName, EdmAssociation> edmAssociations;
+  private volatile Map<String, String> aliasToNamespaceInfo;
+  private volatile List<EdmEntitySet> edmEntitySets;
+  private volatile List<EdmFunctionImport> edmFunctionImports;
+  private volatile boolean frozen;
+  private final EntityInfoAggregatorCache entityInfoAggregatorCache;
 
   protected EdmServiceMetadata edmServiceMetadata;
 
   public EdmImpl(final EdmServiceMetadata edmServiceMetadata) {
-    edmEntityContainers = new HashMap<String, EdmEntityContainer>();
-    edmEntityTypes = new HashMap<FullQualifiedName, EdmEntityType>();
-    edmComplexTypes = new HashMap<FullQualifiedName, EdmComplexType>();
-    edmAssociations = new HashMap<FullQualifiedName, EdmAssociation>();
+    edmEntityContainers = new ConcurrentHashMap<String, EdmEntityContainer>();
+    edmEntityTypes = new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
+    edmComplexTypes = new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
+    edmAssociations = new ConcurrentHashMap<FullQualifiedName, EdmAssociation>();
+    entityInfoAggregatorCache = new EntityInfoAggregatorCache(EntityInfoAggregatorCache.DEFAULT_MAX_SIZE);
     this.edmServiceMetadata = edmServiceMetadata;
   }
 
+  /**
+   * Marks this entity data model as complete; afterwards only cached elements are returned.
+   * All elements which are needed later must have been resolved before.
+   */
+  protected void freeze() {
+    frozen = true;
+  }
+
+  /**
+   * @return whether this entity data model is complete and does not resolve elements anymore
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * @return the cache for the {@link org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator}s
+   * of the entity sets of this entity data model
+   */
+  public EntityInfoAggregatorCache getEntityInfoAggregatorCache() {
+    return entityInfoAggregatorCache;
+  }
+
   @Override
   public EdmEntityContainer getEntityContainer(final String name) throws EdmException {
-    if (edmEntityContainers.containsKey(name)) {
-      return edmEntityContainers.get(name);
+    EdmEntityContainer edmEntityContainer = name == null ? defaultEntityContainer : edmEntityContainers.get(name);
+    if (edmEntityContainer != null || frozen) {
+      return edmEntityContainer;
     }
 
-    EdmEntityContainer edmEntityContainer = null;
-
     try {
       edmEntityContainer = createEntityContainer(name);
       if (edmEntityContainer != null) {
-        if (name == null && edmEntityContainers.containsKey(edmEntityContainer.getName())) {
-          // ensure that the same default entity container is stored in the HashMap under null and its name
-          edmEntityContainer = edmEntityContainers.get(edmEntityContainer.getName());
-          edmEntityContainers.put(name, edmEntityContainer);
-        } else if (edmEntityContainers.containsKey(null) && edmEntityContainers.get(null) != null
-            && name != null && name.equals(edmEntityContainers.get(null).getName())) {
-          // ensure that the same default entity container is stored in the HashMap under null and its name
-          edmEntityContainer = edmEntityContainers.get(null);
-          edmEntityContainers.put(name, edmEntityContainer);
+        // ensure that the same default entity container is stored under null and its name
+        final String containerName = edmEntityContainer.getName();
+        final EdmEntityContainer defaultContainer = defaultEntityContainer;
+        if (name == null) {
+          if (containerName != null) {
+            edmEntityContainer = cache(edmEntityContainers, containerName, edmEntityContainer);
+          }
+          defaultEntityContainer = edmEntityContainer;
+        } else if (defaultContainer != null && name.equals(defaultContainer.getName())) {
+          edmEntityContainer = cache(edmEntityContainers, name, defaultContainer);
         } else {
-          edmEntityContainers.put(name, edmEntityContainer);
+          edmEntityContainer = cache(edmEntityContainers, name, edmEntityContainer);
         }
       }
     } catch (EdmException e) {
@@ -95,16 +128,15 @@ public abstract class EdmImpl implements Edm {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
 
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmEntityTypes.containsKey(fqName)) {
-      return edmEntityTypes.get(fqName);
+    EdmEntityType edmEntityType = edmEntityTypes.get(fqName);
+    if (edmEntityType != null || frozen) {
+      return edmEntityType;
     }
 
-    EdmEntityType edmEntityType = null;
-
     try {
       edmEntityType = createEntityType(fqName);
       if (edmEntityType != null) {
-        edmEntityTypes.put(fqName, edmEntityType);
+        edmEntityType = cache(edmEntityTypes, fqName, edmEntityType);
       }
     } catch (EdmException e) {
       throw e;
@@ -116,19 +148,21 @@ public abstract class EdmImpl implements Edm {
   }
 
   private String getNamespaceForAlias(final String namespaceOrAlias) throws EdmException {
-    if (aliasToNamespaceInfo == null) {
+    Map<String, String> aliases = aliasToNamespaceInfo;
+    if (aliases == null) {
       try {
-        aliasToNamespaceInfo = createAliasToNamespaceInfo();
-        if (aliasToNamespaceInfo == null) {
-          aliasToNamespaceInfo = new HashMap<String, String>();
+        aliases = createAliasToNamespaceInfo();
+        if (aliases == null) {
+          aliases = new HashMap<String, String>();
         }
+        aliasToNamespaceInfo = aliases;
       } catch (EdmException e) {
         throw e;
       } catch (ODataException e) {
         throw new EdmException(EdmException.COMMON, e);
       }
     }
-    String namespace = aliasToNamespaceInfo.get(namespaceOrAlias);
+    String namespace = aliases.get(namespaceOrAlias);
     // If not contained in info it must be a namespace
     if (namespace == null) {
       namespace = namespaceOrAlias;
@@ -140,16 +174,15 @@ public abstract class EdmImpl implements Edm {
   public EdmComplexType getComplexType(final String namespaceOrAlias, final String name) throws EdmException {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmComplexTypes.containsKey(fqName)) {
-      return edmComplexTypes.get(fqName);
+    EdmComplexType edmComplexType = edmComplexTypes.get(fqName);
+    if (edmComplexType != null || frozen) {
+      return edmComplexType;
     }
 
-    EdmComplexType edmComplexType = null;
-
     try {
       edmComplexType = createComplexType(fqName);
       if (edmComplexType != null) {
-        edmComplexTypes.put(fqName, edmComplexType);
+        edmComplexType = cache(edmComplexTypes, fqName, edmComplexType);
       }
     } catch (EdmException e) {
       throw e;
@@ -164,16 +197,15 @@ public abstract class EdmImpl implements Edm {
   public EdmAssociation getAssociation(final String namespaceOrAlias, final String name) throws EdmException {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmAssociations.containsKey(fqName)) {
-      return edmAssociations.get(fqName);
+    EdmAssociation edmAssociation = edmAssociations.get(fqName);
+    if (edmAssociation != null || frozen) {
+      return edmAssociation;
     }
 
-    EdmAssociation edmAssociation = null;
-
     try {
       edmAssociation = createAssociation(fqName);
       if (edmAssociation != null) {
-        edmAssociations.put(fqName, edmAssociation);
+        edmAssociation = cache(edmAssociations, fqName, edmAssociation);
       }
     } catch (EdmException e) {
       throw e;
@@ -222,6 +254,15 @@ public abstract class EdmImpl implements Edm {
     return edmFunctionImports;
   }
 
+  /**
+   * Puts the element into the cache unless another thread has been faster;
+   * returns the cached element so that all callers see the same instance.
+   */
+  private static <K, T> T cache(final ConcurrentMap<K, T> cache, final K key, final T element) {
+    final T existing = cache.putIfAbsent(key, element);
+    return existing == null ? element : existing;
+  }
+
   protected abstract EdmEntityContainer createEntityContainer(String name) throws ODataException;
 
   protected abstract EdmEntityType createEntityType(FullQualifiedName fqName) throws ODataException;
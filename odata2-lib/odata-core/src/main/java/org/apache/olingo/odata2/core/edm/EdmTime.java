@@ -22,9 +22,6 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.odata2.api.edm.EdmFacets;
 import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
@@ -36,12 +33,12 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
  * The time value is interpreted and formatted as local time.</p>
  * <p>Formatting simply ignores the year, month, and day parts of time instances.
  * Parsing returns a Calendar object where all unused fields have been cleared.</p>
+ * <p>Literals are parsed and formatted without regular expressions; besides the <code>java.util</code>
+ * and <code>java.sql</code> types, <code>java.time.LocalTime</code> is supported.</p>
  * 
  */
 public class EdmTime extends AbstractSimpleType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "PT(?:(\\p{Digit}{1,2})H)?(?:(\\p{Digit}{1,4})M)?(?:(\\p{Digit}{1,5})(?:\\.(\\p{Digit}+?)0*)?S)?");
   private static final EdmTime instance = new EdmTime();
 
   public static EdmTime getInstance() {
@@ -57,50 +54,99 @@ public class EdmTime extends AbstractSimpleType {
   protected <T> T internalValueOfString(final String value, final EdmLiteralKind literalKind, final EdmFacets facets,
       final Class<T> returnType) throws EdmSimpleTypeException {
 
-    //OLINGO-883 prefix is case insensitve so we need to check with lower case if we want to use startsWith()
+    //OLINGO-883 prefix is case insensitive
     if (literalKind == EdmLiteralKind.URI
-        && (value.length() <= 6 || !value.toLowerCase().startsWith("time'") || !value.endsWith("'"))) {
+        && (value.length() <= 6 || !value.regionMatches(true, 0, "time'", 0, 5) || !value.endsWith("'"))) {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
     }
 
-    final Matcher matcher = PATTERN.matcher(
-        literalKind == EdmLiteralKind.URI ? value.substring(5, value.length() - 1) : value);
-    if (!matcher.matches()
-        || (matcher.group(1) == null && matcher.group(2) == null && matcher.group(3) == null)) {
+    final String valueString = literalKind == EdmLiteralKind.URI ? value.substring(5, value.length() - 1) : value;
+    // The literal has the form PT[h{1,2}H][m{1,4}M][s{1,5}[.f+]S] with at least one part.
+    int hours = 0;
+    int minutes = 0;
+    int seconds = 0;
+    int fractionStart = -1;
+    int fractionEnd = -1;
+    int part = 0; // number of the last part found: 1 for hours, 2 for minutes, 3 for seconds
+    int index = 2;
+    boolean matches = valueString.startsWith("PT");
+    while (matches && index < valueString.length()) {
+      final int end = DateTimeUtil.digitsEnd(valueString, index, Integer.MAX_VALUE);
+      final int digits = end - index;
+      final char designator = end < valueString.length() ? valueString.charAt(end) : ' ';
+      if (designator == 'H' && part < 1 && digits >= 1 && digits <= 2) {
+        hours = DateTimeUtil.parseDigits(valueString, index, end);
+        part = 1;
+        index = end + 1;
+      } else if (designator == 'M' && part < 2 && digits >= 1 && digits <= 4) {
+        minutes = DateTimeUtil.parseDigits(valueString, index, end);
+        part = 2;
+        index = end + 1;
+      } else if ((designator == 'S' || designator == '.') && part < 3 && digits >= 1 && digits <= 5) {
+        seconds = DateTimeUtil.parseDigits(valueString, index, end);
+        part = 3;
+        index = end;
+        if (designator == '.') {
+          fractionStart = end + 1;
+          fractionEnd = DateTimeUtil.digitsEnd(valueString, fractionStart, Integer.MAX_VALUE);
+          index = fractionEnd;
+          matches = fractionEnd > fractionStart;
+        }
+        matches = matches && index < valueString.length() && valueString.charAt(index) == 'S';
+        index++;
+      } else {
+        matches = false;
+      }
+    }
+    if (!matches || part == 0) {
       return EdmDateTimeOffset.getInstance().internalValueOfString(value, literalKind, facets, returnType);
     }
 
-    Calendar dateTimeValue = Calendar.getInstance();
-    dateTimeValue.clear();
-
-    dateTimeValue.set(Calendar.HOUR_OF_DAY,
-        matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1)));
-    dateTimeValue.set(Calendar.MINUTE,
-        matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2)));
-    dateTimeValue.set(Calendar.SECOND,
-        matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3)));
-
     int nanoSeconds = 0;
-    if (matcher.group(4) != null) {
-      final String decimals = matcher.group(4);
-      if (facets == null || facets.getPrecision() == null || facets.getPrecision() >= decimals.length()) {
-        nanoSeconds = Integer.parseInt(decimals + "000000000".substring(decimals.length()));
-        if (!(returnType.isAssignableFrom(Timestamp.class))) {
-          if (nanoSeconds % (1000 * 1000) == 0) {
-            dateTimeValue.set(Calendar.MILLISECOND, nanoSeconds / (1000 * 1000));
-          } else {
-            throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
-          }
-        }
-      } else {
+    if (fractionStart >= 0) {
+      // Trailing zeroes are not significant but at least one digit is.
+      while (fractionEnd > fractionStart + 1 && valueString.charAt(fractionEnd - 1) == '0') {
+        fractionEnd--;
+      }
+      final int decimals = fractionEnd - fractionStart;
+      if (facets != null && facets.getPrecision() != null && facets.getPrecision() < decimals) {
         throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_FACETS_NOT_MATCHED.addContent(value, facets));
       }
+      if (decimals > 9) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+      }
+      nanoSeconds = DateTimeUtil.parseDigits(valueString, fractionStart, fractionEnd);
+      for (int i = decimals; i < 9; i++) {
+        nanoSeconds *= 10;
+      }
     }
 
-    if (dateTimeValue.get(Calendar.DAY_OF_YEAR) != 1) {
+    final boolean isJavaTime = DateTimeUtil.isJavaTimeType(returnType);
+    if (nanoSeconds % DateTimeUtil.NANOS_PER_MILLI != 0 && !isJavaTime
+        && !returnType.isAssignableFrom(Timestamp.class)) {
+      throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
+    }
+    final long millisOfDay = ((hours * 60L + minutes) * 60 + seconds) * DateTimeUtil.MILLIS_PER_SECOND
+        + nanoSeconds / DateTimeUtil.NANOS_PER_MILLI;
+    if (millisOfDay >= DateTimeUtil.MILLIS_PER_DAY) {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.addContent(value));
     }
 
+    if (isJavaTime) {
+      final T result = JavaTimeConverter.create(millisOfDay, nanoSeconds, 0, returnType);
+      if (result == null) {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(returnType));
+      }
+      return result;
+    }
+
+    Calendar dateTimeValue = Calendar.getInstance();
+    dateTimeValue.clear();
+    dateTimeValue.set(Calendar.HOUR_OF_DAY, hours);
+    dateTimeValue.set(Calendar.MINUTE, minutes);
+    dateTimeValue.set(Calendar.SECOND, seconds);
+    dateTimeValue.set(Calendar.MILLISECOND, nanoSeconds / DateTimeUtil.NANOS_PER_MILLI);
+
     if (returnType.isAssignableFrom(Calendar.class)) {
       return returnType.cast(dateTimeValue);
     } else if (returnType.isAssignableFrom(Long.class)) {
@@ -121,35 +167,56 @@ public class EdmTime extends AbstractSimpleType {
   @Override
   protected <T> String internalValueToString(final T value, final EdmLiteralKind literalKind, final EdmFacets facets)
       throws EdmSimpleTypeException {
-    Calendar dateTimeValue;
-    if (value instanceof Date) {
-      dateTimeValue = Calendar.getInstance();
-      dateTimeValue.clear();
-      dateTimeValue.setTime((Date) value);
-    } else if (value instanceof Calendar) {
-      dateTimeValue = (Calendar) ((Calendar) value).clone();
-    } else if (value instanceof Long) {
-      dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-      dateTimeValue.clear();
-      dateTimeValue.setTimeInMillis((Long) value);
+    int hours;
+    int minutes;
+    int seconds;
+    int fractionalSecs;
+    boolean isNano = false;
+    if (value instanceof Calendar) {
+      final Calendar dateTimeValue = (Calendar) ((Calendar) value).clone();
+      hours = dateTimeValue.get(Calendar.HOUR_OF_DAY);
+      minutes = dateTimeValue.get(Calendar.MINUTE);
+      seconds = dateTimeValue.get(Calendar.SECOND);
+      fractionalSecs = dateTimeValue.get(Calendar.MILLISECOND);
     } else {
-      throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(value.getClass()));
+      long millisOfDay;
+      if (value instanceof Date) {
+        // local time, as in a Calendar with the default time zone
+        final long millis = ((Date) value).getTime();
+        millisOfDay = DateTimeUtil.floorMod(millis + DateTimeUtil.getDefaultOffset(millis),
+            DateTimeUtil.MILLIS_PER_DAY);
+        fractionalSecs = (int) (millisOfDay % DateTimeUtil.MILLIS_PER_SECOND);
+        if (value instanceof Timestamp) {
+          fractionalSecs = ((Timestamp) value).getNanos();
+          isNano = true;
+        }
+      } else if (value instanceof Long) {
+        millisOfDay = DateTimeUtil.floorMod((Long) value, DateTimeUtil.MILLIS_PER_DAY);
+        fractionalSecs = (int) (millisOfDay % DateTimeUtil.MILLIS_PER_SECOND);
+      } else if (DateTimeUtil.isJavaTimeType(value.getClass()) && JavaTimeConverter.isSupported(value)) {
+        final long nanoOfDay = JavaTimeConverter.getNanoOfDay(value);
+        millisOfDay = nanoOfDay / DateTimeUtil.NANOS_PER_MILLI;
+        fractionalSecs = (int) (nanoOfDay % (DateTimeUtil.MILLIS_PER_SECOND * DateTimeUtil.NANOS_PER_MILLI));
+        isNano = true;
+      } else {
+        throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_TYPE_NOT_SUPPORTED.addContent(value.getClass()));
+      }
+      hours = (int) (millisOfDay / (60 * 60 * DateTimeUtil.MILLIS_PER_SECOND));
+      minutes = (int) (millisOfDay / (60 * DateTimeUtil.MILLIS_PER_SECOND) % 60);
+      seconds = (int) (millisOfDay / DateTimeUtil.MILLIS_PER_SECOND % 60);
     }
 
     StringBuilder result = new StringBuilder(21); // 21 characters are enough for nanosecond precision.
     result.append('P');
     result.append('T');
-    result.append(dateTimeValue.get(Calendar.HOUR_OF_DAY));
+    result.append(hours);
     result.append('H');
-    result.append(dateTimeValue.get(Calendar.MINUTE));
+    result.append(minutes);
     result.append('M');
-    result.append(dateTimeValue.get(Calendar.SECOND));
+    result.append(seconds);
 
-    final int fractionalSecs = value instanceof Timestamp ?
-        ((Timestamp) value).getNanos() :
-        dateTimeValue.get(Calendar.MILLISECOND);
     try {
-      EdmDateTime.appendFractionalSeconds(result, fractionalSecs, value instanceof Timestamp, facets);
+      EdmDateTime.appendFractionalSeconds(result, fractionalSecs, isNano, facets);
     } catch (final IllegalArgumentException e) {
       throw new EdmSimpleTypeException(EdmSimpleTypeException.VALUE_FACETS_NOT_MATCHED.addContent(value, facets), e);
     }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.edm;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Conversions between the date and time types and the <code>java.time</code> classes
+ * {@link Instant}, {@link LocalDateTime}, {@link OffsetDateTime}, {@link ZonedDateTime}, and {@link LocalTime}.
+ * <p>This class is only loaded if a <code>java.time</code> type is used, so the library still runs
+ * on Java runtimes without these classes.</p>
+ */
+final class JavaTimeConverter {
+
+  private JavaTimeConverter() {}
+
+  /**
+   * Checks whether the value is of a supported <code>java.time</code> type.
+   */
+  static boolean isSupported(final Object value) {
+    return value instanceof Instant || value instanceof LocalDateTime || value instanceof OffsetDateTime
+        || value instanceof ZonedDateTime || value instanceof LocalTime;
+  }
+
+  /**
+   * Gets the instant of the value in milliseconds since 1970-01-01T00:00:00Z;
+   * a {@link LocalDateTime} is interpreted as UTC, a {@link LocalTime} as time on 1970-01-01 in UTC.
+   */
+  static long getEpochMillis(final Object value) {
+    return toInstant(value).toEpochMilli();
+  }
+
+  /**
+   * Gets the nanoseconds of the second of the value.
+   */
+  static int getNanos(final Object value) {
+    return toInstant(value).getNano();
+  }
+
+  /**
+   * Gets the offset of the value from UTC in milliseconds
+   * (zero for {@link Instant}, {@link LocalDateTime}, and {@link LocalTime}).
+   */
+  static int getOffsetMillis(final Object value) {
+    if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).getOffset().getTotalSeconds() * 1000;
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).getOffset().getTotalSeconds() * 1000;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Gets the time of day of the value in nanoseconds; date-time values contribute their local time.
+   */
+  static long getNanoOfDay(final Object value) {
+    if (value instanceof LocalTime) {
+      return ((LocalTime) value).toNanoOfDay();
+    } else if (value instanceof LocalDateTime) {
+      return ((LocalDateTime) value).toLocalTime().toNanoOfDay();
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toLocalTime().toNanoOfDay();
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).toLocalTime().toNanoOfDay();
+    } else {
+      return LocalDateTime.ofInstant((Instant) value, ZoneOffset.UTC).toLocalTime().toNanoOfDay();
+    }
+  }
+
+  /**
+   * Creates a value of the requested type.
+   * @param epochMillis milliseconds since 1970-01-01T00:00:00Z
+   * @param nanos nanoseconds of the second (replacing the milliseconds part of <code>epochMillis</code>)
+   * @param offsetMillis offset from UTC in milliseconds for the local fields
+   * @param returnType the requested type
+   * @return the value or <code>null</code> if the type is not supported
+   */
+  static <T> T create(final long epochMillis, final int nanos, final int offsetMillis, final Class<T> returnType) {
+    final Instant instant = Instant.ofEpochSecond(DateTimeUtil.floorDiv(epochMillis, 1000), nanos);
+    final ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetMillis / 1000);
+    if (returnType == Instant.class) {
+      return returnType.cast(instant);
+    } else if (returnType == LocalDateTime.class) {
+      return returnType.cast(LocalDateTime.ofInstant(instant, offset));
+    } else if (returnType == OffsetDateTime.class) {
+      return returnType.cast(OffsetDateTime.ofInstant(instant, offset));
+    } else if (returnType == ZonedDateTime.class) {
+      return returnType.cast(ZonedDateTime.ofInstant(instant, offset));
+    } else if (returnType == LocalTime.class) {
+      return returnType.cast(LocalDateTime.ofInstant(instant, offset).toLocalTime());
+    } else {
+      return null;
+    }
+  }
+
+  private static Instant toInstant(final Object value) {
+    if (value instanceof Instant) {
+      return (Instant) value;
+    } else if (value instanceof LocalDateTime) {
+      return ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toInstant();
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).toInstant();
+    } else {
+      return Instant.ofEpochSecond(0, ((LocalTime) value).toNanoOfDay());
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.edm.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+
+/**
+ * Serialized document (metadata document or service document) which is kept in memory
+ * and served to any number of requests without serializing it again.
+ * The content is immutable; each call of {@link #getContent()} returns a new stream
+ * on the same bytes.
+ */
+public final class CachedDocument {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final byte[] content;
+  private final String eTag;
+
+  private CachedDocument(final byte[] content) {
+    this.content = content;
+    eTag = createETag(content);
+  }
+
+  /**
+   * Reads the given stream completely and closes it.
+   * @param content the serialized document
+   * @return the cached document
+   * @throws EntityProviderException if the stream could not be read
+   */
+  public static CachedDocument create(final InputStream content) throws EntityProviderException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    byte[] chunk = new byte[8192];
+    try {
+      int read;
+      while ((read = content.read(chunk)) >= 0) {
+        buffer.write(chunk, 0, read);
+      }
+    } catch (final IOException e) {
+      throw new EntityProviderException(EntityProviderException.COMMON, e);
+    } finally {
+      try {
+        content.close();
+      } catch (final IOException e) {
+        // ignore, the content has been read completely or an exception is thrown already
+      }
+    }
+    return new CachedDocument(buffer.toByteArray());
+  }
+
+  /**
+   * @return a new stream on the cached bytes
+   */
+  public InputStream getContent() {
+    return new ByteArrayInputStream(content);
+  }
+
+  /**
+   * @return the length of the document in bytes
+   */
+  public int getLength() {
+    return content.length;
+  }
+
+  /**
+   * @return strong entity tag (including the quotes) derived from the content
+   */
+  public String getETag() {
+    return eTag;
+  }
+
+  private static String createETag(final byte[] content) {
+    byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("MD5").digest(content);
+    } catch (final NoSuchAlgorithmException e) {
+      digest = Integer.toHexString(Arrays.hashCode(content)).getBytes();
+    }
+    StringBuilder builder = new StringBuilder(2 * digest.length + 2).append('"');
+    for (final byte b : digest) {
+      builder.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+    }
+    return builder.append('"').toString();
+  }
+}
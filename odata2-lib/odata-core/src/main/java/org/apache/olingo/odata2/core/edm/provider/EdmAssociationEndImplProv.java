@@ -31,7 +31,7 @@ public class EdmAssociationEndImplProv implements EdmAssociationEnd, EdmAnnotata
 
   private EdmImplProv edm;
   private AssociationEnd associationEnd;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmAssociationEndImplProv(final EdmImplProv edm, final AssociationEnd associationEnd) throws EdmException {
     this.edm = edm;
@@ -34,8 +34,8 @@ public class EdmAssociationImplProv extends EdmNamedImplProv implements EdmAssoc
 
   private Association association;
   private String namespace;
-  private EdmAnnotations annotations;
-  private EdmReferentialConstraintImplProv referentialConstraint;
+  private volatile EdmAnnotations annotations;
+  private volatile EdmReferentialConstraintImplProv referentialConstraint;
 
   public EdmAssociationImplProv(final EdmImplProv edm, final Association association, final String namespace)
       throws EdmException {
@@ -33,7 +33,7 @@ public class EdmAssociationSetImplProv extends EdmNamedImplProv implements EdmAs
 
   private AssociationSet associationSet;
   private EdmEntityContainer edmEntityContainer;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmAssociationSetImplProv(final EdmImplProv edm, final AssociationSet associationSet,
       final EdmEntityContainer edmEntityContainer) throws EdmException {
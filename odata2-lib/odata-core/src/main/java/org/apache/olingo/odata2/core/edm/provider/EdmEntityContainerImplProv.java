@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.odata2.api.edm.EdmAnnotatable;
 import org.apache.olingo.odata2.api.edm.EdmAnnotations;
@@ -47,22 +49,22 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnotatable {
 
   private EdmImplProv edm;
-  private List<EntityContainer> entityContainerHierachy;
+  private volatile List<EntityContainer> entityContainerHierachy;
   private EntityContainerInfo entityContainerInfo;
-  private Map<String, EdmEntitySet> edmEntitySets;
-  private Map<String, EdmAssociationSet> edmAssociationSets;
-  private Map<String, EdmFunctionImport> edmFunctionImports;
+  private ConcurrentMap<String, EdmEntitySet> edmEntitySets;
+  private ConcurrentMap<String, EdmAssociationSet> edmAssociationSets;
+  private ConcurrentMap<String, EdmFunctionImport> edmFunctionImports;
   private EdmEntityContainer edmExtendedEntityContainer;
   private boolean isDefaultContainer;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmEntityContainerImplProv(final EdmImplProv edm, final EntityContainerInfo entityContainerInfo)
       throws EdmException {
     this.edm = edm;
     this.entityContainerInfo = entityContainerInfo;
-    edmEntitySets = new HashMap<String, EdmEntitySet>();
-    edmAssociationSets = new HashMap<String, EdmAssociationSet>();
-    edmFunctionImports = new HashMap<String, EdmFunctionImport>();
+    edmEntitySets = new ConcurrentHashMap<String, EdmEntitySet>();
+    edmAssociationSets = new ConcurrentHashMap<String, EdmAssociationSet>();
+    edmFunctionImports = new ConcurrentHashMap<String, EdmFunctionImport>();
     isDefaultContainer = entityContainerInfo.isDefaultEntityContainer();
 
     if (entityContainerInfo.getExtendz() != null) {
@@ -80,8 +82,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
   @Override
   public EdmEntitySet getEntitySet(final String name) throws EdmException {
-    EdmEntitySet edmEntitySet = edmEntitySets.get(name);
-    if (edmEntitySet != null) {
+    EdmEntitySet edmEntitySet = name == null ? null : edmEntitySets.get(name);
+    if (edmEntitySet != null || edm.isFrozen()) {
       return edmEntitySet;
     }
 
@@ -97,7 +99,7 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     } else if (edmExtendedEntityContainer != null) {
       edmEntitySet = edmExtendedEntityContainer.getEntitySet(name);
       if (edmEntitySet != null) {
-        edmEntitySets.put(name, edmEntitySet);
+        edmEntitySet = cache(edmEntitySets, name, edmEntitySet);
       }
     }
 
@@ -106,8 +108,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
   @Override
   public EdmFunctionImport getFunctionImport(final String name) throws EdmException {
-    EdmFunctionImport edmFunctionImport = edmFunctionImports.get(name);
-    if (edmFunctionImport != null) {
+    EdmFunctionImport edmFunctionImport = name == null ? null : edmFunctionImports.get(name);
+    if (edmFunctionImport != null || edm.isFrozen()) {
       return edmFunctionImport;
     }
 
@@ -119,12 +121,11 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     }
 
     if (functionImport != null) {
-      edmFunctionImport = createFunctionImport(functionImport);
-      edmFunctionImports.put(name, edmFunctionImport);
+      edmFunctionImport = cache(edmFunctionImports, name, createFunctionImport(functionImport));
     } else if (edmExtendedEntityContainer != null) {
       edmFunctionImport = edmExtendedEntityContainer.getFunctionImport(name);
       if (edmFunctionImport != null) {
-        edmFunctionImports.put(name, edmFunctionImport);
+        edmFunctionImport = cache(edmFunctionImports, name, edmFunctionImport);
       }
     }
 
@@ -144,6 +145,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     EdmAssociationSet edmAssociationSet = edmAssociationSets.get(key);
     if (edmAssociationSet != null) {
       return edmAssociationSet;
+    } else if (edm.isFrozen()) {
+      throw new EdmException(EdmException.COMMON);
     }
 
     AssociationSet associationSet;
@@ -158,13 +161,10 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     }
 
     if (associationSet != null) {
-      edmAssociationSet = createAssociationSet(associationSet);
-      edmAssociationSets.put(key, edmAssociationSet);
-      return edmAssociationSet;
+      return cache(edmAssociationSets, key, createAssociationSet(associationSet));
     } else if (edmExtendedEntityContainer != null) {
       edmAssociationSet = edmExtendedEntityContainer.getAssociationSet(sourceEntitySet, navigationProperty);
-      edmAssociationSets.put(key, edmAssociationSet);
-      return edmAssociationSet;
+      return edmAssociationSet == null ? null : cache(edmAssociationSets, key, edmAssociationSet);
     } else {
       throw new EdmException(EdmException.COMMON);
     }
@@ -180,8 +180,16 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
    */
   private EdmEntitySet createEntitySet(final EntitySet entitySet) throws EdmException {
     EdmEntitySet edmEntitySet = new EdmEntitySetImplProv(edm, entitySet, this);
-    edmEntitySets.put(entitySet.getName(), edmEntitySet);
-    return edmEntitySet;
+    return entitySet.getName() == null ? edmEntitySet : cache(edmEntitySets, entitySet.getName(), edmEntitySet);
+  }
+
+  /**
+   * Puts the element into the cache unless another thread has been faster;
+   * returns the cached element so that all callers see the same instance.
+   */
+  private static <T> T cache(final ConcurrentMap<String, T> cache, final String name, final T element) {
+    final T existing = cache.putIfAbsent(name, element);
+    return existing == null ? element : existing;
   }
 
   private EdmFunctionImport createFunctionImport(final FunctionImport functionImport) throws EdmException {
@@ -260,18 +268,19 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
       return entityContainerHierachy;
     }
 
-    entityContainerHierachy = new ArrayList<EntityContainer>();
+    List<EntityContainer> hierachy = new ArrayList<EntityContainer>();
     Map<String, EntityContainer> name2Container = getEntityContainerMap();
     String currentName = getName();
     while (currentName != null) {
       EntityContainer currentContainer = name2Container.get(currentName);
-      entityContainerHierachy.add(currentContainer);
+      hierachy.add(currentContainer);
       currentName = currentContainer.getExtendz();
     }
 
-    if (entityContainerHierachy.isEmpty()) {
+    if (hierachy.isEmpty()) {
       throw new EdmException(EdmException.PROVIDERPROBLEM, "No container at all found.");
     }
-    return entityContainerHierachy;
+    entityContainerHierachy = hierachy;
+    return hierachy;
   }
 }
@@ -35,8 +35,8 @@ public class EdmEntitySetImplProv extends EdmNamedImplProv implements EdmEntityS
 
   private EntitySet entitySet;
   private EdmEntityContainer edmEntityContainer;
-  private EdmEntityType edmEntityType;
-  private EdmAnnotationsImplProv annotations;
+  private volatile EdmEntityType edmEntityType;
+  private volatile EdmAnnotationsImplProv annotations;
 
   public EdmEntitySetImplProv(final EdmImplProv edm, final EntitySet entitySet,
       final EdmEntityContainer edmEntityContainer) throws EdmException {
@@ -72,6 +72,13 @@ public class EdmEntitySetImplProv extends EdmNamedImplProv implements EdmEntityS
     return targetEntitySet;
   }
 
+  /**
+   * @return the entity data model this entity set belongs to
+   */
+  public EdmImplProv getEdm() {
+    return edm;
+  }
+
   @Override
   public EdmEntityContainer getEntityContainer() throws EdmException {
     return edmEntityContainer;
@@ -37,12 +37,11 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
 
   private EntityType entityType;
 
-  private Map<String, EdmProperty> keyProperties;
-  private List<EdmProperty> edmKeyProperties;
-  private List<String> edmKeyPropertyNames;
+  private volatile List<EdmProperty> edmKeyProperties;
+  private volatile List<String> edmKeyPropertyNames;
 
   private Map<String, NavigationProperty> navigationProperties;
-  private List<String> edmNavigationPropertyNames;
+  private volatile List<String> edmNavigationPropertyNames;
 
   public EdmEntityTypeImplProv(final EdmImplProv edm, final EntityType entityType, final String namespace)
       throws EdmException {
@@ -69,16 +68,17 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
         return ((EdmEntityType) edmBaseType).getKeyPropertyNames();
       }
 
-      edmKeyPropertyNames = new ArrayList<String>();
+      List<String> keyPropertyNames = new ArrayList<String>();
 
       if (entityType.getKey() != null) {
         for (final PropertyRef keyProperty : entityType.getKey().getKeys()) {
-          edmKeyPropertyNames.add(keyProperty.getName());
+          keyPropertyNames.add(keyProperty.getName());
         }
       } else {
         // Entity Type does not define a key
         throw new EdmException(EdmException.COMMON);
       }
+      edmKeyPropertyNames = keyPropertyNames;
     }
 
     return edmKeyPropertyNames;
@@ -91,20 +91,16 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
         return ((EdmEntityType) edmBaseType).getKeyProperties();
       }
 
-      if (keyProperties == null) {
-        keyProperties = new HashMap<String, EdmProperty>();
-        edmKeyProperties = new ArrayList<EdmProperty>();
-
-        for (String keyPropertyName : getKeyPropertyNames()) {
-          final EdmTyped edmProperty = getProperty(keyPropertyName);
-          if (edmProperty != null && edmProperty instanceof EdmProperty) {
-            keyProperties.put(keyPropertyName, (EdmProperty) edmProperty);
-            edmKeyProperties.add((EdmProperty) edmProperty);
-          } else {
-            throw new EdmException(EdmException.COMMON);
-          }
+      List<EdmProperty> keyProperties = new ArrayList<EdmProperty>();
+      for (String keyPropertyName : getKeyPropertyNames()) {
+        final EdmTyped edmProperty = getProperty(keyPropertyName);
+        if (edmProperty != null && edmProperty instanceof EdmProperty) {
+          keyProperties.add((EdmProperty) edmProperty);
+        } else {
+          throw new EdmException(EdmException.COMMON);
         }
       }
+      edmKeyProperties = keyProperties;
     }
 
     return edmKeyProperties;
@@ -123,15 +119,16 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
   @Override
   public List<String> getNavigationPropertyNames() throws EdmException {
     if (edmNavigationPropertyNames == null) {
-      edmNavigationPropertyNames = new ArrayList<String>();
+      List<String> navigationPropertyNames = new ArrayList<String>();
       if (edmBaseType != null) {
-        edmNavigationPropertyNames.addAll(((EdmEntityType) edmBaseType).getNavigationPropertyNames());
+        navigationPropertyNames.addAll(((EdmEntityType) edmBaseType).getNavigationPropertyNames());
       }
       if (entityType.getNavigationProperties() != null) {
         for (final NavigationProperty navigationProperty : entityType.getNavigationProperties()) {
-          edmNavigationPropertyNames.add(navigationProperty.getName());
+          navigationPropertyNames.add(navigationProperty.getName());
         }
       }
+      edmNavigationPropertyNames = navigationPropertyNames;
     }
     return edmNavigationPropertyNames;
   }
@@ -150,12 +147,11 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
     }
 
     if (navigationProperties.containsKey(name)) {
-      edmProperty = createNavigationProperty(navigationProperties.get(name));
-      edmProperties.put(name, edmProperty);
+      edmProperty = cacheProperty(name, createNavigationProperty(navigationProperties.get(name)));
     } else if (edmBaseType != null) {
       edmProperty = edmBaseType.getProperty(name);
       if (edmProperty != null) {
-        edmProperties.put(name, edmProperty);
+        edmProperty = cacheProperty(name, edmProperty);
       }
     }
 
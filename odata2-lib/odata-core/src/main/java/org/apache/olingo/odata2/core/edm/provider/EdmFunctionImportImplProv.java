@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *  
@@ -46,9 +47,9 @@ public class EdmFunctionImportImplProv extends EdmNamedImplProv implements EdmFu
   private EdmEntityContainer edmEntityContainer;
   private Map<String, EdmParameter> edmParameters;
   private Map<String, FunctionImportParameter> parameters;
-  private List<String> parametersList;
-  private EdmAnnotations annotations;
-  private EdmTyped edmReturnType;
+  private volatile List<String> parametersList;
+  private volatile EdmAnnotations annotations;
+  private volatile EdmTyped edmReturnType;
 
   public EdmFunctionImportImplProv(final EdmImplProv edm, final FunctionImport functionImport,
       final EdmEntityContainer edmEntityContainer) throws EdmException {
@@ -58,7 +59,7 @@ public class EdmFunctionImportImplProv extends EdmNamedImplProv implements EdmFu
 
     buildFunctionImportParametersInternal();
 
-    edmParameters = new HashMap<String, EdmParameter>();
+    edmParameters = new ConcurrentHashMap<String, EdmParameter>();
   }
 
   private void buildFunctionImportParametersInternal() {
@@ -74,10 +75,8 @@ public class EdmFunctionImportImplProv extends EdmNamedImplProv implements EdmFu
 
   @Override
   public EdmParameter getParameter(final String name) throws EdmException {
-    EdmParameter parameter = null;
-    if (edmParameters.containsKey(name)) {
-      parameter = edmParameters.get(name);
-    } else {
+    EdmParameter parameter = name == null ? null : edmParameters.get(name);
+    if (parameter == null) {
       parameter = createParameter(name);
     }
 
@@ -97,14 +96,15 @@ public class EdmFunctionImportImplProv extends EdmNamedImplProv implements EdmFu
   @Override
   public List<String> getParameterNames() throws EdmException {
     if (parametersList == null) {
-      parametersList = new ArrayList<String>();
+      List<String> parameterNames = new ArrayList<String>();
 
       List<FunctionImportParameter> functionImportParameters = functionImport.getParameters();
       if(functionImportParameters != null) {
         for (FunctionImportParameter parameter : functionImportParameters) {
-          parametersList.add(parameter.getName());
+          parameterNames.add(parameter.getName());
         }
       }
+      parametersList = parameterNames;
     }
 
     return parametersList;
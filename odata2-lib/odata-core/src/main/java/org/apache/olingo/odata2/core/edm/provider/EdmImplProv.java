@@ -19,16 +19,22 @@
 package org.apache.olingo.odata2.core.edm.provider;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.olingo.odata2.api.edm.EdmAnnotatable;
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
 import org.apache.olingo.odata2.api.edm.EdmComplexType;
 import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmStructuralType;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.AliasInfo;
 import org.apache.olingo.odata2.api.edm.provider.Association;
@@ -44,16 +50,128 @@ import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.core.edm.EdmImpl;
 
+/**
+ * Entity data model based on an {@link EdmProvider}.
+ * <p>Elements are requested from the EDM provider when they are used for the first time.
+ * With {@link #warmUp()} the complete model is built at once and frozen afterwards;
+ * such an instance is immutable and can be shared by all requests and threads.</p>
+ */
 public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
 
   protected EdmProvider edmProvider;
-  private List<Schema> schemas;
+  private volatile List<Schema> schemas;
+  private volatile long warmUpTime = -1;
 
   public EdmImplProv(final EdmProvider edmProvider) {
     super(new EdmServiceMetadataImplProv(edmProvider));
     this.edmProvider = edmProvider;
   }
 
+  /**
+   * Builds the complete entity data model by walking through all schemas of the EDM provider,
+   * serializes the metadata document, and freezes the model.
+   * @return this entity data model
+   * @throws ODataException if the EDM provider fails or the model is inconsistent
+   */
+  public EdmImplProv warmUp() throws ODataException {
+    final long start = System.nanoTime();
+    schemas = edmProvider.getSchemas();
+    for (final Schema schema : listOrEmptyList(schemas)) {
+      final String namespace = schema.getNamespace();
+      for (final EntityType entityType : listOrEmptyList(schema.getEntityTypes())) {
+        warmUp(getEntityType(namespace, entityType.getName()));
+      }
+      for (final ComplexType complexType : listOrEmptyList(schema.getComplexTypes())) {
+        warmUp(getComplexType(namespace, complexType.getName()));
+      }
+      for (final Association association : listOrEmptyList(schema.getAssociations())) {
+        final EdmAssociation edmAssociation = getAssociation(namespace, association.getName());
+        if (edmAssociation != null) {
+          edmAssociation.getReferentialConstraint();
+          ((EdmAnnotatable) edmAssociation).getAnnotations();
+        }
+      }
+      for (final EntityContainer entityContainer : listOrEmptyList(schema.getEntityContainers())) {
+        warmUp(getEntityContainer(entityContainer.getName()), entityContainer);
+      }
+    }
+    getDefaultEntityContainer();
+    getEntitySets();
+    getFunctionImports();
+    final EdmServiceMetadataImplProv serviceMetadata = (EdmServiceMetadataImplProv) getServiceMetadata();
+    serviceMetadata.getEntitySetInfos();
+    serviceMetadata.getDataServiceVersion();
+    serviceMetadata.getMetadataETag();
+    freeze();
+    warmUpTime = (System.nanoTime() - start) / 1000000;
+    return this;
+  }
+
+  /**
+   * @return the time in milliseconds needed by {@link #warmUp()},
+   * or <code>-1</code> if this entity data model has not been warmed up
+   */
+  public long getWarmUpTime() {
+    return warmUpTime;
+  }
+
+  private void warmUp(final EdmStructuralType type) throws EdmException {
+    if (type == null) {
+      return;
+    }
+    for (final String propertyName : type.getPropertyNames()) {
+      final EdmTyped property = type.getProperty(propertyName);
+      property.getType();
+      ((EdmAnnotatable) property).getAnnotations();
+    }
+    ((EdmAnnotatable) type).getAnnotations();
+    if (type instanceof EdmEntityType) {
+      final EdmEntityType entityType = (EdmEntityType) type;
+      entityType.getKeyPropertyNames();
+      entityType.getKeyProperties();
+      for (final String navigationPropertyName : entityType.getNavigationPropertyNames()) {
+        final EdmNavigationProperty navigationProperty =
+            (EdmNavigationProperty) entityType.getProperty(navigationPropertyName);
+        navigationProperty.getRelationship();
+        navigationProperty.getMultiplicity();
+        ((EdmAnnotatable) navigationProperty).getAnnotations();
+      }
+    }
+  }
+
+  private void warmUp(final EdmEntityContainer entityContainer, final EntityContainer container)
+      throws EdmException {
+    if (entityContainer == null) {
+      return;
+    }
+    ((EdmAnnotatable) entityContainer).getAnnotations();
+    for (final EdmEntitySet entitySet : entityContainer.getEntitySets()) {
+      final EdmEntityType entityType = entitySet.getEntityType();
+      ((EdmAnnotatable) entitySet).getAnnotations();
+      for (final String navigationPropertyName : entityType.getNavigationPropertyNames()) {
+        try {
+          entitySet.getRelatedEntitySet((EdmNavigationProperty) entityType.getProperty(navigationPropertyName));
+        } catch (final EdmException e) {
+          // no association set for this navigation property; it would fail later in the same way
+        }
+      }
+    }
+    for (final FunctionImport containedFunctionImport : listOrEmptyList(container.getFunctionImports())) {
+      final EdmFunctionImport functionImport = entityContainer.getFunctionImport(containedFunctionImport.getName());
+      if (functionImport == null) {
+        continue;
+      }
+      functionImport.getReturnType();
+      for (final String parameterName : functionImport.getParameterNames()) {
+        functionImport.getParameter(parameterName).getType();
+      }
+    }
+  }
+
+  private static <T> List<T> listOrEmptyList(final List<T> list) {
+    return list == null ? Collections.<T> emptyList() : list;
+  }
+
   @Override
   protected EdmEntityContainer createEntityContainer(final String name) throws ODataException {
     EntityContainerInfo enitityContainerInfo = edmProvider.getEntityContainerInfo(name);
@@ -103,9 +221,9 @@ public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
       schemas = edmProvider.getSchemas();
     }
     for (Schema schema : schemas) {
-      for (EntityContainer entityContainer : schema.getEntityContainers()) {
-        for (EntitySet entitySet : entityContainer.getEntitySets()) {
-          EdmEntityContainer edmEntityContainer = createEntityContainer(entityContainer.getName());
+      for (EntityContainer entityContainer : listOrEmptyList(schema.getEntityContainers())) {
+        for (EntitySet entitySet : listOrEmptyList(entityContainer.getEntitySets())) {
+          EdmEntityContainer edmEntityContainer = getEntityContainer(entityContainer.getName());
           edmEntitySets.add(new EdmEntitySetImplProv(this, entitySet, edmEntityContainer));
         }
       }
@@ -120,9 +238,9 @@ public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
       schemas = edmProvider.getSchemas();
     }
     for (Schema schema : schemas) {
-      for (EntityContainer entityContainer : schema.getEntityContainers()) {
-        for (FunctionImport functionImport : entityContainer.getFunctionImports()) {
-          EdmEntityContainer edmEntityContainer = createEntityContainer(entityContainer.getName());
+      for (EntityContainer entityContainer : listOrEmptyList(schema.getEntityContainers())) {
+        for (FunctionImport functionImport : listOrEmptyList(entityContainer.getFunctionImports())) {
+          EdmEntityContainer edmEntityContainer = getEntityContainer(entityContainer.getName());
           edmFunctionImports.add(new EdmFunctionImportImplProv(this, functionImport, edmEntityContainer));
         }
       }
@@ -32,7 +32,7 @@ import org.apache.olingo.odata2.api.edm.provider.NavigationProperty;
 public class EdmNavigationPropertyImplProv extends EdmTypedImplProv implements EdmNavigationProperty, EdmAnnotatable {
 
   private NavigationProperty navigationProperty;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmNavigationPropertyImplProv(final EdmImplProv edm, final NavigationProperty property) throws EdmException {
     super(edm, property.getName(), null, null);
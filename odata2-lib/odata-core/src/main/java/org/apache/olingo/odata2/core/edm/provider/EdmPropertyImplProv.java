@@ -29,7 +29,7 @@ import org.apache.olingo.odata2.api.edm.provider.Property;
 public abstract class EdmPropertyImplProv extends EdmElementImplProv implements EdmProperty, EdmAnnotatable {
 
   private Property property;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmPropertyImplProv(final EdmImplProv edm, final FullQualifiedName propertyName, final Property property)
       throws EdmException {
@@ -28,7 +28,7 @@ import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraintRole;
 
 public class EdmReferentialConstraintImplProv implements EdmReferentialConstraint, EdmAnnotatable {
   private ReferentialConstraint referentialConstraint;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmReferentialConstraintImplProv(final ReferentialConstraint referentialConstraint) throws EdmException {
     this.referentialConstraint = referentialConstraint;
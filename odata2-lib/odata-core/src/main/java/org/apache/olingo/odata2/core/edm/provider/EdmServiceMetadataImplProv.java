@@ -25,6 +25,10 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -41,20 +45,35 @@ import org.apache.olingo.odata2.api.edm.provider.Property;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
 import org.apache.olingo.odata2.core.ep.producer.XmlMetadataProducer;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 
 /**
- *  
+ * Service metadata based on an {@link EdmProvider}.
+ * <p>The serialized metadata document and the serialized service documents are cached;
+ * they are built again only if the {@link EdmProvider#getModelVersion() model version}
+ * of the EDM provider changes.</p>
+ * <p>The cached documents are shared by all instances whose EDM providers return the same schemas,
+ * so services which create a new EDM provider for each request on a shared model, e.g., the JPA
+ * processor with EDM caching, serialize the documents and compute their entity tags only once.</p>
  */
 public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
 
   private static final String EDM_PROVIDER_EXEPTION = "EdmProvider is not set.";
+  /** Maximum number of cached service documents (per content type and service root). */
+  private static final int MAX_SERVICE_DOCUMENTS = 16;
+  /** Cached documents per schema list; the entries are removed once the schemas are no longer used. */
+  private static final Map<List<Schema>, Documents> SHARED_DOCUMENTS =
+      new WeakHashMap<List<Schema>, Documents>();
+
   private EdmProvider edmProvider;
-  private String dataServiceVersion;
-  private List<Schema> schemas;
-  private List<EdmEntitySetInfo> entitySetInfos;
+  private volatile String dataServiceVersion;
+  private volatile List<Schema> schemas;
+  private volatile List<EdmEntitySetInfo> entitySetInfos;
+  private volatile Object modelVersion;
+  private volatile Documents documents;
 
   public EdmServiceMetadataImplProv(final EdmProvider edmProvider) {
     this.edmProvider = edmProvider;
@@ -62,9 +81,110 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
 
   @Override
   public InputStream getMetadata() throws ODataException {
-    if(edmProvider == null){
-       throw new ODataException(EDM_PROVIDER_EXEPTION);
+    return getCachedMetadata().getContent();
+  }
+
+  @Override
+  public String getMetadataETag() throws ODataException {
+    return getCachedMetadata().getETag();
+  }
+
+  private CachedDocument getCachedMetadata() throws ODataException {
+    if (edmProvider == null) {
+      throw new ODataException(EDM_PROVIDER_EXEPTION);
+    }
+    checkModelVersion();
+    final Documents cache = getDocuments();
+    CachedDocument document = cache.metadata;
+    if (document == null) {
+      document = CachedDocument.create(writeMetadata());
+      cache.metadata = document;
+    }
+    return document;
+  }
+
+  /**
+   * Returns the cached service document for the given key.
+   * @param key identifies the content type and the service root of the service document
+   * @return a new response with the cached service document and the headers of the original response,
+   * or <code>null</code>
+   * @throws ODataException
+   */
+  public ODataResponse getServiceDocument(final String key) throws ODataException {
+    if (edmProvider == null) {
+      throw new ODataException(EDM_PROVIDER_EXEPTION);
     }
+    checkModelVersion();
+    final ServiceDocument serviceDocument = getDocuments().serviceDocuments.get(key);
+    return serviceDocument == null ? null : serviceDocument.createResponse();
+  }
+
+  /**
+   * Caches the serialized service document for the given key.
+   * @param key identifies the content type and the service root of the service document
+   * @param response the response with the serialized service document; the entity stream is read completely
+   * @return a new response with the cached service document and the headers of the original response
+   * @throws ODataException
+   */
+  public ODataResponse putServiceDocument(final String key, final ODataResponse response) throws ODataException {
+    final ServiceDocument serviceDocument = new ServiceDocument(
+        ODataResponse.fromResponse(response).entity(null).build(),
+        CachedDocument.create((InputStream) response.getEntity()));
+    final ConcurrentMap<String, ServiceDocument> serviceDocuments = getDocuments().serviceDocuments;
+    if (serviceDocuments.size() < MAX_SERVICE_DOCUMENTS) {
+      serviceDocuments.putIfAbsent(key, serviceDocument);
+    }
+    return serviceDocument.createResponse();
+  }
+
+  /**
+   * Drops all cached information if the model version of the EDM provider has changed.
+   */
+  private void checkModelVersion() throws ODataException {
+    final Object currentVersion = edmProvider.getModelVersion();
+    final Object cachedVersion = modelVersion;
+    if (currentVersion == null ? cachedVersion != null : !currentVersion.equals(cachedVersion)) {
+      synchronized (this) {
+        if (currentVersion == null ? modelVersion != null : !currentVersion.equals(modelVersion)) {
+          schemas = null;
+          dataServiceVersion = null;
+          entitySetInfos = null;
+          documents = null;
+          modelVersion = currentVersion;
+        }
+      }
+    }
+  }
+
+  private Documents getDocuments() throws ODataException {
+    Documents current = documents;
+    if (current == null) {
+      if (schemas == null) {
+        schemas = edmProvider.getSchemas();
+      }
+      final List<Schema> currentSchemas = schemas;
+      final Object currentVersion = modelVersion;
+      if (currentSchemas == null) {
+        current = new Documents(currentVersion);
+      } else {
+        synchronized (SHARED_DOCUMENTS) {
+          current = SHARED_DOCUMENTS.get(currentSchemas);
+          if (current == null || !equals(current.modelVersion, currentVersion)) {
+            current = new Documents(currentVersion);
+            SHARED_DOCUMENTS.put(currentSchemas, current);
+          }
+        }
+      }
+      documents = current;
+    }
+    return current;
+  }
+
+  private static boolean equals(final Object first, final Object second) {
+    return first == null ? second == null : first.equals(second);
+  }
+
+  private InputStream writeMetadata() throws ODataException {
     if (schemas == null) {
       schemas = edmProvider.getSchemas();
     }
@@ -104,31 +224,33 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
     if(edmProvider == null){
       throw new ODataException(EDM_PROVIDER_EXEPTION);
    }
+    checkModelVersion();
     if (schemas == null) {
       schemas = edmProvider.getSchemas();
     }
 
     if (dataServiceVersion == null) {
-      dataServiceVersion = ODataServiceVersion.V10;
-
-      for (Schema schema : listOrEmptyList(schemas)) {
-        List<EntityType> entityTypes = listOrEmptyList(schema.getEntityTypes());
-        for (EntityType entityType : entityTypes) {
-          List<Property> properties = listOrEmptyList(entityType.getProperties());
-          for (Property property : properties) {
-            if (property.getCustomizableFeedMappings() != null) {
-              if (property.getCustomizableFeedMappings().getFcKeepInContent() != null) {
-                if (!property.getCustomizableFeedMappings().getFcKeepInContent()) {
-                  dataServiceVersion = ODataServiceVersion.V20;
-                  return dataServiceVersion;
-                }
+      dataServiceVersion = determineDataServiceVersion(schemas);
+    }
+    return dataServiceVersion;
+  }
+
+  private String determineDataServiceVersion(final List<Schema> schemas) {
+    for (Schema schema : listOrEmptyList(schemas)) {
+      List<EntityType> entityTypes = listOrEmptyList(schema.getEntityTypes());
+      for (EntityType entityType : entityTypes) {
+        List<Property> properties = listOrEmptyList(entityType.getProperties());
+        for (Property property : properties) {
+          if (property.getCustomizableFeedMappings() != null) {
+            if (property.getCustomizableFeedMappings().getFcKeepInContent() != null) {
+              if (!property.getCustomizableFeedMappings().getFcKeepInContent()) {
+                return ODataServiceVersion.V20;
               }
-              if (entityType.getCustomizableFeedMappings() != null) {
-                if (entityType.getCustomizableFeedMappings().getFcKeepInContent() != null) {
-                  if (entityType.getCustomizableFeedMappings().getFcKeepInContent()) {
-                    dataServiceVersion = ODataServiceVersion.V20;
-                    return dataServiceVersion;
-                  }
+            }
+            if (entityType.getCustomizableFeedMappings() != null) {
+              if (entityType.getCustomizableFeedMappings().getFcKeepInContent() != null) {
+                if (entityType.getCustomizableFeedMappings().getFcKeepInContent()) {
+                  return ODataServiceVersion.V20;
                 }
               }
             }
@@ -136,7 +258,7 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
         }
       }
     }
-    return dataServiceVersion;
+    return ODataServiceVersion.V10;
   }
 
   @Override
@@ -144,8 +266,9 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
     if(edmProvider == null){
       throw new ODataException(EDM_PROVIDER_EXEPTION);
    }
+    checkModelVersion();
     if (entitySetInfos == null) {
-      entitySetInfos = new ArrayList<EdmEntitySetInfo>();
+      List<EdmEntitySetInfo> infos = new ArrayList<EdmEntitySetInfo>();
 
       if (schemas == null) {
         schemas = edmProvider.getSchemas();
@@ -155,10 +278,11 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
         for (EntityContainer entityContainer : listOrEmptyList(schema.getEntityContainers())) {
           for (EntitySet entitySet : listOrEmptyList(entityContainer.getEntitySets())) {
             EdmEntitySetInfo entitySetInfo = new EdmEntitySetInfoImplProv(entitySet, entityContainer);
-            entitySetInfos.add(entitySetInfo);
+            infos.add(entitySetInfo);
           }
         }
       }
+      entitySetInfos = infos;
 
     }
 
@@ -178,4 +302,31 @@ public class EdmServiceMetadataImplProv implements EdmServiceMetadata {
     }
     return list;
   }
+
+  /** Serialized documents of one model; the documents must not refer to the schemas. */
+  private static final class Documents {
+    private final Object modelVersion;
+    private volatile CachedDocument metadata;
+    private final ConcurrentMap<String, ServiceDocument> serviceDocuments =
+        new ConcurrentHashMap<String, ServiceDocument>();
+
+    private Documents(final Object modelVersion) {
+      this.modelVersion = modelVersion;
+    }
+  }
+
+  /** Serialized service document together with the status and the headers of the original response. */
+  private static final class ServiceDocument {
+    private final ODataResponse template;
+    private final CachedDocument document;
+
+    private ServiceDocument(final ODataResponse template, final CachedDocument document) {
+      this.template = template;
+      this.document = document;
+    }
+
+    private ODataResponse createResponse() {
+      return ODataResponse.fromResponse(template).entity(document.getContent()).eTag(document.getETag()).build();
+    }
+  }
 }
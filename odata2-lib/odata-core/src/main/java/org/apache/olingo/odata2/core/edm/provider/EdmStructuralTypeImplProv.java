@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmAnnotatable;
@@ -46,10 +48,10 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
   protected ComplexType structuralType;
   private EdmTypeKind edmTypeKind;
   protected String namespace;
-  protected Map<String, EdmTyped> edmProperties;
+  protected ConcurrentMap<String, EdmTyped> edmProperties;
   private Map<String, Property> properties;
-  private List<String> edmPropertyNames;
-  private EdmAnnotations annotations;
+  private volatile List<String> edmPropertyNames;
+  private volatile EdmAnnotations annotations;
 
   public EdmStructuralTypeImplProv(final EdmImplProv edm, final ComplexType structuralType,
       final EdmTypeKind edmTypeKind, final String namespace) throws EdmException {
@@ -62,7 +64,7 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
 
     buildPropertiesInternal();
 
-    edmProperties = new HashMap<String, EdmTyped>();
+    edmProperties = new ConcurrentHashMap<String, EdmTyped>();
   }
 
   private void resolveBaseType() throws EdmException {
@@ -96,7 +98,7 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
 
   @Override
   public EdmTyped getProperty(final String name) throws EdmException {
-    EdmTyped property = edmProperties.get(name);
+    EdmTyped property = name == null ? null : edmProperties.get(name);
     if (property == null) {
       property = getPropertyInternal(name);
       if (property == null && edmBaseType != null) {
@@ -143,18 +145,29 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
     EdmTyped edmProperty = null;
 
     if (properties.containsKey(name)) {
-      edmProperty = createProperty(properties.get(name));
-      edmProperties.put(name, edmProperty);
+      edmProperty = cacheProperty(name, createProperty(properties.get(name)));
     } else if (edmBaseType != null) {
       edmProperty = edmBaseType.getProperty(name);
       if (edmProperty != null) {
-        edmProperties.put(name, edmProperty);
+        edmProperty = cacheProperty(name, edmProperty);
       }
     }
 
     return edmProperty;
   }
 
+  /**
+   * Caches the property; if another thread has cached a property with the same name
+   * in the meantime, that property is returned so that all callers see the same instance.
+   */
+  protected EdmTyped cacheProperty(final String name, final EdmTyped edmProperty) {
+    if (name == null) {
+      return edmProperty;
+    }
+    final EdmTyped existing = edmProperties.putIfAbsent(name, edmProperty);
+    return existing == null ? edmProperty : existing;
+  }
+
   protected EdmTyped createProperty(final Property property) throws EdmException {
     if (property instanceof SimpleProperty) {
       return new EdmSimplePropertyImplProv(edm, (SimpleProperty) property);
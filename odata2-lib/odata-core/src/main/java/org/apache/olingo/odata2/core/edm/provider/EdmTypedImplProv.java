@@ -32,7 +32,7 @@ import org.apache.olingo.odata2.core.edm.EdmSimpleTypeFacadeImpl;
  */
 public class EdmTypedImplProv extends EdmNamedImplProv implements EdmTyped {
 
-  protected EdmType edmType;
+  protected volatile EdmType edmType;
   private FullQualifiedName typeName;
   private EdmMultiplicity multiplicity;
 
@@ -18,9 +18,12 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -42,7 +45,9 @@ import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
@@ -66,6 +71,7 @@ import org.apache.olingo.odata2.core.ep.producer.XmlLinkEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlLinksEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlPropertyEntityProducer;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
+import org.apache.olingo.odata2.core.ep.util.StreamingFeedInputStream;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 /**
@@ -172,7 +178,7 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       csb.closeWrite();
 
-      ODataResponseBuilder response = ODataResponse.entity(csb.getInputStream())
+      ODataResponseBuilder response = ODataResponse.entity(csb.getStreamingInputStream())
           .eTag(as.getETag())
           .idLiteral(as.getLocation());
       return response.build();
@@ -206,7 +212,7 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       csb.closeWrite();
 
-      return ODataResponse.entity(csb.getInputStream()).build();
+      return ODataResponse.entity(csb.getStreamingInputStream()).build();
     } catch (EntityProviderException e) {
       csb.close();
       throw e;
@@ -234,7 +240,7 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       csb.closeWrite();
 
-      ODataResponse response = ODataResponse.entity(csb.getInputStream()).build();
+      ODataResponse response = ODataResponse.entity(csb.getStreamingInputStream()).build();
       return response;
     } catch (EntityProviderException e) {
       csb.close();
@@ -246,6 +252,18 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
     }
   }
 
+  @Override
+  public ODataResponse writeFeed(final EdmEntitySet entitySet, final Iterator<Map<String, Object>> data,
+      final EntityProviderWriteProperties properties) throws EntityProviderException {
+    try {
+      EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+      return ODataResponse.entity(new AtomFeedInputStream(eia, data, properties)).build();
+    } catch (XMLStreamException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   @Override
   public ODataResponse writeLink(final EdmEntitySet entitySet, final Map<String, Object> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -358,6 +376,13 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
     return readDeltaFeed(entitySet, content, properties);
   }
 
+  @Override
+  public FeedMetadata readFeed(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties, final OnReadFeedEntry entryHandler)
+      throws EntityProviderException {
+    return new XmlEntityConsumer().readFeed(entitySet, content, properties, entryHandler).getFeedMetadata();
+  }
+
   @Override
   public ODataDeltaFeed readDeltaFeed(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
@@ -420,4 +445,53 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
       throw new EntityProviderException(e.getMessageReference(), e);
     }
   }
+
+  /**
+   * Serializes a feed entry by entry while it is read.
+   */
+  private static class AtomFeedInputStream extends StreamingFeedInputStream {
+
+    private final EntityInfoAggregator eia;
+    private final Iterator<Map<String, Object>> data;
+    private final AtomFeedProducer producer;
+    private final XMLStreamWriter writer;
+    private boolean started = false;
+
+    public AtomFeedInputStream(final EntityInfoAggregator eia, final Iterator<Map<String, Object>> data,
+        final EntityProviderWriteProperties properties) throws EntityProviderException, XMLStreamException {
+      this.eia = eia;
+      this.data = data;
+      producer = new AtomFeedProducer(properties);
+      writer = XmlHelper.getXMLOutputFactory().createXMLStreamWriter(getOutputStream(), DEFAULT_CHARSET);
+    }
+
+    @Override
+    protected boolean writeNextChunk() throws EntityProviderException, IOException {
+      boolean hasNext = true;
+      try {
+        if (!started) {
+          writer.writeStartDocument(DEFAULT_CHARSET, XML_VERSION);
+          producer.appendFeedStart(writer, eia, false);
+          started = true;
+        } else if (data.hasNext()) {
+          producer.appendEntry(writer, eia, data.next());
+        } else {
+          producer.appendFeedEnd(writer, eia, false);
+          hasNext = false;
+        }
+        writer.flush();
+      } catch (XMLStreamException e) {
+        throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+            .getSimpleName()), e);
+      }
+      return hasNext;
+    }
+
+    @Override
+    protected void release() throws IOException {
+      if (data instanceof Closeable) {
+        ((Closeable) data).close();
+      }
+    }
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -31,7 +32,9 @@ import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
@@ -48,6 +51,9 @@ public interface ContentTypeBasedEntityProvider {
   ODataFeed readFeed(EdmEntitySet entitySet, InputStream content, EntityProviderReadProperties properties)
       throws EntityProviderException;
 
+  FeedMetadata readFeed(EdmEntitySet entitySet, InputStream content, EntityProviderReadProperties properties,
+      OnReadFeedEntry entryHandler) throws EntityProviderException;
+
   ODataEntry readEntry(EdmEntitySet entitySet, InputStream content, EntityProviderReadProperties properties)
       throws EntityProviderException;
 
@@ -64,6 +70,9 @@ public interface ContentTypeBasedEntityProvider {
   ODataResponse writeFeed(EdmEntitySet entitySet, List<Map<String, Object>> data,
       EntityProviderWriteProperties properties) throws EntityProviderException;
 
+  ODataResponse writeFeed(EdmEntitySet entitySet, Iterator<Map<String, Object>> data,
+      EntityProviderWriteProperties properties) throws EntityProviderException;
+
   ODataResponse writeEntry(EdmEntitySet entitySet, Map<String, Object> data, EntityProviderWriteProperties properties)
       throws EntityProviderException;
 
@@ -19,9 +19,13 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -40,7 +44,9 @@ import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
@@ -61,6 +67,7 @@ import org.apache.olingo.odata2.core.ep.producer.JsonLinksEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonPropertyEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonServiceDocumentProducer;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
+import org.apache.olingo.odata2.core.ep.util.StreamingFeedInputStream;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 /**
@@ -143,7 +150,7 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       buffer.closeWrite();
 
-      return ODataResponse.entity(buffer.getInputStream())
+      return ODataResponse.entity(buffer.getStreamingInputStream())
           .eTag(producer.getETag())
           .idLiteral(producer.getLocation())
           .build();
@@ -173,7 +180,7 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       buffer.closeWrite();
 
-      return ODataResponse.entity(buffer.getInputStream())
+      return ODataResponse.entity(buffer.getStreamingInputStream())
           .header(ODataHttpHeaders.DATASERVICEVERSION, ODataServiceVersion.V10)
           .build();
     } catch (EntityProviderException e) {
@@ -198,7 +205,7 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
       writer.flush();
       buffer.closeWrite();
 
-      return ODataResponse.entity(buffer.getInputStream()).build();
+      return ODataResponse.entity(buffer.getStreamingInputStream()).build();
     } catch (EntityProviderException e) {
       buffer.close();
       throw e;
@@ -209,6 +216,21 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
     }
   }
 
+  @Override
+  public ODataResponse writeFeed(final EdmEntitySet entitySet, final Iterator<Map<String, Object>> data,
+      final EntityProviderWriteProperties properties) throws EntityProviderException {
+    final EntityInfoAggregator entityInfo = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+
+    try {
+      return ODataResponse.entity(new JsonFeedInputStream(entityInfo, data, properties)).build();
+    } catch (EntityProviderException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   @Override
   public ODataResponse writeLink(final EdmEntitySet entitySet, final Map<String, Object> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -309,6 +331,13 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
     return new JsonEntityConsumer().readFeed(entitySet, content, properties);
   }
 
+  @Override
+  public FeedMetadata readFeed(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties, final OnReadFeedEntry entryHandler)
+      throws EntityProviderException {
+    return new JsonEntityConsumer().readFeed(entitySet, content, properties, entryHandler).getFeedMetadata();
+  }
+
   @Override
   public ODataEntry readEntry(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
@@ -366,4 +395,49 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
   public ODataErrorContext readErrorDocument(final InputStream errorDocument) throws EntityProviderException {
     return new JsonErrorDocumentConsumer().readError(errorDocument);
   }
+
+  /**
+   * Serializes a feed entry by entry while it is read.
+   */
+  private static class JsonFeedInputStream extends StreamingFeedInputStream {
+
+    private final EntityInfoAggregator entityInfo;
+    private final Iterator<Map<String, Object>> data;
+    private final JsonFeedEntityProducer producer;
+    private final Writer writer;
+    private boolean started = false;
+    private boolean hasEntries = false;
+
+    public JsonFeedInputStream(final EntityInfoAggregator entityInfo, final Iterator<Map<String, Object>> data,
+        final EntityProviderWriteProperties properties) throws EntityProviderException, IOException {
+      this.entityInfo = entityInfo;
+      this.data = data;
+      producer = new JsonFeedEntityProducer(properties);
+      writer = new BufferedWriter(new OutputStreamWriter(getOutputStream(), DEFAULT_CHARSET));
+    }
+
+    @Override
+    protected boolean writeNextChunk() throws EntityProviderException, IOException {
+      boolean hasNext = true;
+      if (!started) {
+        producer.appendFeedStart(writer, true);
+        started = true;
+      } else if (data.hasNext()) {
+        producer.appendEntry(writer, entityInfo, data.next(), !hasEntries);
+        hasEntries = true;
+      } else {
+        producer.appendFeedEnd(writer, entityInfo, hasEntries, true);
+        hasNext = false;
+      }
+      writer.flush();
+      return hasNext;
+    }
+
+    @Override
+    protected void release() throws IOException {
+      if (data instanceof Closeable) {
+        ((Closeable) data).close();
+      }
+    }
+  }
 }
@@ -19,11 +19,13 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
@@ -39,9 +41,12 @@ import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataNotAcceptableException;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -51,6 +56,7 @@ import org.apache.olingo.odata2.core.batch.BatchResponseWriter;
 import org.apache.olingo.odata2.core.batch.v2.BatchParser;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
+import org.apache.olingo.odata2.core.edm.provider.EdmServiceMetadataImplProv;
 import org.apache.olingo.odata2.core.edm.provider.EdmxProvider;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
@@ -97,6 +103,27 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
   @Override
   public ODataResponse writeServiceDocument(final String contentType, final Edm edm, final String serviceRoot)
       throws EntityProviderException {
+    if (edm != null && edm.getServiceMetadata() instanceof EdmServiceMetadataImplProv) {
+      // The service document depends only on the model, the content type, and the service root,
+      // so it is serialized only once and then served from the cache.
+      final EdmServiceMetadataImplProv serviceMetadata = (EdmServiceMetadataImplProv) edm.getServiceMetadata();
+      final String key = contentType + ' ' + serviceRoot;
+      try {
+        final ODataResponse cached = serviceMetadata.getServiceDocument(key);
+        if (cached != null) {
+          return cached;
+        }
+        final ODataResponse response = create(contentType).writeServiceDocument(edm, serviceRoot);
+        if (!(response.getEntity() instanceof InputStream)) {
+          return response;
+        }
+        return serviceMetadata.putServiceDocument(key, response);
+      } catch (final EntityProviderException e) {
+        throw e;
+      } catch (final ODataException e) {
+        throw new EntityProviderException(EntityProviderException.COMMON, e);
+      }
+    }
     return create(contentType).writeServiceDocument(edm, serviceRoot);
   }
 
@@ -123,6 +150,13 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return create(contentType).writeFeed(entitySet, data, properties);
   }
 
+  @Override
+  public ODataResponse writeFeed(final String contentType, final EdmEntitySet entitySet,
+      final Iterator<Map<String, Object>> data, final EntityProviderWriteProperties properties)
+      throws EntityProviderException {
+    return create(contentType).writeFeed(entitySet, data, properties);
+  }
+
   @Override
   public ODataResponse writeEntry(final String contentType, final EdmEntitySet entitySet,
       final Map<String, Object> data, final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -166,6 +200,13 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return create(contentType).readFeed(entitySet, content, properties);
   }
 
+  @Override
+  public FeedMetadata readFeed(final String contentType, final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties, final OnReadFeedEntry entryHandler)
+      throws EntityProviderException {
+    return create(contentType).readFeed(entitySet, content, properties, entryHandler);
+  }
+
   @Override
   public ODataDeltaFeed readDeltaFeed(final String contentType, final EdmEntitySet entitySet,
       final InputStream content,
@@ -246,6 +287,12 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return batchParts;
   }
 
+  @Override
+  public BatchRequestPartIterator parseBatchRequestIncrementally(final String contentType, final InputStream content,
+      final EntityProviderBatchProperties properties) throws BatchException {
+    return new BatchParser(contentType, properties, properties.isStrict()).parseBatchRequestIncrementally(content);
+  }
+
   @Override
   public ODataResponse writeBatchResponse(final List<BatchResponsePart> batchResponseParts) throws BatchException {
     BatchResponseWriter batchWriter = new BatchResponseWriter();
@@ -44,6 +44,7 @@ import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.core.edm.provider.EdmEntitySetImplProv;
 
 /**
  * Aggregator to get easy and fast access to all for serialization and de-serialization necessary {@link EdmEntitySet}
@@ -69,7 +70,7 @@ public class EntityInfoAggregator {
 
   private Map<String, EntityPropertyInfo> propertyInfo = new HashMap<String, EntityPropertyInfo>();
   private Map<String, NavigationPropertyInfo> navigationPropertyInfos = new HashMap<String, NavigationPropertyInfo>();
-  private List<EntityPropertyInfo> keyPropertyInfos;
+  private volatile List<EntityPropertyInfo> keyPropertyInfos;
 
   /*
    * list with all property names in the order based on order in {@link EdmProperty} (normally [key, entity,
@@ -113,6 +114,25 @@ public class EntityInfoAggregator {
    */
   public static EntityInfoAggregator create(final EdmEntitySet entitySet, final ExpandSelectTreeNode expandSelectTree)
       throws EntityProviderException {
+    final EntityInfoAggregatorCache cache = getCache(entitySet);
+    return cache == null ? createUncached(entitySet, expandSelectTree) : cache.get(entitySet, expandSelectTree);
+  }
+
+  /**
+   * Returns the {@link EntityInfoAggregatorCache} of the entity data model the given entity set belongs to
+   * or <code>null</code> if the entity set is not part of a model which caches {@link EntityInfoAggregator}s.
+   */
+  private static EntityInfoAggregatorCache getCache(final EdmEntitySet entitySet) {
+    return entitySet instanceof EdmEntitySetImplProv ?
+        ((EdmEntitySetImplProv) entitySet).getEdm().getEntityInfoAggregatorCache() : null;
+  }
+
+  /**
+   * Create an {@link EntityInfoAggregator} based on given {@link EdmEntitySet} without consulting the
+   * {@link EntityInfoAggregatorCache}.
+   */
+  static EntityInfoAggregator createUncached(final EdmEntitySet entitySet,
+      final ExpandSelectTreeNode expandSelectTree) throws EntityProviderException {
     EntityInfoAggregator eia = new EntityInfoAggregator();
     eia.initialize(entitySet, expandSelectTree);
     return eia;
@@ -134,9 +154,7 @@ public class EntityInfoAggregator {
    * of {@link EdmEntitySet}).
    */
   public static EntityInfoAggregator create(final EdmEntitySet entitySet) throws EntityProviderException {
-    EntityInfoAggregator eia = new EntityInfoAggregator();
-    eia.initialize(entitySet, null);
-    return eia;
+    return create(entitySet, null);
   }
 
   /**
@@ -300,10 +318,12 @@ public class EntityInfoAggregator {
 
     if (keyPropertyInfos == null) {
       try {
-        keyPropertyInfos = new ArrayList<EntityPropertyInfo>();
+        // instances are shared over threads (see EntityInfoAggregatorCache) so publish only the complete list
+        List<EntityPropertyInfo> infos = new ArrayList<EntityPropertyInfo>();
         for (String keyPropertyName : entityType.getKeyPropertyNames()) {
-          keyPropertyInfos.add(propertyInfo.get(keyPropertyName));
+          infos.add(propertyInfo.get(keyPropertyName));
         }
+        keyPropertyInfos = Collections.unmodifiableList(infos);
       } catch (EdmException e) {
         throw new EntityProviderException(EntityProviderException.COMMON, e);
       }
@@ -467,6 +487,6 @@ public class EntityInfoAggregator {
   }
 
   public List<String> getExpandedNavigationPropertyNames() {
-    return expandedNavigationPropertyNames;
+    return Collections.unmodifiableList(expandedNavigationPropertyNames);
   }
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.aggregator;
+
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.core.commons.LruCache;
+
+/**
+ * Bounded, thread-safe least-recently-used cache for {@link EntityInfoAggregator} instances.
+ * <p>An entry is keyed by the {@link EdmEntitySet} instance and the canonical form of the
+ * <code>$select</code>/<code>$expand</code> information of an {@link ExpandSelectTreeNode}
+ * (which is the only part of the tree an {@link EntityInfoAggregator} depends on).
+ * Each entity data model owns its own cache (see {@link org.apache.olingo.odata2.core.edm.EdmImpl}),
+ * so cached entries never outlive the model they were created for.
+ * Requests hit the cache if they share the same entity data model instance;
+ * with a new model per request the cache still serves repeated inline expansions.</p>
+ */
+public final class EntityInfoAggregatorCache {
+
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final LruCache<CacheKey, EntityInfoAggregator> cache;
+
+  public EntityInfoAggregatorCache(final int maxSize) {
+    cache = new LruCache<CacheKey, EntityInfoAggregator>(maxSize);
+  }
+
+  /**
+   * Returns the cached {@link EntityInfoAggregator} for the given entity set and expand/select tree
+   * or creates (and caches) a new one.
+   * @param entitySet the entity set
+   * @param expandSelectTree the expand/select tree (may be <code>null</code>)
+   * @return the {@link EntityInfoAggregator}
+   * @throws EntityProviderException if creation of the {@link EntityInfoAggregator} fails
+   */
+  public EntityInfoAggregator get(final EdmEntitySet entitySet, final ExpandSelectTreeNode expandSelectTree)
+      throws EntityProviderException {
+    if (entitySet == null || cache.getMaxSize() <= 0) {
+      return EntityInfoAggregator.createUncached(entitySet, expandSelectTree);
+    }
+
+    final CacheKey key = new CacheKey(entitySet, getCanonicalForm(expandSelectTree));
+    EntityInfoAggregator eia = cache.get(key);
+    if (eia == null) {
+      eia = EntityInfoAggregator.createUncached(entitySet, expandSelectTree);
+      cache.put(key, eia);
+    }
+    return eia;
+  }
+
+  /**
+   * Sets the maximum number of cached entries; a value of <code>0</code> disables caching.
+   * @param maxSize maximum number of cached entries
+   */
+  public void setMaxSize(final int maxSize) {
+    cache.setMaxSize(maxSize);
+  }
+
+  public int getMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  /**
+   * Removes all cached entries and resets the hit and miss counters.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * Creates the canonical form of the top level of an expand/select tree, e.g.
+   * <code>"Id,Name|nav1+,nav2-"</code> for selected properties and selected navigation properties
+   * (with "+" for expanded and "-" for deferred links) or <code>"*|nav1+"</code> if all properties are selected.
+   */
+  private static String getCanonicalForm(final ExpandSelectTreeNode expandSelectTree)
+      throws EntityProviderException {
+    if (expandSelectTree == null) {
+      return "";
+    }
+    StringBuilder canonical = new StringBuilder();
+    if (expandSelectTree.isAll()) {
+      canonical.append('*');
+    } else {
+      try {
+        for (EdmProperty property : expandSelectTree.getProperties()) {
+          canonical.append(property.getName()).append(',');
+        }
+      } catch (EdmException e) {
+        throw new EntityProviderException(EntityProviderException.COMMON, e);
+      }
+    }
+    canonical.append('|');
+    for (Map.Entry<String, ExpandSelectTreeNode> link : expandSelectTree.getLinks().entrySet()) {
+      canonical.append(link.getKey()).append(link.getValue() == null ? '-' : '+').append(',');
+    }
+    return canonical.toString();
+  }
+
+  private static final class CacheKey {
+    private final EdmEntitySet entitySet;
+    private final String expandSelect;
+
+    CacheKey(final EdmEntitySet entitySet, final String expandSelect) {
+      this.entitySet = entitySet;
+      this.expandSelect = expandSelect;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(entitySet) + expandSelect.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return entitySet == other.entitySet && expandSelect.equals(other.expandSelect);
+    }
+  }
+}
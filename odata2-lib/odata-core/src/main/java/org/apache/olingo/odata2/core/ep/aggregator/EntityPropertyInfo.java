@@ -24,6 +24,7 @@ import org.apache.olingo.odata2.api.edm.EdmFacets;
 import org.apache.olingo.odata2.api.edm.EdmMapping;
 import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
 
 /**
  * Collects informations about a property of an entity.
@@ -36,6 +37,7 @@ public class EntityPropertyInfo {
   private final EdmCustomizableFeedMappings customMapping;
   private final String mimeType;
   private final EdmMapping mapping;
+  private String jsonName;
 
   EntityPropertyInfo(final String name, final EdmType type, final EdmFacets facets,
       final EdmCustomizableFeedMappings customizableFeedMapping, final String mimeType, final EdmMapping mapping) {
@@ -69,6 +71,17 @@ public class EntityPropertyInfo {
     return name;
   }
 
+  /**
+   * Returns the name of the property prepared for {@link JsonStreamWriter#quotedName(String)}.
+   * @return the quoted name
+   */
+  public String getJsonName() {
+    if (jsonName == null) {
+      jsonName = JsonStreamWriter.quoteName(name);
+    }
+    return jsonName;
+  }
+
   public EdmType getType() {
     return type;
   }
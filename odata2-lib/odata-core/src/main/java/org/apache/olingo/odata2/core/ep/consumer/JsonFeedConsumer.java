@@ -25,10 +25,12 @@ import java.util.List;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
 import org.apache.olingo.odata2.core.ep.feed.JsonFeedEntry;
@@ -46,6 +48,7 @@ public class JsonFeedConsumer {
   private JsonReader reader;
   private EntityInfoAggregator eia;
   private EntityProviderReadProperties readProperties;
+  private OnReadFeedEntry entryHandler;
   private List<DeletedEntryMetadata> deletedEntries = new ArrayList<DeletedEntryMetadata>();
   private List<ODataEntry> entries = new ArrayList<ODataEntry>();
   private FeedMetadataImpl feedMetadata = new FeedMetadataImpl();
@@ -58,6 +61,16 @@ public class JsonFeedConsumer {
     this.readProperties = readProperties;
   }
 
+  /**
+   * Creates a consumer which hands the entries of the feed to the given handler
+   * instead of collecting them.
+   */
+  public JsonFeedConsumer(final JsonReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties, final OnReadFeedEntry entryHandler) {
+    this(reader, eia, readProperties);
+    this.entryHandler = entryHandler;
+  }
+
   public ODataDeltaFeed readFeedStandalone() throws EntityProviderException {
     try {
       readFeed();
@@ -152,7 +165,11 @@ public class JsonFeedConsumer {
     while (reader.hasNext()) {
       final JsonFeedEntry entry = new JsonEntryConsumer(reader, eia, readProperties).readFeedEntry();
       if (entry.isODataEntry()) {
-        entries.add(entry.getODataEntry());
+        if (entryHandler == null) {
+          entries.add(entry.getODataEntry());
+        } else {
+          handleEntry(entry.getODataEntry());
+        }
       } else {
         deletedEntries.add(entry.getDeletedEntryMetadata());
       }
@@ -160,6 +177,15 @@ public class JsonFeedConsumer {
     reader.endArray();
   }
 
+  private void handleEntry(final ODataEntry entry) throws EntityProviderException {
+    try {
+      entryHandler.handleReadEntry(entry);
+    } catch (final ODataApplicationException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   protected static void readInlineCount(final JsonReader reader, final FeedMetadataImpl feedMetadata)
       throws IOException, EntityProviderException {
     if (reader.peek() == JsonToken.STRING && feedMetadata.getInlineCount() == null) {
@@ -33,9 +33,11 @@ import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.core.edm.EdmDateTimeOffset;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.entry.DeletedEntryMetadataImpl;
@@ -64,6 +66,21 @@ public class XmlFeedConsumer {
    */
   public ODataDeltaFeed readFeed(final XMLStreamReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties) throws EntityProviderException {
+    return readFeed(reader, eia, readProperties, null);
+  }
+
+  /**
+   * 
+   * @param reader
+   * @param eia
+   * @param readProperties
+   * @param entryHandler if not <code>null</code>, receives each read entry instead of the result
+   * @return {@link ODataDeltaFeed} object
+   * @throws EntityProviderException
+   */
+  public ODataDeltaFeed readFeed(final XMLStreamReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties, final OnReadFeedEntry entryHandler)
+      throws EntityProviderException {
     try {
       // read xml tag
       reader.require(XMLStreamConstants.START_DOCUMENT, null, null);
@@ -78,7 +95,7 @@ public class XmlFeedConsumer {
           EntityProviderReadProperties.initFrom(readProperties).addValidatedPrefixes(foundPrefix2NamespaceUri).build();
 
       // read feed data (metadata and entries)
-      return readFeedData(reader, eia, entryReadProperties);
+      return readFeedData(reader, eia, entryReadProperties, entryHandler);
     } catch (XMLStreamException e) {
       throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
           .getSimpleName()), e);
@@ -92,13 +109,15 @@ public class XmlFeedConsumer {
    * @param reader xml stream reader with xml content to be read
    * @param eia entity infos for validation and mapping
    * @param entryReadProperties properties which are used for read of feed.
+   * @param entryHandler if not <code>null</code>, receives each read entry instead of the result
    * @return all feed specific data (like <code>inline count</code> and <code>next link</code>) as well as all feed
    * entries (<code>entry</code>).
    * @throws XMLStreamException if malformed xml is read in stream
    * @throws EntityProviderException if xml contains invalid data (based on odata specification and edm definition)
    */
   private ODataDeltaFeed readFeedData(final XMLStreamReader reader, final EntityInfoAggregator eia,
-      final EntityProviderReadProperties entryReadProperties) throws XMLStreamException, EntityProviderException {
+      final EntityProviderReadProperties entryReadProperties, final OnReadFeedEntry entryHandler)
+      throws XMLStreamException, EntityProviderException {
     FeedMetadataImpl metadata = new FeedMetadataImpl();
     XmlEntryConsumer xec = new XmlEntryConsumer();
     List<ODataEntry> results = new ArrayList<ODataEntry>();
@@ -107,7 +126,16 @@ public class XmlFeedConsumer {
     while (reader.hasNext() && !isFeedEndTag(reader)) {
       if (FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
         ODataEntry entry = xec.readEntry(reader, eia, entryReadProperties, true);
-        results.add(entry);
+        if (entryHandler == null) {
+          results.add(entry);
+        } else {
+          try {
+            entryHandler.handleReadEntry(entry);
+          } catch (final ODataApplicationException e) {
+            throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+                .getSimpleName()), e);
+          }
+        }
       } else if (FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY.equals(reader.getLocalName())) {
         reader.require(XMLStreamConstants.START_ELEMENT, FormatXml.ATOM_TOMBSTONE_NAMESPACE,
             FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY);
@@ -48,6 +48,7 @@ import org.apache.olingo.odata2.core.ep.util.FormatXml;
 public class AtomFeedProducer {
 
   private final EntityProviderWriteProperties properties;
+  private AtomEntryEntityProducer entryProducer;
 
   public AtomFeedProducer(final EntityProviderWriteProperties properties) {
     this.properties = properties == null ? EntityProviderWriteProperties.serviceRoot(null).build() : properties;
@@ -55,15 +56,28 @@ public class AtomFeedProducer {
 
   public void append(final XMLStreamWriter writer, final EntityInfoAggregator eia,
       final List<Map<String, Object>> data, final boolean isInline) throws EntityProviderException {
+    appendFeedStart(writer, eia, isInline);
+    appendEntries(writer, eia, data);
+    appendFeedEnd(writer, eia, isInline);
+  }
+
+  /**
+   * Writes the start of the feed element with all feed-level ATOM information.
+   * Together with {@link #appendEntry} and {@link #appendFeedEnd} this allows to write a feed entry by entry.
+   * @param writer the writer
+   * @param eia the entity info of the feed
+   * @param isInline whether the feed is written inline
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendFeedStart(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
     try {
       writer.writeStartElement(FormatXml.ATOM_FEED);
-      TombstoneCallback callback = null;
       if (!isInline) {
         writer.writeDefaultNamespace(Edm.NAMESPACE_ATOM_2005);
         writer.writeNamespace(Edm.PREFIX_M, Edm.NAMESPACE_M_2007_08);
         writer.writeNamespace(Edm.PREFIX_D, Edm.NAMESPACE_D_2007_08);
-        callback = getTombstoneCallback();
-        if (callback != null) {
+        if (getTombstoneCallback() != null) {
           writer.writeNamespace(TombstoneCallback.PREFIX_TOMBSTONE, TombstoneCallback.NAMESPACE_TOMBSTONE);
         }
       }
@@ -76,9 +90,37 @@ public class AtomFeedProducer {
       if (properties.getInlineCountType() == InlineCount.ALLPAGES) {
         appendInlineCount(writer, properties.getInlineCount());
       }
+    } catch (XMLStreamException e) {
+      throw new EntityProviderProducerException(EntityProviderException.COMMON, e);
+    }
+  }
 
-      appendEntries(writer, eia, data);
+  /**
+   * Writes a single entry of the feed.
+   * @param writer the writer
+   * @param eia the entity info of the feed
+   * @param singleEntryData the data of the entry
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendEntry(final XMLStreamWriter writer, final EntityInfoAggregator eia,
+      final Map<String, Object> singleEntryData) throws EntityProviderException {
+    if (entryProducer == null) {
+      entryProducer = new AtomEntryEntityProducer(properties);
+    }
+    entryProducer.append(writer, eia, singleEntryData, false, true);
+  }
 
+  /**
+   * Writes the end of the feed element including deleted entries and the next link.
+   * @param writer the writer
+   * @param eia the entity info of the feed
+   * @param isInline whether the feed is written inline
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendFeedEnd(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
+    try {
+      TombstoneCallback callback = isInline ? null : getTombstoneCallback();
       if (callback != null) {
         appendDeletedEntries(writer, eia, callback);
       }
@@ -139,9 +181,8 @@ public class AtomFeedProducer {
 
   private void appendEntries(final XMLStreamWriter writer, final EntityInfoAggregator eia,
       final List<Map<String, Object>> data) throws EntityProviderException {
-    AtomEntryEntityProducer entryProvider = new AtomEntryEntityProducer(properties);
     for (Map<String, Object> singleEntryData : data) {
-      entryProvider.append(writer, eia, singleEntryData, false, true);
+      appendEntry(writer, eia, singleEntryData);
     }
   }
 
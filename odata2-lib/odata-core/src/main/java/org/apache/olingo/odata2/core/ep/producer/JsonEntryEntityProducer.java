@@ -47,6 +47,7 @@ import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.commons.Encoder;
 import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
 import org.apache.olingo.odata2.core.ep.util.FormatJson;
 import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
 
@@ -252,10 +253,11 @@ public class JsonEntryEntityProducer {
     } else {
       jsonStreamWriter.separator();
     }
-    jsonStreamWriter.name(propertyName);
- 
+    final EntityPropertyInfo propertyInfo = entityInfo.getPropertyInfo(propertyName);
+    jsonStreamWriter.quotedName(propertyInfo.getJsonName());
+
     JsonPropertyEntityProducer.appendPropertyValue(jsonStreamWriter,
-        entityInfo.getPropertyInfo(propertyName),
+        propertyInfo,
         data.get(propertyName),
         properties.isValidatingFacets(), properties.isDataBasedPropertySerialization());
     return omitComma;
@@ -40,6 +40,7 @@ import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
 public class JsonFeedEntityProducer {
 
   private final EntityProviderWriteProperties properties;
+  private JsonEntryEntityProducer entryProducer;
 
   public JsonFeedEntityProducer(final EntityProviderWriteProperties properties) throws EntityProviderException {
     this.properties = properties == null ? EntityProviderWriteProperties.serviceRoot(null).build() : properties;
@@ -48,10 +49,20 @@ public class JsonFeedEntityProducer {
   public void appendAsObject(final Writer writer, final EntityInfoAggregator entityInfo,
                              final List<Map<String, Object>> data,
                              final boolean isRootElement) throws EntityProviderException {
-    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
-
-    TombstoneCallback callback = getTombstoneCallback();
+    appendFeedStart(writer, isRootElement);
+    appendEntries(writer, entityInfo, data);
+    appendFeedEnd(writer, entityInfo, !data.isEmpty(), isRootElement);
+  }
 
+  /**
+   * Writes the beginning of the feed object up to (and including) the opening bracket of the results array.
+   * Together with {@link #appendEntry} and {@link #appendFeedEnd} this allows to write a feed entry by entry.
+   * @param writer the writer
+   * @param isRootElement whether the feed is the root element
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendFeedStart(final Writer writer, final boolean isRootElement) throws EntityProviderException {
+    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
     try {
       if (properties.getCallback() != null && isRootElement) {
         jsonStreamWriter.unquotedValue(properties.getCallback());
@@ -77,11 +88,54 @@ public class JsonFeedEntityProducer {
 
       jsonStreamWriter.name(FormatJson.RESULTS)
           .beginArray();
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
+  /**
+   * Writes a single entry of the results array.
+   * @param writer the writer
+   * @param entityInfo the entity info of the feed
+   * @param entryData the data of the entry
+   * @param isFirst whether this is the first entry of the feed
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendEntry(final Writer writer, final EntityInfoAggregator entityInfo,
+                          final Map<String, Object> entryData, final boolean isFirst) throws EntityProviderException {
+    try {
+      if (!isFirst) {
+        new JsonStreamWriter(writer).separator();
+      }
+      if (entryProducer == null) {
+        entryProducer = new JsonEntryEntityProducer(properties);
+      }
+      entryProducer.append(writer, entityInfo, entryData, false);
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
 
-      appendEntries(writer, entityInfo, data, jsonStreamWriter);
+  /**
+   * Writes the end of the feed object, starting with deleted entries (if any), the closing bracket of the
+   * results array and the next and delta links.
+   * @param writer the writer
+   * @param entityInfo the entity info of the feed
+   * @param hasEntries whether at least one entry has been written
+   * @param isRootElement whether the feed is the root element
+   * @throws EntityProviderException if writing fails
+   */
+  public void appendFeedEnd(final Writer writer, final EntityInfoAggregator entityInfo, final boolean hasEntries,
+                            final boolean isRootElement) throws EntityProviderException {
+    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
+
+    TombstoneCallback callback = getTombstoneCallback();
 
+    try {
       if (callback != null) {
-        appendDeletedEntries(writer, entityInfo, data, callback);
+        appendDeletedEntries(writer, entityInfo, hasEntries, callback);
       }
 
       jsonStreamWriter.endArray();
@@ -142,7 +196,7 @@ public class JsonFeedEntityProducer {
     JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
     try {
       jsonStreamWriter.beginArray();
-      appendEntries(writer, entityInfo, data, jsonStreamWriter);
+      appendEntries(writer, entityInfo, data);
       jsonStreamWriter.endArray();
     } catch (final IOException e) {
       throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
@@ -151,27 +205,21 @@ public class JsonFeedEntityProducer {
   }
 
   private void appendDeletedEntries(final Writer writer, final EntityInfoAggregator entityInfo,
-                                    final List<Map<String, Object>> data, TombstoneCallback callback) throws EntityProviderException {
+                                    final boolean hasEntries, TombstoneCallback callback) throws EntityProviderException {
     JsonDeletedEntryEntityProducer deletedEntryProducer = new JsonDeletedEntryEntityProducer(properties);
     TombstoneCallbackResult callbackResult = callback.getTombstoneCallbackResult();
     List<Map<String, Object>> deletedEntries = callbackResult.getDeletedEntriesData();
     if (deletedEntries != null) {
-      deletedEntryProducer.append(writer, entityInfo, deletedEntries, data.isEmpty());
+      deletedEntryProducer.append(writer, entityInfo, deletedEntries, !hasEntries);
     }
   }
 
   private void appendEntries(final Writer writer, final EntityInfoAggregator entityInfo,
-                             final List<Map<String, Object>> data, JsonStreamWriter jsonStreamWriter) throws EntityProviderException,
-      IOException {
-    JsonEntryEntityProducer entryProducer = new JsonEntryEntityProducer(properties);
+                             final List<Map<String, Object>> data) throws EntityProviderException {
     boolean first = true;
     for (final Map<String, Object> entryData : data) {
-      if (first) {
-        first = false;
-      } else {
-        jsonStreamWriter.separator();
-      }
-      entryProducer.append(writer, entityInfo, entryData, false);
+      appendEntry(writer, entityInfo, entryData, first);
+      first = false;
     }
   }
 
@@ -20,6 +20,7 @@ package org.apache.olingo.odata2.core.ep.producer;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.math.BigDecimal;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.edm.Edm;
@@ -32,6 +33,11 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.core.edm.EdmAuto;
+import org.apache.olingo.odata2.core.edm.EdmBoolean;
+import org.apache.olingo.odata2.core.edm.EdmDecimal;
+import org.apache.olingo.odata2.core.edm.EdmDouble;
+import org.apache.olingo.odata2.core.edm.EdmInt32;
+import org.apache.olingo.odata2.core.edm.EdmInt64;
 import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityComplexPropertyInfo;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
@@ -54,7 +60,7 @@ public class JsonPropertyEntityProducer {
           .name(FormatJson.D)
           .beginObject();
 
-      jsonStreamWriter.name(propertyInfo.getName());
+      jsonStreamWriter.quotedName(propertyInfo.getJsonName());
       appendPropertyValue(jsonStreamWriter, propertyInfo.isComplex() ? (EntityComplexPropertyInfo) propertyInfo
           : propertyInfo, value, true, false);
 
@@ -88,7 +94,7 @@ public class JsonPropertyEntityProducer {
             continue;
           } 
           jsonStreamWriter.separator();
-          jsonStreamWriter.name(name);
+          jsonStreamWriter.quotedName(childPropertyInfo.getJsonName());
           appendPropertyValue(jsonStreamWriter, childPropertyInfo,
               value == null ? null : ((Map<?, ?>) value).get(name), validatingFacets, isDataBasedPropertySerialization);
         }
@@ -104,6 +110,9 @@ public class JsonPropertyEntityProducer {
       }
       final Object contentValue = value instanceof Map ? ((Map<?, ?>) value).get(propertyInfo.getName()) : value;
       final EdmFacets facets = validatingFacets ? propertyInfo.getFacets(): null;
+      if (contentValue != null && appendPrimitiveValue(jsonStreamWriter, type, contentValue, facets)) {
+        return;
+      }
       String valueAsString = null;
       try {
       valueAsString = type.valueToString(contentValue, EdmLiteralKind.JSON, facets);
@@ -141,6 +150,41 @@ public class JsonPropertyEntityProducer {
     }
   }
 
+  /**
+   * Writes values of the common numeric and boolean types directly, without creating
+   * their String representation with {@link EdmSimpleType#valueToString(Object, EdmLiteralKind, EdmFacets)}.
+   * The output is the same; values needing a conversion or check are left to the type.
+   * @return whether the value has been written
+   */
+  private static boolean appendPrimitiveValue(final JsonStreamWriter jsonStreamWriter, final EdmSimpleType type,
+      final Object value, final EdmFacets facets) throws IOException {
+    final boolean isInteger = value instanceof Integer || value instanceof Short || value instanceof Byte;
+    if (type instanceof EdmBoolean) {
+      if (value instanceof Boolean) {
+        jsonStreamWriter.booleanValue((Boolean) value);
+        return true;
+      }
+    } else if (type instanceof EdmInt32 || type instanceof EdmInt64 || type instanceof EdmDouble) {
+      if (isInteger || value instanceof Long && type instanceof EdmInt64) {
+        jsonStreamWriter.numberValue(((Number) value).longValue());
+        return true;
+      } else if (value instanceof Double && type instanceof EdmDouble && !((Double) value).isInfinite()) {
+        jsonStreamWriter.numberValue(((Double) value).doubleValue());
+        return true;
+      }
+    } else if (type instanceof EdmDecimal
+        && (facets == null || facets.getPrecision() == null && facets.getScale() == null)) {
+      if (isInteger || value instanceof Long) {
+        jsonStreamWriter.numberValue(((Number) value).longValue());
+        return true;
+      } else if (value instanceof BigDecimal) {
+        jsonStreamWriter.unquotedValue(((BigDecimal) value).toPlainString());
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected static void appendPropertyMetadata(final JsonStreamWriter jsonStreamWriter, final EdmType type)
       throws IOException, EdmException {
     jsonStreamWriter.name(FormatJson.METADATA)
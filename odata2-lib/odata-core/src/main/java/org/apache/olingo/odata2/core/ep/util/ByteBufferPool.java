@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe pool of the {@link ByteBuffer} chunks used by {@link CircleStreamBuffer}.
+ * <p>Only buffers with a capacity of {@link #MIN_CAPACITY} times a power of two up to {@link #MAX_CAPACITY}
+ * are pooled; these are the sizes a {@link CircleStreamBuffer} with default initial capacity allocates.
+ * A buffer is returned to the pool as soon as it has been read completely or its stream has been closed;
+ * buffers of streams which are never read up to the end or closed are simply garbage-collected.
+ * The pool holds at most {@link #getMaxPooledBytes()} bytes; further returned buffers are discarded.</p>
+ */
+public final class ByteBufferPool {
+
+  public static final int MIN_CAPACITY = 8192;
+  public static final int MAX_CAPACITY = MIN_CAPACITY * 32;
+  public static final long DEFAULT_MAX_POOLED_BYTES = 8L * 1024 * 1024;
+
+  private static final ByteBufferPool INSTANCE = new ByteBufferPool(DEFAULT_MAX_POOLED_BYTES);
+
+  private final Queue<ByteBuffer>[] queues;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong discards = new AtomicLong();
+  private volatile long maxPooledBytes;
+
+  @SuppressWarnings("unchecked")
+  ByteBufferPool(final long maxPooledBytes) {
+    this.maxPooledBytes = maxPooledBytes;
+    queues = new Queue[getSizeClass(MAX_CAPACITY) + 1];
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+    }
+  }
+
+  /**
+   * @return the process-wide pool instance
+   */
+  public static ByteBufferPool getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns an empty buffer with the given capacity, taken from the pool if possible.
+   * @param capacity the capacity of the buffer
+   * @return the buffer
+   */
+  public ByteBuffer acquire(final int capacity) {
+    final int sizeClass = getSizeClass(capacity);
+    if (sizeClass >= 0) {
+      final ByteBuffer buffer = queues[sizeClass].poll();
+      if (buffer != null) {
+        pooledBytes.addAndGet(-capacity);
+        hits.incrementAndGet();
+        // cast for compatibility of the byte code with Java versions before 9
+        ((Buffer) buffer).clear();
+        return buffer;
+      }
+      misses.incrementAndGet();
+    }
+    return ByteBuffer.allocate(capacity);
+  }
+
+  /**
+   * Returns a buffer to the pool. The caller must not use the buffer afterwards.
+   * @param buffer the buffer
+   */
+  public void release(final ByteBuffer buffer) {
+    final int capacity = buffer.capacity();
+    final int sizeClass = getSizeClass(capacity);
+    if (sizeClass < 0 || !buffer.hasArray()) {
+      return;
+    }
+    long current;
+    do {
+      current = pooledBytes.get();
+      if (current + capacity > maxPooledBytes) {
+        discards.incrementAndGet();
+        return;
+      }
+    } while (!pooledBytes.compareAndSet(current, current + capacity));
+    queues[sizeClass].offer(buffer);
+  }
+
+  /**
+   * Sets the maximum number of bytes held by the pool; a value of <code>0</code> disables pooling.
+   * @param maxPooledBytes the maximum number of pooled bytes
+   */
+  public void setMaxPooledBytes(final long maxPooledBytes) {
+    this.maxPooledBytes = maxPooledBytes;
+    if (pooledBytes.get() > maxPooledBytes) {
+      clear();
+    }
+  }
+
+  public long getMaxPooledBytes() {
+    return maxPooledBytes;
+  }
+
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  /**
+   * @return the number of buffers taken from the pool
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of poolable buffers which had to be allocated
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return the number of returned buffers which were discarded because the pool was full
+   */
+  public long getDiscardCount() {
+    return discards.get();
+  }
+
+  /**
+   * Removes all pooled buffers and resets the counters.
+   */
+  public void clear() {
+    for (final Queue<ByteBuffer> queue : queues) {
+      ByteBuffer buffer = queue.poll();
+      while (buffer != null) {
+        pooledBytes.addAndGet(-buffer.capacity());
+        buffer = queue.poll();
+      }
+    }
+    hits.set(0);
+    misses.set(0);
+    discards.set(0);
+  }
+
+  /**
+   * @return the index of the pool for buffers with the given capacity or <code>-1</code>
+   * if such buffers are not pooled
+   */
+  private static int getSizeClass(final int capacity) {
+    if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY || capacity % MIN_CAPACITY != 0) {
+      return -1;
+    }
+    final int multiple = capacity / MIN_CAPACITY;
+    return (multiple & (multiple - 1)) == 0 ? Integer.numberOfTrailingZeros(multiple) : -1;
+  }
+}
@@ -21,21 +21,23 @@ package org.apache.olingo.odata2.core.ep.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
+
 /**
  * Circular stream buffer to write/read into/from one single buffer.
  * With support of {@link InputStream} and {@link OutputStream} access to buffered data.
+ * <p>The internal buffers are taken from and returned to the {@link ByteBufferPool}.</p>
  */
 public class CircleStreamBuffer {
 
   private static final int NEW_BUFFER_RESIZE_FACTOR = 2;
   private static final int READ_EOF = -1;
-  private static final int DEFAULT_CAPACITY = 8192;
-  private static final int MAX_CAPACITY = DEFAULT_CAPACITY * 32;
+  private static final int DEFAULT_CAPACITY = ByteBufferPool.MIN_CAPACITY;
+  private static final int MAX_CAPACITY = ByteBufferPool.MAX_CAPACITY;
 
   private int currentAllocateCapacity = DEFAULT_CAPACITY;
 
@@ -48,24 +50,6 @@ public class CircleStreamBuffer {
 
   private InternalInputStream inStream;
   private InternalOutputStream outStream;
-  private static Method clearMethod;
-
-  static {
-
-    for (Method m : ByteBuffer.class.getMethods()) {
-      if (m.getName().equalsIgnoreCase("clear")) {
-        clearMethod = m;
-      }
-    }
-
-    if (clearMethod == null) {
-      for (Method m : ByteBuffer.class.getDeclaredMethods()) {
-        if (m.getName().equalsIgnoreCase("clear")) {
-          clearMethod = m;
-        }
-      }
-    }
-  }
 
   /**
    * Creates a {@link CircleStreamBuffer} with default buffer size.
@@ -95,6 +79,17 @@ public class CircleStreamBuffer {
     return inStream;
   }
 
+  /**
+   * Get {@link InputStream} for data read access which is an {@link ODataStreamingOutput} as well,
+   * so that the transport layer writes the buffered data directly into its output stream.
+   * It must only be used after the write part has been closed.
+   *
+   * @return the stream
+   */
+  public InputStream getStreamingInputStream() {
+    return new StreamingInputStream(this);
+  }
+
   /**
    * Get {@link OutputStream} for write data.
    *
@@ -124,15 +119,11 @@ public class CircleStreamBuffer {
    */
   public void closeRead() {
     readClosed = true;
-    // clear references to byte buffers
+    // return the byte buffers to the pool; the current write buffer is still needed if writing goes on
     ByteBuffer buffer = bufferQueue.poll();
     while (buffer != null) {
-      try {
-        if (clearMethod != null) {
-          clearMethod.invoke(buffer);
-        }
-      } catch (Throwable e) {
-        throw new RuntimeException(e);
+      if (buffer != currentWriteBuffer || writeClosed) {
+        releaseBuffer(buffer);
       }
       buffer = bufferQueue.poll();
     }
@@ -148,7 +139,7 @@ public class CircleStreamBuffer {
 
   private int remaining() throws IOException {
     if (writeMode) {
-      return currentWriteBuffer.remaining();
+      return currentWriteBuffer == null ? 0 : currentWriteBuffer.remaining();
     } else {
       ByteBuffer toRead = getReadBuffer();
       if (toRead == null) {
@@ -177,7 +168,7 @@ public class CircleStreamBuffer {
     } else {
       tmp = bufferQueue.peek();
       if (tmp != null && !tmp.hasRemaining()) {
-        tmp = bufferQueue.poll();
+        releaseBuffer(bufferQueue.poll());
         next = true;
       }
     }
@@ -207,6 +198,15 @@ public class CircleStreamBuffer {
     return toReadLength;
   }
 
+  private void writeTo(final OutputStream output) throws IOException {
+    ByteBuffer readBuffer = getReadBuffer();
+    while (readBuffer != null) {
+      output.write(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(), readBuffer.remaining());
+      readBuffer.position(readBuffer.limit());
+      readBuffer = getReadBuffer();
+    }
+  }
+
   private int read() throws IOException {
     ByteBuffer readBuffer = getReadBuffer();
     if (readBuffer == null) {
@@ -287,7 +287,19 @@ public class CircleStreamBuffer {
       currentAllocateCapacity = requestedCapacity;
     }
 
-    return ByteBuffer.allocate(currentAllocateCapacity);
+    return ByteBufferPool.getInstance().acquire(currentAllocateCapacity);
+  }
+
+  /**
+   * Returns a buffer which is no longer referenced by this instance to the {@link ByteBufferPool}.
+   *
+   * @param buffer the buffer
+   */
+  private void releaseBuffer(final ByteBuffer buffer) {
+    if (buffer == currentWriteBuffer) {
+      currentWriteBuffer = null;
+    }
+    ByteBufferPool.getInstance().release(buffer);
   }
 
   // #############################################
@@ -328,6 +340,24 @@ public class CircleStreamBuffer {
     }
   }
 
+  /**
+   * Input stream whose data can be written out without copying it into a read buffer first.
+   */
+  private static class StreamingInputStream extends InternalInputStream implements ODataStreamingOutput {
+
+    private final CircleStreamBuffer inBuffer;
+
+    public StreamingInputStream(final CircleStreamBuffer csBuffer) {
+      super(csBuffer);
+      inBuffer = csBuffer;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+      inBuffer.writeTo(output);
+    }
+  }
+
   /**
    *
    */
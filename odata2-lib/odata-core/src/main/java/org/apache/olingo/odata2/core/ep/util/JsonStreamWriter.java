@@ -26,7 +26,11 @@ import java.io.Writer;
  * 
  */
 public class JsonStreamWriter {
+  private static final String LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE);
+  private static final double MAX_PLAIN_DOUBLE = 1e7;
+
   private final Writer writer;
+  private final char[] numberBuffer = new char[20];
 
   public JsonStreamWriter(final Writer writer) {
     this.writer = writer;
@@ -99,6 +103,72 @@ public class JsonStreamWriter {
     return this;
   }
 
+  /**
+   * Writes a name which has been prepared with {@link #quoteName(String)}.
+   * @param quotedName the quoted name including the trailing name separator
+   * @throws IOException if an I/O error occurs
+   */
+  public JsonStreamWriter quotedName(final String quotedName) throws IOException {
+    writer.write(quotedName);
+    return this;
+  }
+
+  /**
+   * Writes a number without creating a String for it.
+   * @param value the number
+   * @throws IOException if an I/O error occurs
+   */
+  public JsonStreamWriter numberValue(final long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      writer.write(LONG_MIN_VALUE);
+      return this;
+    }
+    long rest = value < 0 ? -value : value;
+    int position = numberBuffer.length;
+    do {
+      numberBuffer[--position] = (char) ('0' + rest % 10);
+      rest /= 10;
+    } while (rest > 0);
+    if (value < 0) {
+      numberBuffer[--position] = '-';
+    }
+    writer.write(numberBuffer, position, numberBuffer.length - position);
+    return this;
+  }
+
+  /**
+   * Writes a floating-point number in the format of {@link Double#toString(double)};
+   * integral values of moderate size are written without creating a String.
+   * @param value the number
+   * @throws IOException if an I/O error occurs
+   */
+  public JsonStreamWriter numberValue(final double value) throws IOException {
+    // Double.toString uses the plain notation with one decimal digit for these values.
+    if (value == Math.rint(value) && Math.abs(value) < MAX_PLAIN_DOUBLE
+        && (value != 0 || 1 / value > 0)) {
+      numberValue((long) value);
+      writer.write(".0");
+    } else {
+      writer.write(Double.toString(value));
+    }
+    return this;
+  }
+
+  public JsonStreamWriter booleanValue(final boolean value) throws IOException {
+    writer.write(value ? FormatJson.TRUE : FormatJson.FALSE);
+    return this;
+  }
+
+  /**
+   * Returns the given name in quotation marks and followed by the name separator,
+   * to be written with {@link #quotedName(String)}.
+   * @param name the name
+   * @return the quoted name
+   */
+  public static String quoteName(final String name) {
+    return '"' + name + "\":";
+  }
+
   /**
    * Writes the JSON-escaped form of a Java String value according to RFC 4627.
    * @param value the Java String
@@ -109,67 +179,50 @@ public class JsonStreamWriter {
     // quotation marks except for the characters that must be escaped:
     // quotation mark, reverse solidus, and the control characters
     // (U+0000 through U+001F)."
-    // All output here is done on character basis which should be faster
-    // than writing Strings.
-    for (int i = 0; i < value.length(); i++) {
+    // Runs of characters without the need for escaping are written at once.
+    final int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
       final char c = value.charAt(i);
-      switch (c) {
-      case '\\':
-        writer.append('\\').append(c);
-        break;
-      case '"':
-        writer.append('\\').append(c);
-        break;
-      case '\b':
-        writer.append('\\').append('b');
-        break;
-      case '\t':
-        writer.append('\\').append('t');
-        break;
-      case '\n':
-        writer.append('\\').append('n');
-        break;
-      case '\f':
-        writer.append('\\').append('f');
-        break;
-      case '\r':
-        writer.append('\\').append('r');
-        break;
-      case '\u0000':
-      case '\u0001':
-      case '\u0002':
-      case '\u0003':
-      case '\u0004':
-      case '\u0005':
-      case '\u0006':
-      case '\u0007':
-      case '\u000B':
-      case '\u000E':
-      case '\u000F':
-      case '\u0010':
-      case '\u0011':
-      case '\u0012':
-      case '\u0013':
-      case '\u0014':
-      case '\u0015':
-      case '\u0016':
-      case '\u0017':
-      case '\u0018':
-      case '\u0019':
-      case '\u001A':
-      case '\u001B':
-      case '\u001C':
-      case '\u001D':
-      case '\u001E':
-      case '\u001F':
-        final int lastHexDigit = c % 0x10;
-        writer.append('\\').append('u').append('0').append('0')
-            .append(c >= '\u0010' ? '1' : '0')
-            .append((char) ((lastHexDigit > 9 ? 'A' : '0') + lastHexDigit % 10));
-        break;
-      default:
-        writer.append(c);
+      if (c < '\u0020' || c == '"' || c == '\\') {
+        if (i > start) {
+          writer.write(value, start, i - start);
+        }
+        escape(c);
+        start = i + 1;
       }
     }
+    if (start < length) {
+      writer.write(value, start, length - start);
+    }
+  }
+
+  private void escape(final char c) throws IOException {
+    switch (c) {
+    case '\\':
+    case '"':
+      writer.append('\\').append(c);
+      break;
+    case '\b':
+      writer.append('\\').append('b');
+      break;
+    case '\t':
+      writer.append('\\').append('t');
+      break;
+    case '\n':
+      writer.append('\\').append('n');
+      break;
+    case '\f':
+      writer.append('\\').append('f');
+      break;
+    case '\r':
+      writer.append('\\').append('r');
+      break;
+    default:
+      final int lastHexDigit = c % 0x10;
+      writer.append('\\').append('u').append('0').append('0')
+          .append(c >= '\u0010' ? '1' : '0')
+          .append((char) ((lastHexDigit > 9 ? 'A' : '0') + lastHexDigit % 10));
+    }
   }
 }
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
+
+/**
+ * {@link InputStream} which serializes its content lazily while it is read.
+ * <p>Each time the already serialized bytes are consumed, {@link #writeNextChunk()} is called
+ * to serialize the next chunk (e.g. the feed start, a single entry or the feed end) into
+ * {@link #getOutputStream()}. Hence only one chunk is held in memory at any time.</p>
+ * <p>Because the serialization happens while the response is already written,
+ * an {@link EntityProviderException} occurring during serialization is reported
+ * as {@link IOException}.</p>
+ * <p>As {@link ODataStreamingOutput} the chunks are serialized directly into the output stream
+ * of the transport layer without being buffered.</p>
+ */
+public abstract class StreamingFeedInputStream extends InputStream implements ODataStreamingOutput {
+
+  private static final int READ_EOF = -1;
+
+  private final ChunkBuffer buffer = new ChunkBuffer();
+  private final TargetOutputStream target = new TargetOutputStream(buffer);
+  private int position = 0;
+  private boolean finished = false;
+  private boolean closed = false;
+
+  /**
+   * Get the {@link OutputStream} into which {@link #writeNextChunk()} must write.
+   * Writers wrapping this stream have to be flushed at the end of each chunk.
+   * @return the stream
+   */
+  protected OutputStream getOutputStream() {
+    return target;
+  }
+
+  /**
+   * Serializes the next chunk into {@link #getOutputStream()}.
+   * @return <code>true</code> if more chunks follow, <code>false</code> if this was the last chunk
+   * @throws EntityProviderException if serialization fails
+   * @throws IOException if writing into the output stream fails
+   */
+  protected abstract boolean writeNextChunk() throws EntityProviderException, IOException;
+
+  /**
+   * Releases all resources used for serialization (e.g. an underlying cursor).
+   * Called once on {@link #close()}; default implementation does nothing.
+   * @throws IOException if releasing fails
+   */
+  protected void release() throws IOException {}
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return READ_EOF;
+    }
+    return buffer.byteAt(position++) & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return READ_EOF;
+    }
+    final int toRead = Math.min(len, buffer.size() - position);
+    buffer.copyTo(position, b, off, toRead);
+    position += toRead;
+    return toRead;
+  }
+
+  @Override
+  public void write(final OutputStream output) throws IOException {
+    if (closed) {
+      throw new IOException("Tried to write content of closed stream.");
+    }
+    if (position < buffer.size()) {
+      buffer.copyTo(position, output);
+      position = buffer.size();
+    }
+    target.setTarget(output);
+    try {
+      while (!finished) {
+        try {
+          finished = !writeNextChunk();
+        } catch (EntityProviderException e) {
+          finished = true;
+          throw new IOException(e);
+        }
+      }
+    } finally {
+      target.setTarget(buffer);
+    }
+  }
+
+  @Override
+  public int available() throws IOException {
+    return closed ? 0 : buffer.size() - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      finished = true;
+      buffer.reset();
+      position = 0;
+      release();
+    }
+  }
+
+  private boolean fill() throws IOException {
+    if (closed) {
+      throw new IOException("Tried to read from closed stream.");
+    }
+    while (position >= buffer.size()) {
+      if (finished) {
+        return false;
+      }
+      buffer.reset();
+      position = 0;
+      try {
+        finished = !writeNextChunk();
+      } catch (EntityProviderException e) {
+        finished = true;
+        throw new IOException(e);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Buffer for a single chunk which grants direct access to its content.
+   */
+  private static class ChunkBuffer extends ByteArrayOutputStream {
+
+    byte byteAt(final int index) {
+      return buf[index];
+    }
+
+    void copyTo(final int index, final byte[] b, final int off, final int len) {
+      System.arraycopy(buf, index, b, off, len);
+    }
+
+    void copyTo(final int index, final OutputStream output) throws IOException {
+      output.write(buf, index, count - index);
+    }
+  }
+
+  /**
+   * Stream the serializers write into; forwards to the chunk buffer or, while
+   * {@link StreamingFeedInputStream#write(OutputStream)} runs, to the output stream of the transport layer.
+   * Flushing is not forwarded, so the serializers' flush at the end of each chunk
+   * does not flush the transport layer.
+   */
+  private static class TargetOutputStream extends OutputStream {
+
+    private OutputStream target;
+
+    TargetOutputStream(final OutputStream target) {
+      this.target = target;
+    }
+
+    void setTarget(final OutputStream target) {
+      this.target = target;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      target.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      target.write(b, off, len);
+    }
+  }
+}
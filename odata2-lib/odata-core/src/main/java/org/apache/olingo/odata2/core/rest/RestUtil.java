@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.core.rest;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,6 +37,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
@@ -45,6 +47,7 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
 import org.apache.olingo.odata2.api.exception.ODataUnsupportedMediaTypeException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
 import org.apache.olingo.odata2.core.PathInfoImpl;
@@ -64,7 +67,14 @@ public class RestUtil {
       ResponseBuilder responseBuilder =
           Response.noContent().status(odataResponse.getStatus().getStatusCode());
       if(!omitResponseBody) {
-        responseBuilder.entity(odataResponse.getEntity());
+        responseBuilder.entity(getEntity(odataResponse));
+      } else {
+        // the entity is not written, so its resources are released at once
+        try {
+          odataResponse.close();
+        } catch (IOException e) {
+          // the response is complete without the entity
+        }
       }
 
       for (final String name : odataResponse.getHeaderNames()) {
@@ -135,6 +145,28 @@ public class RestUtil {
     }
   }
 
+  /**
+   * Gets the entity of the response in a form the JAX-RS runtime can write;
+   * an {@link ODataStreamingOutput} entity is adapted to a {@link StreamingOutput}
+   * which writes directly into the output stream of the runtime.
+   */
+  private static Object getEntity(final ODataResponse odataResponse) {
+    final Object entity = odataResponse.getEntity();
+    if (entity instanceof ODataStreamingOutput) {
+      return new StreamingOutput() {
+        @Override
+        public void write(final OutputStream output) throws IOException {
+          try {
+            ((ODataStreamingOutput) entity).write(output);
+          } finally {
+            odataResponse.close();
+          }
+        }
+      };
+    }
+    return entity;
+  }
+
   public static <T> InputStream contentAsStream(final T content) throws ODataException {
     if (content == null) {
       throw new ODataBadRequestException(ODataBadRequestException.COMMON);
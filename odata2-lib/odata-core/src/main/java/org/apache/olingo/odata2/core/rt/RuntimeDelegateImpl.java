@@ -33,6 +33,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.ep.EntityProvider.EntityProviderInterface;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
@@ -88,6 +89,11 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return new EdmImplProv(provider);
   }
 
+  @Override
+  protected Edm createFrozenEdm(final EdmProvider provider) throws ODataException {
+    return new EdmImplProv(provider).warmUp();
+  }
+
   @Override
   protected EntityProviderInterface createEntityProvider() {
     return new ProviderFacadeImpl();
@@ -99,6 +105,11 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return new ODataSingleProcessorService(provider, processor);
   }
 
+  @Override
+  protected ODataService createODataSingleProcessorService(final Edm edm, final ODataSingleProcessor processor) {
+    return new ODataSingleProcessorService(edm, processor);
+  }
+
   @Override
   protected EdmProvider createEdmProvider(final InputStream metadataXml, final boolean validate)
       throws EntityProviderException {
@@ -33,6 +33,7 @@ import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
@@ -283,11 +284,23 @@ public class ODataServlet extends HttpServlet {
     }
 
     if(omitResponseBody) {
+      // the entity is not written, so its resources are released at once
+      response.close();
       return;
     }
 
     Object entity = response.getEntity();
-    if (entity != null) {
+    if (entity instanceof ODataStreamingOutput) {
+      // write-through: no content length is set, so the container uses chunked transfer encoding
+      ServletOutputStream out = resp.getOutputStream();
+      try {
+        ((ODataStreamingOutput) entity).write(out);
+      } finally {
+        response.close();
+      }
+      out.flush();
+      out.close();
+    } else if (entity != null) {
       ServletOutputStream out = resp.getOutputStream();
       int contentLength;
 
@@ -379,4 +379,41 @@ public class UriInfoImpl implements UriInfo {
   public UriInfoImpl getClone() {
     return (UriInfoImpl) CloneUtils.getClone(this);
   }
+
+  /**
+   * Creates a copy of the parts which are determined by the shape of the URI, i.e., without
+   * paging options, function-import parameters, and custom query options.
+   * The copy has its own collections; parsed expressions are shared.
+   */
+  UriInfoImpl copyShape() {
+    UriInfoImpl copy = new UriInfoImpl();
+    copy.uriType = uriType;
+    copy.entityContainer = entityContainer;
+    copy.startEntitySet = startEntitySet;
+    copy.targetEntitySet = targetEntitySet;
+    copy.functionImport = functionImport;
+    copy.targetType = targetType;
+    copy.keyPredicates = keyPredicates;
+    if (!navigationSegments.isEmpty()) {
+      copy.navigationSegments = new ArrayList<NavigationSegment>(navigationSegments);
+    }
+    if (!propertyPath.isEmpty()) {
+      copy.propertyPath = new ArrayList<EdmProperty>(propertyPath);
+    }
+    copy.count = count;
+    copy.value = value;
+    copy.links = links;
+    copy.format = format;
+    copy.callback = callback;
+    copy.filter = filter;
+    copy.inlineCount = inlineCount;
+    copy.orderBy = orderBy;
+    copy.expand = expand;
+    copy.select = select;
+    copy.rawEntity = rawEntity;
+    copy.composeWhere = composeWhere;
+    copy.isNew = isNew;
+    copy.clientCallbacks = clientCallbacks;
+    return copy;
+  }
 }
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.core.commons.LruCache;
+import org.apache.olingo.odata2.core.edm.EdmImpl;
+
+/**
+ * Bounded, thread-safe least-recently-used cache of parsed URIs used by {@link UriParserImpl}.
+ * <p>An entry is keyed by the entity data model instance and the shape of the URI:
+ * the resource path with the contents of key predicates replaced by a placeholder, and the
+ * system query options except <code>$skip</code>, <code>$top</code>, and <code>$skiptoken</code>,
+ * where the <code>$filter</code> expression is represented by its tokens with placeholders for the
+ * types of its literals. The cached {@link UriInfoImpl} is a template; key predicates, paging options,
+ * function-import parameters, and custom query options are parsed again for each request, and the
+ * literals of the current filter expression are bound to a copy of the cached filter expression tree.
+ * Only URIs of frozen entity data models (see {@link EdmImpl#isFrozen()}) are cached because
+ * a model created per request would never produce a hit.</p>
+ * <p>The parsed order-by, expand, and select expressions and the parts of filter expressions without
+ * literals are shared between requests and must not be modified.</p>
+ */
+public final class UriParserCache {
+
+  public static final int DEFAULT_MAX_SIZE = 512;
+
+  /** Name of the {@link org.apache.olingo.odata2.api.processor.ODataContext} parameter holding this cache. */
+  public static final String CONTEXT_PARAMETER = UriParserCache.class.getName();
+
+  private static final UriParserCache INSTANCE = new UriParserCache(DEFAULT_MAX_SIZE);
+
+  private final LruCache<CacheKey, UriInfoImpl> cache;
+
+  UriParserCache(final int maxSize) {
+    cache = new LruCache<CacheKey, UriInfoImpl>(maxSize);
+  }
+
+  /**
+   * @return the process-wide cache instance
+   */
+  public static UriParserCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param edm the entity data model
+   * @return whether URIs of the given entity data model are cached
+   */
+  public boolean isCacheable(final Edm edm) {
+    return cache.getMaxSize() > 0 && edm instanceof EdmImpl && ((EdmImpl) edm).isFrozen();
+  }
+
+  /**
+   * Returns the cached template for the given URI shape and counts the hit or miss.
+   * @param edm the entity data model
+   * @param shape the URI shape
+   * @return the template or <code>null</code>
+   */
+  UriInfoImpl get(final Edm edm, final String shape) {
+    return cache.get(new CacheKey(edm, shape));
+  }
+
+  void put(final Edm edm, final String shape, final UriInfoImpl template) {
+    cache.put(new CacheKey(edm, shape), template);
+  }
+
+  /**
+   * Sets the maximum number of cached entries; a value of <code>0</code> disables caching.
+   * @param maxSize maximum number of cached entries
+   */
+  public void setMaxSize(final int maxSize) {
+    cache.setMaxSize(maxSize);
+  }
+
+  public int getMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  /**
+   * @return the ratio of hits to all lookups, or <code>0</code> if there were no lookups
+   */
+  public double getHitRate() {
+    return cache.getHitRate();
+  }
+
+  /**
+   * Removes all cached entries and resets the hit and miss counters.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  private static final class CacheKey {
+    private final Edm edm;
+    private final String shape;
+
+    CacheKey(final Edm edm, final String shape) {
+      this.edm = edm;
+      this.shape = shape;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(edm) + shape.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return edm == other.edm && shape.equals(other.shape);
+    }
+  }
+}
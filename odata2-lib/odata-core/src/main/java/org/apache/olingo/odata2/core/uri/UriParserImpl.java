@@ -20,11 +20,15 @@ package org.apache.olingo.odata2.core.uri;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -54,12 +58,14 @@ import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
 import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.api.uri.SelectItem;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.UriNotMatchingException;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.api.uri.UriSyntaxException;
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
@@ -69,7 +75,11 @@ import org.apache.olingo.odata2.core.edm.EdmSimpleTypeFacadeImpl;
 import org.apache.olingo.odata2.core.edm.provider.EdmEntityTypeImplProv;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.uri.expression.FilterParserImpl;
+import org.apache.olingo.odata2.core.uri.expression.LiteralBinder;
 import org.apache.olingo.odata2.core.uri.expression.OrderByParserImpl;
+import org.apache.olingo.odata2.core.uri.expression.Token;
+import org.apache.olingo.odata2.core.uri.expression.TokenKind;
+import org.apache.olingo.odata2.core.uri.expression.TokenList;
 
 /**
  * Parser for the OData part of the URL.
@@ -84,6 +94,8 @@ public class UriParserImpl extends UriParser {
   private static final char COMMA = ',';
   private static final char SQUOTE = '\'';
   private static final String ACCEPT_FORM_ENCODING = "odata-accept-forms-encoding";
+  private static final Set<String> PAGING_QUERY_OPTIONS = new HashSet<String>(Arrays.asList(
+      SystemQueryOption.$skip.name(), SystemQueryOption.$top.name(), SystemQueryOption.$skiptoken.name()));
 
   private final Edm edm;
   private final EdmSimpleTypeFacade simpleTypeFacade;
@@ -120,10 +132,36 @@ public class UriParserImpl extends UriParser {
     this.pathSegments = copyPathSegmentList(pathSegments);
     systemQueryOptions = new HashMap<SystemQueryOption, String>();
     otherQueryParameters = new HashMap<String, String>();
-    uriResult = new UriInfoImpl();
 
     preparePathSegments();
 
+    final UriParserCache cache = UriParserCache.getInstance();
+    String shape = null;
+    if (cache.isCacheable(edm)) {
+      List<String> keyPredicates = new ArrayList<String>();
+      List<Token> filterLiterals = new ArrayList<Token>();
+      shape = getShape(allQueryParameters, keyPredicates, filterLiterals);
+      final UriInfoImpl template = cache.get(edm, shape);
+      if (template != null) {
+        uriResult = bindKeyPredicates(template, keyPredicates);
+        final CommonExpression filterExpression = template.getFilter() == null ? null :
+            LiteralBinder.bind(template.getFilter(), filterLiterals);
+        if (uriResult != null && (template.getFilter() == null || filterExpression != null)) {
+          distributeQueryParameters(allQueryParameters);
+          if (filterExpression != null) {
+            uriResult.setFilter(LiteralBinder.createFilter(template.getFilter(),
+                systemQueryOptions.get(SystemQueryOption.$filter), filterExpression));
+          }
+          checkSystemQueryOptionsCompatibility();
+          handlePagingSystemQueryOptions();
+          handleOtherQueryParameters();
+          return uriResult;
+        }
+      }
+    }
+
+    uriResult = new UriInfoImpl();
+
     handleResourcePath();
 
     distributeQueryParameters(allQueryParameters);
@@ -131,9 +169,134 @@ public class UriParserImpl extends UriParser {
     handleSystemQueryOptions();
     handleOtherQueryParameters();
 
+    if (shape != null) {
+      cache.put(edm, shape, uriResult.copyShape());
+    }
+
     return uriResult;
   }
 
+  /**
+   * Creates the shape of the URI used as key of the {@link UriParserCache}:
+   * the path segments with the contents of key predicates replaced by a placeholder
+   * and the query parameters which determine the parsed result apart from paging
+   * (all parts prefixed with their length).
+   * The <code>$filter</code> expression is represented by its tokens with the literals replaced
+   * by placeholders for their types.
+   * @param queryParameters the query parameters
+   * @param keyPredicates receives the replaced key predicates in path order
+   * @param filterLiterals receives the tokens of the replaced literals of the filter expression
+   * @return the shape
+   */
+  private String getShape(final Map<String, List<String>> queryParameters, final List<String> keyPredicates,
+      final List<Token> filterLiterals) {
+    StringBuilder shape = new StringBuilder();
+    for (final String pathSegment : pathSegments) {
+      final int start = pathSegment.indexOf('(');
+      if (start > 0 && pathSegment.length() > start + 2 && pathSegment.charAt(pathSegment.length() - 1) == ')') {
+        keyPredicates.add(pathSegment.substring(start + 1, pathSegment.length() - 1));
+        appendShapePart(shape, pathSegment.substring(0, start) + "(?)");
+      } else {
+        appendShapePart(shape, pathSegment);
+      }
+    }
+    shape.append('?');
+    for (final String name : new TreeSet<String>(queryParameters.keySet())) {
+      if ((name.startsWith("$") || name.startsWith("%") || ACCEPT_FORM_ENCODING.equals(name))
+          && !PAGING_QUERY_OPTIONS.contains(name)) {
+        appendShapePart(shape, name);
+        final List<String> values = queryParameters.get(name);
+        shape.append(values.size()).append('#');
+        if (SystemQueryOption.$filter.name().equals(name) && values.size() == 1
+            && appendFilterShape(shape, isFormEncoding(queryParameters) ?
+                getFormEncodedValue(values.get(0)) : values.get(0), filterLiterals)) {
+          continue;
+        }
+        for (final String value : values) {
+          appendShapePart(shape, value);
+        }
+      }
+    }
+    return shape.toString();
+  }
+
+  private static boolean appendFilterShape(final StringBuilder shape, final String filter,
+      final List<Token> literals) {
+    final TokenList tokens = LiteralBinder.tokenize(filter, literals);
+    if (tokens == null) {
+      return false;
+    }
+    shape.append('~').append(tokens.tokenCount()).append('#');
+    for (int i = 0; i < tokens.tokenCount(); i++) {
+      final Token token = tokens.elementAt(i);
+      if (token.getKind() == TokenKind.SIMPLE_TYPE) {
+        shape.append('?').append(token.getEdmType().getClass().getSimpleName()).append(';');
+      } else {
+        appendShapePart(shape, token.getUriLiteral());
+      }
+    }
+    return true;
+  }
+
+  private static boolean isFormEncoding(final Map<String, List<String>> queryParameters) {
+    final List<String> values = queryParameters.get(ACCEPT_FORM_ENCODING);
+    return values != null && !values.isEmpty() && Boolean.parseBoolean(values.get(0));
+  }
+
+  private static void appendShapePart(final StringBuilder shape, final String part) {
+    if (part == null) {
+      shape.append('-');
+    } else {
+      shape.append(part.length()).append(':').append(part);
+    }
+  }
+
+  /**
+   * Creates a result from a cached template by parsing the key predicates of the current URI.
+   * @return the result or <code>null</code> if the key predicates do not fit the template
+   */
+  private UriInfoImpl bindKeyPredicates(final UriInfoImpl template, final List<String> keyPredicates)
+      throws UriSyntaxException, EdmException {
+    UriInfoImpl result = template.copyShape();
+    int index = 0;
+    if (!template.getKeyPredicates().isEmpty()) {
+      final EdmEntitySet entitySet = template.getStartEntitySet() == null ?
+          template.getFunctionImport().getEntitySet() : template.getStartEntitySet();
+      if (keyPredicates.isEmpty()) {
+        return null;
+      }
+      result.setKeyPredicates(parseKey(keyPredicates.get(index++), entitySet.getEntityType()));
+    }
+    final List<NavigationSegment> navigationSegments = result.getNavigationSegments();
+    for (int i = 0; i < navigationSegments.size(); i++) {
+      final NavigationSegment templateSegment = navigationSegments.get(i);
+      if (!templateSegment.getKeyPredicates().isEmpty()) {
+        if (index >= keyPredicates.size()) {
+          return null;
+        }
+        NavigationSegmentImpl navigationSegment = new NavigationSegmentImpl();
+        navigationSegment.setEntitySet(templateSegment.getEntitySet());
+        navigationSegment.setNavigationProperty(templateSegment.getNavigationProperty());
+        navigationSegment.setKeyPredicates(
+            parseKey(keyPredicates.get(index++), templateSegment.getEntitySet().getEntityType()));
+        navigationSegments.set(i, navigationSegment);
+      }
+    }
+    return index == keyPredicates.size() ? result : null;
+  }
+
+  private void handlePagingSystemQueryOptions() throws UriSyntaxException {
+    if (systemQueryOptions.containsKey(SystemQueryOption.$skiptoken)) {
+      handleSystemQueryOptionSkipToken(systemQueryOptions.get(SystemQueryOption.$skiptoken));
+    }
+    if (systemQueryOptions.containsKey(SystemQueryOption.$skip)) {
+      handleSystemQueryOptionSkip(systemQueryOptions.get(SystemQueryOption.$skip));
+    }
+    if (systemQueryOptions.containsKey(SystemQueryOption.$top)) {
+      handleSystemQueryOptionTop(systemQueryOptions.get(SystemQueryOption.$top));
+    }
+  }
+
   private <T, K> Map<T, List<K>> convertFromSingleMapToMultiMap(final Map<T, K> singleMap) {
     Map<T, List<K>> multiMap = new HashMap<T, List<K>>();
 
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri.expression;
+
+import java.util.List;
+
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+
+/**
+ * Binds new literal values to a parsed <code>$filter</code> expression.
+ * <p>Filter expressions which differ only in the values of their literals, but not in the types
+ * of the literals, result in expression trees of the same structure. A parsed expression can therefore
+ * serve as template: the tree is copied with the literals of the current expression, taken from its
+ * tokens in the order of their occurrence; subtrees without literals are shared with the template.</p>
+ */
+public final class LiteralBinder {
+
+  private final List<Token> literals;
+  private int index;
+
+  private LiteralBinder(final List<Token> literals) {
+    this.literals = literals;
+  }
+
+  /**
+   * Tokenizes a filter expression and collects its literal tokens.
+   * @param filterExpression the filter expression
+   * @param literals receives the tokens of the literals in the order of their occurrence
+   * @return the tokens of the filter expression or <code>null</code> if the expression could not be tokenized
+   */
+  public static TokenList tokenize(final String filterExpression, final List<Token> literals) {
+    TokenList tokens;
+    try {
+      tokens = new Tokenizer(filterExpression).tokenize();
+    } catch (final TokenizerException e) {
+      return null;
+    } catch (final ExpressionParserException e) {
+      return null;
+    }
+    for (int i = 0; i < tokens.tokenCount(); i++) {
+      if (tokens.elementAt(i).getKind() == TokenKind.SIMPLE_TYPE) {
+        literals.add(tokens.elementAt(i));
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Copies the expression tree of a parsed filter expression with new literal values.
+   * @param template the parsed filter expression
+   * @param literals the tokens of the new literal values in the order of their occurrence
+   * @return the expression tree with the new literal values or <code>null</code> if the number of literals
+   * does not fit the template
+   */
+  public static CommonExpression bind(final FilterExpression template, final List<Token> literals) {
+    LiteralBinder binder = new LiteralBinder(literals);
+    final CommonExpression expression = binder.copy(template.getExpression());
+    return binder.index == literals.size() ? expression : null;
+  }
+
+  /**
+   * Creates a filter expression for the given expression string and the bound expression tree.
+   * @param template the parsed filter expression used as template
+   * @param filterExpression the filter expression string
+   * @param expression the expression tree returned by {@link #bind(FilterExpression, List)}
+   * @return the filter expression
+   */
+  public static FilterExpression createFilter(final FilterExpression template, final String filterExpression,
+      final CommonExpression expression) {
+    FilterExpressionImpl filter = new FilterExpressionImpl(filterExpression, expression);
+    filter.setEdmType(template.getEdmType());
+    return filter;
+  }
+
+  private CommonExpression copy(final CommonExpression expression) {
+    if (expression == null || index < 0) {
+      return expression;
+    }
+    switch (expression.getKind()) {
+    case LITERAL:
+      if (index >= literals.size()) {
+        index = -1;
+        return expression;
+      }
+      final Token token = literals.get(index++);
+      return new LiteralExpressionImpl(token.getUriLiteral(), token.getJavaLiteral())
+          .setEdmType(expression.getEdmType());
+    case BINARY:
+      final BinaryExpressionImpl binary = (BinaryExpressionImpl) expression;
+      final CommonExpression left = copy(binary.getLeftOperand());
+      final CommonExpression right = copy(binary.getRightOperand());
+      return left == binary.getLeftOperand() && right == binary.getRightOperand() ? expression :
+          new BinaryExpressionImpl(binary.operatorInfo, left, right, binary.token).setEdmType(binary.getEdmType());
+    case UNARY:
+      final UnaryExpressionImpl unary = (UnaryExpressionImpl) expression;
+      final CommonExpression operand = copy(unary.getOperand());
+      return operand == unary.getOperand() ? expression :
+          new UnaryExpressionImpl(unary.getOperatorInfo(), operand).setEdmType(unary.getEdmType());
+    case MEMBER:
+      final MemberExpressionImpl member = (MemberExpressionImpl) expression;
+      final CommonExpression path = copy(member.getPath());
+      final CommonExpression property = copy(member.getProperty());
+      return path == member.getPath() && property == member.getProperty() ? expression :
+          new MemberExpressionImpl(path, property).setEdmType(member.getEdmType());
+    case METHOD:
+      final MethodExpressionImpl method = (MethodExpressionImpl) expression;
+      MethodExpressionImpl methodCopy = new MethodExpressionImpl(method.getMethodInfo());
+      boolean changed = false;
+      for (final CommonExpression parameter : method.getParameters()) {
+        final CommonExpression parameterCopy = copy(parameter);
+        changed |= parameterCopy != parameter;
+        methodCopy.appendParameter(parameterCopy);
+      }
+      return changed ? methodCopy.setEdmType(method.getEdmType()) : expression;
+    default:
+      return expression;
+    }
+  }
+}
@@ -18,9 +18,6 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.uri.expression;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.apache.olingo.odata2.api.edm.EdmLiteral;
 import org.apache.olingo.odata2.api.edm.EdmLiteralException;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeFacade;
@@ -30,18 +27,22 @@ import org.apache.olingo.odata2.core.edm.EdmSimpleTypeFacadeImpl;
 
 /**
  * Expression tokenizer
- * 
+ * <p>The expression is scanned once, character by character; apart from the token values
+ * no substrings of the expression are created.</p>
  */
 public class Tokenizer {
 
-  private static final Pattern OTHER_LIT = Pattern.compile("(?:\\p{L}|\\p{Digit}|[-._~%!$&*+;:@])+");
-  private static final Pattern FUNK =
-      Pattern
-          .compile("^(startswith|endswith|substring|substring|substringof|indexof|replace|tolower|toupper" +
-              "|trim|concat|length|year|month|day|hour|minute|second|round|ceiling|floor)( *)\\(");
-  private static final Pattern AND_SUB1 = Pattern.compile("^(add|sub|mul|div|mod|not) ");
-  private static final Pattern AND_SUB = Pattern.compile("^(and|or|eq|ne|lt|gt|le|ge) ");
-  private static final Pattern prefix = Pattern.compile("^(X|binary|guid|datetime|datetimeoffset|time)'");
+  /** Binary operators; they must be followed by a space. */
+  private static final String[] BINARY_OPERATORS = { "and", "or", "eq", "ne", "lt", "gt", "le", "ge" };
+  /** Arithmetic operators and the unary not; they must be followed by a space. */
+  private static final String[] MATH_OPERATORS = { "add", "sub", "mul", "div", "mod", "not" };
+  /** Methods; they must be followed by optional spaces and an opening parenthesis. */
+  private static final String[] METHODS = { "startswith", "endswith", "substring", "substringof", "indexof",
+      "replace", "tolower", "toupper", "trim", "concat", "length", "year", "month", "day", "hour", "minute",
+      "second", "round", "ceiling", "floor" };
+  /** Prefixes of typed literals; they must be followed by a single quote. */
+  private static final String[] LITERAL_PREFIXES = { "X", "binary", "guid", "datetime", "datetimeoffset", "time" };
+
   private boolean flagIncludeWhitespace = false;
   private EdmSimpleTypeFacade typeDectector = null;
 
@@ -75,7 +76,6 @@ public class Tokenizer {
     curPosition = 0;
     int oldPosition;
     char curCharacter;
-    String token = "";
 
     while (curPosition < expressionLength) {
       oldPosition = curPosition;
@@ -84,7 +84,7 @@ public class Tokenizer {
       switch (curCharacter) {
       case ' ':
         // count whitespace and move pointer to next non-whitespace char
-        eatWhiteSpaces(curPosition, curCharacter);
+        eatWhiteSpaces(curPosition);
         break;
 
       case '(':
@@ -99,8 +99,7 @@ public class Tokenizer {
         break;
 
       case '\'':
-        token = "";
-        readLiteral(curCharacter);
+        readLiteral(curPosition);
 
         break;
 
@@ -119,194 +118,181 @@ public class Tokenizer {
         break;
 
       default:
-        String rem_expr = expression.substring(curPosition); // remaining expression
-
-        boolean isBinary = checkForBinary(oldPosition, rem_expr);
+        boolean isBinary = checkForOperator(BINARY_OPERATORS);
         if (isBinary) {
           break;
         }
 
         // check for prefixes like X, binary, guid, datetime
-        boolean isPrefix = checkForPrefix(rem_expr);
+        boolean isPrefix = checkForPrefix();
         if (isPrefix) {
           break;
         }
 
         // check for math
-        boolean isMath = checkForMath(oldPosition, rem_expr);
+        boolean isMath = checkForOperator(MATH_OPERATORS);
         if (isMath) {
           break;
         }
 
         // check for function
-        boolean isFunction = checkForMethod(oldPosition, rem_expr);
+        boolean isFunction = checkForMethod();
         if (isFunction) {
           break;
         }
 
-        boolean isBoolean = checkForBoolean(oldPosition, rem_expr);
+        boolean isBoolean = checkForBoolean();
         if (isBoolean) {
           break;
         }
 
-        boolean isLiteral = checkForLiteral(oldPosition, curCharacter, rem_expr);
+        boolean isLiteral = checkForLiteral(curCharacter);
         if (isLiteral) {
           break;
         }
 
-        token = new Character(curCharacter).toString();
-        throw TokenizerException.createUNKNOWN_CHARACTER(oldPosition, token, expression);
+        throw TokenizerException.createUNKNOWN_CHARACTER(oldPosition, Character.toString(curCharacter), expression);
       }
     }
     return tokens;
   }
 
-  private boolean checkForLiteral(final int oldPosition, final char curCharacter, final String rem_expr) {
-    final Matcher matcher = OTHER_LIT.matcher(rem_expr);
-    boolean isLiteral = false;
-    if (matcher.lookingAt()) {
-      String token = matcher.group();
-      try {
-        EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
-        curPosition = curPosition + token.length();
-        // It is a simple type.
-        tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, token, edmLiteral);
-        isLiteral = true;
-      } catch (EdmLiteralException e) {
-        // We treat it as normal untyped literal.
-
-        // The '-' is checked here (and not in the switch statement) because it may be
-        // part of a negative number.
-        if (curCharacter == '-') {
-          curPosition = curPosition + 1;
-          tokens.appendToken(oldPosition, TokenKind.SYMBOL, curCharacter);
-          isLiteral = true;
-        } else {
-          curPosition = curPosition + token.length();
-          tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-          isLiteral = true;
-        }
+  private boolean checkForLiteral(final char curCharacter) {
+    final int oldPosition = curPosition;
+    int end = curPosition;
+    while (end < expressionLength) {
+      final int codePoint = expression.codePointAt(end);
+      if (!isLiteralCharacter(codePoint)) {
+        break;
       }
+      end += Character.charCount(codePoint);
     }
-    return isLiteral;
-  }
-
-  private boolean checkForBoolean(final int oldPosition, final String rem_expr) {
-    boolean isBoolean = false;
-    if ("true".equals(rem_expr) || "false".equals(rem_expr)) {
-      curPosition = curPosition + rem_expr.length();
-      tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, rem_expr, new EdmLiteral(EdmSimpleTypeFacadeImpl
-          .getEdmSimpleType(EdmSimpleTypeKind.Boolean), rem_expr));
-      isBoolean = true;
+    if (end == oldPosition) {
+      return false;
     }
-    return isBoolean;
-  }
 
-  private void eatWhiteSpaces(final int oldPosition, char curCharacter) {
-    int lv_token_len;
-    String expression_sub;
-    while ((curCharacter == ' ') && (curPosition < expressionLength)) {
-      curPosition = curPosition + 1;
-      if (curPosition < expressionLength) {
-        curCharacter = expression.charAt(curPosition);
+    final String token = expression.substring(oldPosition, end);
+    try {
+      EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
+      curPosition = end;
+      // It is a simple type.
+      tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, token, edmLiteral);
+    } catch (EdmLiteralException e) {
+      // We treat it as normal untyped literal.
+
+      // The '-' is checked here (and not in the switch statement) because it may be
+      // part of a negative number.
+      if (curCharacter == '-') {
+        curPosition = curPosition + 1;
+        tokens.appendToken(oldPosition, TokenKind.SYMBOL, curCharacter);
+      } else {
+        curPosition = end;
+        tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
       }
     }
+    return true;
+  }
 
-    lv_token_len = curPosition - oldPosition;
+  /**
+   * Letters, ASCII digits, and the characters <code>-._~%!$&amp;*+;:@</code> can be part of an untyped literal.
+   */
+  private static boolean isLiteralCharacter(final int codePoint) {
+    return codePoint >= '0' && codePoint <= '9'
+        || Character.isLetter(codePoint)
+        || "-._~%!$&*+;:@".indexOf(codePoint) >= 0;
+  }
 
-    if (flagIncludeWhitespace == true) {
-      expression_sub = expression.substring(oldPosition, oldPosition + lv_token_len);
-      tokens.appendEdmTypedToken(oldPosition, TokenKind.WHITESPACE, expression_sub, null);
+  /**
+   * The rest of the expression must be exactly <code>true</code> or <code>false</code>.
+   */
+  private boolean checkForBoolean() {
+    final int remainingLength = expressionLength - curPosition;
+    if (remainingLength == 4 && expression.startsWith("true", curPosition)
+        || remainingLength == 5 && expression.startsWith("false", curPosition)) {
+      tokens.appendEdmTypedToken(curPosition, TokenKind.SIMPLE_TYPE, expression.substring(curPosition),
+          new EdmLiteral(EdmSimpleTypeFacadeImpl.getEdmSimpleType(EdmSimpleTypeKind.Boolean),
+              expression.substring(curPosition)));
+      curPosition = expressionLength;
+      return true;
     }
+    return false;
   }
 
-  private boolean checkForMethod(final int oldPosition, final String rem_expr) {
-    boolean isMethod = false;
-    Matcher matcher = FUNK.matcher(rem_expr);
-    if (matcher.find()) {
-      String token = matcher.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isMethod = true;
+  private void eatWhiteSpaces(final int oldPosition) {
+    while (curPosition < expressionLength && expression.charAt(curPosition) == ' ') {
+      curPosition = curPosition + 1;
     }
-    return isMethod;
-  }
 
-  private boolean checkForMath(final int oldPosition, final String rem_expr) {
-    boolean isMath = false;
-    Matcher matcher1 = AND_SUB1.matcher(rem_expr);
-    if (matcher1.find()) {
-      String token = matcher1.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isMath = true;
+    if (flagIncludeWhitespace == true) {
+      tokens.appendEdmTypedToken(oldPosition, TokenKind.WHITESPACE, expression.substring(oldPosition, curPosition),
+          null);
     }
-    return isMath;
   }
 
-  private boolean checkForBinary(final int oldPosition, final String rem_expr) {
-    boolean isBinary = false;
-    Matcher matcher1 = AND_SUB.matcher(rem_expr);
-    if (matcher1.find()) {
-      String token = matcher1.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isBinary = true;
+  private boolean checkForMethod() {
+    for (final String method : METHODS) {
+      if (expression.startsWith(method, curPosition)) {
+        int position = curPosition + method.length();
+        while (position < expressionLength && expression.charAt(position) == ' ') {
+          position++;
+        }
+        if (position < expressionLength && expression.charAt(position) == '(') {
+          tokens.appendToken(curPosition, TokenKind.LITERAL, method);
+          curPosition = curPosition + method.length();
+          return true;
+        }
+      }
     }
-    return isBinary;
+    return false;
   }
 
-  private boolean checkForPrefix(final String rem_expr) throws ExpressionParserException, TokenizerException {
-    boolean isPrefix = false;
-    Matcher matcher = prefix.matcher(rem_expr);
-    String token = "";
-    char curCharacter;
-
-    if (matcher.find()) {
-      token = matcher.group(1);
-      curPosition = curPosition + token.length();
-      curCharacter = expression.charAt(curPosition); // "should be '
-      readLiteral(curCharacter, token);
-      isPrefix = true;
+  /**
+   * Checks for one of the given operators followed by a space.
+   */
+  private boolean checkForOperator(final String[] operators) {
+    for (final String operator : operators) {
+      final int end = curPosition + operator.length();
+      if (end < expressionLength && expression.charAt(end) == ' ' && expression.startsWith(operator, curPosition)) {
+        tokens.appendToken(curPosition, TokenKind.LITERAL, operator);
+        curPosition = end;
+        return true;
+      }
     }
-    return isPrefix;
+    return false;
   }
 
-  private void readLiteral(final char curCharacter) throws ExpressionParserException, TokenizerException {
-    readLiteral(curCharacter, "");
+  private boolean checkForPrefix() throws ExpressionParserException, TokenizerException {
+    for (final String prefix : LITERAL_PREFIXES) {
+      final int end = curPosition + prefix.length();
+      if (end < expressionLength && expression.charAt(end) == '\'' && expression.startsWith(prefix, curPosition)) {
+        final int prefixPosition = curPosition;
+        curPosition = end;
+        readLiteral(prefixPosition);
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
    * Read up to single ' and move pointer to the following char and tries a type detection
-   * @param curCharacter
-   * @param token
+   * @param tokenStart position of the literal including its type prefix;
+   * the current position is at the leading '
    * @throws ExpressionParserException
    * @throws TokenizerException
    */
-  private void readLiteral(char curCharacter, String token) throws ExpressionParserException, TokenizerException {
-    int offsetPos = -token.length();
-    int oldPosition = curPosition;
-    token = token + Character.toString(curCharacter);
+  private void readLiteral(final int tokenStart) throws ExpressionParserException, TokenizerException {
+    final int oldPosition = curPosition;
     curPosition = curPosition + 1;
 
     boolean wasApostroph = false; // leading ' does not count
     while (curPosition < expressionLength) {
-      curCharacter = expression.charAt(curPosition);
-
-      if (curCharacter != '\'') {
+      if (expression.charAt(curPosition) != '\'') {
         if (wasApostroph == true) {
           break;
         }
-
-        token = token + curCharacter;
-        wasApostroph = false;
       } else {
-        if (wasApostroph) {
-          wasApostroph = false; // a double ' is a normal character '
-        } else {
-          wasApostroph = true;
-        }
-        token = token + curCharacter;
+        wasApostroph = !wasApostroph; // a double ' is a normal character '
       }
       curPosition = curPosition + 1;
     }
@@ -316,9 +302,10 @@ public class Tokenizer {
       throw FilterParserExceptionImpl.createTOKEN_UNDETERMINATED_STRING(oldPosition, expression);
     }
 
+    final String token = expression.substring(tokenStart, curPosition);
     try {
       EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
-      tokens.appendEdmTypedToken(oldPosition + offsetPos, TokenKind.SIMPLE_TYPE, token, edmLiteral);
+      tokens.appendEdmTypedToken(tokenStart, TokenKind.SIMPLE_TYPE, token, edmLiteral);
     } catch (EdmLiteralException ex) {
       throw TokenizerException.createTYPEDECTECTION_FAILED_ON_STRING(ex, oldPosition, token);
     }
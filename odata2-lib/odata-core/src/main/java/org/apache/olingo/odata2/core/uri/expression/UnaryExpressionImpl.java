@@ -50,6 +50,10 @@ public class UnaryExpressionImpl implements UnaryExpression {
     return operatorInfo.operator;
   }
 
+  InfoUnaryOperator getOperatorInfo() {
+    return operatorInfo;
+  }
+
   @Override
   public CommonExpression getOperand() {
     return operand;
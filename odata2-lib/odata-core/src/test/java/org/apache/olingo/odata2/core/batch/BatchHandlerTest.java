@@ -19,7 +19,12 @@
 package org.apache.olingo.odata2.core.batch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -29,6 +34,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
@@ -37,6 +47,7 @@ import org.apache.olingo.odata2.api.batch.BatchRequestPart;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpContentType;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
@@ -45,6 +56,7 @@ import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.api.processor.part.BatchProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityMediaProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityProcessor;
@@ -149,6 +161,94 @@ public class BatchHandlerTest {
     handler.handleBatchPart(parsedRequest.get(0));
   }
 
+  @Test
+  public void concurrentQueryOperations() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ODataServiceFactory factory = mock(ODataServiceFactory.class);
+    when(factory.getBatchQueryExecutor()).thenReturn(executor);
+    ODataService firstService = createCountingService(latch);
+    ODataService secondService = createCountingService(latch);
+    when(factory.createService(any(ODataContext.class))).thenReturn(firstService, secondService);
+    BatchHandler concurrentHandler = new BatchHandlerImpl(factory, createCountingService(latch));
+
+    try {
+      BatchResponsePart first = concurrentHandler.handleBatchPart(createQueryPart("Employees"));
+      BatchResponsePart second = concurrentHandler.handleBatchPart(createQueryPart("Rooms"));
+
+      assertEquals("Employees", first.getResponses().get(0).getEntity());
+      assertEquals("Rooms", second.getResponses().get(0).getEntity());
+      verify(factory, times(2)).createService(any(ODataContext.class));
+      verify(factory).releaseService(firstService);
+      verify(factory).releaseService(secondService);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void failedConcurrentQueryOperation() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(0);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    ODataServiceFactory factory = mock(ODataServiceFactory.class);
+    when(factory.getBatchQueryExecutor()).thenReturn(executor);
+    ODataService failingService = createCountingService(latch);
+    ODataService service = createCountingService(latch);
+    when(factory.createService(any(ODataContext.class))).thenReturn(failingService, service);
+    doThrow(new IllegalStateException()).when(factory).releaseService(failingService);
+    BatchHandler concurrentHandler = new BatchHandlerImpl(factory, createCountingService(latch));
+
+    try {
+      BatchResponsePart failed = concurrentHandler.handleBatchPart(createQueryPart("Employees"));
+      BatchResponsePart succeeded = concurrentHandler.handleBatchPart(createQueryPart("Rooms"));
+
+      assertEquals(HttpStatusCodes.INTERNAL_SERVER_ERROR, failed.getResponses().get(0).getStatus());
+      assertEquals("Rooms", succeeded.getResponses().get(0).getEntity());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private ODataService createCountingService(final CountDownLatch latch) throws ODataException {
+    ODataSingleProcessor processor = new ODataSingleProcessor() {
+      @Override
+      public ODataResponse countEntitySet(final GetEntitySetCountUriInfo uriInfo, final String contentType)
+          throws ODataException {
+        latch.countDown();
+        try {
+          // Both query operations have to run at the same time to get here without timeout.
+          assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw new ODataException(e);
+        }
+        return ODataResponse.entity(uriInfo.getTargetEntitySet().getName()).build();
+      }
+    };
+    Edm edm = MockFacade.getMockEdm();
+    ODataService service = mock(ODataService.class);
+    when(service.getProcessor()).thenReturn(processor);
+    when(service.getEntitySetProcessor()).thenReturn(processor);
+    when(service.getEntityDataModel()).thenReturn(edm);
+    return service;
+  }
+
+  private BatchRequestPart createQueryPart(final String entitySetName) throws Exception {
+    PathInfoImpl pathInfo = new PathInfoImpl();
+    pathInfo.setServiceRoot(new URI(SERVICE_BASE));
+    pathInfo.setRequestUri(new URI(SERVICE_BASE + entitySetName + "/$count"));
+    pathInfo.setODataPathSegment(Arrays.<PathSegment> asList(
+        new ODataPathSegmentImpl(entitySetName, null), new ODataPathSegmentImpl("$count", null)));
+    ODataRequest request = ODataRequest.method(ODataHttpMethod.GET)
+        .pathInfo(pathInfo)
+        .acceptHeaders(Collections.<String> emptyList())
+        .acceptableLanguages(new ArrayList<Locale>())
+        .requestHeaders(Collections.<String, List<String>> emptyMap())
+        .queryParameters(Collections.<String, String> emptyMap())
+        .allQueryParameters(Collections.<String, List<String>> emptyMap())
+        .build();
+    return new BatchRequestPartImpl(false, Collections.singletonList(request));
+  }
+
   private void assertFirst(PathInfo pathInfo) {
     assertEquals(SERVICE_ROOT + "Employees", pathInfo.getRequestUri().toString());
     assertEquals(SERVICE_ROOT, pathInfo.getServiceRoot().toString());
@@ -19,23 +19,33 @@
 package org.apache.olingo.odata2.core.batch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.olingo.odata2.api.batch.BatchException;
+import org.apache.olingo.odata2.api.batch.BatchHandler;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartExecutor;
+import org.apache.olingo.odata2.api.batch.BatchRequestPartIterator;
+import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
 import org.apache.olingo.odata2.core.PathInfoImpl;
 import org.apache.olingo.odata2.core.batch.v2.BatchParser;
@@ -1227,6 +1237,140 @@ public class BatchRequestParserTest {
     parse(batch, false);
   }
 
+  @Test
+  public void testIncrementalParsing() throws BatchException, IOException {
+    StringBuilder largeBody = new StringBuilder();
+    while (largeBody.length() < 100000) {
+      largeBody.append("{\"EmployeeName\":\"Frederic Fall MODIFIED\"}");
+    }
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + "Content-Type: multipart/mixed; boundary=changeset_f980-1cb6-94dd" + CRLF
+        + CRLF
+        + "--changeset_f980-1cb6-94dd" + CRLF
+        + MIME_HEADERS
+        + "Content-ID: 1" + CRLF
+        + CRLF
+        + "PUT Employees('2')/EmployeeName HTTP/1.1" + CRLF
+        + "Content-Type: application/json;odata=verbose" + CRLF
+        + CRLF
+        + largeBody + CRLF
+        + "--changeset_f980-1cb6-94dd--" + CRLF
+        + "--" + BOUNDARY + "--";
+    ByteArrayInputStream in = new ByteArrayInputStream(batch.getBytes());
+
+    BatchRequestPartIterator parts = new BatchParser(contentType, batchProperties, true)
+        .parseBatchRequestIncrementally(in);
+
+    assertTrue(parts.hasNext());
+    final BatchRequestPart getPart = parts.next();
+    assertFalse(getPart.isChangeSet());
+    assertEquals(ODataHttpMethod.GET, getPart.getRequests().get(0).getMethod());
+    assertTrue(in.available() > largeBody.length() / 2);
+
+    assertTrue(parts.hasNext());
+    final BatchRequestPart changeSetPart = parts.next();
+    assertTrue(changeSetPart.isChangeSet());
+    assertEquals(largeBody.toString(), inputStreamToString(changeSetPart.getRequests().get(0).getBody()));
+    assertFalse(parts.hasNext());
+  }
+
+  @Test(expected = BatchException.class)
+  public void testIncrementalParsingMissingCloseDelimiter() throws BatchException {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST;
+    BatchRequestPartIterator parts = new BatchParser(contentType, batchProperties, true)
+        .parseBatchRequestIncrementally(new ByteArrayInputStream(batch.getBytes()));
+
+    assertTrue(parts.hasNext());
+    assertEquals(ODataHttpMethod.GET, parts.next().getRequests().get(0).getMethod());
+    parts.hasNext();
+  }
+
+  @Test
+  public void testPartExecutedBeforeNextPartIsRead() throws Exception {
+    final String firstPart = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF;
+    final String rest = GET_REQUEST
+        + "--" + BOUNDARY + "--";
+    final boolean[] restRead = new boolean[1];
+    final InputStream restStream = new ByteArrayInputStream(rest.getBytes()) {
+      @Override
+      public synchronized int read(final byte[] b, final int off, final int len) {
+        restRead[0] = true;
+        return super.read(b, off, len);
+      }
+    };
+    final List<Boolean> readBeforeExecution = new ArrayList<Boolean>();
+    BatchHandler handler = new BatchHandler() {
+      @Override
+      public BatchResponsePart handleBatchPart(final BatchRequestPart batchRequestPart) {
+        readBeforeExecution.add(restRead[0]);
+        return null;
+      }
+
+      @Override
+      public ODataResponse handleRequest(final ODataRequest request) {
+        return null;
+      }
+    };
+
+    BatchRequestPartIterator parts = new BatchParser(contentType, batchProperties, true)
+        .parseBatchRequestIncrementally(new SequenceInputStream(
+            new ByteArrayInputStream(firstPart.getBytes()), restStream));
+    assertEquals(2, BatchRequestPartExecutor.execute(handler, parts).size());
+
+    assertEquals(Arrays.asList(false, true), readBeforeExecution);
+  }
+
+  @Test
+  public void testChangeSetDeferredUntilBodyIsParsed() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + "Content-Type: multipart/mixed; boundary=changeset_f980-1cb6-94dd" + CRLF
+        + CRLF
+        + "--changeset_f980-1cb6-94dd" + CRLF
+        + MIME_HEADERS
+        + "Content-ID: 1" + CRLF
+        + CRLF
+        + "PUT Employees('2')/EmployeeName HTTP/1.1" + CRLF
+        + "Content-Type: application/json;odata=verbose" + CRLF
+        + CRLF
+        + "{\"EmployeeName\":\"Frederic Fall MODIFIED\"}" + CRLF
+        + "--changeset_f980-1cb6-94dd--" + CRLF
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST;
+    final List<Boolean> executedParts = new ArrayList<Boolean>();
+    BatchHandler handler = new BatchHandler() {
+      @Override
+      public BatchResponsePart handleBatchPart(final BatchRequestPart batchRequestPart) {
+        executedParts.add(batchRequestPart.isChangeSet());
+        return null;
+      }
+
+      @Override
+      public ODataResponse handleRequest(final ODataRequest request) {
+        return null;
+      }
+    };
+
+    BatchRequestPartIterator parts = new BatchParser(contentType, batchProperties, true)
+        .parseBatchRequestIncrementally(new ByteArrayInputStream(batch.getBytes()));
+    try {
+      BatchRequestPartExecutor.execute(handler, parts);
+      fail("Expected BatchException");
+    } catch (final BatchException e) {
+      // the close delimiter is missing
+    }
+
+    assertEquals(Arrays.asList(false), executedParts);
+  }
+
   private List<BatchRequestPart> parse(final String batch) throws BatchException {
     return parse(batch, true);
   }
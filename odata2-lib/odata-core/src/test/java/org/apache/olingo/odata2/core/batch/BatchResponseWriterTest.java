@@ -22,18 +22,24 @@ import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.core.batch.v2.BatchLineReader;
 import org.apache.olingo.odata2.core.batch.v2.Line;
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.testutil.helper.StringHelper;
 import org.junit.Test;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class BatchResponseWriterTest {
 
@@ -124,6 +130,59 @@ public class BatchResponseWriterTest {
     assertTrue(lines.get(index).toString().startsWith("--batch"));
   }
 
+  @Test
+  public void testStreamingOutputResponse() throws Exception {
+    List<BatchResponsePart> parts = new ArrayList<BatchResponsePart>();
+    ODataResponse response = ODataResponse.entity(new ODataStreamingOutput() {
+      @Override
+      public void write(final OutputStream output) throws IOException {
+        output.write("Walter Winter".getBytes("UTF-8"));
+      }
+    }).status(HttpStatusCodes.OK).contentHeader("application/json").build();
+    List<ODataResponse> responses = new ArrayList<ODataResponse>(1);
+    responses.add(response);
+    parts.add(BatchResponsePart.responses(responses).changeSet(false).build());
+    ODataResponse batchResponse = new BatchResponseWriter().writeResponse(parts);
+
+    BatchLineReader reader = new BatchLineReader(batchResponse.getEntityAsStream());
+    List<Line> lines = reader.toLineList();
+    reader.close();
+    int index = 5;
+    assertEquals("Content-Type: application/json" + CRLF, lines.get(index++).toString());
+    assertEquals("Content-Length: 13" + CRLF, lines.get(index++).toString());
+    assertEquals(CRLF, lines.get(index++).toString());
+    assertEquals("Walter Winter" + CRLF, lines.get(index++).toString());
+    assertTrue(lines.get(index).toString().startsWith("--batch"));
+  }
+
+  @Test
+  public void testStreamingOutputWriteFailureIsNotHiddenByClose() throws Exception {
+    final IOException writeFailure = new IOException("write failed");
+    List<BatchResponsePart> parts = new ArrayList<BatchResponsePart>();
+    ODataResponse response = ODataResponse.entity(new ClosingStreamingOutput() {
+      @Override
+      public void write(final OutputStream output) throws IOException {
+        throw writeFailure;
+      }
+    }).status(HttpStatusCodes.OK).contentHeader("application/json").build();
+    List<ODataResponse> responses = new ArrayList<ODataResponse>(1);
+    responses.add(response);
+    parts.add(BatchResponsePart.responses(responses).changeSet(false).build());
+    try {
+      new BatchResponseWriter().writeResponse(parts);
+      fail("Expected ODataRuntimeException");
+    } catch (ODataRuntimeException e) {
+      assertSame(writeFailure, e.getCause());
+    }
+  }
+
+  private abstract static class ClosingStreamingOutput implements ODataStreamingOutput, Closeable {
+    @Override
+    public void close() throws IOException {
+      throw new IOException("close failed");
+    }
+  }
+
   @Test
   public void testChangeSetResponse() throws Exception {
     List<BatchResponsePart> parts = new ArrayList<BatchResponsePart>();
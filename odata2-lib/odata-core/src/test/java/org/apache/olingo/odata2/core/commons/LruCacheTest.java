@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+
+public class LruCacheTest extends BaseTest {
+
+  @Test
+  public void leastRecentlyUsedEntryIsRemoved() {
+    LruCache<String, Integer> cache = new LruCache<String, Integer>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    cache.put("c", 3);
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertEquals(Integer.valueOf(3), cache.get("c"));
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.75, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void setMaxSize() {
+    LruCache<String, Integer> cache = new LruCache<String, Integer>(3);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.put("c", 3);
+    cache.setMaxSize(1);
+
+    assertEquals(1, cache.size());
+    assertEquals(Integer.valueOf(3), cache.get("c"));
+
+    cache.setMaxSize(0);
+    cache.put("d", 4);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void clear() {
+    LruCache<String, Integer> cache = new LruCache<String, Integer>(2);
+    cache.put("a", 1);
+    cache.get("a");
+    cache.get("b");
+    cache.clear();
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+    assertEquals(0, cache.getHitRate(), 0);
+  }
+}
@@ -1727,6 +1727,66 @@ public class EdmSimpleTypeTest extends BaseTest {
     expectTypeErrorInValueOfString(instance, "PT0S", EdmLiteralKind.DEFAULT);
   }
 
+  @Test
+  public void dateTimeBeforeGregorianCutover() throws Exception {
+    final EdmSimpleType instance = EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance();
+    Calendar dateTime = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    dateTime.clear();
+    dateTime.set(1500, 1, 29, 12, 30, 15);
+    dateTime.set(Calendar.MILLISECOND, 250);
+
+    // The Julian calendar has the 29th of February also in century years.
+    assertEquals(dateTime,
+        instance.valueOfString("1500-02-29T12:30:15.25", EdmLiteralKind.DEFAULT, null, Calendar.class));
+    assertEquals("1500-02-29T12:30:15.25", instance.valueToString(dateTime, EdmLiteralKind.DEFAULT, null));
+    assertEquals("1500-02-29T12:30:15.25",
+        instance.valueToString(dateTime.getTimeInMillis(), EdmLiteralKind.DEFAULT, null));
+
+    expectErrorInValueOfString(instance, "1500-02-30T12:30:15", EdmLiteralKind.DEFAULT, null,
+        EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT);
+  }
+
+  @Test
+  public void javaTimeValues() throws Exception {
+    final EdmSimpleType dateTimeInstance = EdmSimpleTypeKind.DateTime.getEdmSimpleTypeInstance();
+    final java.time.LocalDateTime localDateTime = java.time.LocalDateTime.of(2012, 2, 29, 23, 32, 3, 123456789);
+    assertEquals(localDateTime, dateTimeInstance.valueOfString("2012-02-29T23:32:03.123456789",
+        EdmLiteralKind.DEFAULT, null, java.time.LocalDateTime.class));
+    assertEquals("2012-02-29T23:32:03.123456789",
+        dateTimeInstance.valueToString(localDateTime, EdmLiteralKind.DEFAULT, null));
+    assertEquals("/Date(1330558323123)/", dateTimeInstance.valueToString(
+        localDateTime.withNano(123000000), EdmLiteralKind.JSON, null));
+    // Java time uses the proleptic Gregorian calendar.
+    assertEquals(java.time.LocalDateTime.of(1500, 3, 1, 0, 0), dateTimeInstance.valueOfString("1500-03-01T00:00",
+        EdmLiteralKind.DEFAULT, null, java.time.LocalDateTime.class));
+    try {
+      dateTimeInstance.valueOfString("1500-02-29T00:00", EdmLiteralKind.DEFAULT, null, java.time.LocalDateTime.class);
+      fail("Expected exception not thrown");
+    } catch (EdmSimpleTypeException e) {
+      assertEquals(EdmSimpleTypeException.LITERAL_ILLEGAL_CONTENT.getKey(), e.getMessageReference().getKey());
+    }
+
+    final EdmSimpleType dateTimeOffsetInstance = EdmSimpleTypeKind.DateTimeOffset.getEdmSimpleTypeInstance();
+    final java.time.OffsetDateTime offsetDateTime = java.time.OffsetDateTime.of(2012, 2, 29, 1, 2, 3, 0,
+        java.time.ZoneOffset.ofHoursMinutes(-1, -30));
+    assertEquals(offsetDateTime, dateTimeOffsetInstance.valueOfString("2012-02-29T01:02:03-01:30",
+        EdmLiteralKind.DEFAULT, null, java.time.OffsetDateTime.class));
+    assertEquals(offsetDateTime.toInstant(), dateTimeOffsetInstance.valueOfString("2012-02-29T01:02:03-01:30",
+        EdmLiteralKind.DEFAULT, null, java.time.Instant.class));
+    assertEquals("2012-02-29T01:02:03-01:30",
+        dateTimeOffsetInstance.valueToString(offsetDateTime, EdmLiteralKind.DEFAULT, null));
+    assertEquals("/Date(1330477323000-0090)/",
+        dateTimeOffsetInstance.valueToString(offsetDateTime, EdmLiteralKind.JSON, null));
+    assertEquals("2012-02-29T02:32:03Z",
+        dateTimeOffsetInstance.valueToString(offsetDateTime.toInstant(), EdmLiteralKind.DEFAULT, null));
+
+    final EdmSimpleType timeInstance = EdmSimpleTypeKind.Time.getEdmSimpleTypeInstance();
+    final java.time.LocalTime localTime = java.time.LocalTime.of(23, 32, 3, 1000);
+    assertEquals(localTime, timeInstance.valueOfString("PT23H32M3.000001S", EdmLiteralKind.DEFAULT, null,
+        java.time.LocalTime.class));
+    assertEquals("PT23H32M3.000001S", timeInstance.valueToString(localTime, EdmLiteralKind.DEFAULT, null));
+  }
+
   @Test
   public void validate() throws Exception {
     for (EdmSimpleTypeKind kind : EdmSimpleTypeKind.values()) {
@@ -19,16 +19,34 @@
 package org.apache.olingo.odata2.core.edm.provider;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
 import org.apache.olingo.odata2.api.edm.EdmComplexType;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.AliasInfo;
 import org.apache.olingo.odata2.api.edm.provider.Association;
@@ -37,6 +55,8 @@ import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.edm.provider.EntityContainerInfo;
 import org.apache.olingo.odata2.api.edm.provider.EntityType;
 import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.helper.StringHelper;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -132,4 +152,65 @@ public class EdmImplProvTest extends BaseTest {
   public void testDefaultEntityContainer() throws EdmException {
     assertEquals(edm.getEntityContainer("Container1"), edm.getDefaultEntityContainer());
   }
+
+  @Test
+  public void frozenEdmDoesNotAskProvider() throws Exception {
+    EdmProvider edmProvider = spy(new EdmTestProvider());
+    EdmImplProv frozenEdm = new EdmImplProv(edmProvider).warmUp();
+    assertTrue(frozenEdm.isFrozen());
+    assertTrue(frozenEdm.getWarmUpTime() >= 0);
+    reset(edmProvider);
+
+    final EdmEntitySet employees = frozenEdm.getDefaultEntityContainer().getEntitySet("Employees");
+    final EdmEntityType employee = employees.getEntityType();
+    assertSame(employee, frozenEdm.getEntityType(EdmTestProvider.NAMESPACE_1, "Employee"));
+    assertSame(employee.getProperty("EmployeeName"), employee.getProperty("EmployeeName"));
+    assertEquals(1, employee.getKeyProperties().size());
+    final EdmEntitySet rooms = employees.getRelatedEntitySet((EdmNavigationProperty) employee.getProperty("ne_Room"));
+    assertEquals("Rooms", rooms.getName());
+    assertNotNull(frozenEdm.getComplexType(EdmTestProvider.NAMESPACE_1, "c_Location"));
+    assertNotNull(frozenEdm.getDefaultEntityContainer().getFunctionImport("EmployeeSearch"));
+    assertFalse(frozenEdm.getEntitySets().isEmpty());
+    StringHelper.inputStreamToString(frozenEdm.getServiceMetadata().getMetadata());
+
+    assertNull(frozenEdm.getEntityType(EdmTestProvider.NAMESPACE_1, "Unknown"));
+    assertNull(frozenEdm.getDefaultEntityContainer().getEntitySet("Unknown"));
+    verify(edmProvider, never()).getEntityType(any(FullQualifiedName.class));
+    verify(edmProvider, never()).getEntitySet(anyString(), anyString());
+    verify(edmProvider, never()).getAssociationSet(anyString(), any(FullQualifiedName.class), anyString(),
+        anyString());
+    verify(edmProvider, never()).getSchemas();
+  }
+
+  @Test
+  public void concurrentAccessReturnsSameInstances() throws Exception {
+    final EdmImplProv sharedEdm = new EdmImplProv(new EdmTestProvider());
+    final int threadCount = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<Object[]>> results = new ArrayList<Future<Object[]>>();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      for (int i = 0; i < threadCount; i++) {
+        results.add(executor.submit(new Callable<Object[]>() {
+          @Override
+          public Object[] call() throws Exception {
+            start.await();
+            final EdmEntityType employee = sharedEdm.getEntityType(EdmTestProvider.NAMESPACE_1, "Employee");
+            return new Object[] { sharedEdm.getDefaultEntityContainer(), employee,
+                employee.getProperty("EmployeeName"), employee.getKeyProperties().get(0) };
+          }
+        }));
+      }
+      start.countDown();
+      final Object[] first = results.get(0).get();
+      for (Future<Object[]> result : results) {
+        final Object[] instances = result.get();
+        for (int i = 0; i < first.length; i++) {
+          assertSame(first[i], instances[i]);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
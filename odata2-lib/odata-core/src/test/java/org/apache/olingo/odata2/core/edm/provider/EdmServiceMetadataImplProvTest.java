@@ -22,16 +22,20 @@ import static org.custommonkey.xmlunit.XMLAssert.assertXpathExists;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.olingo.odata2.api.ODataServiceVersion;
+import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmEntitySetInfo;
 import org.apache.olingo.odata2.api.edm.EdmServiceMetadata;
@@ -40,6 +44,7 @@ import org.apache.olingo.odata2.api.edm.provider.EntityContainer;
 import org.apache.olingo.odata2.api.edm.provider.EntitySet;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.testutil.fit.BaseTest;
 import org.apache.olingo.odata2.testutil.helper.StringHelper;
 import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
@@ -356,4 +361,70 @@ public class EdmServiceMetadataImplProvTest extends BaseTest {
     assertXpathExists("/edmx:Edmx/edmx:DataServices/a:Schema/a:EntityType[@Name='Room']", metadata);
     assertXpathExists("/edmx:Edmx/edmx:DataServices/a:Schema/a:EntityType[@Name='Building']", metadata);
   }
+
+  @Test
+  public void metadataIsCached() throws Exception {
+    EdmProvider edmProvider = new EdmTestProvider();
+    EdmServiceMetadata serviceMetadata = new EdmServiceMetadataImplProv(edmProvider);
+
+    final String eTag = serviceMetadata.getMetadataETag();
+    assertTrue(eTag.matches("\"[0-9a-f]{32}\""));
+    assertEquals(metadata, StringHelper.inputStreamToString(serviceMetadata.getMetadata()));
+    assertEquals(metadata, StringHelper.inputStreamToString(serviceMetadata.getMetadata()));
+    assertEquals(eTag, serviceMetadata.getMetadataETag());
+    assertEquals(eTag, new EdmServiceMetadataImplProv(edmProvider).getMetadataETag());
+  }
+
+  @Test
+  public void documentsAreSharedForSameSchemas() throws Exception {
+    List<Schema> schemas = new ArrayList<Schema>();
+    schemas.add(new Schema().setNamespace("shared"));
+    EdmProvider edmProvider = mock(EdmProvider.class);
+    when(edmProvider.getSchemas()).thenReturn(schemas);
+    EdmServiceMetadataImplProv serviceMetadata = new EdmServiceMetadataImplProv(edmProvider);
+
+    final String eTag = serviceMetadata.getMetadataETag();
+    serviceMetadata.putServiceDocument("key", ODataResponse.entity(new ByteArrayInputStream(new byte[] { 1 }))
+        .header(ODataHttpHeaders.DATASERVICEVERSION, ODataServiceVersion.V10).build());
+
+    EdmProvider otherProvider = mock(EdmProvider.class);
+    when(otherProvider.getSchemas()).thenReturn(schemas);
+    EdmServiceMetadataImplProv otherMetadata = new EdmServiceMetadataImplProv(otherProvider);
+    assertEquals(eTag, otherMetadata.getMetadataETag());
+    final ODataResponse serviceDocument = otherMetadata.getServiceDocument("key");
+    assertNotNull(serviceDocument);
+    assertEquals(ODataServiceVersion.V10, serviceDocument.getHeader(ODataHttpHeaders.DATASERVICEVERSION));
+    assertNotNull(serviceDocument.getETag());
+
+    List<Schema> otherSchemas = new ArrayList<Schema>();
+    otherSchemas.add(new Schema().setNamespace("shared"));
+    EdmProvider thirdProvider = mock(EdmProvider.class);
+    when(thirdProvider.getSchemas()).thenReturn(otherSchemas);
+    assertNull(new EdmServiceMetadataImplProv(thirdProvider).getServiceDocument("key"));
+  }
+
+  @Test
+  public void metadataChangesWithModelVersion() throws Exception {
+    List<Schema> schemas = new ArrayList<Schema>();
+    schemas.add(new Schema().setNamespace("first"));
+    EdmProvider edmProvider = mock(EdmProvider.class);
+    when(edmProvider.getSchemas()).thenReturn(schemas);
+    when(edmProvider.getModelVersion()).thenReturn(1);
+    EdmServiceMetadataImplProv serviceMetadata = new EdmServiceMetadataImplProv(edmProvider);
+
+    final String eTag = serviceMetadata.getMetadataETag();
+    serviceMetadata.putServiceDocument("key",
+        ODataResponse.entity(new ByteArrayInputStream(new byte[] { 1 })).build());
+    assertNotNull(serviceMetadata.getServiceDocument("key"));
+
+    List<Schema> changedSchemas = new ArrayList<Schema>();
+    changedSchemas.add(new Schema().setNamespace("second"));
+    when(edmProvider.getSchemas()).thenReturn(changedSchemas);
+    assertEquals(eTag, serviceMetadata.getMetadataETag());
+
+    when(edmProvider.getModelVersion()).thenReturn(2);
+    assertFalse(eTag.equals(serviceMetadata.getMetadataETag()));
+    assertNull(serviceMetadata.getServiceDocument("key"));
+    assertTrue(StringHelper.inputStreamToString(serviceMetadata.getMetadata()).contains("second"));
+  }
 }
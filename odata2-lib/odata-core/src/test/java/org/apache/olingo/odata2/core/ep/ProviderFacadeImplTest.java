@@ -36,6 +36,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
@@ -53,8 +54,10 @@ import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.edm.EdmDateTimeOffset;
+import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
 import org.apache.olingo.odata2.core.ep.consumer.AbstractConsumerTest;
 import org.apache.olingo.odata2.testutil.helper.StringHelper;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
 
@@ -409,6 +412,26 @@ public class ProviderFacadeImplTest extends AbstractConsumerTest {
     assertEquals("{\"d\":{\"EntitySets\":[]}}", StringHelper.inputStreamToString((InputStream) result.getEntity()));
   }
 
+  @Test
+  public void writeServiceDocumentCached() throws Exception {
+    final Edm edm = new EdmImplProv(new EdmTestProvider());
+    final ODataResponse first = new ProviderFacadeImpl().writeServiceDocument(HttpContentType.APPLICATION_JSON, edm,
+        "root");
+    final ODataResponse second = new ProviderFacadeImpl().writeServiceDocument(HttpContentType.APPLICATION_JSON, edm,
+        "root");
+    assertNotNull(first.getETag());
+    assertEquals(first.getETag(), second.getETag());
+    assertEquals(first.getHeader(ODataHttpHeaders.DATASERVICEVERSION),
+        second.getHeader(ODataHttpHeaders.DATASERVICEVERSION));
+    assertNotNull(second.getHeader(ODataHttpHeaders.DATASERVICEVERSION));
+    assertEquals(StringHelper.inputStreamToString((InputStream) first.getEntity()),
+        StringHelper.inputStreamToString((InputStream) second.getEntity()));
+
+    final ODataResponse atom = new ProviderFacadeImpl().writeServiceDocument(HttpContentType.APPLICATION_ATOM_SVC,
+        edm, "root");
+    assertFalse(first.getETag().equals(atom.getETag()));
+  }
+
   @Test
   public void writePropertyValue() throws Exception {
     final EdmProperty property =
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
+import org.apache.olingo.odata2.testutil.mock.MockFacade;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class EntityInfoAggregatorCacheTest extends BaseTest {
+
+  private Edm edm;
+  private EntityInfoAggregatorCache cache;
+
+  @Before
+  public void before() throws Exception {
+    edm = MockFacade.getMockEdm();
+    cache = new EntityInfoAggregatorCache(EntityInfoAggregatorCache.DEFAULT_MAX_SIZE);
+  }
+
+  @Test
+  public void sameShapeIsCached() throws Exception {
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Employees");
+
+    final EntityInfoAggregator first = cache.get(entitySet, null);
+    final EntityInfoAggregator second = cache.get(entitySet, null);
+
+    assertSame(first, second);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void differentShapesAreCachedSeparately() throws Exception {
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Employees");
+    final EdmProperty employeeName = (EdmProperty) entitySet.getEntityType().getProperty("EmployeeName");
+
+    final EntityInfoAggregator all = cache.get(entitySet, createNode(true, null, "ne_Room", false));
+    final EntityInfoAggregator expanded = cache.get(entitySet, createNode(true, null, "ne_Room", true));
+    final EntityInfoAggregator selected = cache.get(entitySet, createNode(false, employeeName, "ne_Room", true));
+
+    assertNotSame(all, expanded);
+    assertNotSame(expanded, selected);
+    assertEquals(0, all.getExpandedNavigationPropertyNames().size());
+    assertEquals(Arrays.asList("ne_Room"), expanded.getExpandedNavigationPropertyNames());
+    assertEquals(Arrays.asList("EmployeeName"), selected.getSelectedPropertyNames());
+
+    assertSame(selected, cache.get(entitySet, createNode(false, employeeName, "ne_Room", true)));
+    assertEquals(3, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void differentEntitySetInstancesAreCachedSeparately() throws Exception {
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Employees");
+    final EdmEntitySet otherEntitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Employees");
+
+    assertNotSame(cache.get(entitySet, null), cache.get(otherEntitySet, null));
+  }
+
+  @Test
+  public void cacheIsOwnedByEntityDataModel() throws Exception {
+    final EdmImplProv providerEdm = new EdmImplProv(new EdmTestProvider());
+    final EdmEntitySet entitySet = providerEdm.getDefaultEntityContainer().getEntitySet("Employees");
+
+    assertSame(EntityInfoAggregator.create(entitySet), EntityInfoAggregator.create(entitySet));
+    assertEquals(1, providerEdm.getEntityInfoAggregatorCache().size());
+    assertEquals(1, providerEdm.getEntityInfoAggregatorCache().getHitCount());
+
+    final EdmImplProv otherEdm = new EdmImplProv(new EdmTestProvider());
+    final EdmEntitySet otherEntitySet = otherEdm.getDefaultEntityContainer().getEntitySet("Employees");
+    assertNotSame(EntityInfoAggregator.create(entitySet), EntityInfoAggregator.create(otherEntitySet));
+    assertEquals(1, otherEdm.getEntityInfoAggregatorCache().size());
+    assertEquals(1, providerEdm.getEntityInfoAggregatorCache().size());
+  }
+
+  @Test
+  public void entitySetOfOtherModelIsNotCached() throws Exception {
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Employees");
+
+    assertNotSame(EntityInfoAggregator.create(entitySet), EntityInfoAggregator.create(entitySet));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+    cache.setMaxSize(2);
+    final EdmEntitySet employees = edm.getDefaultEntityContainer().getEntitySet("Employees");
+    final EdmEntitySet rooms = edm.getDefaultEntityContainer().getEntitySet("Rooms");
+    final EdmEntitySet teams = edm.getDefaultEntityContainer().getEntitySet("Teams");
+
+    final EntityInfoAggregator employeesInfo = cache.get(employees, null);
+    cache.get(rooms, null);
+    cache.get(employees, null);
+    cache.get(teams, null);
+
+    assertEquals(2, cache.size());
+    assertSame(employeesInfo, cache.get(employees, null));
+    assertEquals(3, cache.getMissCount());
+    cache.get(rooms, null);
+    assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void disabledCache() throws Exception {
+    cache.setMaxSize(0);
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Employees");
+
+    assertNotSame(cache.get(entitySet, null), cache.get(entitySet, null));
+    assertEquals(0, cache.size());
+  }
+
+  private ExpandSelectTreeNode createNode(final boolean all, final EdmProperty property,
+      final String navigationPropertyName, final boolean expanded) {
+    ExpandSelectTreeNode node = mock(ExpandSelectTreeNode.class);
+    when(node.isAll()).thenReturn(all);
+    when(node.getProperties()).thenReturn(property == null ?
+        Collections.<EdmProperty> emptyList() : Collections.singletonList(property));
+    Map<String, ExpandSelectTreeNode> links = new HashMap<String, ExpandSelectTreeNode>();
+    links.put(navigationPropertyName, expanded ? mock(ExpandSelectTreeNode.class) : null);
+    when(node.getLinks()).thenReturn(links);
+    return node;
+  }
+}
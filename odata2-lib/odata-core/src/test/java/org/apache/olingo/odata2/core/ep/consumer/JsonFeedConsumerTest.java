@@ -23,8 +23,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -33,12 +35,14 @@ import junit.framework.Assert;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.MediaMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
@@ -292,6 +296,37 @@ public class JsonFeedConsumerTest extends AbstractConsumerTest {
     assertNull(feedMetadata.getNextLink());
   }
 
+  @Test
+  public void teamsFeedWithEntryHandler() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final List<ODataEntry> entries = new ArrayList<ODataEntry>();
+    ODataFeed feed = new JsonEntityConsumer().readFeed(entitySet, getFileAsStream("JsonTeamsWithCount.json"),
+        DEFAULT_PROPERTIES, new OnReadFeedEntry() {
+          @Override
+          public void handleReadEntry(final ODataEntry entry) {
+            entries.add(entry);
+          }
+        });
+
+    assertEquals(2, entries.size());
+    assertEquals("2", entries.get(0).getProperties().get("Id"));
+    assertEquals("3", entries.get(1).getProperties().get("Id"));
+    assertEquals(0, feed.getEntries().size());
+    assertEquals(Integer.valueOf(3), feed.getFeedMetadata().getInlineCount());
+  }
+
+  @Test(expected = EntityProviderException.class)
+  public void entryHandlerAbortsReading() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    new JsonEntityConsumer().readFeed(entitySet, getFileAsStream("JsonTeams.json"), DEFAULT_PROPERTIES,
+        new OnReadFeedEntry() {
+          @Override
+          public void handleReadEntry(final ODataEntry entry) throws ODataApplicationException {
+            throw new ODataApplicationException("handler failure", Locale.ROOT);
+          }
+        });
+  }
+
   @Test
   public void teamsFeedWithCountWithoutD() throws Exception {
     ODataFeed feed = prepareAndExecuteFeed("JsonTeamsWithCountWithoutD.json", "Teams", DEFAULT_PROPERTIES);
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -32,6 +33,7 @@ import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadFeedEntry;
 import org.apache.olingo.odata2.api.ep.entry.EntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
@@ -71,6 +73,27 @@ public class XmlFeedConsumerTest extends AbstractXmlConsumerTest {
     assertEquals("W/\"1\"", roomMetadata.getEtag());
   }
 
+  @Test
+  public void roomsFeedWithEntryHandler() throws Exception {
+    InputStream stream = getFileAsStream("feed_rooms_small.xml");
+    assertNotNull(stream);
+
+    final List<ODataEntry> entries = new ArrayList<ODataEntry>();
+    FeedMetadata feedMetadata =
+        EntityProvider.readFeed("application/atom+xml", MockFacade.getMockEdm().getDefaultEntityContainer()
+            .getEntitySet("Rooms"), stream, DEFAULT_PROPERTIES, new OnReadFeedEntry() {
+              @Override
+              public void handleReadEntry(final ODataEntry entry) {
+                entries.add(entry);
+              }
+            });
+    assertNotNull(feedMetadata);
+    assertNotNull(feedMetadata.getNextLink());
+
+    assertEquals(3, entries.size());
+    assertEquals("W/\"1\"", entries.get(0).getMetadata().getEtag());
+  }
+
   @Test
   public void readLargeEmployeesFeed() throws Exception {
     InputStream file = getFileAsStream("LargeEmployeeFeed.xml");
@@ -109,6 +109,21 @@ public class AtomFeedProducerTest extends AbstractProviderTest {
     assertXpathExists("/a:feed/a:entry/a:content/m:properties/d:Version[@m:type=\"Edm.Int16\"]", xmlString);
   }
 
+  @Test
+  public void streamedFeed() throws Exception {
+    initializeRoomData(3);
+    AtomEntityProvider ser = createAtomEntityProvider();
+    EntityProviderWriteProperties properties =
+        EntityProviderWriteProperties.serviceRoot(BASE_URI).nextLink("Rooms?$skiptoken=3").build();
+    ODataResponse response = ser.writeFeed(view.getTargetEntitySet(), roomsData.iterator(), properties);
+    String xmlString = verifyResponse(response);
+
+    assertXpathEvaluatesTo("3", "count(/a:feed/a:entry)", xmlString);
+    assertXpathEvaluatesTo("1", "/a:feed/a:entry[1]/a:content/m:properties/d:Id", xmlString);
+    assertXpathEvaluatesTo("3", "/a:feed/a:entry[3]/a:content/m:properties/d:Id", xmlString);
+    assertXpathEvaluatesTo("Rooms?$skiptoken=3", "/a:feed/a:link[@rel='next']/@href", xmlString);
+  }
+
   @Test
   public void testFeedNamespaces() throws Exception {
     AtomEntityProvider ser = createAtomEntityProvider();
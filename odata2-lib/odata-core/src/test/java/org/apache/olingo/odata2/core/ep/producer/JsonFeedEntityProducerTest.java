@@ -25,9 +25,11 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +50,7 @@ import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
 import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
 import org.apache.olingo.odata2.core.ep.JsonEntityProvider;
@@ -163,6 +166,79 @@ public class JsonFeedEntityProducerTest extends BaseTest {
         json);
   }
 
+  @Test
+  public void streamedFeed() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    List<Map<String, Object>> teamsData = new ArrayList<Map<String, Object>>();
+    for (int i = 1; i <= 3; i++) {
+      Map<String, Object> teamData = new HashMap<String, Object>();
+      teamData.put("Id", String.valueOf(i));
+      teamData.put("isScrumTeam", i % 2 == 0);
+      teamsData.add(teamData);
+    }
+    final EntityProviderWriteProperties properties = EntityProviderWriteProperties
+        .fromProperties(DEFAULT_PROPERTIES).inlineCountType(InlineCount.ALLPAGES).inlineCount(3)
+        .nextLink("Teams?$skiptoken=3").build();
+
+    final ODataResponse expected = new JsonEntityProvider().writeFeed(entitySet, teamsData, properties);
+    final ODataResponse response = new JsonEntityProvider().writeFeed(entitySet, teamsData.iterator(), properties);
+    assertNotNull(response);
+    assertNull("EntitypProvider must not set content header", response.getContentHeader());
+
+    assertEquals(StringHelper.inputStreamToString((InputStream) expected.getEntity()),
+        StringHelper.inputStreamToString((InputStream) response.getEntity()));
+  }
+
+  @Test
+  public void feedWrittenThrough() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    Map<String, Object> teamData = new HashMap<String, Object>();
+    teamData.put("Id", "1");
+    final List<Map<String, Object>> teamsData = Collections.singletonList(teamData);
+
+    final ODataResponse expected = new JsonEntityProvider().writeFeed(entitySet, teamsData, DEFAULT_PROPERTIES);
+    final ODataResponse response = new JsonEntityProvider().writeFeed(entitySet, teamsData, DEFAULT_PROPERTIES);
+    assertTrue(response.getEntity() instanceof ODataStreamingOutput);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((ODataStreamingOutput) response.getEntity()).write(output);
+    response.close();
+    assertEquals(StringHelper.inputStreamToString((InputStream) expected.getEntity()),
+        new String(output.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void streamedFeedWrittenThrough() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    List<Map<String, Object>> teamsData = new ArrayList<Map<String, Object>>();
+    for (int i = 1; i <= 3; i++) {
+      Map<String, Object> teamData = new HashMap<String, Object>();
+      teamData.put("Id", String.valueOf(i));
+      teamsData.add(teamData);
+    }
+
+    final ODataResponse expected = new JsonEntityProvider().writeFeed(entitySet, teamsData, DEFAULT_PROPERTIES);
+    final ODataResponse response =
+        new JsonEntityProvider().writeFeed(entitySet, teamsData.iterator(), DEFAULT_PROPERTIES);
+    assertTrue(response.getEntity() instanceof ODataStreamingOutput);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((ODataStreamingOutput) response.getEntity()).write(output);
+    response.close();
+    assertEquals(StringHelper.inputStreamToString((InputStream) expected.getEntity()),
+        new String(output.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void streamedEmptyFeed() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Buildings");
+    final ODataResponse response = new JsonEntityProvider().writeFeed(entitySet,
+        new ArrayList<Map<String, Object>>().iterator(), DEFAULT_PROPERTIES);
+
+    final String json = StringHelper.inputStreamToString((InputStream) response.getEntity());
+    assertEquals("{\"d\":{\"results\":[]}}", json);
+  }
+
   @Test
   public void inlineCount() throws Exception {
     final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Buildings");
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+  @Before
+  @After
+  public void clearPool() {
+    ByteBufferPool.getInstance().clear();
+  }
+
+  @Test
+  public void buffersAreReused() {
+    ByteBufferPool pool = new ByteBufferPool(ByteBufferPool.DEFAULT_MAX_POOLED_BYTES);
+    ByteBuffer buffer = pool.acquire(16384);
+    buffer.put((byte) 1);
+    pool.release(buffer);
+    assertEquals(16384, pool.getPooledBytes());
+
+    ByteBuffer reused = pool.acquire(16384);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(16384, reused.remaining());
+    assertEquals(0, pool.getPooledBytes());
+    assertNotSame(buffer, pool.acquire(8192));
+    assertEquals(1, pool.getHitCount());
+    assertEquals(2, pool.getMissCount());
+  }
+
+  @Test
+  public void unusualSizesAreNotPooled() {
+    ByteBufferPool pool = new ByteBufferPool(ByteBufferPool.DEFAULT_MAX_POOLED_BYTES);
+    for (final int capacity : Arrays.asList(128, 3 * 8192, 2 * ByteBufferPool.MAX_CAPACITY)) {
+      pool.release(pool.acquire(capacity));
+    }
+    assertEquals(0, pool.getPooledBytes());
+    assertEquals(0, pool.getHitCount() + pool.getMissCount());
+  }
+
+  @Test
+  public void poolIsBounded() {
+    ByteBufferPool pool = new ByteBufferPool(3 * 8192);
+    for (int i = 0; i < 4; i++) {
+      pool.release(ByteBuffer.allocate(8192));
+    }
+    assertEquals(3 * 8192, pool.getPooledBytes());
+    assertEquals(1, pool.getDiscardCount());
+
+    pool.setMaxPooledBytes(0);
+    assertEquals(0, pool.getPooledBytes());
+    pool.release(ByteBuffer.allocate(8192));
+    assertEquals(0, pool.getPooledBytes());
+  }
+
+  @Test
+  public void circleStreamBufferReturnsBuffersAfterReading() throws Exception {
+    final ByteBufferPool pool = ByteBufferPool.getInstance();
+    final byte[] data = new byte[100000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+
+    for (int run = 0; run < 3; run++) {
+      CircleStreamBuffer csb = new CircleStreamBuffer();
+      OutputStream out = csb.getOutputStream();
+      for (int offset = 0; offset < data.length; offset += 1000) {
+        out.write(data, offset, 1000);
+      }
+      out.close();
+
+      InputStream in = csb.getInputStream();
+      byte[] read = new byte[data.length];
+      int total = 0;
+      int count;
+      while ((count = in.read(read, total, read.length - total)) > 0) {
+        total += count;
+      }
+      in.close();
+      assertEquals(data.length, total);
+      assertEquals(Arrays.hashCode(data), Arrays.hashCode(read));
+    }
+    // 16 KB, 32 KB, and 64 KB buffers are needed for each run
+    assertEquals(3, pool.getMissCount());
+    assertEquals(6, pool.getHitCount());
+  }
+}
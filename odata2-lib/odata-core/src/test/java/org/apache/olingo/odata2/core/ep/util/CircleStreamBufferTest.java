@@ -19,12 +19,15 @@
 package org.apache.olingo.odata2.core.ep.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.testutil.fit.BaseTest;
 import org.junit.Before;
 import org.junit.Test;
@@ -267,6 +270,28 @@ public class CircleStreamBufferTest extends BaseTest {
     assertEquals(testData, result);
   }
 
+  @Test
+  public void testStreamingInputStream() throws Exception {
+    int bufferSize = 64;
+    CircleStreamBuffer csb = new CircleStreamBuffer(bufferSize);
+
+    OutputStream outStream = csb.getOutputStream();
+    final String testData = createTestString(bufferSize * 10);
+    for (int i = 0; i < testData.length(); i += bufferSize / 2) {
+      outStream.write(testData.substring(i, i + bufferSize / 2).getBytes(DEFAULT_CHARSET));
+    }
+    csb.closeWrite();
+
+    InputStream inStream = csb.getStreamingInputStream();
+    assertTrue(inStream instanceof ODataStreamingOutput);
+    byte[] start = new byte[10];
+    assertEquals(start.length, inStream.read(start));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((ODataStreamingOutput) inStream).write(output);
+
+    assertEquals(testData, new String(start, DEFAULT_CHARSET) + new String(output.toByteArray(), DEFAULT_CHARSET));
+    assertEquals(-1, inStream.read());
+  }
 
   @Test(expected = IOException.class)
   public void testCloseInputStream() throws Exception {
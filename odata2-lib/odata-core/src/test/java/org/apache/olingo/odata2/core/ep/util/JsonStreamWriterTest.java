@@ -80,4 +80,37 @@ public class JsonStreamWriterTest extends BaseTest {
         + "\"escaped\":\"\\\"\\\\\"}",
         writer.toString());
   }
+
+  @Test
+  public void primitiveValues() throws Exception {
+    StringWriter writer = new StringWriter();
+    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
+    jsonStreamWriter.beginArray()
+        .numberValue(0).separator()
+        .numberValue(-42).separator()
+        .numberValue(Long.MAX_VALUE).separator()
+        .numberValue(Long.MIN_VALUE).separator()
+        .booleanValue(true).separator()
+        .booleanValue(false)
+        .endArray();
+    writer.flush();
+    assertEquals("[0,-42,9223372036854775807,-9223372036854775808,true,false]", writer.toString());
+
+    for (final double value : new double[] { 0, -0.0, 1, -42, 9999999, -9999999, 1e7, 1e-3, 4.2, -1.5,
+        Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN }) {
+      writer = new StringWriter();
+      new JsonStreamWriter(writer).numberValue(value);
+      assertEquals(Double.toString(value), writer.toString());
+    }
+  }
+
+  @Test
+  public void quotedName() throws Exception {
+    StringWriter writer = new StringWriter();
+    new JsonStreamWriter(writer).beginObject()
+        .quotedName(JsonStreamWriter.quoteName("name")).stringValue("a\"b\u0001c")
+        .endObject();
+    writer.flush();
+    assertEquals("{\"name\":\"a\\\"b\\u0001c\"}", writer.toString());
+  }
 }
@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
@@ -43,6 +44,7 @@ import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataStreamingOutput;
 import org.apache.olingo.odata2.core.ODataResponseImpl;
 import org.apache.olingo.odata2.core.rest.ODataServiceFactoryImpl;
 import org.junit.Test;
@@ -168,9 +170,41 @@ public class ODataServletTest {
 
     String outputContent = new String(bout.toByteArray());
     Assert.assertEquals("", outputContent);
+    Mockito.verify(odataResponse).close();
   }
 
 
+  @Test
+  public void streamingOutputResponse() throws Exception {
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final ServletOutputStream out = new ServletOutputStream() {
+      @Override
+      public void write(int i) throws IOException {
+        bout.write(i);
+      }
+    };
+    HttpServletResponse servletResponse = Mockito.mock(HttpServletResponse.class);
+    Mockito.when(servletResponse.getOutputStream()).thenReturn(out);
+
+    ODataResponse odataResponse = Mockito.mock(ODataResponse.class);
+    Mockito.when(odataResponse.getStatus()).thenReturn(HttpStatusCodes.OK);
+    Mockito.when(odataResponse.getHeaderNames()).thenReturn(new HashSet<String>());
+    Mockito.when(odataResponse.getEntity()).thenReturn(new ODataStreamingOutput() {
+      @Override
+      public void write(final OutputStream output) throws IOException {
+        output.write("SomeData".getBytes("utf-8"));
+      }
+    });
+    servlet.createResponse(servletResponse, odataResponse);
+
+    Assert.assertEquals("SomeData", new String(bout.toByteArray(), "utf-8"));
+    Mockito.verify(servletResponse, Mockito.never()).setContentLength(Mockito.anyInt());
+    Mockito.verify(odataResponse).close();
+  }
+
   @Test
   public void inputStreamResponse() throws Exception {
     testInputStreamResponse("123", "utf-8", null);
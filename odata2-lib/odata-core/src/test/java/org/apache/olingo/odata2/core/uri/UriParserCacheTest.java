@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.UriSyntaxException;
+import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
+import org.apache.olingo.odata2.core.uri.expression.JsonVisitor;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the cache of parsed URIs.
+ */
+public class UriParserCacheTest {
+
+  private EdmImplProv edm;
+  private final UriParserCache cache = UriParserCache.getInstance();
+
+  @Before
+  public void setUp() throws Exception {
+    edm = new EdmImplProv(new EdmTestProvider()).warmUp();
+    cache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    cache.clear();
+  }
+
+  private UriInfoImpl parse(final String path, final String... queryOptions) throws Exception {
+    List<PathSegment> pathSegments = new ArrayList<PathSegment>();
+    for (final String segment : path.split("/")) {
+      pathSegments.add(UriParser.createPathSegment(segment, null));
+    }
+    Map<String, List<String>> queryParameters = new HashMap<String, List<String>>();
+    for (int i = 0; i < queryOptions.length; i += 2) {
+      queryParameters.put(queryOptions[i], Collections.singletonList(queryOptions[i + 1]));
+    }
+    return (UriInfoImpl) new UriParserImpl(edm).parseAll(pathSegments, queryParameters);
+  }
+
+  @Test
+  public void keyPredicatesAreParsedPerRequest() throws Exception {
+    final UriInfoImpl first = parse("Managers('1')/nm_Employees('2')");
+    final UriInfoImpl second = parse("Managers('3')/nm_Employees('4')");
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+
+    assertEquals(UriType.URI6A, second.getUriType());
+    assertEquals("3", second.getKeyPredicates().get(0).getLiteral());
+    assertEquals("4", second.getNavigationSegments().get(0).getKeyPredicates().get(0).getLiteral());
+    assertEquals("4", second.getTargetKeyPredicates().get(0).getLiteral());
+    assertSame(first.getTargetEntitySet(), second.getTargetEntitySet());
+    assertEquals("1", first.getKeyPredicates().get(0).getLiteral());
+    assertEquals("2", first.getNavigationSegments().get(0).getKeyPredicates().get(0).getLiteral());
+  }
+
+  @Test
+  public void pagingOptionsAreParsedPerRequest() throws Exception {
+    final UriInfoImpl first = parse("Employees", "$filter", "Age gt 20", "$top", "2", "$skiptoken", "x");
+    final UriInfoImpl second = parse("Employees", "$filter", "Age gt 20", "$skip", "5");
+    assertEquals(1, cache.getHitCount());
+    assertEquals(Integer.valueOf(2), first.getTop());
+    assertNull(second.getTop());
+    assertNull(second.getSkipToken());
+    assertEquals(Integer.valueOf(5), second.getSkip());
+
+    parse("Employees", "$orderby", "Age");
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1.0 / 3, cache.getHitRate(), 0.001);
+  }
+
+  @Test
+  public void filterLiteralsAreBoundPerRequest() throws Exception {
+    final UriInfoImpl first = parse("Employees", "$filter", "Age gt 20 and substringof('a',EmployeeName)");
+    final UriInfoImpl second = parse("Employees", "$filter", "Age  gt 30 and substringof('b c',EmployeeName)");
+    assertEquals(1, cache.getHitCount());
+    assertEquals("Age  gt 30 and substringof('b c',EmployeeName)", second.getFilter().getExpressionString());
+    assertEquals(toJson(parseWithoutCache("Age  gt 30 and substringof('b c',EmployeeName)")),
+        toJson(second.getFilter()));
+    assertEquals(toJson(parseWithoutCache("Age gt 20 and substringof('a',EmployeeName)")),
+        toJson(first.getFilter()));
+    final BinaryExpression firstAge = (BinaryExpression)
+        ((BinaryExpression) first.getFilter().getExpression()).getLeftOperand();
+    final BinaryExpression secondAge = (BinaryExpression)
+        ((BinaryExpression) second.getFilter().getExpression()).getLeftOperand();
+    assertSame(firstAge.getLeftOperand(), secondAge.getLeftOperand());
+
+    // a literal of another type results in another shape
+    parse("Employees", "$filter", "Age gt 300 and substringof('a',EmployeeName)");
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void filterLiteralsWithFormEncoding() throws Exception {
+    parse("Employees", "$filter", "EmployeeName+eq+'a'", "odata-accept-forms-encoding", "true");
+    final UriInfoImpl second =
+        parse("Employees", "$filter", "EmployeeName+eq+'b+c'", "odata-accept-forms-encoding", "true");
+    assertEquals(1, cache.getHitCount());
+    assertEquals("'b c'", ((BinaryExpression) second.getFilter().getExpression()).getRightOperand().getUriLiteral());
+  }
+
+  private FilterExpression parseWithoutCache(final String filter) throws Exception {
+    return new UriParserImpl(edm).parseFilterString(edm.getEntityType("RefScenario", "Employee"), filter);
+  }
+
+  private static String toJson(final FilterExpression filter) throws Exception {
+    return (String) filter.accept(new JsonVisitor());
+  }
+
+  @Test
+  public void parametersAreParsedPerRequest() throws Exception {
+    final UriInfoImpl first = parse("EmployeeSearch", "q", "'a'", "custom", "1");
+    final UriInfoImpl second = parse("EmployeeSearch");
+    assertEquals(1, cache.getHitCount());
+    assertEquals("a", first.getFunctionImportParameters().get("q").getLiteral());
+    assertEquals("1", first.getCustomQueryOptions().get("custom"));
+    assertTrue(second.getFunctionImportParameters().isEmpty());
+    assertTrue(second.getCustomQueryOptions().isEmpty());
+  }
+
+  @Test
+  public void resultsAreIndependent() throws Exception {
+    final UriInfoImpl first = parse("Employees('1')/ne_Room/nr_Employees", "$select", "EmployeeName");
+    final UriInfoImpl second = parse("Employees('1')/ne_Room/nr_Employees", "$select", "EmployeeName");
+    assertNotSame(first, second);
+    assertNotSame(first.getNavigationSegments(), second.getNavigationSegments());
+    second.setTargetEntitySet(null);
+    assertEquals("Employees", first.getTargetEntitySet().getName());
+    assertSame(first.getSelect(), second.getSelect());
+  }
+
+  @Test
+  public void invalidKeyWithCachedShape() throws Exception {
+    parse("Employees('1')");
+    try {
+      parse("Employees(1)");
+      fail("Expected UriSyntaxException not thrown");
+    } catch (UriSyntaxException e) {
+      assertEquals(UriSyntaxException.INCOMPATIBLELITERAL.getKey(), e.getMessageReference().getKey());
+    }
+  }
+
+  @Test
+  public void modelsWhichAreNotFrozenAreNotCached() throws Exception {
+    edm = new EdmImplProv(new EdmTestProvider());
+    parse("Employees('1')");
+    parse("Employees('1')");
+    assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() throws Exception {
+    UriParserCache smallCache = new UriParserCache(2);
+    for (final String shape : Arrays.asList("a", "b", "a", "c")) {
+      if (smallCache.get(edm, shape) == null) {
+        smallCache.put(edm, shape, new UriInfoImpl());
+      }
+    }
+    assertEquals(2, smallCache.size());
+    assertFalse(smallCache.get(edm, "a") == null);
+    assertNull(smallCache.get(edm, "b"));
+  }
+}
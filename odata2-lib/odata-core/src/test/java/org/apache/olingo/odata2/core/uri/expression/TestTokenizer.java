@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.uri.expression;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import org.apache.commons.codec.DecoderException;
@@ -155,6 +156,30 @@ public class TestTokenizer {
 
   }
 
+  @Test
+  public void tokenizeKeywordsAndPrefixes() throws Exception {
+    getTT("substringof ('a',b)").at(0).aKind(TokenKind.LITERAL).aUriLiteral("substringof")
+        .at(1).aKind(TokenKind.OPENPAREN).aPosition(12);
+    getTT("substringx(a)").at(0).aKind(TokenKind.LITERAL).aUriLiteral("substringx");
+    getTT("datetimeoffset'2011-01-12T00:00:00Z' or time'PT1H'").at(0).aKind(TokenKind.SIMPLE_TYPE)
+        .aUriLiteral("datetimeoffset'2011-01-12T00:00:00Z'").at(1).aUriLiteral("or").aPosition(37)
+        .at(2).aUriLiteral("time'PT1H'").aPosition(40);
+    getTT("order eq 1").at(0).aKind(TokenKind.LITERAL).aUriLiteral("order");
+    getTT("a eq true").at(2).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("true");
+    getTT("\u00e4\ud835\udc00 eq 1").at(0).aKind(TokenKind.LITERAL).aUriLiteral("\u00e4\ud835\udc00");
+  }
+
+  @Test
+  public void tokenizeLongExpression() throws Exception {
+    StringBuilder expression = new StringBuilder("ID eq 0");
+    for (int i = 1; i < 500; i++) {
+      expression.append(" or ID eq ").append(i);
+    }
+    TokenList tokens = new Tokenizer(expression.toString()).tokenize();
+    assertEquals(500 * 4 - 1, tokens.tokenCount());
+    assertEquals(expression.length() - 3, tokens.elementAt(tokens.tokenCount() - 1).getPosition());
+  }
+
   /**
    * Create TokenTool ( and Token list) without respecting whitespaces
    * @param expression Expression to be tokenized
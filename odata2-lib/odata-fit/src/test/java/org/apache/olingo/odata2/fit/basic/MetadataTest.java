@@ -19,14 +19,18 @@
 package org.apache.olingo.odata2.fit.basic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.net.URI;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -42,6 +46,8 @@ import org.junit.Test;
  */
 public class MetadataTest extends AbstractBasicTest {
 
+  private static final String METADATA_ETAG = "\"0123456789abcdef\"";
+
   public MetadataTest(final ServletType servletType) {
     super(servletType);
   }
@@ -50,7 +56,7 @@ public class MetadataTest extends AbstractBasicTest {
   protected ODataSingleProcessor createProcessor() throws ODataException {
     final ODataSingleProcessor processor = mock(ODataSingleProcessor.class);
     when(((MetadataProcessor) processor).readMetadata(any(GetMetadataUriInfo.class), any(String.class))).thenReturn(
-        ODataResponse.entity("metadata").status(HttpStatusCodes.OK).build());
+        ODataResponse.entity("metadata").status(HttpStatusCodes.OK).eTag(METADATA_ETAG).build());
     return processor;
   }
 
@@ -71,4 +77,23 @@ public class MetadataTest extends AbstractBasicTest {
     final String payload = StringHelper.inputStreamToString(response.getEntity().getContent());
     assertEquals("metadata", payload);
   }
+
+  @Test
+  public void readMetadataNotModified() throws Exception {
+    HttpGet getRequest = new HttpGet(URI.create(getEndpoint().toString() + "$metadata"));
+    getRequest.setHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + METADATA_ETAG);
+    final HttpResponse response = getHttpClient().execute(getRequest);
+    assertEquals(HttpStatusCodes.NOT_MODIFIED.getStatusCode(), response.getStatusLine().getStatusCode());
+    assertEquals(METADATA_ETAG, response.getFirstHeader(HttpHeaders.ETAG).getValue());
+    assertNull(response.getEntity());
+  }
+
+  @Test
+  public void readMetadataModified() throws Exception {
+    HttpGet getRequest = new HttpGet(URI.create(getEndpoint().toString() + "$metadata"));
+    getRequest.setHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+    final HttpResponse response = getHttpClient().execute(getRequest);
+    assertEquals(HttpStatusCodes.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+    assertEquals("metadata", StringHelper.inputStreamToString(response.getEntity().getContent()));
+  }
 }
@@ -22,8 +22,10 @@ import org.apache.olingo.odata2.api.ODataCallback;
 import org.apache.olingo.odata2.api.ODataDebugCallback;
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
 import org.apache.olingo.odata2.ref.edm.ScenarioEdmProvider;
 import org.apache.olingo.odata2.ref.model.DataContainer;
 
@@ -32,16 +34,26 @@ import org.apache.olingo.odata2.ref.model.DataContainer;
  */
 public class ScenarioServiceFactory extends ODataServiceFactory {
 
+  /** The entity data model is built once and shared by all requests. */
+  private static Edm edm;
+
   @Override
   public ODataService createService(final ODataContext context) throws ODataException {
     DataContainer dataContainer = new DataContainer();
     dataContainer.reset();
 
     return createODataSingleProcessorService(
-        new ScenarioEdmProvider(),
+        getEdm(),
         new ListsProcessor(new ScenarioDataSource(dataContainer)));
   }
 
+  private static synchronized Edm getEdm() throws ODataException {
+    if (edm == null) {
+      edm = RuntimeDelegate.createFrozenEdm(new ScenarioEdmProvider());
+    }
+    return edm;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <T extends ODataCallback> T getCallback(final Class<T> callbackInterface) {